@@ -57,6 +57,8 @@ import org.apache.sysml.hops.HopsException;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.hops.OptimizerUtils.OptimizationLevel;
 import org.apache.sysml.hops.codegen.SpoofCompiler;
+import org.apache.sysml.hops.codegen.SpoofCompiler.CompilerType;
+import org.apache.sysml.hops.codegen.template.CPlanMemoTable.PlanSelection;
 import org.apache.sysml.hops.globalopt.GlobalOptimizerWrapper;
 import org.apache.sysml.lops.Lop;
 import org.apache.sysml.lops.LopsException;
@@ -88,6 +90,7 @@ import org.apache.sysml.utils.Explain.ExplainCounts;
 import org.apache.sysml.utils.Explain.ExplainType;
 import org.apache.sysml.utils.GPUStatistics;
 import org.apache.sysml.utils.Statistics;
+import org.apache.sysml.utils.Statistics.CompilePhase;
 import org.apache.sysml.yarn.DMLAppMasterUtils;
 import org.apache.sysml.yarn.DMLYarnClientProxy;
 
@@ -580,8 +583,10 @@ public class DMLScript
 		
 		//Step 3: parse dml script
 		Statistics.startCompileTimer();
+		long t0 = System.nanoTime();
 		AParserWrapper parser = AParserWrapper.createParser(parsePyDML);
 		DMLProgram prog = parser.parse(DML_FILE_PATH_ANTLR_PARSER, dmlScriptStr, argVals);
+		Statistics.incrementCompileTime(CompilePhase.PARSE, System.nanoTime()-t0);
 		
 		//Step 4: construct HOP DAGs (incl LVA, validate, and setup)
 		DMLTranslator dmlt = new DMLTranslator(prog);
@@ -599,6 +604,11 @@ public class DMLScript
 		if( dmlconf.getBooleanValue(DMLConfig.CODEGEN) ){
 			SpoofCompiler.USE_PLAN_CACHE = dmlconf.getBooleanValue(DMLConfig.CODEGEN_PLANCACHE);
 			SpoofCompiler.ALWAYS_COMPILE_LITERALS = (dmlconf.getIntValue(DMLConfig.CODEGEN_LITERALS)==2);
+			SpoofCompiler.JAVA_COMPILER = CompilerType.valueOf(
+				dmlconf.getTextValue(DMLConfig.CODEGEN_COMPILER).toUpperCase());
+			SpoofCompiler.CLASS_CACHE_DIR = dmlconf.getTextValue(DMLConfig.CODEGEN_CLASSCACHE);
+			SpoofCompiler.PLAN_SEL_POLICY = PlanSelection.valueOf(
+				dmlconf.getTextValue(DMLConfig.CODEGEN_OPTIMIZER).toUpperCase());
 			
 			dmlt.codgenHopsDAG(prog);
 		}
@@ -637,4 +637,23 @@ public class Connection implements Closeable
 	public FrameBlock readTransformMetaDataFromPath(String spec, String metapath, String colDelim) throws IOException {
 		return TfMetaUtils.readTransformMetaDataFromPath(spec, metapath, colDelim);
 	}
+	
+	////////////////////////////////////////////
+	// Prepare transform encoders
+	////////////////////////////////////////////
+	
+	/**
+	 * Prepares a reusable and thread-safe transform encoder from a transform
+	 * specification and transform meta data (e.g., obtained via 
+	 * readTransformMetaDataFromFile), which applies the transformation to 
+	 * individual rows or small batches without script execution.
+	 * 
+	 * @param spec  transform specification as json string
+	 * @param meta  FrameBlock object representing transform metadata
+	 * @return PreparedTransformEncoder object
+	 * @throws DMLException if DMLException occurs
+	 */
+	public PreparedTransformEncoder prepareTransformEncoder(String spec, FrameBlock meta) throws DMLException {
+		return new PreparedTransformEncoder(spec, meta);
+	}
 }
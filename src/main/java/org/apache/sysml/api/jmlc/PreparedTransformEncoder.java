@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.api.jmlc;
+
+import java.util.Arrays;
+
+import org.apache.sysml.api.DMLException;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.transform.BinAgent;
+import org.apache.sysml.runtime.transform.DummycodeAgent;
+import org.apache.sysml.runtime.transform.MVImputeAgent;
+import org.apache.sysml.runtime.transform.OmitAgent;
+import org.apache.sysml.runtime.transform.RecodeAgent;
+import org.apache.sysml.runtime.transform.encode.Encoder;
+import org.apache.sysml.runtime.transform.encode.EncoderComposite;
+import org.apache.sysml.runtime.transform.encode.EncoderFactory;
+import org.apache.sysml.runtime.transform.encode.EncoderFeatureHash;
+import org.apache.sysml.runtime.util.StringIntHashMap;
+
+/**
+ * Representation of a prepared (precompiled) transform encoder, created once 
+ * from a transform specification and transform meta data, which applies the 
+ * transformation (equivalent to transformapply) directly to rows of string 
+ * tokens without intermediate frames. Feature hashing requires no meta data
+ * beyond the transform specification. After construction, the encoder is 
+ * read-only and hence can be shared across threads.
+ */
+public class PreparedTransformEncoder 
+{
+	private enum ColumnType {
+		PASS_THROUGH,
+		RECODE,
+		HASH,
+		BIN,
+	}
+	
+	//number of input and output columns
+	private final int _clen;
+	private final int _ncol;
+	
+	//compiled column encoders (per input column)
+	private final ColumnType[] _types;
+	private final StringIntHashMap[] _rcMaps;
+	private final int[] _hashK;
+	private final double[][] _binMaxs;
+	private final double[] _mvValues;
+	private final int[] _domainSizes; //0 if not dummycoded
+	private final int[] _outPos;
+	
+	/**
+	 * Meant to be invoked only from Connection.
+	 * 
+	 * @param spec transform specification as json string
+	 * @param meta transform meta data
+	 * @throws DMLException if the specification or meta data is invalid
+	 */
+	protected PreparedTransformEncoder(String spec, FrameBlock meta) 
+		throws DMLException 
+	{
+		//create and initialize encoders from spec and meta data once
+		Encoder encoder = EncoderFactory.createEncoder(
+			spec, meta.getColumnNames(), meta.getNumColumns(), meta);
+		
+		_clen = meta.getNumColumns();
+		_types = new ColumnType[_clen];
+		_rcMaps = new StringIntHashMap[_clen];
+		_hashK = new int[_clen];
+		_binMaxs = new double[_clen][];
+		_mvValues = new double[_clen];
+		_domainSizes = new int[_clen];
+		_outPos = new int[_clen];
+		Arrays.fill(_types, ColumnType.PASS_THROUGH);
+		Arrays.fill(_mvValues, Double.NaN);
+		
+		//compile column encoders from the individual encoders
+		for( Encoder cEncoder : ((EncoderComposite)encoder).getEncoders() ) {
+			if( cEncoder instanceof OmitAgent && cEncoder.isApplicable() )
+				throw new DMLException("Transform omit not supported by prepared transform encoders.");
+			for( int j=0; j<_clen; j++ ) {
+				if( cEncoder.isApplicable(j+1) < 0 )
+					continue;
+				if( cEncoder instanceof RecodeAgent ) {
+					_types[j] = ColumnType.RECODE;
+					_rcMaps[j] = ((RecodeAgent)cEncoder).getRecodeMap(j+1);
+					if( _rcMaps[j] == null )
+						throw new DMLException("Missing recode map for column "+(j+1)+".");
+				}
+				else if( cEncoder instanceof EncoderFeatureHash ) {
+					_types[j] = ColumnType.HASH;
+					_hashK[j] = ((EncoderFeatureHash)cEncoder).getK();
+				}
+				else if( cEncoder instanceof BinAgent ) {
+					_types[j] = ColumnType.BIN;
+					_binMaxs[j] = ((BinAgent)cEncoder).getBinMaxs(j+1);
+				}
+				else if( cEncoder instanceof DummycodeAgent )
+					_domainSizes[j] = ((DummycodeAgent)cEncoder).getDomainSize(j+1);
+				else if( cEncoder instanceof MVImputeAgent ) {
+					//note: replacements of recoded columns are already recoded
+					String mvVal = ((MVImputeAgent)cEncoder).getReplacement(j+1);
+					if( mvVal != null )
+						_mvValues[j] = Double.parseDouble(mvVal);
+				}
+			}
+		}
+		
+		//compute output column positions (dummycoding)
+		int pos = 0;
+		for( int j=0; j<_clen; j++ ) {
+			_outPos[j] = pos;
+			pos += (_domainSizes[j] > 0) ? _domainSizes[j] : 1;
+		}
+		_ncol = pos;
+	}
+	
+	/**
+	 * Obtain the number of input columns, i.e., the expected row length.
+	 * 
+	 * @return number of input columns
+	 */
+	public int getNumInputCols() {
+		return _clen;
+	}
+	
+	/**
+	 * Obtain the number of output columns (after dummycoding).
+	 * 
+	 * @return number of output columns
+	 */
+	public int getNumOutputCols() {
+		return _ncol;
+	}
+	
+	/**
+	 * Applies the transformation to a single row of string tokens.
+	 * 
+	 * @param row input row of string tokens (null or empty for missing values)
+	 * @return output row of encoded values
+	 * @throws DMLException if the row cannot be encoded
+	 */
+	public double[] apply(String[] row) throws DMLException {
+		double[] ret = new double[_ncol];
+		apply(row, ret, 0);
+		return ret;
+	}
+	
+	/**
+	 * Applies the transformation to a single row of string tokens, and writes 
+	 * the encoded values into the caller-provided output array.
+	 * 
+	 * @param row input row of string tokens (null or empty for missing values)
+	 * @param out output array
+	 * @param off offset of the encoded row in the output array
+	 * @throws DMLException if the row cannot be encoded
+	 */
+	public void apply(String[] row, double[] out, int off) throws DMLException {
+		if( row.length != _clen )
+			throw new DMLRuntimeException("Invalid row length: "+row.length+" (expected "+_clen+").");
+		
+		for( int j=0; j<_clen; j++ ) {
+			String token = row[j];
+			double val = (_types[j] == ColumnType.RECODE) ? 
+				lookupCode(j, (token != null) ? _rcMaps[j].get(token) : -1) :
+				encodeToken(j, token);
+			output(j, val, out, off);
+		}
+	}
+	
+	/**
+	 * Applies the transformation to a single delimited row (e.g., a line of a
+	 * csv file) given as a region of a character buffer, and writes the encoded
+	 * values into the caller-provided output array. Recoded tokens are looked up 
+	 * directly from the character buffer without creating temporary strings. 
+	 * Tokens may be enclosed in double quotes but must not contain the delimiter.
+	 * 
+	 * @param line character buffer of the input row
+	 * @param loff offset of the row in the character buffer
+	 * @param llen length of the row
+	 * @param delim delimiter of tokens
+	 * @param out output array
+	 * @param off offset of the encoded row in the output array
+	 * @throws DMLException if the row cannot be encoded
+	 */
+	public void apply(char[] line, int loff, int llen, char delim, double[] out, int off) 
+		throws DMLException 
+	{
+		int pos = loff, end = loff + llen;
+		for( int j=0; j<_clen; j++ ) {
+			if( pos > end )
+				throw new DMLRuntimeException("Invalid row length: "+j+" (expected "+_clen+").");
+			
+			//find token boundaries and strip enclosing quotes
+			int tend = pos;
+			while( tend < end && line[tend] != delim )
+				tend++;
+			int tl = pos, tu = tend;
+			if( tu-tl >= 2 && line[tl] == '"' && line[tu-1] == '"' ) {
+				tl++; tu--;
+			}
+			
+			double val = (_types[j] == ColumnType.RECODE) ? 
+				lookupCode(j, _rcMaps[j].get(line, tl, tu-tl)) :
+				encodeToken(j, new String(line, tl, tu-tl));
+			output(j, val, out, off);
+			pos = tend + 1;
+		}
+		if( pos <= end )
+			throw new DMLRuntimeException("Invalid row length: more than "+_clen+" tokens.");
+	}
+	
+	private double lookupCode(int j, int code) {
+		//replace unseen tokens w/ missing value imputation
+		return (code >= 0) ? code : _mvValues[j];
+	}
+	
+	private double encodeToken(int j, String token) {
+		double val = 0;
+		
+		//hash, bin, or pass-through
+		switch( _types[j] ) {
+			case HASH:
+				val = EncoderFeatureHash.getCode(token, _hashK[j]);
+				break;
+			case BIN: {
+				double inVal = (token != null && !token.isEmpty()) ? 
+					Double.parseDouble(token) : 0;
+				int ix = Arrays.binarySearch(_binMaxs[j], inVal);
+				val = ((ix < 0) ? Math.abs(ix+1) : ix) + 1;
+				break;
+			}
+			default:
+				val = (token != null && !token.isEmpty()) ? 
+					Double.parseDouble(token) : Double.NaN;
+		}
+		
+		//missing value imputation
+		return Double.isNaN(val) ? _mvValues[j] : val;
+	}
+	
+	private void output(int j, double val, double[] out, int off) {
+		//dummycoding (all-zero vector for invalid codes) or direct output
+		int pos = off + _outPos[j];
+		if( _domainSizes[j] > 0 ) {
+			Arrays.fill(out, pos, pos+_domainSizes[j], 0);
+			if( DummycodeAgent.isValidCode(val, _domainSizes[j]) )
+				out[pos+(int)val-1] = 1;
+		}
+		else
+			out[pos] = val;
+	}
+	
+	/**
+	 * Applies the transformation to a small batch of rows of string tokens,
+	 * and writes the encoded values into the given output matrix block.
+	 * 
+	 * @param rows input rows of string tokens (null or empty for missing values)
+	 * @param out output matrix block (reused), or null to allocate a new one
+	 * @return output matrix block in dense format
+	 * @throws DMLException if any row cannot be encoded
+	 */
+	public MatrixBlock apply(String[][] rows, MatrixBlock out) throws DMLException {
+		if( out == null )
+			out = new MatrixBlock(rows.length, _ncol, false);
+		else
+			out.reset(rows.length, _ncol, false);
+		out.allocateDenseBlock();
+		
+		//encode rows directly into the dense block
+		double[] a = out.getDenseBlock();
+		for( int i=0; i<rows.length; i++ )
+			apply(rows[i], a, i*_ncol);
+		out.recomputeNonZeros();
+		
+		return out;
+	}
+}
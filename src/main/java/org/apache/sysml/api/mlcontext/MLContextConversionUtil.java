@@ -430,9 +430,10 @@ public class MLContextConversionUtil {
 		//get spark context
 		JavaSparkContext sc = MLContextUtil.getJavaSparkContext((MLContext) MLContextProxy.getActiveMLContextForAPI());
 
-		//convert data frame to binary block matrix
+		//convert data frame to binary block matrix (in bulk over internal rows if supported)
+		boolean internal = RDDConverterUtils.isInternalRowConvertible(dataFrame.schema(), containsID, isVector);
 		JavaPairRDD<MatrixIndexes,MatrixBlock> out = RDDConverterUtils
-				.dataFrameToBinaryBlock(sc, dataFrame, mc, containsID, isVector);
+				.dataFrameToBinaryBlock(sc, dataFrame, mc, containsID, isVector, internal);
 		
 		//update determined matrix characteristics
 		if( matrixMetadata != null )
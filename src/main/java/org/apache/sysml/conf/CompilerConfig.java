@@ -63,6 +63,9 @@ public class CompilerConfig
 		//filenames and other relevant read meta data. Disabled for jmlc to allow binding of 
 		//in-memory objects without specifying read properties.
 		ALLOW_CSE_PERSISTENT_READS,
+		//Enables the parallel compilation of independent functions and top-level 
+		//statement blocks (see OptimizerUtils.ALLOW_PARALLEL_COMPILATION).
+		PARALLEL_COMPILATION,
 		
 		//Global parser configuration (dml/pydml) to skip errors on unspecified args 
 		// (modified by mlcontext / jmlc)
@@ -94,6 +97,7 @@ public class CompilerConfig
 		_bmap.put(ConfigType.ALLOW_PARALLEL_DYN_RECOMPILATION, FLAG_DYN_RECOMPILE);
 		_bmap.put(ConfigType.ALLOW_INDIVIDUAL_SB_SPECIFIC_OPS, FLAG_DYN_RECOMPILE);
 		_bmap.put(ConfigType.ALLOW_CSE_PERSISTENT_READS, true);
+		_bmap.put(ConfigType.PARALLEL_COMPILATION, true);
 		_bmap.put(ConfigType.IGNORE_UNSPECIFIED_ARGS, false);
 		_bmap.put(ConfigType.IGNORE_READ_WRITE_METADATA, false);
 		_bmap.put(ConfigType.REJECT_READ_WRITE_UNKNOWNS, true);
@@ -178,6 +178,14 @@ public class ConfigurationManager
 		return getCompilerConfigFlag(ConfigType.PARALLEL_LOCAL_OR_REMOTE_PARFOR);
 	}
 	
+	public static boolean isAdaptiveSpark() {
+		return getDMLConfig().getBooleanValue(DMLConfig.SPARK_ADAPTIVE);
+	}
+	
+	public static int getSparkAggTreeDepth() {
+		return getDMLConfig().getIntValue(DMLConfig.SPARK_AGG_TREE_DEPTH);
+	}
+	
 	
 	///////////////////////////////////////
 	// Thread-local classes
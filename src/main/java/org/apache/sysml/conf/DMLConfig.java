@@ -70,10 +70,17 @@ public class DMLConfig
 	public static final String YARN_APPQUEUE        = "dml.yarn.app.queue"; 
 	public static final String CP_PARALLEL_MATRIXMULT = "cp.parallel.matrixmult";
 	public static final String CP_PARALLEL_TEXTIO   = "cp.parallel.textio";
+	public static final String CP_PARALLEL_COMPILE  = "cp.parallel.compile"; //boolean
 	public static final String COMPRESSED_LINALG    = "compressed.linalg";
+	public static final String CHECKPOINT_STORAGE   = "spark.checkpoint.storage"; //default, serialized, compressed, offheap
+	public static final String SPARK_ADAPTIVE       = "spark.adaptive"; //boolean
+	public static final String SPARK_AGG_TREE_DEPTH = "spark.agg.treedepth"; //int, <=1 disables tree aggregation
 	public static final String CODEGEN              = "codegen.enabled"; //boolean
 	public static final String CODEGEN_PLANCACHE    = "codegen.plancache"; //boolean
 	public static final String CODEGEN_LITERALS     = "codegen.literals"; //1..heuristic, 2..always
+	public static final String CODEGEN_COMPILER     = "codegen.compiler"; //janino, javac
+	public static final String CODEGEN_CLASSCACHE   = "codegen.classcache"; //local dir, empty..disabled
+	public static final String CODEGEN_OPTIMIZER    = "codegen.optimizer"; //fuse_all, fuse_no_redundancy, fuse_cost_based
 	public static final String EXTRA_GPU_STATS			= "systemml.stats.extraGPU"; //boolean
 	public static final String EXTRA_DNN_STATS			= "systemml.stats.extraDNN"; //boolean
 
@@ -112,10 +119,17 @@ public class DMLConfig
 		_defaultVals.put(YARN_APPQUEUE,    	     "default" );
 		_defaultVals.put(CP_PARALLEL_MATRIXMULT, "true" );
 		_defaultVals.put(CP_PARALLEL_TEXTIO,     "true" );
+		_defaultVals.put(CP_PARALLEL_COMPILE,    "true" );
 		_defaultVals.put(COMPRESSED_LINALG,      "false" );
+		_defaultVals.put(CHECKPOINT_STORAGE,     "default" );
+		_defaultVals.put(SPARK_ADAPTIVE,         "false" );
+		_defaultVals.put(SPARK_AGG_TREE_DEPTH,   "2" );
 		_defaultVals.put(CODEGEN,                "false" );
 		_defaultVals.put(CODEGEN_PLANCACHE,      "true" );
 		_defaultVals.put(CODEGEN_LITERALS,       "1" );
+		_defaultVals.put(CODEGEN_COMPILER,       "janino" );
+		_defaultVals.put(CODEGEN_CLASSCACHE,     "" );
+		_defaultVals.put(CODEGEN_OPTIMIZER,      "fuse_all" );
 
 		_defaultVals.put(EXTRA_GPU_STATS,       "false" );
 		_defaultVals.put(EXTRA_DNN_STATS,       "false" );
@@ -238,7 +252,8 @@ public class DMLConfig
 		NodeList list = element.getElementsByTagName(tagName);
 		if (list != null && list.getLength() > 0) {
 			Element elem = (Element) list.item(0);
-			textVal = elem.getFirstChild().getNodeValue();
+			textVal = (elem.getFirstChild() != null) ? //robustness empty
+				elem.getFirstChild().getNodeValue() : "";
 			
 		}
 		return textVal;
@@ -405,8 +420,9 @@ public class DMLConfig
 				LOCAL_TMP_DIR,SCRATCH_SPACE,OPTIMIZATION_LEVEL,
 				NUM_REDUCERS, DEFAULT_BLOCK_SIZE,
 				YARN_APPMASTER, YARN_APPMASTERMEM, YARN_MAPREDUCEMEM, 
-				CP_PARALLEL_MATRIXMULT, CP_PARALLEL_TEXTIO,
-				COMPRESSED_LINALG, CODEGEN, CODEGEN_LITERALS, CODEGEN_PLANCACHE,
+				CP_PARALLEL_MATRIXMULT, CP_PARALLEL_TEXTIO, CP_PARALLEL_COMPILE,
+				COMPRESSED_LINALG, CHECKPOINT_STORAGE, SPARK_ADAPTIVE, SPARK_AGG_TREE_DEPTH, CODEGEN, CODEGEN_LITERALS, CODEGEN_PLANCACHE,
+				CODEGEN_COMPILER, CODEGEN_CLASSCACHE, CODEGEN_OPTIMIZER,
 				EXTRA_GPU_STATS, EXTRA_DNN_STATS
 		}; 
 		
@@ -22,6 +22,7 @@ package org.apache.sysml.hops;
 import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
 import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.hops.Hop.DataOpTypes;
 import org.apache.sysml.hops.rewrite.HopRewriteUtils;
 import org.apache.sysml.lops.Aggregate;
 import org.apache.sysml.lops.Binary;
@@ -32,6 +33,7 @@ import org.apache.sysml.lops.Lop;
 import org.apache.sysml.lops.LopProperties.ExecType;
 import org.apache.sysml.lops.LopsException;
 import org.apache.sysml.lops.MMCJ;
+import org.apache.sysml.lops.MMCoPart;
 import org.apache.sysml.lops.MMRJ;
 import org.apache.sysml.lops.MMTSJ;
 import org.apache.sysml.lops.MMCJ.MMCJType;
@@ -67,7 +69,9 @@ import org.apache.sysml.runtime.matrix.mapred.MMCJMRReducerWithAggregator;
 public class AggBinaryOp extends Hop implements MultiThreadedHop
 {
 	public static final double MAPMULT_MEM_MULTIPLIER = 1.0;
+	public static final double COPARTITION_BROADCAST_FRACTION = 0.1; //min vector size for copmm w/ fitting broadcast
 	public static MMultMethod FORCED_MMULT_METHOD = null;
+	public static boolean FORCED_MMCHAIN_COPART_W = false; //spark mmchain w/ co-partitioned weights
 
 	public enum MMultMethod { 
 		CPMM,     //cross-product matrix multiplication (mr)
@@ -80,6 +84,7 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		TSMM,     //transpose-self matrix multiplication (cp/mr/sp)
 		TSMM2,    //transpose-self matrix multiplication, 2-pass w/o shuffle (sp)
 		ZIPMM,    //zip matrix multiplication (sp)
+		COPMM,    //co-partitioned matrix-vector multiplication w/o broadcast (sp)
 		MM        //in-memory matrix multiplication (cp)
 	};
 	
@@ -98,6 +103,13 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 	private boolean _hasLeftPMInput = false; //left input is permutation matrix
 	private int _maxNumThreads = -1; //-1 for unlimited
 	
+	//spark mmchain w/ co-partitioned instead of broadcast weights
+	private boolean _mmchainCoPartW = false;
+	
+	//output sparsity estimate from actual input blocks if sparse output, otherwise -1
+	//(see dynamic recompilation and SparsityEstimator.estimSparseOutput)
+	private double _estSparsity = -1;
+	
 	private AggBinaryOp() {
 		//default constructor for clone
 	}
@@ -134,6 +146,14 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		return _maxNumThreads;
 	}
 	
+	public void setSparsityEstimate(double sp) {
+		_estSparsity = sp;
+	}
+	
+	public double getSparsityEstimate() {
+		return _estSparsity;
+	}
+	
 	public MMultMethod getMMultMethod(){
 		return _method;
 	}
@@ -226,6 +246,9 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 					case ZIPMM:
 						constructSparkLopsZIPMM(); 
 						break;
+					case COPMM:
+						constructSparkLopsCOPMM(); 
+						break;
 						
 					default:
 						throw new HopsException(this.printErrorLocation() + "Invalid Matrix Mult Method (" + _method + ") while constructing SPARK lops.");	
@@ -311,7 +334,11 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		// * All matrix multiplications internally use dense output representations for efficiency.
 		//   This is reflected in our conservative memory estimate. However, we additionally need 
 		//   to account for potential final dense/sparse transformations via processing mem estimates.
-		double sparsity = 1.0;
+		// * Sparse-sparse matrix multiplications with expected sparse output directly produce sparse
+		//   outputs, for which we use the sparsity estimate obtained from the actual input blocks
+		//   with a safety margin, bounded by the worst-case output sparsity.
+		double sparsity = isSparseOutputMatrixMultiply(dim1, dim2) ? 
+			getSparseOutputMemSparsity(dim1, dim2) : 1.0;
 		/*
 		if( isMatrixMultiply() ) {	
 			if( nnz < 0 ){
@@ -365,6 +392,28 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 	}
 	
 
+	private boolean isSparseOutputMatrixMultiply(long dim1, long dim2) {
+		//estimate only set for sparse outputs, via the same decision
+		//as the sparse-sparse matrix mult kernel selection
+		return isMatrixMultiply() && _estSparsity >= 0 && dim1 > 1 && dim2 > 1;
+	}
+	
+	private double getSparseOutputMemSparsity(long dim1, long dim2) {
+		//point estimate w/ safety margin to account for estimation errors
+		double sparsity = Math.min(1, _estSparsity * OptimizerUtils.SPARSITY_ESTIMATE_MARGIN);
+		
+		//upper bound by worst-case output sparsity (if input nnz known)
+		Hop input1 = getInput().get(0);
+		Hop input2 = getInput().get(1);
+		if( input1.dimsKnown(true) && input2.dimsKnown(true) ) {
+			double sp1 = OptimizerUtils.getSparsity(input1.getDim1(), input1.getDim2(), input1.getNnz());
+			double sp2 = OptimizerUtils.getSparsity(input2.getDim1(), input2.getDim2(), input2.getNnz());
+			sparsity = Math.min(sparsity, OptimizerUtils.getMatMultSparsity(
+				sp1, sp2, dim1, input1.getDim2(), dim2, true));
+		}
+		return sparsity;
+	}
+	
 	public boolean isMatrixMultiply() {
 		return ( this.innerOp == OpOp2.MULT && this.outerOp == AggOp.SUM );			
 	}
@@ -773,6 +822,7 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 			Hop hw = getInput().get(1).getInput().get(wix);
 			Hop hv = getInput().get(1).getInput().get(vix).getInput().get(1);
 			mapmmchain = new MapMultChain( hX.constructLops(), hv.constructLops(), hw.constructLops(), chain, getDataType(), getValueType(), ExecType.SPARK);
+			mapmmchain.setCoPartitionedWeights(_mmchainCoPartW);
 		}
 		setOutputDimensions(mapmmchain);
 		setLineNumbers(mapmmchain);
@@ -924,6 +974,18 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		setLops(zipmm);
 	}
 	
+	private void constructSparkLopsCOPMM() 
+		throws HopsException, LopsException
+	{
+		//copmm applies to X%*%v if v is a (large) vector, and it prevents broadcasts
+		//by joining v with co-partitioned X (partitioned once, if X is a checkpoint)
+		Lop copmm = new MMCoPart(getInput().get(0).constructLops(), 
+			getInput().get(1).constructLops(), getDataType(), getValueType(), ExecType.SPARK);
+		setOutputDimensions(copmm);
+		setLineNumbers( copmm );
+		setLops(copmm);
+	}
+	
 	//////////////////////////
 	// MR Lops generation
 	/////////////////////////
@@ -1625,6 +1687,7 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		//reset spark broadcast memory information (for concurrent parfor jobs, awareness of additional 
 		//cp memory requirements on spark rdd operations with broadcasts)
 		_spBroadcastMemEstimate = 0;
+		_mmchainCoPartW = false;
 		
 		// Step 0: check for forced mmultmethod
 		if( FORCED_MMULT_METHOD !=null )
@@ -1655,15 +1718,22 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 					return MMultMethod.MAPMM_CHAIN;
 				}
 				else if( (chainType==ChainType.XtwXv || chainType==ChainType.XtXvy ) 
-					&& m1_rows>=0 && m2_cols>=0 && m1_cols>=0
-					&&   OptimizerUtils.estimateSize(m1_rows, m2_cols) 
-					   + OptimizerUtils.estimateSize(m1_cols, m2_cols) < memBudgetExec
-					&& 2*(OptimizerUtils.estimateSize(m1_rows, m2_cols) 
-					   + OptimizerUtils.estimateSize(m1_cols, m2_cols)) < memBudgetLocal )
+					&& m1_rows>=0 && m2_cols>=0 && m1_cols>=0 )
 				{
-					_spBroadcastMemEstimate = 2*(OptimizerUtils.estimateSize(m1_rows, m2_cols) 
-							   				   + OptimizerUtils.estimateSize(m1_cols, m2_cols));
-					return MMultMethod.MAPMM_CHAIN;
+					double vSize = OptimizerUtils.estimateSize(m1_rows, m2_cols);
+					double wSize = OptimizerUtils.estimateSize(m1_cols, m2_cols);
+					Hop X = getInput().get(0).getInput().get(0);
+					if( vSize + wSize < memBudgetExec && 2*(vSize + wSize) < memBudgetLocal
+						&& !isCoPartitioningPreferred(X, wSize, memBudgetExec) && !FORCED_MMCHAIN_COPART_W ) {
+						_spBroadcastMemEstimate = 2*(vSize + wSize);
+						return MMultMethod.MAPMM_CHAIN;
+					}
+					//mapmmchain w/ broadcast v and co-partitioned w (w/o broadcast)
+					else if( vSize < memBudgetExec && 2*vSize < memBudgetLocal ) {
+						_spBroadcastMemEstimate = 2*vSize;
+						_mmchainCoPartW = true;
+						return MMultMethod.MAPMM_CHAIN;
+					}
 				}
 			}
 		}		
@@ -1693,6 +1763,17 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		double footprint1 = getMapmmMemEstimate(m1_rows, m1_cols, m1_rpb, m1_cpb, m1_nnz, m2_rows, m2_cols, m2_rpb, m2_cpb, m2_nnz, 1, false);
 		double footprint2 = getMapmmMemEstimate(m1_rows, m1_cols, m1_rpb, m1_cpb, m1_nnz, m2_rows, m2_cols, m2_rpb, m2_cpb, m2_nnz, 2, false);		
 		
+		//check for copmm if right input is a vector that either does not fit into the
+		//broadcast budget or is large with a read-only left input (iterative algorithms)
+		if( !tmmRewrite && m1_rows>=0 && m1_cols > m1_cpb && m1_cpb == m2_rpb
+			&& m2_cols>=0 && m2_cols <= m2_cpb
+			&& !(footprint1 < memBudgetExec && m1Size+m1SizeP < memBudgetLocal && m1SizeP < m2SizeP)
+			&& (!(footprint2 < memBudgetExec && m2Size+m2SizeP < memBudgetLocal)
+				|| isCoPartitioningPreferred(getInput().get(0), m2SizeP, memBudgetExec)) )
+		{
+			return MMultMethod.COPMM;
+		}
+		
 		if (   (footprint1 < memBudgetExec && m1Size+m1SizeP < memBudgetLocal && m1_rows>=0 && m1_cols>=0)
 			|| (footprint2 < memBudgetExec && m2Size+m2SizeP < memBudgetLocal && m2_rows>=0 && m2_cols>=0) ) 
 		{
@@ -1752,6 +1833,23 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 			return MMultMethod.RMM;
 	}
 
+	/**
+	 * Indicates if a co-partitioned join of a large vector is preferred over its 
+	 * broadcast, even if the vector fits into the broadcast budget. In iterative 
+	 * algorithms (e.g., CG), the vector changes in every iteration, whereas the 
+	 * one-time partitioning of a read-only (checkpointed) matrix X is amortized 
+	 * over all iterations. 
+	 * 
+	 * @param X left input matrix
+	 * @param vSize size of the vector in bytes
+	 * @param memBudgetExec broadcast memory budget
+	 * @return true if co-partitioning is preferred
+	 */
+	private static boolean isCoPartitioningPreferred(Hop X, double vSize, double memBudgetExec) {
+		return X instanceof DataOp && ((DataOp)X).getDataOpType()==DataOpTypes.TRANSIENTREAD
+			&& vSize > COPARTITION_BROADCAST_FRACTION * memBudgetExec;
+	}
+	
 	private static double getRMMCostEstimate( long m1_rows, long m1_cols, long m1_rpb, long m1_cpb, 
 			long m2_rows, long m2_cols, long m2_rpb, long m2_cpb )
 	{
@@ -1836,6 +1934,7 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		ret.outerOp = outerOp;		
 		ret._hasLeftPMInput = _hasLeftPMInput;
 		ret._maxNumThreads = _maxNumThreads;
+		ret._estSparsity = _estSparsity;
 		
 		return ret;
 	}
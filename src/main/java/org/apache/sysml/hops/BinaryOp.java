@@ -465,18 +465,24 @@ public class BinaryOp extends Hop
 		}
 		else //CP/SPARK 
 		{
-			SortKeys sort = SortKeys.constructSortByValueLop(
-								getInput().get(0).constructLops(), 
+			//sort-free spark quantile over unsorted input, otherwise sort and pick
+			boolean sorted = !(isSortFreeQuantile(et) && pick_op == PickByCount.OperationTypes.VALUEPICK
+				&& getInput().get(1).getDataType() == DataType.SCALAR);
+			Lop sort = getInput().get(0).constructLops();
+			if( sorted ) {
+				sort = SortKeys.constructSortByValueLop(
+								sort, 
 								SortKeys.OperationTypes.WithoutWeights, 
 								DataType.MATRIX, ValueType.DOUBLE, et );
-			sort.getOutputParameters().setDimensions(
+				sort.getOutputParameters().setDimensions(
 					getInput().get(0).getDim1(),
 					getInput().get(0).getDim2(),
 					getInput().get(0).getRowsInBlock(),
 					getInput().get(0).getColsInBlock(), 
 					getInput().get(0).getNnz());
+			}
 			PickByCount pick = new PickByCount( sort, getInput().get(1).constructLops(),
-					getDataType(), getValueType(), pick_op, et, true);
+					getDataType(), getValueType(), pick_op, et, true, sorted);
 
 			setOutputDimensions(pick);
 			setLineNumbers(pick);
@@ -29,6 +29,7 @@ import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.lops.CSVReBlock;
 import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.lops.Checkpoint.CheckpointStorage;
 import org.apache.sysml.lops.Compression;
 import org.apache.sysml.lops.Data;
 import org.apache.sysml.lops.Lop;
@@ -42,7 +43,7 @@ import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject.UpdateType;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
-import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
+import org.apache.sysml.runtime.controlprogram.parfor.util.RangeIDSequence;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.util.UtilFunctions;
@@ -64,7 +65,7 @@ public abstract class Hop
 	}
 
 	// static variable to assign an unique ID to every hop that is created
-	private static IDSequence _seqHopID = new IDSequence();
+	private static RangeIDSequence _seqHopID = new RangeIDSequence();
 	
 	protected long _ID;
 	protected String _name;
@@ -131,6 +132,10 @@ public abstract class Hop
 		return _seqHopID.getNextID();
 	}
 	
+	public static RangeIDSequence getHopIDSequence() {
+		return _seqHopID;
+	}
+	
 	public long getHopID() {
 		return _ID;
 	}
@@ -355,11 +360,12 @@ public abstract class Hop
 					setRequiresRecompile();
 				}
 			
-				//construct checkpoint w/ right storage level
+				//construct checkpoint w/ right storage level (and configured storage)
+				CheckpointStorage storage = Checkpoint.getCheckpointStorage();
+				String level = Checkpoint.getStorageLevelString(storage, serializedStorage);
+				boolean compressed = (storage == CheckpointStorage.COMPRESSED && getDataType()==DataType.MATRIX);
 				Lop input = getLops();			
-				Lop chkpoint = new Checkpoint(input, getDataType(), getValueType(), 
-						serializedStorage ? Checkpoint.getSerializeStorageLevelString() :
-								            Checkpoint.getDefaultStorageLevelString() );
+				Lop chkpoint = new Checkpoint(input, getDataType(), getValueType(), level, compressed);
 				
 				setOutputDimensions( chkpoint );
 				setLineNumbers( chkpoint );
@@ -838,6 +844,10 @@ public abstract class Hop
 		return (dimsKnown() && _dim1 <= Hop.CPThreshold && _dim2 <= Hop.CPThreshold );
 	}
 	
+	protected boolean isSortFreeQuantile(ExecType et) {
+		return (et == ExecType.SPARK && OptimizerUtils.ALLOW_SORT_FREE_QUANTILES);
+	}
+	
 	public boolean dimsKnown() {
 		return ( _dataType == DataType.SCALAR 
 			|| ((_dataType==DataType.MATRIX || _dataType==DataType.FRAME) 
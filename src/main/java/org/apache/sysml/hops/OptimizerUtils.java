@@ -32,6 +32,7 @@ import org.apache.sysml.conf.DMLConfig;
 import org.apache.sysml.hops.Hop.DataOpTypes;
 import org.apache.sysml.hops.Hop.FileFormatTypes;
 import org.apache.sysml.hops.Hop.OpOp2;
+import org.apache.sysml.hops.estim.SparsityEstimator.EstimatorType;
 import org.apache.sysml.hops.rewrite.HopRewriteUtils;
 import org.apache.sysml.lops.Checkpoint;
 import org.apache.sysml.lops.Lop;
@@ -50,6 +51,7 @@ import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.OutputInfo;
 import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCCSR;
 import org.apache.sysml.runtime.util.IndexRange;
 import org.apache.sysml.runtime.util.UtilFunctions;
 import org.apache.sysml.yarn.ropt.YarnClusterAnalyzer;
@@ -173,6 +175,56 @@ public class OptimizerUtils
 	 */
 	public static boolean ALLOW_LOOP_UPDATE_IN_PLACE = true;
 	
+	/**
+	 * Enables sort-free spark quantiles, median, and iqm over unweighted inputs, which
+	 * select the requested order statistics via narrow histogram passes over the unsorted 
+	 * input instead of a full distributed sort with shuffle.
+	 */
+	public static boolean ALLOW_SORT_FREE_QUANTILES = true;
+	
+	/**
+	 * Enables skew-aware partitioning for spark shuffles of reblock, cpmm, and
+	 * join-based append and binary operations, which balances partitions by bytes
+	 * according to a histogram of block sizes. Since this requires an additional
+	 * (sampled) pass over non-persisted inputs, it is disabled by default.
+	 */
+	public static boolean ALLOW_SKEW_AWARE_PARTITIONING = false;
+	
+	/**
+	 * Enables the plan cache for dynamic recompilation of statement blocks, which
+	 * reuses previously generated instructions if all DAG inputs have equivalent
+	 * characteristics (e.g., in loops with unchanged sizes).
+	 */
+	public static boolean ALLOW_RECOMPILE_PLAN_CACHE = true;
+	
+	/**
+	 * Enables the parallel compilation of independent compilation units (functions
+	 * and top-level statement blocks) for HOP construction, HOP DAG rewrites, LOP
+	 * construction, and instruction generation. Inter-procedural analysis and
+	 * statement block rewrites are always applied sequentially. Each compilation unit
+	 * draws hop IDs, lop IDs, and variable names from a reserved ID range, which keeps
+	 * the generated plans independent of the thread interleaving. Parallel compilation
+	 * can also be disabled via the configuration property cp.parallel.compile.
+	 */
+	public static boolean ALLOW_PARALLEL_COMPILATION = true;
+	
+	/**
+	 * Specifies the sparsity estimator for matrix products and chains of matrix
+	 * products, which is used for output nnz and memory estimates of matrix
+	 * multiplications during dynamic recompilation (from the actual input blocks),
+	 * the sparsity-aware matrix multiplication chain optimization, and the
+	 * selection of sparse-sparse matrix multiplication kernels.
+	 */
+	public static EstimatorType SPARSITY_ESTIMATOR = EstimatorType.DENSITY_MAP;
+	
+	/**
+	 * Specifies a multiplicative safety margin for the sparsity estimates of sparse
+	 * matrix multiplication outputs in memory estimates, which accounts for errors
+	 * of these point estimates before the selection of CP or distributed operations.
+	 * The resulting sparsity is further bounded by the worst-case output sparsity.
+	 */
+	public static double SPARSITY_ESTIMATE_MARGIN = 1.2;
+	
 	
 	/**
 	 * Specifies a multiplier computing the degree of parallelism of parallel
@@ -373,6 +425,11 @@ public class OptimizerUtils
 			cconf.set(ConfigType.PARALLEL_CP_MATRIX_OPERATIONS, false);
 		}	
 		
+		//handle parallel compilation of functions and statement blocks
+		if (!dmlconf.getBooleanValue(DMLConfig.CP_PARALLEL_COMPILE)) {
+			cconf.set(ConfigType.PARALLEL_COMPILATION, false);
+		}
+		
 		return cconf;
 	}
 
@@ -477,6 +534,21 @@ public class OptimizerUtils
 			&& OptimizerUtils.getSparsity(mcIn) < MatrixBlock.SPARSITY_TURN_POINT;
 	}
 	
+	/**
+	 * Returns the sparse block type of checkpointed blocks, i.e., CSR with
+	 * compact 8-bit column indexes for narrow blocks (at most 256 columns per 
+	 * block), where the index reduction is largest, and CSR otherwise.
+	 * 
+	 * @param mcIn matrix characteristics
+	 * @return sparse block type
+	 */
+	public static SparseBlock.Type getCheckpointSparseBlockType( MatrixCharacteristics mcIn ) {
+		long ncols = Math.min(mcIn.getCols(), mcIn.getColsPerBlock());
+		return (Checkpoint.CHECKPOINT_SPARSE_CCSR && ncols > 0 
+			&& ncols <= SparseBlockCCSR.MAX_COLS_BYTE) ?
+			SparseBlock.Type.CCSR : SparseBlock.Type.CSR;
+	}
+	
 	/**
 	 * Returns the number of reducers that potentially run in parallel.
 	 * This is either just the configured value (SystemML config) or
@@ -737,6 +809,31 @@ public class OptimizerUtils
 		return ret;
 	}
 	
+	/**
+	 * Estimates the footprint (in bytes) of a checkpointed matrix in Spark's storage
+	 * according to the configured checkpoint storage. Serialized storage requires the
+	 * serialized size of all blocks and their indexes, while deserialized storage requires
+	 * the partitioned in-memory size. For compressed storage, we conservatively use the
+	 * uncompressed size because compression ratios are unknown during compilation.
+	 * 
+	 * @param mc matrix characteristics
+	 * @return memory estimate
+	 */
+	public static long estimateCheckpointSizeExactSparsity(MatrixCharacteristics mc)
+	{
+		if( !Checkpoint.getCheckpointStorage().isSerialized() || !mc.dimsKnown() )
+			return estimatePartitionedSizeExactSparsity(mc);
+		
+		//serialized blocks (block indexes, header, and data)
+		long brlen = Math.min(mc.getRows(), mc.getRowsPerBlock());
+		long bclen = Math.min(mc.getCols(), mc.getColsPerBlock());
+		double sp = getSparsity(mc.getRows(), mc.getCols(), mc.getNonZeros());
+		long nblks = (long)Math.ceil((double)mc.getRows()/brlen) 
+			* (long)Math.ceil((double)mc.getCols()/bclen);
+		return nblks * (16 + MatrixBlock.estimateSizeOnDisk(
+			brlen, bclen, (long)Math.ceil(sp * brlen * bclen)));
+	}
+	
 	/**
 	 * Similar to estimate() except that it provides worst-case estimates
 	 * when the optimization type is ROBUST.
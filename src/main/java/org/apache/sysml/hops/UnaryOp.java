@@ -222,22 +222,27 @@ public class UnaryOp extends Hop implements MultiThreadedHop
 			return pick;
 		}
 		else {
-			SortKeys sort = SortKeys.constructSortByValueLop(
-								getInput().get(0).constructLops(), 
+			//sort-free spark median over unsorted input, otherwise sort and pick
+			boolean sorted = !isSortFreeQuantile(et);
+			Lop sort = getInput().get(0).constructLops();
+			if( sorted ) {
+				sort = SortKeys.constructSortByValueLop(
+								sort, 
 								SortKeys.OperationTypes.WithoutWeights, 
 								DataType.MATRIX, ValueType.DOUBLE, et );
-			sort.getOutputParameters().setDimensions(
+				sort.getOutputParameters().setDimensions(
 					getInput().get(0).getDim1(),
 					getInput().get(0).getDim2(),
 					getInput().get(0).getRowsInBlock(),
 					getInput().get(0).getColsInBlock(), 
 					getInput().get(0).getNnz());
+			}
 			PickByCount pick = new PickByCount(
 					sort,
 					Data.createLiteralLop(ValueType.DOUBLE, Double.toString(0.5)),
 					getDataType(),
 					getValueType(),
-					PickByCount.OperationTypes.MEDIAN, et, true);
+					PickByCount.OperationTypes.MEDIAN, et, true, sorted);
 
 			pick.getOutputParameters().setDimensions(getDim1(),
 					getDim2(), getRowsInBlock(), getColsInBlock(), getNnz());
@@ -331,19 +336,24 @@ public class UnaryOp extends Hop implements MultiThreadedHop
 			return iqm;
 		}
 		else {
-			SortKeys sort = SortKeys.constructSortByValueLop(
-					input.constructLops(), 
+			//sort-free spark iqm over unsorted input, otherwise sort and pick
+			boolean sorted = !isSortFreeQuantile(et);
+			Lop sort = input.constructLops();
+			if( sorted ) {
+				sort = SortKeys.constructSortByValueLop(
+					sort, 
 					SortKeys.OperationTypes.WithoutWeights, 
 					DataType.MATRIX, ValueType.DOUBLE, et );
-			sort.getOutputParameters().setDimensions(
+				sort.getOutputParameters().setDimensions(
 					input.getDim1(),
 					input.getDim2(),
 					input.getRowsInBlock(),
 					input.getColsInBlock(),
 					input.getNnz());
+			}
 			PickByCount pick = new PickByCount(sort, null,
 					getDataType(),getValueType(),
-					PickByCount.OperationTypes.IQM, et, true);
+					PickByCount.OperationTypes.IQM, et, true, sorted);
 
 			pick.getOutputParameters().setDimensions(getDim1(),
 					getDim2(), getRowsInBlock(), getColsInBlock(), getNnz());
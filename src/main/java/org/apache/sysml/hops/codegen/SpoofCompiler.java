@@ -44,6 +44,7 @@ import org.apache.sysml.hops.codegen.template.BaseTpl.CloseType;
 import org.apache.sysml.hops.codegen.template.BaseTpl.TemplateType;
 import org.apache.sysml.hops.codegen.template.CPlanMemoTable;
 import org.apache.sysml.hops.codegen.template.CPlanMemoTable.MemoTableEntry;
+import org.apache.sysml.hops.codegen.template.CPlanMemoTable.PlanSelection;
 import org.apache.sysml.hops.codegen.template.TemplateUtils;
 import org.apache.sysml.hops.Hop;
 import org.apache.sysml.hops.Hop.OpOp1;
@@ -84,6 +85,14 @@ public class SpoofCompiler
 	public static boolean USE_PLAN_CACHE = true;
 	public static boolean ALWAYS_COMPILE_LITERALS = false;
 	public static final boolean ALLOW_SPARK_OPS = false;
+	public static CompilerType JAVA_COMPILER = CompilerType.JANINO;
+	public static String CLASS_CACHE_DIR = null; //persistent class cache, disabled if null
+	public static PlanSelection PLAN_SEL_POLICY = PlanSelection.FUSE_ALL; 
+	
+	public enum CompilerType {
+		JAVAC,  //system java compiler, via local working directory
+		JANINO, //embedded java compiler, fully in-memory
+	}
 	
 	//plan cache for cplan->compiled source to avoid unnecessary codegen/source code compile
 	//for equal operators from (1) different hop dags and (2) repeated recompilation 
@@ -216,7 +225,8 @@ public class SpoofCompiler
 			boolean compileLiterals = ALWAYS_COMPILE_LITERALS || !recompile;
 			
 			//construct codegen plans
-			HashMap<Long, Pair<Hop[],CNodeTpl>>  cplans = constructCPlans(roots, compileLiterals);
+			HashMap<Long, Pair<Hop[],CNodeTpl>>  cplans = constructCPlans(roots, compileLiterals,
+				LDEBUG || DMLScript.EXPLAIN.isHopsType(recompile));
 			
 			//cleanup codegen plans (remove unnecessary inputs, fix hop-cnodedata mapping,
 			//remove empty templates with single cnodedata input, remove spurious lookups)
@@ -294,7 +304,8 @@ public class SpoofCompiler
 	////////////////////
 	// Codegen plan construction
 
-	private static HashMap<Long, Pair<Hop[],CNodeTpl>> constructCPlans(ArrayList<Hop> roots, boolean compileLiterals) throws DMLException
+	private static HashMap<Long, Pair<Hop[],CNodeTpl>> constructCPlans(ArrayList<Hop> roots, boolean compileLiterals, boolean explain) 
+		throws DMLException
 	{
 		//explore cplan candidates
 		CPlanMemoTable memo = new CPlanMemoTable();
@@ -302,7 +313,7 @@ public class SpoofCompiler
 			rExploreCPlans(hop, memo, compileLiterals);
 		
 		//select optimal cplan candidates
-		memo.pruneSuboptimal();
+		memo.pruneSuboptimal(PLAN_SEL_POLICY, explain);
 		
 		//construct actual cplan representations
 		LinkedHashMap<Long, Pair<Hop[],CNodeTpl>> ret = new LinkedHashMap<Long, Pair<Hop[],CNodeTpl>>();
@@ -431,7 +442,8 @@ public class SpoofCompiler
 			Pair<Hop[], Class<?>> tmpCla = clas.get(hop.getHopID());
 			CNodeTpl tmpCNode = cplans.get(hop.getHopID()).getValue();
 			hnew = new SpoofFusedOp(hop.getName(), hop.getDataType(), hop.getValueType(), 
-					tmpCla.getValue(), false, tmpCNode.getOutputDimType());
+					tmpCla.getValue(), false, tmpCNode.getOutputDimType(), 
+					tmpCNode instanceof CNodeCell && ((CNodeCell)tmpCNode).isSparseSafe());
 			Hop[] inHops = tmpCla.getKey();
 			for( int i=0; i<inHops.length; i++ ) {
 				if( tmpCNode instanceof CNodeOuterProduct 
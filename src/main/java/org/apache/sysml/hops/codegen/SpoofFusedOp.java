@@ -32,6 +32,7 @@ import org.apache.sysml.lops.LopsException;
 import org.apache.sysml.lops.SpoofFused;
 import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 
 public class SpoofFusedOp extends Hop implements MultiThreadedHop
 {
@@ -49,16 +50,18 @@ public class SpoofFusedOp extends Hop implements MultiThreadedHop
 	private boolean _distSupported = false;
 	private int _numThreads = -1;
 	private SpoofOutputDimsType _dimsType;
+	private boolean _sparseSafe = false;
 	
 	public SpoofFusedOp ( ) {
 	
 	}
 	
-	public SpoofFusedOp( String name, DataType dt, ValueType vt, Class<?> cla, boolean dist, SpoofOutputDimsType type ) {
+	public SpoofFusedOp( String name, DataType dt, ValueType vt, Class<?> cla, boolean dist, SpoofOutputDimsType type, boolean sparseSafe ) {
 		super(name, dt, vt);
 		_class = cla;
 		_distSupported = dist;
 		_dimsType = type;
+		_sparseSafe = sparseSafe;
 	}
 	
 	@Override
@@ -78,7 +81,12 @@ public class SpoofFusedOp extends Hop implements MultiThreadedHop
 
 	@Override
 	protected double computeOutputMemEstimate(long dim1, long dim2, long nnz) {
-		return OptimizerUtils.estimateSize(dim1, dim2);
+		//sparse-safe operations w/ input dims have at most input nnz, which
+		//is used as an upper bound only (the output nnz remains unknown)
+		long nnzBound = (nnz >= 0) ? nnz : getOutputNnzBound(getInput().get(0).getNnz());
+		return (nnzBound >= 0) ?
+			OptimizerUtils.estimateSizeExactSparsity(dim1, dim2, nnzBound) :
+			OptimizerUtils.estimateSize(dim1, dim2);
 	}
 
 	@Override
@@ -88,8 +96,18 @@ public class SpoofFusedOp extends Hop implements MultiThreadedHop
 
 	@Override
 	protected long[] inferOutputCharacteristics(MemoTable memo) {
+		//worst-case output characteristics of sparse-safe operations
+		if( _dimsType == SpoofOutputDimsType.INPUT_DIMS ) {
+			MatrixCharacteristics mc = memo.getAllInputStats(getInput().get(0));
+			if( mc.dimsKnown() )
+				return new long[]{mc.getRows(), mc.getCols(), getOutputNnzBound(mc.getNonZeros())};
+		}
 		return null;
 	}
+	
+	private long getOutputNnzBound(long inNnz) {
+		return (_sparseSafe && _dimsType == SpoofOutputDimsType.INPUT_DIMS) ? inNnz : -1;
+	}
 
 	@Override
 	public Lop constructLops() throws HopsException, LopsException {
@@ -187,6 +205,7 @@ public class SpoofFusedOp extends Hop implements MultiThreadedHop
 		ret._distSupported = _distSupported;
 		ret._numThreads = _numThreads;
 		ret._dimsType = _dimsType;
+		ret._sparseSafe = _sparseSafe;
 		return ret;
 	}
 	
@@ -200,6 +219,7 @@ public class SpoofFusedOp extends Hop implements MultiThreadedHop
 		boolean ret = ( _class.equals(that2._class)
 				&& _distSupported == that2._distSupported
 				&& _numThreads == that2._numThreads
+				&& _sparseSafe == that2._sparseSafe
 				&& getInput().size() == that2.getInput().size());
 		
 		if( ret ) {
@@ -112,7 +112,14 @@ public class CPlanMemoTable
 		list.addAll(CollectionUtils.subtract(set, rmList));
 	}
 
-	public void pruneSuboptimal() {
+	public void pruneSuboptimal(PlanSelection policy, boolean explain) {
+		//select among alternative plans of equal type (w/ and w/o 
+		//fusion of inputs with multiple consumers), default fuse all
+		if( policy == PlanSelection.FUSE_COST_BASED )
+			PlanSelectionFuseCostBased.selectPlans(this, explain);
+		else if( policy == PlanSelection.FUSE_NO_REDUNDANCY )
+			pruneRedundantCompute();
+		
 		//build index of referenced entries
 		HashSet<Long> ix = new HashSet<Long>();
 		for( Entry<Long, ArrayList<MemoTableEntry>> e : _plans.entrySet() )
@@ -147,6 +154,37 @@ public class CPlanMemoTable
 			}
 	}
 
+	private void pruneRedundantCompute() {
+		//remove plans that fuse inputs with multiple consumers, if alternatives exist
+		for( Entry<Long, ArrayList<MemoTableEntry>> e : _plans.entrySet() ) {
+			Hop hop = _hopRefs.get(e.getKey());
+			ArrayList<MemoTableEntry> list = e.getValue();
+			for( int i=0; i<list.size() && list.size()>1; i++ ) {
+				MemoTableEntry me = list.get(i);
+				boolean redundant = false;
+				for( int j=0; j<=2; j++ )
+					redundant |= me.isPlanRef(j) && hop.getInput().get(j).getParent().size()>1;
+				if( redundant && countEntries(list, me.type) > 1 )
+					list.remove(i--);
+			}
+		}
+	}
+	
+	private static int countEntries(ArrayList<MemoTableEntry> list, TemplateType type) {
+		int count = 0;
+		for( MemoTableEntry me : list )
+			count += (me.type == type) ? 1 : 0;
+		return count;
+	}
+
+	HashMap<Long, ArrayList<MemoTableEntry>> getPlans() {
+		return _plans;
+	}
+	
+	Hop getHop(long hopID) {
+		return _hopRefs.get(hopID);
+	}
+	
 	public ArrayList<MemoTableEntry> get(long hopID) {
 		return _plans.get(hopID);
 	}
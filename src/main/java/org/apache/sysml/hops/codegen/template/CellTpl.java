@@ -28,9 +28,12 @@ import org.apache.sysml.hops.AggBinaryOp;
 import org.apache.sysml.hops.AggUnaryOp;
 import org.apache.sysml.hops.BinaryOp;
 import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.LiteralOp;
+import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.hops.UnaryOp;
 import org.apache.sysml.hops.Hop.AggOp;
 import org.apache.sysml.hops.Hop.Direction;
+import org.apache.sysml.hops.Hop.OpOp1;
 import org.apache.sysml.hops.Hop.OpOp2;
 import org.apache.sysml.hops.TernaryOp;
 import org.apache.sysml.hops.codegen.cplan.CNode;
@@ -105,6 +108,14 @@ public class CellTpl extends BaseTpl
 					sinHops.add(h);
 				}
 		
+		//select main input (drives the iteration) as the sparsest matrix input 
+		//for which the fused operation is sparse-safe, if any
+		Hop main = getSparseSafeMainInput(hop, sinHops, inHops);
+		if( main != null ) {
+			sinHops.remove(main);
+			sinHops.addFirst(main);
+		}
+		
 		//construct template node
 		ArrayList<CNode> inputs = new ArrayList<CNode>();
 		for( Hop in : sinHops )
@@ -112,8 +123,7 @@ public class CellTpl extends BaseTpl
 		CNode output = tmp.get(hop.getHopID());
 		CNodeCell tpl = new CNodeCell(inputs, output);
 		tpl.setCellType(TemplateUtils.getCellType(hop));
-		tpl.setSparseSafe((HopRewriteUtils.isBinary(hop, OpOp2.MULT) && hop.getInput().contains(sinHops.getFirst()))
-				|| (HopRewriteUtils.isBinary(hop, OpOp2.DIV) && hop.getInput().get(0) == sinHops.getFirst()));
+		tpl.setSparseSafe(main != null);
 		tpl.setRequiresCastDtm(hop instanceof AggBinaryOp);
 		
 		// return cplan instance
@@ -229,6 +239,70 @@ public class CellTpl extends BaseTpl
 		tmp.put(hop.getHopID(), out);
 	}
 	
+	private static Hop getSparseSafeMainInput(Hop hop, LinkedList<Hop> sinHops, HashSet<Hop> inHops) {
+		//note: candidates are matrices, or vectors if there are no matrices
+		Hop ret = null;
+		boolean vect = !sinHops.isEmpty() && TemplateUtils.isVector(sinHops.getFirst());
+		for( Hop h : sinHops )
+			if( h.getDataType().isMatrix() && TemplateUtils.isVector(h) == vect
+				&& (ret == null || getSparsity(h) < getSparsity(ret))
+				&& rIsSparseSafe(hop, h, inHops) )
+				ret = h;
+		return ret;
+	}
+	
+	private static double getSparsity(Hop hop) {
+		return OptimizerUtils.getSparsity(hop.getDim1(), hop.getDim2(), hop.getNnz());
+	}
+	
+	/**
+	 * Indicates if the fused operation rooted at the given hop is sparse-safe 
+	 * w.r.t. the given main input, i.e., if zeros of the main input produce 
+	 * zeros in the output (or do not contribute to the aggregate). 
+	 * 
+	 * @param hop current hop of fused operation
+	 * @param main main input 
+	 * @param inHops inputs of fused operation
+	 * @return true if sparse-safe
+	 */
+	private static boolean rIsSparseSafe(Hop hop, Hop main, HashSet<Hop> inHops) {
+		if( hop == main )
+			return true;
+		if( inHops.contains(hop) )
+			return false;
+		
+		if( HopRewriteUtils.isBinary(hop, OpOp2.MULT) )
+			return rIsSparseSafe(hop.getInput().get(0), main, inHops)
+				|| rIsSparseSafe(hop.getInput().get(1), main, inHops);
+		else if( HopRewriteUtils.isBinary(hop, OpOp2.DIV) ) //0/0 and 0/NaN are NaN
+			return isNonZeroLiteral(hop.getInput().get(1))
+				&& rIsSparseSafe(hop.getInput().get(0), main, inHops);
+		else if( HopRewriteUtils.isBinary(hop, OpOp2.PLUS, OpOp2.MINUS) )
+			return rIsSparseSafe(hop.getInput().get(0), main, inHops)
+				&& rIsSparseSafe(hop.getInput().get(1), main, inHops);
+		else if( HopRewriteUtils.isUnary(hop, OpOp1.ABS) || HopRewriteUtils.isUnary(hop, OpOp1.SQRT)
+			|| HopRewriteUtils.isUnary(hop, OpOp1.SIGN) || HopRewriteUtils.isUnary(hop, OpOp1.ROUND)
+			|| HopRewriteUtils.isUnary(hop, OpOp1.CEIL) || HopRewriteUtils.isUnary(hop, OpOp1.FLOOR) )
+			return rIsSparseSafe(hop.getInput().get(0), main, inHops);
+		else if( HopRewriteUtils.isSum(hop) )
+			return rIsSparseSafe(hop.getInput().get(0), main, inHops);
+		else if( hop instanceof AggBinaryOp ) { //dot product
+			Hop in1 = hop.getInput().get(0);
+			return (HopRewriteUtils.isTransposeOperation(in1) 
+				&& rIsSparseSafe(in1.getInput().get(0), main, inHops))
+				|| rIsSparseSafe(hop.getInput().get(1), main, inHops);
+		}
+		
+		return false;
+	}
+	
+	private static boolean isNonZeroLiteral(Hop hop) {
+		if( !(hop instanceof LiteralOp) )
+			return false;
+		double val = HopRewriteUtils.getDoubleValueSafe((LiteralOp)hop);
+		return val != 0 && !Double.isNaN(val);
+	}
+	
 	private static boolean isValidOperation(Hop hop) 
 	{	
 		//prepare indicators for binary operations
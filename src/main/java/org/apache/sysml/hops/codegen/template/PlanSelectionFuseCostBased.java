@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen.template;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map.Entry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sysml.hops.AggBinaryOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.OpOp1;
+import org.apache.sysml.hops.Hop.OpOp2;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.codegen.template.BaseTpl.TemplateType;
+import org.apache.sysml.hops.codegen.template.CPlanMemoTable.MemoTableEntry;
+import org.apache.sysml.hops.rewrite.HopRewriteUtils;
+
+/**
+ * Cost-based selection of fusion plans. Alternative memo table entries of the
+ * same template type differ in the set of fused inputs, which happens for inputs
+ * with multiple consumers: fusing such an input causes redundant compute, while
+ * not fusing it requires the materialization and read of the intermediate.
+ * We estimate the costs of all alternatives via memory bandwidth (size of inputs
+ * and outputs according to dimensions and sparsity) and compute (sparsity-aware
+ * for sparse-safe operations), and retain the cheapest alternative only. Each 
+ * consumer of a materialized intermediate is charged its share of the producing
+ * operator, while a fused input is charged in full, which accounts for the 
+ * redundant compute of overlapping fused operators.
+ *
+ * If the costs cannot be estimated due to unknown sizes, we fall back to the
+ * default fuse-all heuristic of plan construction.
+ */
+public class PlanSelectionFuseCostBased
+{
+	private static final Log LOG = LogFactory.getLog(PlanSelectionFuseCostBased.class.getName());
+
+	//optimizer configuration (peak compute and memory bandwidth per thread)
+	private static final double COMPUTE_BANDWIDTH = 2d*1024*1024*1024; //2 GFLOP/s
+	private static final double READ_BANDWIDTH = 32d*1024*1024*1024;   //32 GB/s
+	private static final double WRITE_BANDWIDTH = 2d*1024*1024*1024;   //2 GB/s, incl allocation
+
+	public static void selectPlans(CPlanMemoTable memo, boolean explain)
+	{
+		StringBuilder sb = explain ? new StringBuilder() : null;
+
+		for( Entry<Long, ArrayList<MemoTableEntry>> e : memo.getPlans().entrySet() ) {
+			Hop hop = memo.getHop(e.getKey());
+			ArrayList<MemoTableEntry> list = e.getValue();
+			for( TemplateType type : TemplateType.values() ) {
+				//collect alternative plans of same type
+				ArrayList<MemoTableEntry> alts = new ArrayList<MemoTableEntry>();
+				for( MemoTableEntry me : list )
+					if( me.type == type )
+						alts.add(me);
+				if( alts.size() <= 1 )
+					continue;
+
+				//cost all alternatives (w/o selection if any cost unknown)
+				double[] costs = new double[alts.size()];
+				int best = 0;
+				boolean known = true;
+				for( int i=0; i<alts.size(); i++ ) {
+					costs[i] = getPlanCost(memo, hop, alts.get(i));
+					known &= (costs[i] >= 0);
+					best = (costs[i] < costs[best]) ? i : best;
+				}
+				if( !known )
+					continue;
+
+				//prune all but the cheapest alternative
+				for( int i=0; i<alts.size(); i++ )
+					if( i != best ) {
+						list.remove(alts.get(i));
+						if( explain )
+							sb.append("--"+hop.getHopID()+" "+hop.getOpString()+": rejected "+alts.get(i)
+								+" [cost="+costs[i]+"], selected "+alts.get(best)+" [cost="+costs[best]+"]\n");
+					}
+			}
+		}
+
+		if( explain && sb.length() > 0 )
+			LOG.info("Codegen EXPLAIN (cost-based plan selection):\n"+sb.toString());
+	}
+
+	/**
+	 * Estimates the execution time of a fused operator rooted at the given
+	 * hop, according to the given memo table entry.
+	 *
+	 * @param memo memo table
+	 * @param hop root of fused operator
+	 * @param me memo table entry of the root
+	 * @return estimated costs in seconds, or -1 if unknown
+	 */
+	public static double getPlanCost(CPlanMemoTable memo, Hop hop, MemoTableEntry me) {
+		double cost = rGetPlanCost(memo, hop, me, new HashSet<Long>());
+		return (cost >= 0 && hop.dimsKnown()) ?
+			cost + getSize(hop) / WRITE_BANDWIDTH : -1;
+	}
+
+	private static double rGetPlanCost(CPlanMemoTable memo, Hop hop, MemoTableEntry me, HashSet<Long> visited)
+	{
+		//memoization of processed dag nodes (compute and read once)
+		if( !visited.add(hop.getHopID()) )
+			return 0;
+		if( !hop.dimsKnown() )
+			return -1;
+
+		double cost = getComputeCost(hop);
+		for( int i=0; i<hop.getInput().size(); i++ ) {
+			Hop c = hop.getInput().get(i);
+			double tmp = 0;
+			if( i < 3 && me.isPlanRef(i) ) {
+				//fused input: compute (redundantly if multiple consumers)
+				MemoTableEntry me2 = getFusedEntry(memo, c, me.type);
+				tmp = (me2 != null) ? rGetPlanCost(memo, c, me2, visited) : -1;
+			}
+			else if( c.getDataType().isMatrix() && visited.add(c.getHopID()) ) {
+				//materialized input: read, and share of producer if intermediate
+				tmp = !c.dimsKnown() ? -1 : getSize(c) / READ_BANDWIDTH;
+				if( tmp >= 0 && memo.contains(c.getHopID()) )
+					tmp = add(tmp, getProducerCost(memo, c, me.type) / c.getParent().size());
+			}
+			if( tmp < 0 )
+				return -1;
+			cost += tmp;
+		}
+
+		return cost;
+	}
+
+	private static double getProducerCost(CPlanMemoTable memo, Hop hop, TemplateType type) {
+		//cost of the operator that materializes the intermediate (incl write),
+		//where basic operators are costed by compute and output write only
+		MemoTableEntry me = getFusedEntry(memo, hop, type);
+		return (me != null) ? getPlanCost(memo, hop, me) :
+			getComputeCost(hop) + getSize(hop) / WRITE_BANDWIDTH;
+	}
+	
+	private static double add(double cost1, double cost2) {
+		return (cost1 < 0 || cost2 < 0) ? -1 : cost1 + cost2;
+	}
+	
+	private static double getComputeCost(Hop hop)
+	{
+		//matrix multiplications (e.g., outer products)
+		if( hop instanceof AggBinaryOp ) {
+			Hop in = hop.getInput().get(0);
+			return 2d * hop.getDim1() * hop.getDim2() * in.getDim2() / COMPUTE_BANDWIDTH;
+		}
+
+		//cellwise operations over the largest input, where sparse-safe
+		//operations only process non-zeros of their sparse inputs
+		double cells = Math.max(hop.getDim1() * hop.getDim2(), 1);
+		double nnz = Double.MAX_VALUE;
+		for( Hop c : hop.getInput() )
+			if( c.getDataType().isMatrix() ) {
+				cells = Math.max(cells, c.getDim1() * c.getDim2());
+				nnz = (c.getNnz() >= 0) ? Math.min(nnz, c.getNnz()) : nnz;
+			}
+		if( isSparseSafe(hop) && nnz < cells )
+			cells = nnz;
+
+		return cells * getOperationWeight(hop) / COMPUTE_BANDWIDTH;
+	}
+
+	private static double getOperationWeight(Hop hop) {
+		return (HopRewriteUtils.isUnary(hop, OpOp1.EXP)
+			|| HopRewriteUtils.isUnary(hop, OpOp1.LOG) || HopRewriteUtils.isUnary(hop, OpOp1.SIGMOID)
+			|| HopRewriteUtils.isUnary(hop, OpOp1.SIN) || HopRewriteUtils.isUnary(hop, OpOp1.COS)
+			|| HopRewriteUtils.isUnary(hop, OpOp1.TAN)
+			|| HopRewriteUtils.isBinary(hop, OpOp2.POW, OpOp2.LOG)) ? 16 : 1;
+	}
+
+	private static boolean isSparseSafe(Hop hop) {
+		return HopRewriteUtils.isBinary(hop, OpOp2.MULT)
+			|| HopRewriteUtils.isUnary(hop, OpOp1.ABS) || HopRewriteUtils.isUnary(hop, OpOp1.SQRT)
+			|| HopRewriteUtils.isUnary(hop, OpOp1.SIGN) || HopRewriteUtils.isUnary(hop, OpOp1.ROUND);
+	}
+
+	private static MemoTableEntry getFusedEntry(CPlanMemoTable memo, Hop hop, TemplateType type) {
+		//entry with maximum plan refs, consistent w/ plan construction
+		MemoTableEntry ret = null;
+		if( memo.contains(hop.getHopID()) )
+			for( MemoTableEntry me : memo.get(hop.getHopID()) )
+				if( me.type == type && (ret == null || me.countPlanRefs() > ret.countPlanRefs()) )
+					ret = me;
+		return ret;
+	}
+
+	private static double getSize(Hop hop) {
+		return hop.getDataType().isMatrix() ?
+			OptimizerUtils.estimateSizeExactSparsity(hop.getDim1(), hop.getDim2(), hop.getNnz()) : 8;
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.estim;
+
+import org.apache.sysml.hops.OptimizerUtils;
+
+/**
+ * Basic worst-case sparsity estimator, which is also used for the conservative
+ * propagation of worst-case output characteristics during compilation.
+ */
+public class EstimatorBasicWorst extends SparsityEstimator
+{
+	@Override
+	public double estim(MMNode root) {
+		if( root.isLeaf() )
+			return getSparsity(root);
+		if( root.getSynopsis() instanceof Double )
+			return (Double) root.getSynopsis();
+		
+		//recursive sparsity evaluation of non-leaf nodes
+		double sp1 = estim(root.getLeft());
+		double sp2 = estim(root.getRight());
+		double ret = OptimizerUtils.getMatMultSparsity(sp1, sp2,
+			root.getRows(), root.getLeft().getCols(), root.getCols(), true);
+		root.setSynopsis(ret);
+		return ret;
+	}
+}
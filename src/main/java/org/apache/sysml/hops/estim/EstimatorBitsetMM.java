@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.estim;
+
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+
+/**
+ * Exact sparsity estimator via boolean matrix products over bitsets of the
+ * non-zero structure of the inputs. This estimator requires the actual input
+ * blocks and memory proportional to the dense size of all intermediates (in
+ * bits); otherwise, it falls back to the density map estimator.
+ */
+public class EstimatorBitsetMM extends SparsityEstimator
+{
+	private static final long MAX_BITSET_CELLS = 1L << 33; //1GB per bitset
+	
+	private final EstimatorDensityMap _fallback = new EstimatorDensityMap();
+	
+	@Override
+	public double estim(MMNode root) {
+		if( !isApplicable(root) )
+			return _fallback.estim(root);
+		return getBitset(root).getSparsity();
+	}
+	
+	private static boolean isApplicable(MMNode node) {
+		//all leafs with data and moderately sized intermediates
+		if( (double)node.getRows() * node.getCols() > MAX_BITSET_CELLS )
+			return false;
+		return node.isLeaf() ? node.getData() != null :
+			isApplicable(node.getLeft()) && isApplicable(node.getRight());
+	}
+	
+	private BitsetMatrix getBitset(MMNode node) {
+		if( node.getSynopsis() instanceof BitsetMatrix )
+			return (BitsetMatrix) node.getSynopsis();
+		
+		BitsetMatrix ret = node.isLeaf() ? new BitsetMatrix(node.getData()) :
+			getBitset(node.getLeft()).matMult(getBitset(node.getRight()));
+		
+		node.setSynopsis(ret);
+		return ret;
+	}
+	
+	private static class BitsetMatrix
+	{
+		private final int _rlen;
+		private final int _clen;
+		private final int _rlenl; //number of longs per row
+		private final long[] _data;
+		
+		public BitsetMatrix(int rlen, int clen) {
+			_rlen = rlen;
+			_clen = clen;
+			_rlenl = (int) Math.ceil((double)clen / 64);
+			_data = new long[rlen * _rlenl];
+		}
+		
+		public BitsetMatrix(MatrixBlock in) {
+			this(in.getNumRows(), in.getNumColumns());
+			if( in.isEmptyBlock(false) )
+				return;
+			
+			//set bits of non-zero cells
+			if( in.isInSparseFormat() ) {
+				SparseBlock a = in.getSparseBlock();
+				for( int i=0; i<_rlen; i++ ) {
+					if( a.isEmpty(i) ) continue;
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					for( int k=apos; k<apos+alen; k++ )
+						set(i, aix[k]);
+				}
+			}
+			else {
+				double[] a = in.getDenseBlock();
+				for( int i=0, aix=0; i<_rlen; i++, aix+=_clen )
+					for( int j=0; j<_clen; j++ )
+						if( a[aix+j] != 0 )
+							set(i, j);
+			}
+		}
+		
+		private void set(int i, int j) {
+			_data[i*_rlenl + j/64] |= 1L << (j%64);
+		}
+		
+		private boolean get(int i, int j) {
+			return (_data[i*_rlenl + j/64] & (1L << (j%64))) != 0;
+		}
+		
+		public BitsetMatrix matMult(BitsetMatrix m2) {
+			//boolean matrix multiply: or of rows of m2 selected by non-zeros in rows of m1
+			BitsetMatrix ret = new BitsetMatrix(_rlen, m2._clen);
+			long[] c = ret._data;
+			long[] b = m2._data;
+			int n = m2._rlenl;
+			for( int i=0, cix=0; i<_rlen; i++, cix+=n )
+				for( int k=0; k<_clen; k++ )
+					if( get(i, k) )
+						for( int j=0, bix=k*n; j<n; j++ )
+							c[cix+j] |= b[bix+j];
+			return ret;
+		}
+		
+		public double getSparsity() {
+			long nnz = 0;
+			for( int i=0; i<_data.length; i++ )
+				nnz += Long.bitCount(_data[i]);
+			return (_rlen <= 0 || _clen <= 0) ? 0 :
+				(double)nnz / _rlen / _clen;
+		}
+	}
+}
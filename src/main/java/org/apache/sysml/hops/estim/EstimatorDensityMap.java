@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.estim;
+
+import java.util.Arrays;
+
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+
+/**
+ * Sparsity estimator based on density maps, i.e., matrices of block-local
+ * densities of b x b blocks. The density map of a product is estimated per
+ * output block under a uniformity assumption within blocks only, which accounts
+ * for skew across blocks (e.g., of rows and columns) that is ignored by the basic
+ * estimators. The block size is increased for large matrices in order to bound
+ * the size of density maps and the costs of density map products.
+ * 
+ * This estimator follows the approach of SpMacho (Kernert et al., EDBT 2015).
+ */
+public class EstimatorDensityMap extends SparsityEstimator
+{
+	private static final int BLOCK_SIZE = 256;                //default block size
+	private static final long MAX_MAP_BLOCKS = 1L << 20;      //max number of blocks per map
+	private static final long MAX_UNIFORM_BLOCKS = 1L << 10;  //max number of blocks per uniform map
+	private static final long MAX_PRODUCT_OPS = 1L << 24;     //max block operations per product
+	
+	private final int _b;
+	
+	public EstimatorDensityMap() {
+		this(BLOCK_SIZE);
+	}
+	
+	public EstimatorDensityMap(int blocksize) {
+		_b = blocksize;
+	}
+	
+	@Override
+	public double estim(MMNode root) {
+		return getDensityMap(root).getSparsity();
+	}
+	
+	private DensityMap getDensityMap(MMNode node) {
+		if( node.getSynopsis() instanceof DensityMap )
+			return (DensityMap) node.getSynopsis();
+		
+		//compute leaf density maps from data or meta data,
+		//and recursively estimate density maps of non-leaf nodes
+		DensityMap ret = null;
+		if( node.isLeaf() )
+			ret = (node.getData() != null) ?
+				computeDensityMap(node.getData()) :
+				computeDensityMap(node.getMatrixCharacteristics());
+		else
+			ret = estimProduct(getDensityMap(node.getLeft()), getDensityMap(node.getRight()));
+		
+		node.setSynopsis(ret);
+		return ret;
+	}
+	
+	private int getBlocksize(long rlen, long clen, long maxBlocks) {
+		int b = _b;
+		while( ceil(rlen, b) * ceil(clen, b) > maxBlocks )
+			b *= 2;
+		return b;
+	}
+	
+	private DensityMap computeDensityMap(MatrixBlock in) {
+		int m = in.getNumRows();
+		int n = in.getNumColumns();
+		DensityMap ret = new DensityMap(m, n, getBlocksize(m, n, MAX_MAP_BLOCKS));
+		if( in.isEmptyBlock(false) )
+			return ret;
+		
+		//count non-zeros per block
+		int b = ret._b;
+		double[] c = ret._sp;
+		if( in.isInSparseFormat() ) {
+			SparseBlock a = in.getSparseBlock();
+			for( int i=0; i<m; i++ ) {
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				int cix = (i/b) * ret._cb;
+				for( int k=apos; k<apos+alen; k++ )
+					c[cix + aix[k]/b] ++;
+			}
+		}
+		else {
+			double[] a = in.getDenseBlock();
+			for( int i=0, aix=0; i<m; i++, aix+=n ) {
+				int cix = (i/b) * ret._cb;
+				for( int j=0; j<n; j++ )
+					if( a[aix+j] != 0 )
+						c[cix + j/b] ++;
+			}
+		}
+		
+		//normalize counts to densities
+		for( int bi=0; bi<ret._rb; bi++ )
+			for( int bj=0; bj<ret._cb; bj++ )
+				c[bi*ret._cb+bj] /= ret.getNumCells(bi, bj);
+		
+		return ret;
+	}
+	
+	private DensityMap computeDensityMap(MatrixCharacteristics mc) {
+		//uniform density map according to given sparsity (coarse-grained
+		//because it carries no information on skew, e.g., for chain optimization)
+		DensityMap ret = new DensityMap(mc.getRows(), mc.getCols(),
+			getBlocksize(mc.getRows(), mc.getCols(), MAX_UNIFORM_BLOCKS));
+		Arrays.fill(ret._sp, getSparsity(new MMNode(mc)));
+		return ret;
+	}
+	
+	private static DensityMap estimProduct(DensityMap m1, DensityMap m2) {
+		//align block sizes and bound the number of block operations
+		int b = Math.max(m1._b, m2._b);
+		while( ceil(m1._rlen, b) * ceil(m1._clen, b) * ceil(m2._clen, b) > MAX_PRODUCT_OPS )
+			b *= 2;
+		m1 = m1.aggregate(b);
+		m2 = m2.aggregate(b);
+		
+		//estimate output densities per block, where the probability
+		//of an output cell being zero is (1-sp1*sp2)^k per common block
+		DensityMap ret = new DensityMap(m1._rlen, m2._clen, b);
+		for( int i=0; i<m1._rb; i++ )
+			for( int j=0; j<m2._cb; j++ ) {
+				double lpzero = 0;
+				for( int k=0; k<m1._cb; k++ ) {
+					double sp = m1.get(i, k) * m2.get(k, j);
+					if( sp > 0 )
+						lpzero += m1.getColBlockSize(k) * Math.log1p(-Math.min(sp, 1));
+				}
+				ret._sp[i*ret._cb+j] = 1 - Math.exp(lpzero);
+			}
+		
+		return ret;
+	}
+	
+	private static long ceil(long len, int b) {
+		return (len + b - 1) / b;
+	}
+	
+	private static class DensityMap
+	{
+		private final long _rlen;
+		private final long _clen;
+		private final int _b;
+		private final int _rb;
+		private final int _cb;
+		private final double[] _sp;
+		
+		public DensityMap(long rlen, long clen, int b) {
+			_rlen = rlen;
+			_clen = clen;
+			_b = b;
+			_rb = (int) ceil(rlen, b);
+			_cb = (int) ceil(clen, b);
+			_sp = new double[_rb * _cb];
+		}
+		
+		public double get(int bi, int bj) {
+			return _sp[bi*_cb+bj];
+		}
+		
+		public int getRowBlockSize(int bi) {
+			return (int) Math.min(_b, _rlen - (long)bi*_b);
+		}
+		
+		public int getColBlockSize(int bj) {
+			return (int) Math.min(_b, _clen - (long)bj*_b);
+		}
+		
+		public double getNumCells(int bi, int bj) {
+			return (double)getRowBlockSize(bi) * getColBlockSize(bj);
+		}
+		
+		public DensityMap aggregate(int b) {
+			if( b == _b )
+				return this;
+			if( b % _b != 0 )
+				throw new RuntimeException("Incompatible density map block sizes: "+_b+" vs "+b);
+			
+			//aggregate non-zeros into coarser blocks and normalize
+			DensityMap ret = new DensityMap(_rlen, _clen, b);
+			int f = b / _b;
+			for( int bi=0; bi<_rb; bi++ )
+				for( int bj=0; bj<_cb; bj++ )
+					ret._sp[(bi/f)*ret._cb+bj/f] += get(bi, bj) * getNumCells(bi, bj);
+			for( int bi=0; bi<ret._rb; bi++ )
+				for( int bj=0; bj<ret._cb; bj++ )
+					ret._sp[bi*ret._cb+bj] /= ret.getNumCells(bi, bj);
+			return ret;
+		}
+		
+		public double getSparsity() {
+			if( _rlen <= 0 || _clen <= 0 )
+				return 0;
+			double nnz = 0;
+			for( int bi=0; bi<_rb; bi++ )
+				for( int bj=0; bj<_cb; bj++ )
+					nnz += get(bi, bj) * getNumCells(bi, bj);
+			return Math.min(nnz / _rlen / _clen, 1);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.estim;
+
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+
+/**
+ * Base class of all sparsity estimators for matrix products and chains of
+ * matrix products. Estimators either use the matrix characteristics of
+ * their inputs (e.g., during initial compilation), or synopses computed
+ * from the actual input blocks (e.g., during dynamic recompilation).
+ */
+public abstract class SparsityEstimator 
+{
+	public enum EstimatorType {
+		BASIC_AVG,   //average-case estimate via uniformity assumption
+		BASIC_WORST, //worst-case estimate via row/column densities
+		DENSITY_MAP, //estimate via blockwise density maps
+		BITSET,      //exact sparsity via boolean matrix products
+	}
+	
+	/**
+	 * Estimates the output sparsity of a tree of matrix multiplications.
+	 * 
+	 * @param root root node of the tree of matrix multiplications
+	 * @return estimated sparsity of the output
+	 */
+	public abstract double estim(MMNode root);
+	
+	/**
+	 * Estimates the output sparsity of a single matrix multiplication
+	 * of the given input blocks.
+	 * 
+	 * @param m1 left-hand-side input block
+	 * @param m2 right-hand-side input block
+	 * @return estimated sparsity of the output
+	 */
+	public double estim(MatrixBlock m1, MatrixBlock m2) {
+		return estim(new MMNode(new MMNode(m1), new MMNode(m2)));
+	}
+	
+	/**
+	 * Estimates the output sparsity of a single matrix multiplication
+	 * of inputs with the given matrix characteristics.
+	 * 
+	 * @param mc1 matrix characteristics of left-hand-side input
+	 * @param mc2 matrix characteristics of right-hand-side input
+	 * @return estimated sparsity of the output
+	 */
+	public double estim(MatrixCharacteristics mc1, MatrixCharacteristics mc2) {
+		return estim(new MMNode(new MMNode(mc1), new MMNode(mc2)));
+	}
+	
+	/**
+	 * Estimates the output sparsity of a tree of matrix multiplications for
+	 * deciding on sparse outputs of sparse-sparse matrix multiplications. This
+	 * decision is shared by the memory estimates of dynamic recompilation and
+	 * the kernel selection at runtime. The cheap average-case estimate serves as
+	 * a first filter, while this estimator is only invoked if the average case
+	 * indicates a dense output (e.g., for skewed inputs).
+	 * 
+	 * @param root root node of the tree of matrix multiplications
+	 * @return estimated sparsity if the output is sparse, otherwise -1
+	 */
+	public double estimSparseOutput(MMNode root) {
+		//leaf nodes: sparse input blocks or sparse meta data
+		if( root.isLeaf() ) {
+			MatrixCharacteristics mc = root.getMatrixCharacteristics();
+			boolean sparse = (root.getData() != null) ? root.getData().isInSparseFormat() :
+				mc.getNonZeros() >= 0 && MatrixBlock.evalSparseFormatInMemory(
+				mc.getRows(), mc.getCols(), mc.getNonZeros());
+			return sparse ? getSparsity(root) : -1;
+		}
+		
+		//vector outputs and dense inputs always produce dense outputs
+		long m = root.getRows(), k = root.getLeft().getCols(), n = root.getCols();
+		if( m <= 1 || n <= 1 )
+			return -1;
+		double sp1 = estimSparseOutput(root.getLeft());
+		double sp2 = (sp1 >= 0) ? estimSparseOutput(root.getRight()) : -1;
+		if( sp1 < 0 || sp2 < 0 )
+			return -1;
+		
+		//ultra-sparse inputs or sparse average-case estimate
+		double sp = OptimizerUtils.getMatMultSparsity(sp1, sp2, m, k, n, false);
+		if( isUltraSparse(root.getLeft(), sp1) || isUltraSparse(root.getRight(), sp2)
+			|| MatrixBlock.evalSparseFormatInMemory(m, n, (long)(sp * m * n)) )
+			return sp;
+		
+		//estimate of this estimator (e.g., aware of skew)
+		sp = estim(root);
+		return MatrixBlock.evalSparseFormatInMemory(m, n, (long)(sp * m * n)) ? sp : -1;
+	}
+	
+	/**
+	 * Estimates the number of non-zeros of a tree of matrix multiplications.
+	 * 
+	 * @param root root node of the tree of matrix multiplications
+	 * @return estimated number of non-zeros of the output
+	 */
+	public long estimNnz(MMNode root) {
+		return (long) Math.ceil(estim(root) * root.getRows() * root.getCols());
+	}
+	
+	/**
+	 * Creates a sparsity estimator of the given type.
+	 * 
+	 * @param type estimator type
+	 * @return sparsity estimator
+	 */
+	public static SparsityEstimator createEstimator(EstimatorType type) {
+		switch( type ) {
+			case BASIC_AVG:   return new EstimatorBasicAvg();
+			case BASIC_WORST: return new EstimatorBasicWorst();
+			case DENSITY_MAP: return new EstimatorDensityMap();
+			case BITSET:      return new EstimatorBitsetMM();
+			default:
+				throw new RuntimeException("Unsupported sparsity estimator: "+type.toString());
+		}
+	}
+	
+	protected static double getSparsity(MMNode node) {
+		//unknown number of non-zeros treated as dense
+		return OptimizerUtils.getSparsity(node.getMatrixCharacteristics());
+	}
+	
+	private static boolean isUltraSparse(MMNode node, double sp) {
+		//consistent with MatrixBlock.isUltraSparse() of sparse blocks
+		return sp < MatrixBlock.ULTRA_SPARSITY_TURN_POINT
+			&& sp * node.getRows() * node.getCols() < 40;
+	}
+}
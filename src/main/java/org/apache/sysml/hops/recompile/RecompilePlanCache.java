@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.recompile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.hops.AggBinaryOp;
+import org.apache.sysml.hops.AggUnaryOp;
+import org.apache.sysml.hops.BinaryOp;
+import org.apache.sysml.hops.DataOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
+import org.apache.sysml.hops.Hop.Direction;
+import org.apache.sysml.hops.Hop.OpOp1;
+import org.apache.sysml.hops.IndexingOp;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.UnaryOp;
+import org.apache.sysml.parser.StatementBlock;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
+import org.apache.sysml.runtime.controlprogram.caching.FrameObject;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.instructions.Instruction;
+import org.apache.sysml.runtime.instructions.cp.Data;
+import org.apache.sysml.runtime.instructions.cp.ScalarObject;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+
+/**
+ * Plan cache for the dynamic recompilation of statement block hop DAGs.
+ * 
+ * The result of recompiling a DAG is fully determined by the DAG itself and 
+ * its inputs from the symbol table, i.e., the characteristics of referenced 
+ * matrices and frames, and the values of referenced scalars (which are 
+ * replaced by literals). Hence, we key cached instructions by the statement 
+ * block and a signature of these inputs (dims, nnz, scalar values), which 
+ * allows to reuse the generated instructions in loops with unchanged sizes 
+ * without the deep copy, rewrites, memory estimates, and lop generation. 
+ * The signature uses the exact nnz instead of coarse-grained nnz buckets, 
+ * because the generated instructions embed the propagated nnz of outputs.
+ * 
+ * Scalars that are only consumed by cell-wise matrix-scalar operations (e.g., 
+ * loop variables in X * i) do not affect sizes or operator selection. For these 
+ * value scalars, the signature includes only the value type, and the literal 
+ * replacement of cached recompilations excludes them (see getLiteralVariables), 
+ * i.e., the instructions read their values from the symbol table at runtime.
+ * 
+ * DAGs whose recompilation depends on matrix values (via literal replacement 
+ * of casts to scalar and full aggregates of small matrices) or on meta data 
+ * files of persistent reads with unknown sizes are never cached. Similarly, 
+ * recompilations that depend on the non-zero structure of sparse in-memory 
+ * inputs of matrix multiplications (via sparsity estimates and the chain 
+ * optimization, see Recompiler) are not cached, as this structure is not 
+ * part of the signature.
+ */
+public class RecompilePlanCache 
+{
+	//max number of cached plans (signatures) per statement block
+	private static final int MAX_PLANS_PER_BLOCK = 8;
+	
+	//weak keys to avoid leaks of statement blocks of completed programs
+	private static final WeakHashMap<StatementBlock, PlanCacheEntry> _cache 
+		= new WeakHashMap<StatementBlock, PlanCacheEntry>();
+	
+	/**
+	 * Creates the signature of the given hop DAG according to the current 
+	 * symbol table, which requires the caller to synchronize on the hops.
+	 * 
+	 * @param sb statement block
+	 * @param hops original hop DAG of the statement block
+	 * @param vars local variable map
+	 * @return signature, or null if the DAG is not cacheable
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	public static String createSignature(StatementBlock sb, ArrayList<Hop> hops, LocalVariableMap vars) 
+		throws DMLRuntimeException
+	{
+		PlanCacheEntry entry = getEntry(sb, hops, true);
+		if( entry._inputs == null )
+			return null;
+		
+		//global configuration that affects operator selection
+		StringBuilder sbuff = new StringBuilder();
+		sbuff.append(DMLScript.rtplatform.name());
+		sbuff.append(':');
+		sbuff.append((long)OptimizerUtils.getLocalMemBudget());
+		
+		//characteristics and values of all referenced variables
+		for( String varname : entry._inputs ) {
+			sbuff.append(';');
+			sbuff.append(varname);
+			sbuff.append('=');
+			Data dat = vars.get(varname);
+			if( dat instanceof MatrixObject ) {
+				MatrixObject mo = (MatrixObject) dat;
+				if( entry._mmInputs.contains(varname) && isSparseInMemory(mo) )
+					return null; //sparsity estimates from non-zero structure
+				appendSignature(sbuff, mo.getNumRows(), mo.getNumColumns(), mo.getNnz());
+			}
+			else if( dat instanceof FrameObject ) {
+				FrameObject fo = (FrameObject) dat;
+				appendSignature(sbuff, fo.getNumRows(), fo.getNumColumns(), -1);
+			}
+			else if( dat instanceof ScalarObject ) {
+				sbuff.append(dat.getValueType().name());
+				if( !entry._valueScalars.contains(varname) ) {
+					sbuff.append(':');
+					sbuff.append(((ScalarObject)dat).getStringValue());
+				}
+			}
+			else if( dat != null ) {
+				return null; //unsupported data object
+			}
+		}
+		
+		return sbuff.toString();
+	}
+	
+	/**
+	 * Creates the symbol table for literal replacement during recompilation
+	 * with plan cache, which excludes all value scalars of the given DAG 
+	 * because their values are not part of the signature.
+	 * 
+	 * @param sb statement block
+	 * @param hops original hop DAG of the statement block
+	 * @param vars local variable map
+	 * @return local variable map for literal replacement, or null if not cached
+	 */
+	public static LocalVariableMap getLiteralVariables(StatementBlock sb, ArrayList<Hop> hops, LocalVariableMap vars) {
+		PlanCacheEntry entry = getEntry(sb, hops, false);
+		if( entry == null || entry._inputs == null )
+			return null;
+		if( entry._valueScalars.isEmpty() )
+			return vars;
+		LocalVariableMap ret = new LocalVariableMap();
+		for( String varname : vars.keySet() )
+			if( !entry._valueScalars.contains(varname) )
+				ret.put(varname, vars.get(varname));
+		return ret;
+	}
+	
+	/**
+	 * Gets the previously generated instructions for the given statement 
+	 * block and signature.
+	 * 
+	 * @param sb statement block
+	 * @param hops original hop DAG of the statement block
+	 * @param sig signature of inputs
+	 * @return list of instructions, or null if not existing
+	 */
+	public static ArrayList<Instruction> get(StatementBlock sb, ArrayList<Hop> hops, String sig) {
+		PlanCacheEntry entry = getEntry(sb, hops, false);
+		if( entry == null )
+			return null;
+		synchronized( entry ) {
+			return entry._plans.get(sig);
+		}
+	}
+	
+	/**
+	 * Puts the generated instructions for the given statement block and 
+	 * signature, where the least recently used plan of the block is evicted 
+	 * if the number of cached plans exceeds the per-block limit.
+	 * 
+	 * @param sb statement block
+	 * @param hops original hop DAG of the statement block
+	 * @param sig signature of inputs
+	 * @param inst list of instructions
+	 */
+	public static void put(StatementBlock sb, ArrayList<Hop> hops, String sig, ArrayList<Instruction> inst) {
+		PlanCacheEntry entry = getEntry(sb, hops, false);
+		if( entry == null )
+			return;
+		synchronized( entry ) {
+			entry._plans.put(sig, inst);
+		}
+	}
+	
+	/**
+	 * Removes all cached plans of the given statement block, which is 
+	 * required whenever its hop DAG is modified in-place.
+	 * 
+	 * @param sb statement block
+	 */
+	public static synchronized void invalidate(StatementBlock sb) {
+		if( sb != null )
+			_cache.remove(sb);
+	}
+	
+	public static synchronized void clear() {
+		_cache.clear();
+	}
+	
+	private static synchronized PlanCacheEntry getEntry(StatementBlock sb, ArrayList<Hop> hops, boolean create) {
+		//note: entry creation traverses the hops (caller synchronizes on hops)
+		PlanCacheEntry entry = _cache.get(sb);
+		if( entry == null || entry._hops != hops ) {
+			entry = create ? new PlanCacheEntry(hops) : null;
+			if( create )
+				_cache.put(sb, entry);
+		}
+		return entry;
+	}
+	
+	private static boolean isSparseInMemory(MatrixObject mo) 
+		throws DMLRuntimeException
+	{
+		//same leaf condition as sparsity estimates of matrix multiplications
+		//during recompilation, i.e., cached in memory and sparse
+		if( !mo.isCached(true) )
+			return false;
+		MatrixBlock mb = mo.acquireRead();
+		boolean ret = mb.isInSparseFormat();
+		mo.release();
+		return ret;
+	}
+	
+	private static void appendSignature(StringBuilder sbuff, long rlen, long clen, long nnz) {
+		sbuff.append(rlen);
+		sbuff.append('x');
+		sbuff.append(clen);
+		sbuff.append(':');
+		//exact nnz because the generated instructions (e.g., createvar) 
+		//embed the propagated nnz of intermediates and outputs
+		sbuff.append(nnz);
+	}
+	
+	private static class PlanCacheEntry 
+	{
+		private final ArrayList<Hop> _hops;
+		private final String[] _inputs; //null if not cacheable
+		private final HashSet<String> _valueScalars; //scalars w/o literal replacement
+		private final HashSet<String> _mmInputs; //matrix mult inputs w/ potential estimates
+		private final LinkedHashMap<String, ArrayList<Instruction>> _plans;
+		
+		@SuppressWarnings("serial")
+		public PlanCacheEntry(ArrayList<Hop> hops) {
+			_hops = hops;
+			
+			//collect variable names and check if cacheable
+			LinkedHashSet<String> inputs = new LinkedHashSet<String>();
+			HashSet<String> literals = new HashSet<String>();
+			HashSet<String> values = new HashSet<String>();
+			HashSet<String> mmInputs = new HashSet<String>();
+			boolean cacheable = true;
+			Hop.resetVisitStatus(hops);
+			for( Hop hop : hops )
+				cacheable &= rCollectInputs(hop, inputs, literals, values, mmInputs);
+			Hop.resetVisitStatus(hops);
+			_inputs = cacheable ? inputs.toArray(new String[0]) : null;
+			_mmInputs = mmInputs;
+			
+			//value scalars, if all their reads are value-only
+			values.removeAll(literals);
+			_valueScalars = values;
+			
+			//bounded plans in access order (LRU eviction)
+			_plans = new LinkedHashMap<String, ArrayList<Instruction>>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, ArrayList<Instruction>> eldest) {
+					return size() > MAX_PLANS_PER_BLOCK;
+				}
+			};
+		}
+		
+		private static boolean rCollectInputs(Hop hop, LinkedHashSet<String> inputs, 
+			HashSet<String> literals, HashSet<String> values, HashSet<String> mmInputs) 
+		{
+			if( hop.isVisited() )
+				return true;
+			
+			boolean ret = true;
+			if( hop instanceof DataOp ) {
+				//note: sizes of writes are always refreshed from their inputs
+				DataOpTypes type = ((DataOp)hop).getDataOpType();
+				if( type == DataOpTypes.TRANSIENTREAD || type == DataOpTypes.FUNCTIONOUTPUT ) {
+					inputs.add(hop.getName());
+					if( hop.getDataType().isScalar() )
+						(isValueOnly(hop) ? values : literals).add(hop.getName());
+				}
+				else if( type == DataOpTypes.PERSISTENTREAD && !hop.dimsKnown() )
+					ret = false; //read of meta data file
+			}
+			//literal replacement of matrix values (see LiteralReplacement)
+			else if( hop instanceof UnaryOp && ((UnaryOp)hop).getOp()==OpOp1.CAST_AS_SCALAR
+				&& hop.getInput().get(0).getDataType().isMatrix() )
+				ret = false;
+			else if( hop instanceof AggUnaryOp && ((AggUnaryOp)hop).getDirection()==Direction.RowCol
+				&& (hop.getInput().get(0) instanceof DataOp || hop.getInput().get(0) instanceof IndexingOp) )
+				ret = false;
+			//transient reads consumed by matrix multiplications
+			else if( hop instanceof AggBinaryOp && ((AggBinaryOp)hop).isMatrixMultiply() ) {
+				for( Hop c : hop.getInput() )
+					if( c instanceof DataOp && ((DataOp)c).getDataOpType() == DataOpTypes.TRANSIENTREAD )
+						mmInputs.add(c.getName());
+			}
+			
+			for( Hop c : hop.getInput() )
+				ret &= rCollectInputs(c, inputs, literals, values, mmInputs);
+			
+			hop.setVisited();
+			return ret;
+		}
+		
+		private static boolean isValueOnly(Hop hop) {
+			//scalars consumed (via scalar expressions) only by cell-wise 
+			//matrix-scalar operations, but not by sizes or other operators
+			for( Hop p : hop.getParent() ) {
+				if( p.getDataType().isScalar() ) {
+					if( !isValueOnly(p) )
+						return false;
+				}
+				else if( !(p instanceof BinaryOp) )
+					return false;
+			}
+			return true;
+		}
+	}
+}
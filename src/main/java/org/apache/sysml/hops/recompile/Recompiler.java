@@ -25,6 +25,7 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map.Entry;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +37,7 @@ import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.conf.DMLConfig;
 import org.apache.sysml.conf.CompilerConfig.ConfigType;
+import org.apache.sysml.hops.AggBinaryOp;
 import org.apache.sysml.hops.DataGenOp;
 import org.apache.sysml.hops.DataOp;
 import org.apache.sysml.hops.FunctionOp;
@@ -53,7 +55,10 @@ import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.hops.ReorgOp;
 import org.apache.sysml.hops.UnaryOp;
 import org.apache.sysml.hops.codegen.SpoofCompiler;
+import org.apache.sysml.hops.estim.MMNode;
+import org.apache.sysml.hops.estim.SparsityEstimator;
 import org.apache.sysml.hops.rewrite.HopRewriteUtils;
+import org.apache.sysml.hops.rewrite.ProgramRewriteStatus;
 import org.apache.sysml.hops.rewrite.ProgramRewriter;
 import org.apache.sysml.lops.CSVReBlock;
 import org.apache.sysml.lops.DataGen;
@@ -104,6 +109,7 @@ import org.apache.sysml.runtime.util.MapReduceTool;
 import org.apache.sysml.utils.Explain;
 import org.apache.sysml.utils.Explain.ExplainType;
 import org.apache.sysml.utils.JSONHelper;
+import org.apache.sysml.utils.Statistics;
 
 /**
  * Dynamic recompilation of hop dags to runtime instructions, which includes the 
@@ -139,6 +145,7 @@ public class Recompiler
 	 */
 	public static void reinitRecompiler() {
 		_rewriter.set(new ProgramRewriter(false, true));
+		RecompilePlanCache.clear();
 	}
 	
 	/**
@@ -162,9 +169,61 @@ public class Recompiler
 	 */
 	public static ArrayList<Instruction> recompileHopsDag( StatementBlock sb, ArrayList<Hop> hops, LocalVariableMap vars, RecompileStatus status, boolean inplace, long tid ) 
 		throws DMLRuntimeException, HopsException, LopsException, IOException
+	{
+		return recompileHopsDag(sb, hops, vars, status, inplace, false, tid);
+	}
+	
+	/**
+	 * A) Recompile basic program block hop DAG, with optional probing of the 
+	 * recompilation plan cache (see {@link RecompilePlanCache}), which returns 
+	 * previously generated instructions if the DAG inputs have equivalent 
+	 * characteristics, i.e., dims, nnz, and scalar values. 
+	 * 
+	 * @param sb statement block
+	 * @param hops high-level operators
+	 * @param vars local variable map
+	 * @param status the recompile status
+	 * @param inplace true if in place
+	 * @param planCache true if the plan cache should be used
+	 * @param tid thread id
+	 * @return list of instructions
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 * @throws HopsException if HopsException occurs
+	 * @throws LopsException if LopsException occurs
+	 * @throws IOException if IOException occurs
+	 */
+	public static ArrayList<Instruction> recompileHopsDag( StatementBlock sb, ArrayList<Hop> hops, LocalVariableMap vars, RecompileStatus status, boolean inplace, boolean planCache, long tid ) 
+		throws DMLRuntimeException, HopsException, LopsException, IOException
 	{
 		ArrayList<Instruction> newInst = null;
-
+		final ArrayList<Hop> origHops = hops;
+		
+		//probe plan cache for instructions of equivalent inputs
+		//(literal replacement w/o value scalars, which are not part of the signature)
+		String sig = null;
+		LocalVariableMap litVars = vars;
+		if( planCache && isPlanCacheApplicable(sb, status, inplace, tid) ) {
+			synchronized( origHops ) {
+				sig = RecompilePlanCache.createSignature(sb, origHops, vars);
+				litVars = (sig != null) ? RecompilePlanCache.getLiteralVariables(sb, origHops, vars) : vars;
+				if( litVars == null ) {
+					sig = null;
+					litVars = vars;
+				}
+			}
+			if( sig != null ) {
+				newInst = RecompilePlanCache.get(sb, origHops, sig);
+				if( DMLScript.STATISTICS )
+					Statistics.incrementHOPRecompilePlanCache(newInst != null);
+				if( newInst != null )
+					return newInst;
+			}
+		}
+		
+		//in-place modifications of the hop dag invalidate cached plans
+		if( inplace )
+			RecompilePlanCache.invalidate(sb);
+		
 		//need for synchronization as we do temp changes in shared hops/lops
 		//however, we create deep copies for most dags to allow for concurrent recompile
 		synchronized( hops ) 
@@ -188,17 +247,22 @@ public class Recompiler
 			if( !inplace ) {
 				Hop.resetVisitStatus(hops);
 				for( Hop hopRoot : hops )
-					rReplaceLiterals( hopRoot, vars );
+					rReplaceLiterals( hopRoot, litVars );
 			}
 			
-			// refresh matrix characteristics (update stats)			
-			Hop.resetVisitStatus(hops);
-			for( Hop hopRoot : hops )
-				rUpdateStatistics( hopRoot, vars );
-			
-			// dynamic hop rewrites
-			if( !inplace )
-				_rewriter.get().rewriteHopDAGs( hops, null );
+			// refresh matrix characteristics (update stats), and
+			// dynamic hop rewrites (w/ shared synopses of in-memory inputs)
+			MMNodeMemo mmMemo = new MMNodeMemo();
+			try {
+				Hop.resetVisitStatus(hops);
+				for( Hop hopRoot : hops )
+					rUpdateStatistics( hopRoot, vars, mmMemo );
+				if( !inplace )
+					_rewriter.get().rewriteHopDAGs( hops, mmMemo.getRewriteStatus() );
+			}
+			finally {
+				mmMemo.release();
+			}
 			
 			// refresh memory estimates (based on updated stats,
 			// before: init memo table with propagated worst-case estimates,
@@ -228,6 +292,10 @@ public class Recompiler
 			newInst = dag.getJobs(sb, ConfigurationManager.getDMLConfig());	
 		}
 		
+		// maintain plan cache w/ instructions before thread id replacement
+		if( sig != null )
+			RecompilePlanCache.put(sb, origHops, sig, newInst);
+		
 		// replace thread ids in new instructions
 		if( tid != 0 ) //only in parfor context
 			newInst = ProgramConverter.createDeepCopyInstructionSet(newInst, tid, -1, null, null, null, false, false);
@@ -245,6 +313,14 @@ public class Recompiler
 		return newInst;
 	}
 
+	private static boolean isPlanCacheApplicable(StatementBlock sb, RecompileStatus status, boolean inplace, long tid) {
+		//no caching for in-place recompile, worst-case estimates, parfor workers, or explain of recompiled hops
+		return OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE
+			&& sb != null && status == null && !inplace && tid == 0
+			&& DMLScript.EXPLAIN != ExplainType.RECOMPILE_HOPS
+			&& DMLScript.EXPLAIN != ExplainType.RECOMPILE_RUNTIME;
+	}
+
 	/**
 	 * B) Recompile predicate hop DAG (single root): 
 	 * 
@@ -296,13 +372,18 @@ public class Recompiler
 				rReplaceLiterals( hops, vars );
 			}
 			
-			// refresh matrix characteristics (update stats)			
-			hops.resetVisitStatus();
-			rUpdateStatistics( hops, vars );
-			
-			// dynamic hop rewrites
-			if( !inplace )
-				_rewriter.get().rewriteHopDAG( hops, null );
+			// refresh matrix characteristics (update stats), and
+			// dynamic hop rewrites (w/ shared synopses of in-memory inputs)
+			MMNodeMemo mmMemo = new MMNodeMemo();
+			try {
+				hops.resetVisitStatus();
+				rUpdateStatistics( hops, vars, mmMemo );
+				if( !inplace )
+					_rewriter.get().rewriteHopDAG( hops, mmMemo.getRewriteStatus() );
+			}
+			finally {
+				mmMemo.release();
+			}
 			
 			// refresh memory estimates (based on updated stats)
 			MemoTable memo = new MemoTable();
@@ -360,6 +441,9 @@ public class Recompiler
 	{
 		ArrayList<Instruction> newInst = null;
 		
+		//in-place modifications of the hop dag invalidate cached plans
+		RecompilePlanCache.invalidate(sb);
+		
 		//need for synchronization as we do temp changes in shared hops/lops
 		//however, we create deep copies for most dags to allow for concurrent recompile
 		synchronized( hops ) 
@@ -1464,6 +1548,18 @@ public class Recompiler
 	
 	public static void rUpdateStatistics( Hop hop, LocalVariableMap vars ) 
 		throws DMLRuntimeException
+	{
+		MMNodeMemo mmMemo = new MMNodeMemo();
+		try {
+			rUpdateStatistics(hop, vars, mmMemo);
+		}
+		finally {
+			mmMemo.release();
+		}
+	}
+	
+	private static void rUpdateStatistics( Hop hop, LocalVariableMap vars, MMNodeMemo mmMemo ) 
+		throws DMLRuntimeException
 	{
 		if( hop.isVisited() )
 			return;
@@ -1471,7 +1567,7 @@ public class Recompiler
 		//recursively process children
 		if( hop.getInput() != null )
 			for( Hop c : hop.getInput() )
-				rUpdateStatistics(c, vars);	
+				rUpdateStatistics(c, vars, mmMemo);	
 		
 		boolean updatedSizeExpr = false;
 		
@@ -1586,8 +1682,113 @@ public class Recompiler
 			hop.refreshSizeInformation();
 		}
 		
+		//estimate output sparsity of matrix multiplications (not vectors) from in-memory inputs
+		if( hop instanceof AggBinaryOp && ((AggBinaryOp)hop).isMatrixMultiply() ) {
+			((AggBinaryOp)hop).setSparsityEstimate( (hop.getDim1() > 1 && hop.getDim2() > 1) ?
+				estimateSparsity(hop, vars, mmMemo) : -1 );
+		}
+		
 		hop.setVisited();
 	}
+	
+	/**
+	 * Estimates the output sparsity of the given tree of matrix multiplications
+	 * via the configured sparsity estimator from the actual input blocks. This
+	 * estimate is only computed if all leaf inputs are transient reads of sparse
+	 * matrices that are already cached in memory (i.e., without reading or collecting
+	 * inputs), because dense inputs are always multiplied into dense outputs. Tree
+	 * nodes and thus synopses are shared across all matrix multiplications of one
+	 * statistics update.
+	 * 
+	 * @param hop root matrix multiplication
+	 * @param vars local variable map
+	 * @param mmMemo memo of tree nodes and pinned inputs
+	 * @return estimated sparsity if sparse output, otherwise -1
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	private static double estimateSparsity( Hop hop, LocalVariableMap vars, MMNodeMemo mmMemo ) 
+		throws DMLRuntimeException
+	{
+		MMNode root = rGetMMNode(hop, vars, mmMemo);
+		return (root != null) ? mmMemo.getEstimator().estimSparseOutput(root) : -1;
+	}
+	
+	private static MMNode rGetMMNode( Hop hop, LocalVariableMap vars, MMNodeMemo mmMemo ) 
+		throws DMLRuntimeException
+	{
+		//inner nodes: matrix multiplications w/ matching input dimensions
+		if( hop instanceof AggBinaryOp && ((AggBinaryOp)hop).isMatrixMultiply() ) {
+			if( mmMemo._nodes.containsKey(hop.getHopID()) )
+				return mmMemo._nodes.get(hop.getHopID());
+			MMNode left = rGetMMNode(hop.getInput().get(0), vars, mmMemo);
+			MMNode right = (left != null) ? rGetMMNode(hop.getInput().get(1), vars, mmMemo) : null;
+			MMNode ret = (right != null && left.getCols() == right.getRows()) ? new MMNode(left, right) : null;
+			mmMemo._nodes.put(hop.getHopID(), ret);
+			return ret;
+		}
+		
+		//leaf nodes: transient reads of sparse in-memory matrices
+		if( hop instanceof DataOp && ((DataOp)hop).getDataOpType() == DataOpTypes.TRANSIENTREAD ) {
+			String varName = hop.getName();
+			if( mmMemo._leaves.containsKey(varName) )
+				return mmMemo._leaves.get(varName);
+			MMNode ret = null;
+			Data dat = vars.get(varName);
+			if( dat instanceof MatrixObject && ((MatrixObject)dat).isCached(true) ) {
+				MatrixObject mo = (MatrixObject) dat;
+				MatrixBlock mb = mo.acquireRead();
+				if( mb.isInSparseFormat() ) {
+					mmMemo._pinned.add(mo); //pinned until release of memo
+					ret = new MMNode(mb);
+				}
+				else
+					mo.release();
+			}
+			mmMemo._leaves.put(varName, ret);
+			return ret;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Memo of tree nodes for sparsity estimation within one statistics update,
+	 * which shares leaf nodes of in-memory inputs (by variable name) and inner
+	 * nodes (by hop id) across matrix multiplications, as well as with the
+	 * subsequent dynamic rewrites (e.g., matrix multiplication chains). Inputs
+	 * of leaf nodes remain pinned in memory until the memo is released.
+	 */
+	private static class MMNodeMemo
+	{
+		private final HashMap<String, MMNode> _leaves = new HashMap<String, MMNode>();
+		private final HashMap<Long, MMNode> _nodes = new HashMap<Long, MMNode>();
+		private final ArrayList<MatrixObject> _pinned = new ArrayList<MatrixObject>();
+		private SparsityEstimator _estim = null;
+		
+		public SparsityEstimator getEstimator() {
+			if( _estim == null )
+				_estim = SparsityEstimator.createEstimator(OptimizerUtils.SPARSITY_ESTIMATOR);
+			return _estim;
+		}
+		
+		public ProgramRewriteStatus getRewriteStatus() {
+			ProgramRewriteStatus state = new ProgramRewriteStatus();
+			HashMap<String, MMNode> leaves = new HashMap<String, MMNode>();
+			for( Entry<String, MMNode> e : _leaves.entrySet() )
+				if( e.getValue() != null )
+					leaves.put(e.getKey(), e.getValue());
+			state.setMMLeafNodes(leaves);
+			return state;
+		}
+		
+		public void release() 
+			throws DMLRuntimeException
+		{
+			for( MatrixObject mo : _pinned )
+				mo.release();
+			_pinned.clear();
+		}
+	}
 
 	/**
 	 * public interface to package local literal replacement
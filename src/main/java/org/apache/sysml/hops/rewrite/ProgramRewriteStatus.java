@@ -19,6 +19,10 @@
 
 package org.apache.sysml.hops.rewrite;
 
+import java.util.HashMap;
+
+import org.apache.sysml.hops.estim.MMNode;
+
 public class ProgramRewriteStatus 
 {
 	
@@ -30,6 +34,10 @@ public class ProgramRewriteStatus
 	//current context
 	private boolean _inParforCtx = false;
 	
+	//leaf nodes of sparsity estimation w/ synopses of in-memory
+	//inputs by variable name (only during dynamic recompilation)
+	private HashMap<String, MMNode> _mmLeaves = null;
+	
 	public ProgramRewriteStatus()
 	{
 		_rmBranches = false;
@@ -68,4 +76,12 @@ public class ProgramRewriteStatus
 	public boolean getInjectedCheckpoints(){
 		return _injectCheckpoints;
 	}
+	
+	public void setMMLeafNodes(HashMap<String, MMNode> leaves) {
+		_mmLeaves = leaves;
+	}
+	
+	public HashMap<String, MMNode> getMMLeafNodes() {
+		return _mmLeaves;
+	}
 }
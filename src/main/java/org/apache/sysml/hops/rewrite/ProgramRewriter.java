@@ -25,6 +25,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.apache.sysml.api.DMLException;
 import org.apache.sysml.conf.CompilerConfig.ConfigType;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.hops.Hop;
@@ -39,6 +40,8 @@ import org.apache.sysml.parser.IfStatement;
 import org.apache.sysml.parser.IfStatementBlock;
 import org.apache.sysml.parser.LanguageException;
 import org.apache.sysml.parser.ParForStatementBlock;
+import org.apache.sysml.parser.ParallelCompiler;
+import org.apache.sysml.parser.ParallelCompiler.UnitCompiler;
 import org.apache.sysml.parser.StatementBlock;
 import org.apache.sysml.parser.WhileStatement;
 import org.apache.sysml.parser.WhileStatementBlock;
@@ -190,26 +193,70 @@ public class ProgramRewriter
 	{	
 		ProgramRewriteStatus state = new ProgramRewriteStatus();
 		
+		// rewrite hop dags of all functions and statement blocks in "main" method
+		// upfront, where independent functions and statement blocks are processed in 
+		// parallel; this reordering is safe because hop dag rewrites of a unit neither 
+		// depend on nor affect statement block rewrites of other functions
+		ArrayList<StatementBlock> units = ParallelCompiler.getCompilationUnits(dmlp);
+		boolean parallel = ParallelCompiler.getParallelism(units.size()) > 1;
+		if( parallel && !_dagRuleSet.isEmpty() )
+			rewriteStatementBlockHopDAGs(units, state);
+		
 		// for each namespace, handle function statement blocks
 		for (String namespaceKey : dmlp.getNamespaces().keySet())
 			for (String fname : dmlp.getFunctionStatementBlocks(namespaceKey).keySet())
 			{
 				FunctionStatementBlock fsblock = dmlp.getFunctionStatementBlock(namespaceKey,fname);
-				rewriteStatementBlockHopDAGs(fsblock, state);
+				if( !parallel )
+					rewriteStatementBlockHopDAGs(fsblock, state);
 				rewriteStatementBlock(fsblock, state);
 			}
 		
 		// handle regular statement blocks in "main" method
-		for (int i = 0; i < dmlp.getNumStatementBlocks(); i++) 
-		{
-			StatementBlock current = dmlp.getStatementBlock(i);
-			rewriteStatementBlockHopDAGs(current, state);
-		}
+		if( !parallel )
+			for (int i = 0; i < dmlp.getNumStatementBlocks(); i++) 
+				rewriteStatementBlockHopDAGs(dmlp.getStatementBlock(i), state);
 		dmlp.setStatementBlocks( rewriteStatementBlocks(dmlp.getStatementBlocks(), state) );
 		
 		return state;
 	}
 	
+	private void rewriteStatementBlockHopDAGs(ArrayList<StatementBlock> units, ProgramRewriteStatus state) 
+		throws LanguageException, HopsException
+	{
+		//rewrite hop dags of all units w/ separate status per unit (thread-safety)
+		ArrayList<ProgramRewriteStatus> ustates = null;
+		try {
+			ustates = ParallelCompiler.compile(units, new UnitCompiler<ProgramRewriteStatus>() {
+				@Override
+				public ProgramRewriteStatus compile(StatementBlock sb) throws DMLException {
+					ProgramRewriteStatus ustate = new ProgramRewriteStatus();
+					rewriteStatementBlockHopDAGs(sb, ustate);
+					return ustate;
+				}
+			});
+		}
+		catch(LanguageException ex) {
+			throw ex;
+		}
+		catch(HopsException ex) {
+			throw ex;
+		}
+		catch(DMLException ex) {
+			throw new HopsException(ex);
+		}
+		
+		//merge status of applied rewrites (e.g., blocksize of reblock rewrite)
+		for( ProgramRewriteStatus ustate : ustates ) {
+			if( ustate.getBlocksize() > 0 )
+				state.setBlocksize(ustate.getBlocksize());
+			if( ustate.getRemovedBranches() )
+				state.setRemovedBranches();
+			if( ustate.getInjectedCheckpoints() )
+				state.setInjectedCheckpoints();
+		}
+	}
+	
 	public void rewriteStatementBlockHopDAGs(StatementBlock current, ProgramRewriteStatus state) 
 		throws LanguageException, HopsException
 	{	
@@ -57,9 +57,9 @@ public class RewriteConstantFolding extends HopRewriteRule
 	
 	private static final String TMP_VARNAME = "__cf_tmp";
 	
-	//reuse basic execution runtime
-	private static ProgramBlock     _tmpPB = null;
-	private static ExecutionContext _tmpEC = null;
+	//reuse basic execution runtime (thread-local for parallel compilation)
+	private static final ThreadLocal<ProgramBlock>     _tmpPB = new ThreadLocal<ProgramBlock>();
+	private static final ThreadLocal<ExecutionContext> _tmpEC = new ThreadLocal<ExecutionContext>();
 	
 	
 	@Override
@@ -235,16 +235,16 @@ public class RewriteConstantFolding extends HopRewriteRule
 	private static ProgramBlock getProgramBlock() 
 		throws DMLRuntimeException
 	{
-		if( _tmpPB == null )
-			_tmpPB = new ProgramBlock( new Program() );
-		return _tmpPB;
+		if( _tmpPB.get() == null )
+			_tmpPB.set(new ProgramBlock( new Program() ));
+		return _tmpPB.get();
 	}
 	
 	private static ExecutionContext getExecutionContext()
 	{
-		if( _tmpEC == null )
-			_tmpEC = ExecutionContextFactory.createContext();
-		return _tmpEC;
+		if( _tmpEC.get() == null )
+			_tmpEC.set(ExecutionContextFactory.createContext());
+		return _tmpEC.get();
 	}
 	
 	private boolean isApplicableBinaryOp( Hop hop )
@@ -21,6 +21,7 @@ package org.apache.sysml.hops.rewrite;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,14 +29,21 @@ import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
 import org.apache.sysml.hops.AggBinaryOp;
+import org.apache.sysml.hops.DataOp;
 import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
 import org.apache.sysml.hops.HopsException;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.estim.MMNode;
+import org.apache.sysml.hops.estim.SparsityEstimator;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.utils.Explain;
 
 /**
  * Rule: Determine the optimal order of execution for a chain of
  * matrix multiplications Solution: Classic Dynamic Programming
- * Approach Currently, the approach based only on matrix dimensions
+ * Approach Currently, the approach based on matrix dimensions and, if
+ * known, sparsity estimates of inputs and intermediates
  * Goal: To reduce the number of computations in the run-time
  * (map-reduce) layer
  */
@@ -64,7 +72,7 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 		for( Hop h : roots ) 
 		{
 			// Find the optimal order for the chain whose result is the current HOP
-			rule_OptimizeMMChains(h);
+			rule_OptimizeMMChains(h, state);
 		}		
 		
 		return roots;
@@ -78,7 +86,7 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 			return null;
 
 		// Find the optimal order for the chain whose result is the current HOP
-		rule_OptimizeMMChains(root);
+		rule_OptimizeMMChains(root, state);
 		
 		return root;
 	}
@@ -88,9 +96,10 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 	 * to find chains that need to be optimized.
 	 * 
 	 * @param hop high-level operator
+	 * @param state program rewrite status
 	 * @throws HopsException if HopsException occurs
 	 */
-	private void rule_OptimizeMMChains(Hop hop) 
+	private void rule_OptimizeMMChains(Hop hop, ProgramRewriteStatus state) 
 		throws HopsException 
 	{
 		if(hop.isVisited())
@@ -101,11 +110,11 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 		{
 			// Try to find and optimize the chain in which current Hop is the
 			// last operator
-			optimizeMMChain(hop);
+			optimizeMMChain(hop, state);
 		}
 		
 		for (Hop hi : hop.getInput())
-			rule_OptimizeMMChains(hi);
+			rule_OptimizeMMChains(hi, state);
 
 		hop.setVisited();
 	}
@@ -119,9 +128,10 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 	 * mmChain.
 	 * 
 	 * @param hop high-level operator
+	 * @param state program rewrite status
 	 * @throws HopsException if HopsException occurs
 	 */
-	private void optimizeMMChain( Hop hop ) throws HopsException 
+	private void optimizeMMChain( Hop hop, ProgramRewriteStatus state ) throws HopsException 
 	{
 		if( LOG.isTraceEnabled() ) {
 			LOG.trace("MM Chain Optimization for HOP: (" + " " + hop.getClass().getSimpleName() + ", " + hop.getHopID() + ", "
@@ -159,7 +169,7 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 			 */
 
 			if (    HopRewriteUtils.isMatrixMultiply(h)
-			     && !((AggBinaryOp)hop).hasLeftPMInput() && h.isVisited() ) 
+			     && !((AggBinaryOp)hop).hasLeftPMInput() && !h.isVisited() ) 
 			{
 				// check if the output of "h" is used at multiple places. If yes, it can
 				// not be expanded.
@@ -214,23 +224,28 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 				
 				// Invoke Dynamic Programming
 				int size = mmChain.size();
-				int[][] split = mmChainDP(dimsArray, mmChain.size());
+				SparsityEstimator estim = SparsityEstimator.createEstimator(OptimizerUtils.SPARSITY_ESTIMATOR);
+				MMNode[][] nodes = getMMNodeArray(mmChain, state);
+				double[][] spArray = getSparsityArray(nodes, estim);
+				int[][] split = mmChainDP(dimsArray, spArray, mmChain.size());
 				
 				 // Step 5: Relink the hops using the optimal ordering (split[][]) found from DP.
 				LOG.trace("Optimal MM Chain: ");
-				mmChainRelinkHops(mmOperators.get(0), 0, size - 1, mmChain, mmOperators, 1, split, 1);
+				mmChainRelinkHops(mmOperators.get(0), 0, size - 1, mmChain, mmOperators, 1, split, nodes, estim, 1);
 			}
 		}
 	}
 	
 	/**
 	 * mmChainDP(): Core method to perform dynamic programming on a given array
-	 * of matrix dimensions.
+	 * of matrix dimensions. If sparsity estimates are given, the costs of
+	 * individual matrix multiplications are scaled by the sparsity of their
+	 * inputs, i.e., the expected number of scalar multiplications.
 	 * 
 	 * Thomas H. Cormen, Charles E. Leiserson, Ronald L. Rivest, Clifford Stein
 	 * Introduction to Algorithms, Third Edition, MIT Press, page 395.
 	 */
-	private int[][] mmChainDP(double[] dimArray, int size) 
+	private int[][] mmChainDP(double[] dimArray, double[][] spArray, int size) 
 	{
 		double[][] dpMatrix = new double[size][size]; //min cost table
 		int[][] split = new int[size][size]; //min cost index table
@@ -251,7 +266,8 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 				{
 					//recursive cost computation
 					double cost = dpMatrix[i][k] + dpMatrix[k + 1][j] 
-							  + (dimArray[i] * dimArray[k + 1] * dimArray[j + 1]);
+							  + (dimArray[i] * dimArray[k + 1] * dimArray[j + 1])
+							  * ((spArray != null) ? spArray[i][k] * spArray[k + 1][j] : 1);
 					
 					//prune suboptimal
 					if (cost < dpMatrix[i][j]) {
@@ -276,10 +292,11 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 	 * multiplication chain. mmOperators : Hops that store the intermediate
 	 * results in the chain. For example: A = B %*% (C %*% D) there will be
 	 * three Hops in mmChain (B,C,D), and two Hops in mmOperators (one for each
-	 * %*%) .
+	 * %*%) . Since operators are reused for different sub-chains, their output
+	 * sparsity estimates are recomputed if all inputs are in-memory blocks.
 	 */
 	private void mmChainRelinkHops(Hop h, int i, int j, ArrayList<Hop> mmChain, ArrayList<Hop> mmOperators,
-			int opIndex, int[][] split, int level) 
+			int opIndex, int[][] split, MMNode[][] nodes, SparsityEstimator estim, int level) 
 	{
 		//single matrix - end of recursion
 		if (i == j) {
@@ -313,11 +330,13 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 		}
 
 		// Find children for both the inputs
-		mmChainRelinkHops(h.getInput().get(0), i, split[i][j], mmChain, mmOperators, opIndex, split, level+1);
-		mmChainRelinkHops(h.getInput().get(1), split[i][j] + 1, j, mmChain, mmOperators, opIndex, split, level+1);
+		mmChainRelinkHops(h.getInput().get(0), i, split[i][j], mmChain, mmOperators, opIndex, split, nodes, estim, level+1);
+		mmChainRelinkHops(h.getInput().get(1), split[i][j] + 1, j, mmChain, mmOperators, opIndex, split, nodes, estim, level+1);
 
 		// Propagate properties of input hops to current hop h
 		h.refreshSizeInformation();
+		((AggBinaryOp)h).setSparsityEstimate(isDataBacked(nodes, i, j) ?
+			estim.estimSparseOutput(getMMNode(nodes, split, i, j)) : -1);
 		
 		if( LOG.isTraceEnabled() ){
 			String offset = Explain.getIdentation(level);
@@ -393,6 +412,84 @@ public class RewriteMatrixMultChainOptimization extends HopRewriteRule
 		return dimsKnown;
 	}
 
+	/**
+	 * Obtains the leaf nodes of all inputs for sparsity estimation, where
+	 * nodes[i][i] refers to input i. During dynamic recompilation, transient reads
+	 * of in-memory inputs reuse the leaf nodes (and synopses) from the statistics
+	 * update, while all other inputs are represented by their characteristics. If
+	 * all inputs are dense or have unknown sparsity, this returns null in order
+	 * to optimize the chain based on dimensions only.
+	 * 
+	 * @param chain list of high-level operators (with known dimensions)
+	 * @param state program rewrite status, potentially with leaf nodes
+	 * @return array of leaf nodes, or null if all inputs dense
+	 */
+	private MMNode[][] getMMNodeArray( ArrayList<Hop> chain, ProgramRewriteStatus state ) 
+	{
+		boolean sparse = false;
+		for( Hop h : chain )
+			sparse |= (h.getNnz() >= 0 && h.getNnz() < h.getDim1() * h.getDim2());
+		if( !sparse )
+			return null;
+		
+		HashMap<String, MMNode> leaves = (state != null) ? state.getMMLeafNodes() : null;
+		int size = chain.size();
+		MMNode[][] nodes = new MMNode[size][size];
+		for( int i = 0; i < size; i++ ) {
+			Hop h = chain.get(i);
+			MMNode leaf = (leaves != null && h instanceof DataOp
+				&& ((DataOp)h).getDataOpType() == DataOpTypes.TRANSIENTREAD) ? leaves.get(h.getName()) : null;
+			nodes[i][i] = (leaf != null && leaf.getRows() == h.getDim1() && leaf.getCols() == h.getDim2()) ?
+				leaf : new MMNode(new MatrixCharacteristics(h.getDim1(), h.getDim2(), -1, -1, h.getNnz()));
+		}
+		return nodes;
+	}
+	
+	/**
+	 * Obtains the sparsity estimates of all sub-chains via the given sparsity
+	 * estimator, where spArray[i][j] refers to the product of inputs i to j.
+	 * 
+	 * @param nodes array of leaf nodes, or null if all inputs dense
+	 * @param estim sparsity estimator
+	 * @return sparsity array, or null if all inputs dense
+	 */
+	private double[][] getSparsityArray( MMNode[][] nodes, SparsityEstimator estim ) 
+	{
+		if( nodes == null )
+			return null;
+		
+		//estimate sparsity of all sub-chains, reusing synopses of their prefixes
+		int size = nodes.length;
+		double[][] spArray = new double[size][size];
+		for( int i = 0; i < size; i++ ) {
+			MMNode node = nodes[i][i];
+			for( int j = i; j < size; j++ ) {
+				if( j > i )
+					node = new MMNode(node, nodes[j][j]);
+				spArray[i][j] = estim.estim(node);
+			}
+		}
+		
+		return spArray;
+	}
+	
+	private static MMNode getMMNode( MMNode[][] nodes, int[][] split, int i, int j ) {
+		//sub-chain of inputs i to j according to the optimal ordering
+		if( nodes[i][j] == null )
+			nodes[i][j] = new MMNode(getMMNode(nodes, split, i, split[i][j]),
+				getMMNode(nodes, split, split[i][j] + 1, j));
+		return nodes[i][j];
+	}
+	
+	private static boolean isDataBacked( MMNode[][] nodes, int i, int j ) {
+		if( nodes == null )
+			return false;
+		for( int k = i; k <= j; k++ )
+			if( nodes[k][k].getData() == null )
+				return false;
+		return true;
+	}
+
 	private int inputCount ( Hop p, Hop h ) {
 		int count = 0;
 		for ( int i=0; i < p.getInput().size(); i++ )
@@ -33,6 +33,7 @@ import org.apache.sysml.hops.Hop.DataOpTypes;
 import org.apache.sysml.hops.Hop.ReOrgOp;
 import org.apache.sysml.hops.HopsException;
 import org.apache.sysml.hops.LiteralOp;
+import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.hops.ParameterizedBuiltinOp;
 import org.apache.sysml.hops.ReorgOp;
 import org.apache.sysml.hops.TernaryOp;
@@ -226,7 +227,10 @@ public class RewriteSplitDagDataDependentOperators extends StatementBlockRewrite
 			return;
 		
 		//prevent unnecessary dag split (dims known or no consumer operations)
-		boolean noSplitRequired = ( hop.dimsKnown() || HopRewriteUtils.hasOnlyWriteParents(hop, true, true) );
+		//(in adaptive spark mode, we also split on unknown nnz to re-plan consumers
+		//according to the exact statistics obtained from the materialized output)
+		boolean adaptive = ConfigurationManager.isAdaptiveSpark() && OptimizerUtils.isSparkExecutionMode();
+		boolean noSplitRequired = ( hop.dimsKnown(adaptive) || HopRewriteUtils.hasOnlyWriteParents(hop, true, true) );
 		boolean investigateChilds = true;
 		
 		//collect data dependent operations (to be extended as necessary)
@@ -21,6 +21,8 @@ package org.apache.sysml.lops;
 
 import org.apache.spark.storage.StorageLevel;
 
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
 import org.apache.sysml.lops.LopProperties.ExecLocation;
 import org.apache.sysml.lops.LopProperties.ExecType;
 import org.apache.sysml.lops.compile.JobType;
@@ -44,9 +46,29 @@ public class Checkpoint extends Lop
 	 
 	public static final StorageLevel DEFAULT_STORAGE_LEVEL = StorageLevel.MEMORY_AND_DISK();
 	public static final StorageLevel SER_STORAGE_LEVEL = StorageLevel.MEMORY_AND_DISK_SER();
+	public static final StorageLevel OFF_HEAP_STORAGE_LEVEL = StorageLevel.OFF_HEAP();
 	public static final boolean CHECKPOINT_SPARSE_CSR = true; 
+	public static final boolean CHECKPOINT_SPARSE_CCSR = true; //compact col indexes (narrow blocks)
 
+	/**
+	 * Storage of checkpointed matrices and frames, configured via
+	 * spark.checkpoint.storage. Except for default, all types reduce the
+	 * in-memory footprint and GC overhead of cached blocks at the cost of
+	 * decoding the blocks (deserialization, decompression) on access.
+	 */
+	public enum CheckpointStorage {
+		DEFAULT,    //deserialized blocks, sparse blocks in (compact) CSR
+		SERIALIZED, //serialized blocks (kryo) in memory and disk
+		COMPRESSED, //deserialized compressed matrix blocks
+		OFFHEAP;    //serialized blocks (kryo) in off-heap memory and disk
+		
+		public boolean isSerialized() {
+			return this == SERIALIZED || this == OFFHEAP;
+		}
+	}
+	
 	private StorageLevel _storageLevel;
+	private boolean _compressed;
 	
 
 	/**
@@ -61,12 +83,30 @@ public class Checkpoint extends Lop
 	 */
 	public Checkpoint(Lop input, DataType dt, ValueType vt, String level) 
 		throws LopsException
+	{
+		this(input, dt, vt, level, false);
+	}
+	
+	/**
+	 * Creates a checkpoint lop with the given storage level, where compressed
+	 * indicates that matrix blocks are persisted as compressed blocks.
+	 * 
+	 * @param input low-level operator
+	 * @param dt data type
+	 * @param vt value type
+	 * @param level storage level
+	 * @param compressed true if compressed matrix blocks
+	 * @throws LopsException if LopsException occurs
+	 */
+	public Checkpoint(Lop input, DataType dt, ValueType vt, String level, boolean compressed) 
+		throws LopsException
 	{
 		super(Lop.Type.Checkpoint, dt, vt);		
 		this.addInput(input);
 		input.addOutput(this);
 		
 		_storageLevel = StorageLevel.fromString(level);
+		_compressed = compressed;
 		
 		boolean breaksAlignment = false;
 		boolean aligner = false;
@@ -86,9 +126,14 @@ public class Checkpoint extends Lop
 		_storageLevel = level;
 	}
 	
+	public boolean isCompressed() {
+		return _compressed;
+	}
+	
 	@Override
 	public String toString() {
-		return "Checkpoint - storage.level = " + _storageLevel.toString();
+		return "Checkpoint - storage.level = " + _storageLevel.toString()
+			+ (_compressed ? ", compressed" : "");
 	}
 	
 	@Override
@@ -110,6 +155,8 @@ public class Checkpoint extends Lop
 		sb.append( prepOutputOperand(output));
 		sb.append( OPERAND_DELIMITOR );
 		sb.append( getStorageLevelString(_storageLevel) );
+		sb.append( OPERAND_DELIMITOR );
+		sb.append( _compressed );
 		
 		return sb.toString();
 
@@ -146,6 +193,8 @@ public class Checkpoint extends Lop
 			return "DISK_ONLY";
 		else if( StorageLevel.DISK_ONLY_2().equals(level) )
 			return "DISK_ONLY_2";
+		else if( StorageLevel.OFF_HEAP().equals(level) )
+			return "OFF_HEAP";
 		
 		return "INVALID";
 	}
@@ -157,4 +206,54 @@ public class Checkpoint extends Lop
 	public static String getSerializeStorageLevelString() {
 		return getStorageLevelString( SER_STORAGE_LEVEL );
 	}
+	
+	public static String getOffHeapStorageLevelString() {
+		return getStorageLevelString( OFF_HEAP_STORAGE_LEVEL );
+	}
+	
+	/**
+	 * Obtains the configured storage of checkpointed matrices and frames.
+	 * 
+	 * @return checkpoint storage type
+	 */
+	public static CheckpointStorage getCheckpointStorage() {
+		String val = ConfigurationManager.getDMLConfig()
+			.getTextValue(DMLConfig.CHECKPOINT_STORAGE);
+		return parseCheckpointStorage(val);
+	}
+	
+	/**
+	 * Parses the given checkpoint storage type, where invalid values fall
+	 * back to the default storage (with a warning).
+	 * 
+	 * @param val configured checkpoint storage
+	 * @return checkpoint storage type
+	 */
+	public static CheckpointStorage parseCheckpointStorage(String val) {
+		if( val == null || val.trim().isEmpty() )
+			return CheckpointStorage.DEFAULT;
+		try {
+			return CheckpointStorage.valueOf(val.trim().toUpperCase());
+		}
+		catch(IllegalArgumentException ex) {
+			LOG.warn("Invalid configuration "+DMLConfig.CHECKPOINT_STORAGE+"="+val
+				+", using default checkpoint storage instead.");
+			return CheckpointStorage.DEFAULT;
+		}
+	}
+	
+	/**
+	 * Obtains the storage level string for the given checkpoint storage type,
+	 * where serialized indicates the need for serialized storage of large 
+	 * sparse matrices independent of the configured storage.
+	 * 
+	 * @param storage checkpoint storage type
+	 * @param serialized true if serialized storage required
+	 * @return storage level string
+	 */
+	public static String getStorageLevelString(CheckpointStorage storage, boolean serialized) {
+		return (storage == CheckpointStorage.OFFHEAP) ? getOffHeapStorageLevelString() :
+			(serialized || storage == CheckpointStorage.SERIALIZED) ? 
+			getSerializeStorageLevelString() : getDefaultStorageLevelString();
+	}
 }
\ No newline at end of file
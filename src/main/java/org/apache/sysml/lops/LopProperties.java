@@ -22,7 +22,7 @@ package org.apache.sysml.lops;
 import java.util.ArrayList;
 
 import org.apache.sysml.lops.compile.JobType;
-import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
+import org.apache.sysml.runtime.controlprogram.parfor.util.RangeIDSequence;
 
 public class LopProperties 
 {
@@ -43,10 +43,10 @@ public class LopProperties
 	public enum ExecLocation {INVALID, RecordReader, Map, MapOrReduce, MapAndReduce, Reduce, Data, ControlProgram };
 
 	// static variable to assign an unique ID to every lop that is created
-	private static IDSequence UniqueLopID = null;
+	private static RangeIDSequence UniqueLopID = null;
 	
 	static{
-		UniqueLopID = new IDSequence();
+		UniqueLopID = new RangeIDSequence();
 	}
 	
 	/** 
@@ -79,6 +79,10 @@ public class LopProperties
 		producesIntermediateOutput = false;
 	}
 	
+	public static RangeIDSequence getLopIDSequence() {
+		return UniqueLopID;
+	}
+	
 	public long getID() { return ID; }
 	public int getLevel() { return level; }
 	public void setLevel( int l ) { level = l; }
@@ -41,6 +41,7 @@ public class MapMultChain extends Lop
 	
 	private ChainType _chainType = null;
 	private int _numThreads = 1;
+	private boolean _copartW = false; //spark w/o broadcast of w
 	
 	/**
 	 * Constructor to setup a map mult chain without weights
@@ -121,6 +122,10 @@ public class MapMultChain extends Lop
 		_numThreads = k;
 	}
 	
+	public void setCoPartitionedWeights(boolean flag) {
+		_copartW = flag;
+	}
+	
 	public String toString() {
 		return "Operation = MapMMChain";
 	}
@@ -249,6 +254,11 @@ public class MapMultChain extends Lop
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( _numThreads );
 		}
+		//append co-partitioned weights flag
+		else {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _copartW );
+		}
 		
 		return sb.toString();
 	}
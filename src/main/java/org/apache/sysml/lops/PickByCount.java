@@ -40,6 +40,7 @@ public class PickByCount extends Lop
 	
 	private OperationTypes operation;
 	private boolean inMemoryInput = false;
+	private boolean sortedInput = true;
 
 	
 	/*
@@ -60,6 +61,11 @@ public class PickByCount extends Lop
 		this.inMemoryInput = inMemoryInput;
 		init(input1, input2, op, et);
 	}
+	
+	public PickByCount(Lop input1, Lop input2, DataType dt, ValueType vt, OperationTypes op, ExecType et, boolean inMemoryInput, boolean sortedInput) {
+		this(input1, input2, dt, vt, op, et, inMemoryInput);
+		this.sortedInput = sortedInput;
+	}
 
 	
 	private void init(Lop input1, Lop input2, OperationTypes op, ExecType et) {
@@ -95,6 +101,10 @@ public class PickByCount extends Lop
 	public OperationTypes getOperationType() {
 		return operation;
 	}
+	
+	public boolean isSortedInput() {
+		return sortedInput;
+	}
 
 	/*
 	 * This version of getInstruction() must be called only for valuepick (MR) and rangepick
@@ -149,6 +159,12 @@ public class PickByCount extends Lop
 		sb.append( OPERAND_DELIMITOR );		
 		sb.append(inMemoryInput);
 		
+		//spark pick over sorted or unsorted (sort-free selection) input
+		if( getExecType() == ExecType.SPARK ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append(sortedInput);
+		}
+		
 		return sb.toString();
 	}
 	
@@ -179,6 +195,12 @@ public class PickByCount extends Lop
 		sb.append( OPERAND_DELIMITOR );		
 		sb.append(inMemoryInput);
 		
+		//spark pick over sorted or unsorted (sort-free selection) input
+		if( getExecType() == ExecType.SPARK ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append(sortedInput);
+		}
+		
 		return sb.toString();
 	}
 }
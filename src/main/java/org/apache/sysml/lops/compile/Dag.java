@@ -65,7 +65,7 @@ import org.apache.sysml.parser.ParameterizedBuiltinFunctionExpression;
 import org.apache.sysml.parser.StatementBlock;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverter;
-import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
+import org.apache.sysml.runtime.controlprogram.parfor.util.RangeIDSequence;
 import org.apache.sysml.runtime.instructions.CPInstructionParser;
 import org.apache.sysml.runtime.instructions.Instruction;
 import org.apache.sysml.runtime.instructions.Instruction.INSTRUCTION_TYPE;
@@ -100,8 +100,8 @@ public class Dag<N extends Lop>
 	private static final int MR_CHILD_FOUND_BREAKS_ALIGNMENT = 4;
 	private static final int MR_CHILD_FOUND_DOES_NOT_BREAK_ALIGNMENT = 5;
 
-	private static IDSequence job_id = null;
-	private static IDSequence var_index = null;
+	private static RangeIDSequence job_id = null;
+	private static RangeIDSequence var_index = null;
 	
 	private int total_reducers = -1;
 	private String scratch = "";
@@ -110,8 +110,8 @@ public class Dag<N extends Lop>
 	private double gmrMapperFootprint = 0;
 	
 	static {
-		job_id = new IDSequence();
-		var_index = new IDSequence();
+		job_id = new RangeIDSequence();
+		var_index = new RangeIDSequence();
 	}
 	
 	// hash set for all nodes in dag
@@ -209,6 +209,14 @@ public class Dag<N extends Lop>
 		return getFilePath() + "temp" + job_id.getNextID();
 	}
 	
+	public static RangeIDSequence getJobIDSequence() {
+		return job_id;
+	}
+	
+	public static RangeIDSequence getVarIDSequence() {
+		return var_index;
+	}
+	
 	public static String getNextUniqueVarname(DataType dt) {
 		return (dt==DataType.MATRIX ? Lop.MATRIX_VAR_NAME_PREFIX :
 			Lop.FRAME_VAR_NAME_PREFIX) + var_index.getNextID();
@@ -22,10 +22,12 @@ package org.apache.sysml.parser;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.apache.sysml.api.DMLException;
 import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.conf.DMLConfig;
 import org.apache.sysml.lops.LopProperties;
@@ -33,6 +35,7 @@ import org.apache.sysml.lops.Lop;
 import org.apache.sysml.lops.LopsException;
 import org.apache.sysml.lops.compile.Dag;
 import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.parser.ParallelCompiler.UnitCompiler;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.ExternalFunctionProgramBlock;
 import org.apache.sysml.runtime.controlprogram.ExternalFunctionProgramBlockCP;
@@ -46,6 +49,8 @@ import org.apache.sysml.runtime.controlprogram.WhileProgramBlock;
 import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverter;
 import org.apache.sysml.runtime.instructions.CPInstructionParser;
 import org.apache.sysml.runtime.instructions.Instruction;
+import org.apache.sysml.utils.Statistics;
+import org.apache.sysml.utils.Statistics.CompilePhase;
 
 
 public class DMLProgram 
@@ -183,31 +188,59 @@ public class DMLProgram
 	}
 	
 	
-	public Program getRuntimeProgram(DMLConfig config) throws IOException, LanguageException, DMLRuntimeException, LopsException {
+	public Program getRuntimeProgram(final DMLConfig config) throws IOException, LanguageException, DMLRuntimeException, LopsException {
+		long t0 = System.nanoTime();
 		
 		// constructor resets the set of registered functions
-		Program rtprog = new Program();
+		final Program rtprog = new Program();
 		
-		// for all namespaces, translate function statement blocks into function program blocks
+		// generate instructions for all functions and top-level blocks, where
+		// independent functions and statement blocks are processed in parallel
+		ArrayList<StatementBlock> units = ParallelCompiler.getCompilationUnits(this);
+		ArrayList<ProgramBlock> pbs = null;
+		try {
+			pbs = ParallelCompiler.compile(units, new UnitCompiler<ProgramBlock>() {
+				@Override
+				public ProgramBlock compile(StatementBlock sb) throws DMLException {
+					try {
+						return createRuntimeProgramBlock(rtprog, sb, config);
+					}
+					catch(IOException ex) {
+						throw new DMLRuntimeException(ex);
+					}
+				}
+			});
+		}
+		catch(LopsException ex) {
+			throw ex;
+		}
+		catch(DMLRuntimeException ex) {
+			throw ex;
+		}
+		catch(DMLException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		IdentityHashMap<StatementBlock, ProgramBlock> map = new IdentityHashMap<StatementBlock, ProgramBlock>();
+		for( int i=0; i<units.size(); i++ )
+			map.put(units.get(i), pbs.get(i));
+		
+		// for all namespaces, add function program blocks to program
 		for (String namespace : _namespaces.keySet()){
 		
 			for (String fname : getFunctionStatementBlocks(namespace).keySet()){
 				// add program block to program
 				FunctionStatementBlock fsb = getFunctionStatementBlocks(namespace).get(fname);
-				FunctionProgramBlock rtpb = (FunctionProgramBlock)createRuntimeProgramBlock(rtprog, fsb, config);
+				FunctionProgramBlock rtpb = (FunctionProgramBlock)map.get(fsb);
 				rtprog.addFunctionProgramBlock(namespace, fname, rtpb);
 				rtpb.setRecompileOnce( fsb.isRecompileOnce() );
 			}
 		}
 		
-		// for each top-level block
-		for (StatementBlock sb : _blocks) {
-		
-			// add program block to program
-			ProgramBlock rtpb = createRuntimeProgramBlock(rtprog, sb, config);
-			rtprog.addProgramBlock(rtpb);
-		}
+		// for each top-level block, add program block to program
+		for (StatementBlock sb : _blocks)
+			rtprog.addProgramBlock(map.get(sb));
 		
+		Statistics.incrementCompileTime(CompilePhase.INST, System.nanoTime()-t0);
 		
 		return rtprog ;
 	}
@@ -27,6 +27,7 @@ import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.sysml.api.DMLException;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.hops.AggBinaryOp;
 import org.apache.sysml.hops.AggUnaryOp;
@@ -68,8 +69,11 @@ import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.parser.Expression.FormatType;
 import org.apache.sysml.parser.Expression.ParameterizedBuiltinFunctionOp;
 import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.parser.ParallelCompiler.UnitCompiler;
 import org.apache.sysml.parser.PrintStatement.PRINTTYPE;
 import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.utils.Statistics;
+import org.apache.sysml.utils.Statistics.CompilePhase;
 
 
 public class DMLTranslator 
@@ -236,26 +240,37 @@ public class DMLTranslator
 	public void constructHops(DMLProgram dmlp) 
 		throws ParseException, LanguageException 
 	{
-		// Step 1: construct hops for all functions
-		// for each namespace, handle function program blocks
-		for (String namespaceKey : dmlp.getNamespaces().keySet()){		
-			for (String fname: dmlp.getFunctionStatementBlocks(namespaceKey).keySet()) {
-				FunctionStatementBlock current = dmlp.getFunctionStatementBlock(namespaceKey, fname);
-				constructHops(current);
-			}
+		long t0 = System.nanoTime();
+		
+		// construct hops for all functions and the main program, where
+		// independent functions and statement blocks are processed in parallel
+		try {
+			ParallelCompiler.compile(ParallelCompiler.getCompilationUnits(dmlp), new UnitCompiler<Object>() {
+				@Override
+				public Object compile(StatementBlock sb) throws DMLException {
+					constructHops(sb);
+					return null;
+				}
+			});
 		}
-		
-		// Step 2: construct hops for main program
-		// handle regular program blocks
-		for (int i = 0; i < dmlp.getNumStatementBlocks(); i++) {
-			StatementBlock current = dmlp.getStatementBlock(i);
-			constructHops(current);
+		catch(ParseException ex) {
+			throw ex;
+		}
+		catch(LanguageException ex) {
+			throw ex;
 		}
+		catch(DMLException ex) {
+			throw new LanguageException(ex);
+		}
+		
+		Statistics.incrementCompileTime(CompilePhase.HOPS, System.nanoTime()-t0);
 	}
 
 	public void rewriteHopsDAG(DMLProgram dmlp) 
 		throws ParseException, LanguageException, HopsException 
 	{
+		long t0 = System.nanoTime();
+		
 		//apply hop rewrites (static rewrites)
 		ProgramRewriter rewriter = new ProgramRewriter(true, false);
 		rewriter.rewriteProgramHopDAGs(dmlp);
@@ -277,6 +292,8 @@ public class DMLTranslator
 		// subsequently in various optimizations, e.g. CP vs. MR scheduling and parfor.
 		refreshMemEstimates(dmlp);
 		resetHopsDAGVisitStatus(dmlp);
+		
+		Statistics.incrementCompileTime(CompilePhase.REWRITE, System.nanoTime()-t0);
 	}
 	
 	public void codgenHopsDAG(DMLProgram dmlp) 
@@ -286,20 +303,30 @@ public class DMLTranslator
 	}
 	
 	public void constructLops(DMLProgram dmlp) throws ParseException, LanguageException, HopsException, LopsException {
-
-		// for each namespace, handle function program blocks handle function 
-		for (String namespaceKey : dmlp.getNamespaces().keySet()){
-			for (String fname: dmlp.getFunctionStatementBlocks(namespaceKey).keySet()) {
-				FunctionStatementBlock current = dmlp.getFunctionStatementBlock(namespaceKey, fname);
-				constructLops(current);
-			}
+		long t0 = System.nanoTime();
+		
+		// construct lops for all functions and regular program blocks, where
+		// independent functions and statement blocks are processed in parallel
+		try {
+			ParallelCompiler.compile(ParallelCompiler.getCompilationUnits(dmlp), new UnitCompiler<Object>() {
+				@Override
+				public Object compile(StatementBlock sb) throws DMLException {
+					constructLops(sb);
+					return null;
+				}
+			});
 		}
-		
-		// handle regular program blocks
-		for (int i = 0; i < dmlp.getNumStatementBlocks(); i++) {
-			StatementBlock current = dmlp.getStatementBlock(i);
-			constructLops(current);
+		catch(HopsException ex) {
+			throw ex;
 		}
+		catch(LopsException ex) {
+			throw ex;
+		}
+		catch(DMLException ex) {
+			throw new HopsException(ex);
+		}
+		
+		Statistics.incrementCompileTime(CompilePhase.LOPS, System.nanoTime()-t0);
 	}
 
 	public void constructLops(StatementBlock sb) 
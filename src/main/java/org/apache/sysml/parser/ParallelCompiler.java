@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.parser;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.sysml.api.DMLException;
+import org.apache.sysml.conf.CompilerConfig;
+import org.apache.sysml.conf.CompilerConfig.ConfigType;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.lops.LopProperties;
+import org.apache.sysml.lops.compile.Dag;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.apache.sysml.runtime.controlprogram.parfor.util.RangeIDSequence;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Utility for applying a compilation step to independent compilation units,
+ * i.e., functions and top-level statement blocks, in parallel. The HOP and LOP
+ * DAGs of different units are disjoint and all global ID sequences are thread-safe,
+ * which allows compiling these units without further synchronization. The thread-local
+ * dml and compiler configurations of the calling thread are propagated to all workers.
+ * 
+ * In order to obtain deterministic hop IDs, lop IDs, and variable names independent 
+ * of the thread interleaving, each unit draws its IDs from a separate, previously 
+ * reserved range of the respective global ID sequences.
+ */
+public class ParallelCompiler
+{
+	//number of reserved IDs per compilation unit and ID sequence
+	//(IDs beyond this range are drawn from the global sequences)
+	private static final long UNIT_ID_RANGE = 1L << 24;
+	
+	/**
+	 * Compilation step of an individual compilation unit.
+	 *
+	 * @param <T> type of the compilation result
+	 */
+	public interface UnitCompiler<T> {
+		public T compile(StatementBlock sb) throws DMLException;
+	}
+
+	/**
+	 * Obtains all compilation units of the given program, i.e., all distinct
+	 * function statement blocks followed by all top-level statement blocks.
+	 *
+	 * @param dmlp dml program
+	 * @return list of compilation units
+	 * @throws LanguageException if LanguageException occurs
+	 */
+	public static ArrayList<StatementBlock> getCompilationUnits(DMLProgram dmlp)
+		throws LanguageException
+	{
+		ArrayList<StatementBlock> ret = new ArrayList<StatementBlock>();
+
+		//functions (w/o duplicates of namespaces imported multiple times)
+		IdentityHashMap<StatementBlock, Boolean> distinct = new IdentityHashMap<StatementBlock, Boolean>();
+		for( String namespaceKey : dmlp.getNamespaces().keySet() )
+			for( FunctionStatementBlock fsb : dmlp.getFunctionStatementBlocks(namespaceKey).values() )
+				if( distinct.put(fsb, Boolean.TRUE) == null )
+					ret.add(fsb);
+
+		//statement blocks of "main" method
+		ret.addAll(dmlp.getStatementBlocks());
+
+		return ret;
+	}
+
+	/**
+	 * Obtains the degree of parallelism for compiling the given number of units.
+	 *
+	 * @param numUnits number of compilation units
+	 * @return degree of parallelism
+	 */
+	public static int getParallelism(int numUnits) {
+		if( !OptimizerUtils.ALLOW_PARALLEL_COMPILATION
+			|| !ConfigurationManager.getCompilerConfigFlag(ConfigType.PARALLEL_COMPILATION) )
+			return 1;
+		return Math.min(InfrastructureAnalyzer.getLocalParallelism(), numUnits);
+	}
+
+	/**
+	 * Applies the given compilation step to all compilation units, and returns
+	 * the results in the order of the given units.
+	 *
+	 * @param units compilation units
+	 * @param fun compilation step
+	 * @param <T> type of the compilation result
+	 * @return list of compilation results
+	 * @throws DMLException if DMLException occurs in any compilation unit
+	 */
+	public static <T> ArrayList<T> compile(List<? extends StatementBlock> units, UnitCompiler<T> fun)
+		throws DMLException
+	{
+		ArrayList<T> ret = new ArrayList<T>();
+		int k = getParallelism(units.size());
+
+		//sequential compilation (w/o thread pool overhead)
+		if( k <= 1 ) {
+			for( StatementBlock sb : units )
+				ret.add(fun.compile(sb));
+			return ret;
+		}
+
+		//parallel compilation w/ configurations of calling thread
+		//and reserved ID ranges per compilation unit
+		DMLConfig dconf = ConfigurationManager.getDMLConfig();
+		CompilerConfig cconf = ConfigurationManager.getCompilerConfig();
+		RangeIDSequence[] seqs = getIDSequences();
+		long[] bases = new long[seqs.length];
+		for( int j=0; j<seqs.length; j++ )
+			bases[j] = seqs[j].reserveIDs(units.size() * UNIT_ID_RANGE);
+		ExecutorService pool = Executors.newFixedThreadPool( k );
+		try {
+			ArrayList<UnitCompileTask<T>> tasks = new ArrayList<UnitCompileTask<T>>();
+			for( int i=0; i<units.size(); i++ ) {
+				long[] starts = new long[seqs.length];
+				for( int j=0; j<seqs.length; j++ )
+					starts[j] = bases[j] + i * UNIT_ID_RANGE;
+				tasks.add(new UnitCompileTask<T>(units.get(i), fun, dconf, cconf, seqs, starts));
+			}
+			for( Future<T> task : pool.invokeAll(tasks) )
+				ret.add(task.get());
+			Statistics.incrementParallelCompiledUnits(units.size());
+		}
+		catch(ExecutionException ex) {
+			//rethrow original exception of failing compilation unit
+			Throwable cause = ex.getCause();
+			if( cause instanceof DMLException )
+				throw (DMLException) cause;
+			else if( cause instanceof RuntimeException )
+				throw (RuntimeException) cause;
+			else if( cause instanceof Error )
+				throw (Error) cause;
+			throw new DMLRuntimeException(ex);
+		}
+		catch(InterruptedException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		return ret;
+	}
+
+	private static RangeIDSequence[] getIDSequences() {
+		return new RangeIDSequence[] { Hop.getHopIDSequence(), 
+			LopProperties.getLopIDSequence(), Dag.getVarIDSequence(), Dag.getJobIDSequence() };
+	}
+
+	private static class UnitCompileTask<T> implements Callable<T>
+	{
+		private final StatementBlock _sb;
+		private final UnitCompiler<T> _fun;
+		private final DMLConfig _dconf;
+		private final CompilerConfig _cconf;
+		private final RangeIDSequence[] _seqs;
+		private final long[] _starts;
+
+		protected UnitCompileTask(StatementBlock sb, UnitCompiler<T> fun, DMLConfig dconf, CompilerConfig cconf, 
+			RangeIDSequence[] seqs, long[] starts) 
+		{
+			_sb = sb;
+			_fun = fun;
+			_dconf = dconf;
+			_cconf = cconf;
+			_seqs = seqs;
+			_starts = starts;
+		}
+
+		@Override
+		public T call() throws DMLException {
+			ConfigurationManager.setLocalConfig(_dconf);
+			ConfigurationManager.setLocalConfig(_cconf);
+			for( int j=0; j<_seqs.length; j++ )
+				_seqs[j].setThreadRange(_starts[j], UNIT_ID_RANGE);
+			try {
+				return _fun.compile(_sb);
+			}
+			finally {
+				for( RangeIDSequence seq : _seqs )
+					seq.clearThreadRange();
+				ConfigurationManager.clearLocalConfigs();
+			}
+		}
+	}
+}
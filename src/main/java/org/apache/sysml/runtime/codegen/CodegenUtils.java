@@ -22,11 +22,20 @@ package org.apache.sysml.runtime.codegen;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.tools.Diagnostic;
 import javax.tools.Diagnostic.Kind;
@@ -38,16 +47,31 @@ import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.hops.codegen.SpoofCompiler;
+import org.apache.sysml.hops.codegen.SpoofCompiler.CompilerType;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.io.IOUtilFunctions;
 import org.apache.sysml.runtime.util.LocalFileUtils;
 import org.apache.sysml.utils.Statistics;
+import org.codehaus.janino.ClassLoaderIClassLoader;
+import org.codehaus.janino.Java;
+import org.codehaus.janino.Parser;
+import org.codehaus.janino.Scanner;
+import org.codehaus.janino.UnitCompiler;
+import org.codehaus.janino.util.ClassFile;
 
 public class CodegenUtils 
 {
+	private static final Log LOG = LogFactory.getLog(CodegenUtils.class.getName());
+	
 	//cache to reuse compiled and loaded classes 
 	private static ConcurrentHashMap<String, Class<?>> _cache = new ConcurrentHashMap<String,Class<?>>();
+	
+	//cache of class bytes of in-memory compiled classes (for shipping to remote workers)
+	private static ConcurrentHashMap<String, byte[]> _cacheBytes = new ConcurrentHashMap<String,byte[]>();
 	private static String _workingDir = null;
 	
 	public static Class<?> compileClass(String name, String src) 
@@ -60,6 +84,45 @@ public class CodegenUtils
 		
 		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
 		
+		//probe persistent class cache (keyed by canonical source hash), which
+		//requires class names that are unique across runs of different scripts
+		String cacheDir = SpoofCompiler.CLASS_CACHE_DIR;
+		File fcache = null;
+		if( cacheDir != null && !cacheDir.isEmpty() ) {
+			String cname = "S" + computeCanonicalHash(name, src);
+			src = src.replaceAll("\\b"+name+"\\b", cname);
+			fcache = new File(cacheDir, cname+".class");
+			ret = readClassFromCache("codegen."+cname, fcache);
+		}
+		
+		//compile generated source code w/ configured compiler
+		boolean compiled = (ret == null);
+		if( compiled ) {
+			ret = (SpoofCompiler.JAVA_COMPILER == CompilerType.JANINO) ?
+				compileClassJanino(getClassName(src), src) : 
+				compileClassJavac(getClassName(src), src);
+			if( fcache != null )
+				writeClassToCache(ret.getName(), fcache);
+		}
+		
+		//keep compiled class for reuse
+		_cache.put(name, ret);
+		_cache.put(ret.getName(), ret);
+		
+		if( DMLScript.STATISTICS ) {
+			if( compiled )
+				Statistics.incrementCodegenClassCompile();
+			Statistics.incrementCodegenClassCompileTime(System.nanoTime()-t0);
+		}
+		
+		return ret;
+	}
+	
+	private static Class<?> compileClassJavac(String name, String src) 
+		throws DMLRuntimeException
+	{
+		Class<?> ret = null;
+		
 		try
 		{
 			//create working dir on demand
@@ -113,15 +176,143 @@ public class CodegenUtils
 			throw new DMLRuntimeException(ex);
 		}
 		
-		//keep compiled class for reuse
-		_cache.put(name, ret);
-		
-		if( DMLScript.STATISTICS ) {
-			Statistics.incrementCodegenClassCompile();
-			Statistics.incrementCodegenClassCompileTime(System.nanoTime()-t0);
+		return ret;
+	}
+	
+	private static Class<?> compileClassJanino(String name, String src) 
+		throws DMLRuntimeException
+	{
+		try
+		{
+			//parse and compile source code in memory (no file I/O and compiler startup)
+			Scanner scanner = new Scanner(null, new StringReader(src));
+			Java.CompilationUnit cunit = new Parser(scanner).parseCompilationUnit();
+			UnitCompiler compiler = new UnitCompiler(cunit, 
+				new ClassLoaderIClassLoader(CodegenUtils.class.getClassLoader()));
+			ClassFile[] cfiles = compiler.compileUnit(false, false, false);
+			
+			//define compiled class from its bytes (and keep bytes for remote workers)
+			for( ClassFile cf : cfiles )
+				if( cf.getThisClassName().equals("codegen."+name) ) {
+					byte[] classBytes = cf.toByteArray();
+					_cacheBytes.put(cf.getThisClassName(), classBytes);
+					return loadClass(cf.getThisClassName(), classBytes);
+				}
+			throw new RuntimeException("Failed to compile class "+name);
 		}
+		catch(Exception ex) {
+			LOG.error("Failed to compile class "+name+": \n"+src);
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * Computes a hash of the given generated source code, where the class name
+	 * and all generated variable names are replaced by positional placeholders.
+	 * Hence, equivalent cplans of different runs map to the same hash. The hash
+	 * further covers the SystemML version and the identity of the configured
+	 * compiler, which invalidates cached classes on upgrades of either.
+	 * 
+	 * @param name class name
+	 * @param src generated source code
+	 * @return canonical hash as hex string
+	 * @throws DMLRuntimeException if the hash algorithm is unavailable
+	 */
+	public static String computeCanonicalHash(String name, String src) 
+		throws DMLRuntimeException
+	{
+		//replace class name and renumber generated variables by first occurrence
+		String tmp = src.replaceAll("\\b"+name+"\\b", "%CLASS%");
+		HashMap<String, String> vars = new HashMap<String, String>();
+		Matcher m = Pattern.compile("\\bTMP\\d+\\b").matcher(tmp);
+		StringBuffer sb = new StringBuffer();
+		while( m.find() ) {
+			String var = vars.get(m.group());
+			if( var == null )
+				vars.put(m.group(), var = "TMP"+vars.size());
+			m.appendReplacement(sb, var);
+		}
+		m.appendTail(sb);
 		
-		return ret;
+		//compute hash of compiler identity and canonical source code
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			md.update(getCompilerIdentity().getBytes(StandardCharsets.UTF_8));
+			byte[] digest = md.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for( byte b : digest )
+				hex.append(String.format("%02x", b));
+			return hex.toString();
+		}
+		catch(NoSuchAlgorithmException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * Obtains an identity string of the SystemML version and the configured 
+	 * java compiler (janino version and package, or java version for javac).
+	 * 
+	 * @return compiler identity
+	 */
+	public static String getCompilerIdentity() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(CodegenUtils.class.getPackage().getImplementationVersion());
+		sb.append(';');
+		sb.append(SpoofCompiler.JAVA_COMPILER.name());
+		sb.append(';');
+		if( SpoofCompiler.JAVA_COMPILER == CompilerType.JANINO ) {
+			//class name reflects the (potentially relocated) package
+			sb.append(UnitCompiler.class.getName());
+			sb.append(';');
+			sb.append(UnitCompiler.class.getPackage().getImplementationVersion());
+		}
+		else {
+			sb.append(System.getProperty("java.vendor"));
+			sb.append(';');
+			sb.append(System.getProperty("java.version"));
+		}
+		return sb.toString();
+	}
+	
+	private static String getClassName(String src) {
+		Matcher m = Pattern.compile("public final class (\\w+)").matcher(src);
+		return m.find() ? m.group(1) : null;
+	}
+	
+	private static Class<?> readClassFromCache(String name, File fcache) 
+		throws DMLRuntimeException
+	{
+		if( !fcache.exists() )
+			return null;
+		try {
+			byte[] classBytes = Files.readAllBytes(fcache.toPath());
+			_cacheBytes.put(name, classBytes);
+			return loadClass(name, classBytes);
+		}
+		catch(IOException ex) {
+			//robustness for corrupted or concurrently written cache files
+			LOG.warn("Failed to read class cache file "+fcache.getPath()+": "+ex.getMessage());
+			return null;
+		}
+	}
+	
+	private static void writeClassToCache(String name, File fcache) 
+		throws DMLRuntimeException
+	{
+		try {
+			byte[] classBytes = getClassAsByteArray(name);
+			if( !fcache.getParentFile().exists() )
+				fcache.getParentFile().mkdirs();
+			//write to temporary file and rename to avoid partially written files
+			File ftmp = new File(fcache.getPath()+"."+UUID.randomUUID()+".tmp");
+			Files.write(ftmp.toPath(), classBytes);
+			if( !ftmp.renameTo(fcache) )
+				ftmp.delete();
+		}
+		catch(IOException ex) {
+			LOG.warn("Failed to write class cache file "+fcache.getPath()+": "+ex.getMessage());
+		}
 	}
 	
 	public static Class<?> loadClass(String name) throws DMLRuntimeException {
@@ -169,6 +360,8 @@ public class CodegenUtils
 		
 		//keep loaded class for reuse
 		_cache.put(name, ret);
+		if( classBytes != null )
+			_cacheBytes.put(name, classBytes);
 		return ret;
 	}
 	
@@ -190,6 +383,11 @@ public class CodegenUtils
 	public static byte[] getClassAsByteArray(String name) 
 		throws DMLRuntimeException
 	{
+		//reuse class bytes of in-memory compiled or loaded classes
+		byte[] ret = _cacheBytes.get(name);
+		if( ret != null )
+			return ret;
+		
 		String classAsPath = name.replace('.', '/') + ".class";
 		
 		URLClassLoader classLoader = null;
@@ -226,6 +424,7 @@ public class CodegenUtils
 	
 	public static void clearClassCache() {
 		_cache.clear();
+		_cacheBytes.clear();
 	}
 	
 	private static void createWorkingDir() throws DMLRuntimeException  {
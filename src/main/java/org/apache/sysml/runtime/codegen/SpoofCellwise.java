@@ -28,6 +28,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.functionobjects.KahanPlus;
 import org.apache.sysml.runtime.instructions.cp.DoubleObject;
@@ -36,6 +37,7 @@ import org.apache.sysml.runtime.instructions.cp.ScalarObject;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.SparseBlock;
 import org.apache.sysml.runtime.util.UtilFunctions;
+import org.apache.sysml.utils.Statistics;
 
 public abstract class SpoofCellwise extends SpoofOperator implements Serializable
 {
@@ -139,12 +141,6 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 			k = 1; //serial execution
 		}
 		
-		//result allocation and preparations
-		out.reset(inputs.get(0).getNumRows(), _type == CellType.NO_AGG ? 
-				inputs.get(0).getNumColumns() : 1, false);
-		out.allocateDenseBlock();
-		double[] c = out.getDenseBlock();
-		
 		//input preparation
 		double[][] b = prepInputMatrices(inputs);
 		double[] scalars = prepInputScalars(scalarObjects);
@@ -155,12 +151,23 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		boolean sparseSafe = isSparseSafe() || (b.length == 0 
 				&& genexec( 0, b, scalars, m, n, 0, 0 ) == 0);
 		
+		//result allocation, where sparse-safe operations over sparse 
+		//inputs directly produce sparse outputs (with at most input nnz)
+		boolean sparseOut = _type == CellType.NO_AGG
+			&& sparseSafe && inputs.get(0).isInSparseFormat();
+		out.reset(m, _type == CellType.NO_AGG ? n : 1, sparseOut);
+		if( sparseOut ) {
+			out.allocateSparseRowsBlock();
+			if( DMLScript.STATISTICS )
+				Statistics.incrementCodegenSparseOutput();
+		}
+		else
+			out.allocateDenseBlock();
+		
 		long lnnz = 0;
 		if( k <= 1 ) //SINGLE-THREADED
 		{
-			lnnz = (!inputs.get(0).isInSparseFormat()) ?
-				executeDense(inputs.get(0).getDenseBlock(), b, scalars, c, m, n, sparseSafe, 0, m) :
-				executeSparse(inputs.get(0).getSparseBlock(), b, scalars, c, m, n, sparseSafe, 0, m);
+			lnnz = execute(inputs.get(0), b, scalars, out, m, n, sparseSafe, 0, m);
 		}
 		else  //MULTI-THREADED
 		{
@@ -170,7 +177,7 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 				int nk = UtilFunctions.roundToNext(Math.min(8*k,m/32), k);
 				int blklen = (int)(Math.ceil((double)m/nk));
 				for( int i=0; i<nk & i*blklen<m; i++ )
-					tasks.add(new ParExecTask(inputs.get(0), b, scalars, c, 
+					tasks.add(new ParExecTask(inputs.get(0), b, scalars, out, 
 						m, n, sparseSafe, i*blklen, Math.min((i+1)*blklen, m))); 
 				//execute tasks
 				List<Future<Long>> taskret = pool.invokeAll(tasks);	
@@ -190,6 +197,16 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		out.examSparsity();	
 	}
 	
+	private long execute(MatrixBlock a, double[][] b, double[] scalars, MatrixBlock out, int m, int n, boolean sparseSafe, int rl, int ru) 
+	{
+		if( out.isInSparseFormat() ) //sparse-safe w/ sparse input
+			return executeSparseSparseOut(a.getSparseBlock(), b, scalars, out.getSparseBlock(), m, n, rl, ru);
+		else if( !a.isInSparseFormat() )
+			return executeDense(a.getDenseBlock(), b, scalars, out.getDenseBlock(), m, n, sparseSafe, rl, ru);
+		else
+			return executeSparse(a.getSparseBlock(), b, scalars, out.getDenseBlock(), m, n, sparseSafe, rl, ru);
+	}
+	
 	/**
 	 * 
 	 * @param a
@@ -287,9 +304,10 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 					if( !sblock.isEmpty(i) ) {
 						int apos = sblock.pos(i);
 						int alen = sblock.size(i);
+						int[] aix = sblock.indexes(i);
 						double[] avals = sblock.values(i);
 						for( int j=apos; j<apos+alen; j++ ) {
-							kplus.execute2( kbuff, genexec(avals[j], b, scalars, m, n, i, j)); 
+							kplus.execute2( kbuff, genexec(avals[j], b, scalars, m, n, i, aix[j])); 
 						}
 					}	
 			}
@@ -316,10 +334,11 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 						if( !sblock.isEmpty(i) ) {
 							int apos = sblock.pos(i);
 							int alen = sblock.size(i);
+							int[] aix = sblock.indexes(i);
 							double[] avals = sblock.values(i);
 							for( int j=apos; j<apos+alen; j++ ) {
-								double val = genexec(avals[j], b, scalars, m, n, i, j);
-								c[i*n+sblock.indexes(i)[j]] = val;
+								double val = genexec(avals[j], b, scalars, m, n, i, aix[j]);
+								c[i*n+aix[j]] = val;
 								lnnz += (val!=0) ? 1 : 0;
 							}
 						}
@@ -346,9 +365,10 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 						kbuff.set(0, 0);
 						int apos = sblock.pos(i);
 						int alen = sblock.size(i);
+						int[] aix = sblock.indexes(i);
 						double[] avals = sblock.values(i);
 						for( int j=apos; j<apos+alen; j++ ) {
-							kplus.execute2(kbuff, genexec(avals[j], b, scalars, m, n, i, j));
+							kplus.execute2(kbuff, genexec(avals[j], b, scalars, m, n, i, aix[j]));
 						}
 						c[i] = kbuff._sum; 
 						lnnz += (c[i]!=0) ? 1 : 0;	
@@ -371,6 +391,33 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		return lnnz;
 	}
 
+	private long executeSparseSparseOut(SparseBlock sblock, double[][] b, double[] scalars, SparseBlock c, int m, int n, int rl, int ru) 
+	{
+		//note: only used for sparse-safe operations, where each output row
+		//has at most as many non-zeros as the corresponding input row
+		if( sblock == null )
+			return 0;
+		
+		long lnnz = 0;
+		for( int i=rl; i<ru; i++ ) {
+			if( sblock.isEmpty(i) ) continue;
+			int apos = sblock.pos(i);
+			int alen = sblock.size(i);
+			int[] aix = sblock.indexes(i);
+			double[] avals = sblock.values(i);
+			c.allocate(i, alen);
+			for( int j=apos; j<apos+alen; j++ ) {
+				double val = genexec(avals[j], b, scalars, m, n, i, aix[j]);
+				if( val != 0 ) {
+					c.append(i, aix[j], val);
+					lnnz++;
+				}
+			}
+		}
+		
+		return lnnz;
+	}
+
 	protected abstract double genexec( double a, double[][] b, double[] scalars, int m, int n, int rowIndex, int colIndex);
 	
 	private class ParAggTask implements Callable<Double> 
@@ -409,14 +456,14 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		private final MatrixBlock _a;
 		private final double[][] _b;
 		private final double[] _scalars;
-		private final double[] _c;
+		private final MatrixBlock _c;
 		private final int _rlen;
 		private final int _clen;
 		private final boolean _safe;
 		private final int _rl;
 		private final int _ru;
 
-		protected ParExecTask( MatrixBlock a, double[][] b, double[] scalars, double[] c, 
+		protected ParExecTask( MatrixBlock a, double[][] b, double[] scalars, MatrixBlock c, 
 				int rlen, int clen, boolean sparseSafe, int rl, int ru ) {
 			_a = a;
 			_b = b;
@@ -431,9 +478,7 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		
 		@Override
 		public Long call() throws DMLRuntimeException {
-			return (!_a.isInSparseFormat()) ?
-					executeDense(_a.getDenseBlock(), _b, _scalars, _c, _rlen, _clen, _safe, _rl, _ru) :
-					executeSparse(_a.getSparseBlock(), _b, _scalars,  _c, _rlen, _clen, _safe, _rl, _ru);
+			return execute(_a, _b, _scalars, _c, _rlen, _clen, _safe, _rl, _ru);
 		}
 	}
 }
@@ -48,6 +48,23 @@ public abstract class SpoofRowAggregate extends SpoofOperator
 	@Override
 	public void execute(ArrayList<MatrixBlock> inputs, ArrayList<ScalarObject> scalarObjects, MatrixBlock out)	
 		throws DMLRuntimeException
+	{
+		executeRowPartition(inputs, scalarObjects, out, 0);
+	}
+	
+	/**
+	 * Executes the operator over a row partition of the main input (e.g., a row
+	 * panel of a distributed matrix), where all side inputs are passed in full.
+	 * Row lookups into side inputs are shifted by the given row offset.
+	 * 
+	 * @param inputs main input row partition, followed by side inputs
+	 * @param scalarObjects scalar inputs
+	 * @param out output vector
+	 * @param rowOffset global row index of the first row of the partition (0-based)
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	public void executeRowPartition(ArrayList<MatrixBlock> inputs, ArrayList<ScalarObject> scalarObjects, MatrixBlock out, int rowOffset)	
+		throws DMLRuntimeException
 	{
 		//sanity check
 		if( inputs==null || inputs.size() < 1 || out==null )
@@ -67,9 +84,9 @@ public abstract class SpoofRowAggregate extends SpoofOperator
 		final int m = inputs.get(0).getNumRows();
 		final int n = inputs.get(0).getNumColumns();		
 		if( !inputs.get(0).isInSparseFormat() )
-			executeDense(inputs.get(0).getDenseBlock(), b, scalars, c, n, 0, m);
+			executeDense(inputs.get(0).getDenseBlock(), b, scalars, c, n, 0, m, rowOffset);
 		else
-			executeSparse(inputs.get(0).getSparseBlock(), b, scalars, c, n, 0, m);
+			executeSparse(inputs.get(0).getSparseBlock(), b, scalars, c, n, 0, m, rowOffset);
 	
 		//post-processing
 		out.recomputeNonZeros();	
@@ -123,15 +140,15 @@ public abstract class SpoofRowAggregate extends SpoofOperator
 		out.recomputeNonZeros();	
 	}
 	
-	private void executeDense(double[] a, double[][] b, double[] scalars, double[] c, int n, int rl, int ru) 
+	private void executeDense(double[] a, double[][] b, double[] scalars, double[] c, int n, int rl, int ru, int rix) 
 	{
 		for( int i=rl, aix=rl*n; i<ru; i++, aix+=n ) {
 			//call generated method
-			genexecRowDense( a, aix, b, scalars, c, n, i );
+			genexecRowDense( a, aix, b, scalars, c, n, rix+i );
 		}
 	}
 	
-	private void executeSparse(SparseBlock sblock, double[][] b, double[] scalars, double[] c, int n, int rl, int ru) 
+	private void executeSparse(SparseBlock sblock, double[][] b, double[] scalars, double[] c, int n, int rl, int ru, int rix) 
 	{
 		for( int i=rl; i<ru; i++ ) {
 			if( !sblock.isEmpty(i) ) {
@@ -141,7 +158,7 @@ public abstract class SpoofRowAggregate extends SpoofOperator
 				int alen = sblock.size(i);
 				
 				//call generated method
-				genexecRowSparse(avals, aix, apos, b, scalars, c, alen, i);
+				genexecRowSparse(avals, aix, apos, b, scalars, c, alen, rix+i);
 			}
 		}
 	}
@@ -178,9 +195,9 @@ public abstract class SpoofRowAggregate extends SpoofOperator
 		public double[] call() throws DMLRuntimeException {
 			double[] c = new double[_clen];
 			if( !_a.isInSparseFormat() )
-				executeDense(_a.getDenseBlock(), _b, _scalars, c, _clen, _rl, _ru);
+				executeDense(_a.getDenseBlock(), _b, _scalars, c, _clen, _rl, _ru, 0);
 			else
-				executeSparse(_a.getSparseBlock(), _b, _scalars, c, _clen, _rl, _ru);
+				executeSparse(_a.getSparseBlock(), _b, _scalars, c, _clen, _rl, _ru, 0);
 				
 			return c;
 		}
@@ -54,6 +54,11 @@ public class LocalVariableMap implements Cloneable
 		localMap = new HashMap <String, Data>(vars.localMap);
 		localID = _seq.getNextID();
 	}
+	
+	public long getID()
+	{
+		return localID;
+	}
 
 	public Set<String> keySet()
 	{
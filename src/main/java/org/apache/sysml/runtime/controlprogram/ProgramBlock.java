@@ -20,13 +20,16 @@
 package org.apache.sysml.runtime.controlprogram;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.api.MLContextProxy;
 import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.hops.DataOp;
 import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.hops.recompile.Recompiler;
 import org.apache.sysml.lops.Lop;
@@ -37,6 +40,7 @@ import org.apache.sysml.runtime.DMLScriptException;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject.UpdateType;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.instructions.Instruction;
 import org.apache.sysml.runtime.instructions.cp.BooleanObject;
 import org.apache.sysml.runtime.instructions.cp.ComputationCPInstruction;
@@ -147,7 +151,12 @@ public class ProgramBlock
 				&& _sb != null 
 				&& _sb.requiresRecompilation() )
 			{
-				tmp = Recompiler.recompileHopsDag(_sb, _sb.get_hops(), ec.getVariables(), null, false, _tid);
+				//obtain exact statistics of checkpointed rdd inputs (adaptive spark mode)
+				if( ec instanceof SparkExecutionContext && ConfigurationManager.isAdaptiveSpark() )
+					updateRuntimeStatistics((SparkExecutionContext)ec, _sb.get_hops());
+				
+				//note: plan cache only outside parfor workers, whose hops are modified by the optimizer
+				tmp = Recompiler.recompileHopsDag(_sb, _sb.get_hops(), ec.getVariables(), null, false, _tid==0, _tid);
 				
 				if( MLContextProxy.isActive() )
 					tmp = MLContextProxy.performCleanupAfterRecompilation(tmp);
@@ -168,6 +177,43 @@ public class ProgramBlock
 		executeInstructions(tmp, ec);
 	}
 	
+	/**
+	 * Obtains the exact statistics of all rdd-backed matrix inputs of the given
+	 * hop DAG with unknown sparsity, in order to re-plan the DAG according to 
+	 * actual instead of worst-case estimates. These statistics are collected 
+	 * during checkpoint materialization, i.e., without additional spark jobs.
+	 * 
+	 * @param sec spark execution context
+	 * @param hops list of dag roots
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	private static void updateRuntimeStatistics(SparkExecutionContext sec, ArrayList<Hop> hops) 
+		throws DMLRuntimeException
+	{
+		HashSet<String> inputs = new HashSet<String>();
+		Hop.resetVisitStatus(hops);
+		for( Hop hop : hops )
+			rCollectTransientReads(hop, inputs);
+		Hop.resetVisitStatus(hops);
+		
+		for( String varname : inputs ) {
+			Data dat = sec.getVariables().get(varname);
+			if( dat instanceof MatrixObject )
+				sec.updateMatrixStatistics(varname);
+		}
+	}
+	
+	private static void rCollectTransientReads(Hop hop, HashSet<String> inputs) {
+		if( hop.isVisited() )
+			return;
+		if( hop instanceof DataOp && ((DataOp)hop).getDataOpType()==DataOpTypes.TRANSIENTREAD
+			&& hop.getDataType().isMatrix() && hop.getNnz() < 0 )
+			inputs.add(hop.getName());
+		for( Hop c : hop.getInput() )
+			rCollectTransientReads(c, inputs);
+		hop.setVisited();
+	}
+	
 	/**
 	 * Executes given predicate instructions (incl recompilation if required)
 	 * 
@@ -20,6 +20,7 @@
 package org.apache.sysml.runtime.controlprogram.context;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -30,6 +31,7 @@ import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.apache.spark.Partitioner;
 import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
@@ -42,6 +44,8 @@ import org.apache.sysml.api.MLContextProxy;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.lops.Checkpoint.CheckpointStorage;
+import org.apache.sysml.lops.Lop;
 import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.Program;
@@ -50,6 +54,8 @@ import org.apache.sysml.runtime.controlprogram.caching.FrameObject;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
 import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.apache.sysml.runtime.instructions.cp.Data;
+import org.apache.sysml.runtime.instructions.spark.data.BlockStatistics;
+import org.apache.sysml.runtime.instructions.spark.data.BlockStatisticsAccumulator;
 import org.apache.sysml.runtime.instructions.spark.data.BroadcastObject;
 import org.apache.sysml.runtime.instructions.spark.data.LineageObject;
 import org.apache.sysml.runtime.instructions.spark.data.PartitionedBlock;
@@ -62,6 +68,7 @@ import org.apache.sysml.runtime.instructions.spark.functions.CopyTextInputFuncti
 import org.apache.sysml.runtime.instructions.spark.functions.CreateSparseBlockFunction;
 import org.apache.sysml.runtime.instructions.spark.utils.FrameRDDConverterUtils.LongFrameToLongWritableFrameFunction;
 import org.apache.sysml.runtime.instructions.spark.utils.RDDAggregateUtils;
+import org.apache.sysml.runtime.instructions.spark.utils.SparkKryoRegistrator;
 import org.apache.sysml.runtime.instructions.spark.utils.SparkUtils;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
@@ -76,6 +83,7 @@ import org.apache.sysml.runtime.util.MapReduceTool;
 import org.apache.sysml.runtime.util.UtilFunctions;
 import org.apache.sysml.utils.Statistics;
 
+import scala.Option;
 import scala.Tuple2;
 
 
@@ -101,6 +109,10 @@ public class SparkExecutionContext extends ExecutionContext
 	//TODO unify memory management for CP, par RDDs, and potentially broadcasts
 	private static MemoryManagerParRDDs _parRDDs = new MemoryManagerParRDDs(0.1);
 	
+	//registry of versioned broadcasts (latest version per variable) with reference
+	//counts of broadcast partitions that are shared across versions of a variable
+	private static BroadcastVersionManager _bcVersions = new BroadcastVersionManager();
+	
 	static {
 		// for internal debugging only
 		if( LDEBUG ) {
@@ -220,6 +232,7 @@ public class SparkExecutionContext extends ExecutionContext
 			}
 			
 			_parRDDs.clear();
+			_bcVersions.clear();
 		}
 		
 		// Set warning if spark.driver.maxResultSize is not set. It needs to be set before starting Spark Context for CP collect 
@@ -265,6 +278,14 @@ public class SparkExecutionContext extends ExecutionContext
 			conf.set("spark.locality.wait", "5s");
 		}
 		
+		//use kryo w/ registered block classes for serialized checkpoints
+		//(only if no serializer has been configured explicitly)
+		if( Checkpoint.getCheckpointStorage().isSerialized() 
+			&& !conf.contains("spark.serializer") ) {
+			conf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer");
+			conf.set("spark.kryo.registrator", SparkKryoRegistrator.class.getName());
+		}
+		
 		return conf;
 	}
 	
@@ -283,6 +304,45 @@ public class SparkExecutionContext extends ExecutionContext
 		return (JavaPairRDD<MatrixIndexes,MatrixBlock>) getRDDHandleForVariable( varname, InputInfo.BinaryBlockInputInfo);
 	}
 	
+	/**
+	 * Spark instructions should call this for matrix inputs of co-partitioned joins,
+	 * in order to obtain the binary block rdd partitioned with the given partitioner.
+	 * If the rdd is a checkpoint (e.g., a read-only variable in a loop), the partitioned
+	 * rdd is persisted in-place of the checkpoint, which allows subsequent operations 
+	 * (e.g., in following loop iterations) to reuse the partitioning w/o shuffle. 
+	 * 
+	 * @param varname variable name
+	 * @param partitioner partitioner of the output rdd
+	 * @return JavaPairRDD of MatrixIndexes-MatrixBlocks
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	public JavaPairRDD<MatrixIndexes,MatrixBlock> getPartitionedBinaryBlockRDDHandleForVariable( String varname, Partitioner partitioner ) 
+		throws DMLRuntimeException 
+	{
+		JavaPairRDD<MatrixIndexes,MatrixBlock> in = getBinaryBlockRDDHandleForVariable(varname);
+		
+		//pass-through if already partitioned accordingly
+		if( !in.rdd().partitioner().isEmpty() 
+			&& in.rdd().partitioner().get().equals(partitioner) )
+			return in;
+		
+		//repartition rdd (shuffle) 
+		JavaPairRDD<MatrixIndexes,MatrixBlock> out = in.partitionBy(partitioner);
+		
+		//persist partitioned rdd in-place of checkpoint
+		MatrixObject mo = getMatrixObject(varname);
+		if( mo.getRDDHandle().isCheckpointRDD() && in.getStorageLevel()!=StorageLevel.NONE() ) {
+			out = out.persist( in.getStorageLevel() );
+			RDDObject inro =  mo.getRDDHandle();           //guaranteed to exist (see above)
+			RDDObject outro = new RDDObject(out, varname); //create new rdd object
+			outro.setCheckpointRDD(true);                  //mark as checkpointed
+			outro.addLineageChild(inro);                   //keep lineage to prevent cycles on cleanup
+			mo.setRDDHandle(outro);
+		}
+		
+		return out;
+	}
+	
 	/**
 	 * Spark instructions should call this for all frame inputs except broadcast
 	 * variables.
@@ -535,25 +595,48 @@ public class SparkExecutionContext extends ExecutionContext
 			PartitionedBlock<MatrixBlock> pmb = new PartitionedBlock<MatrixBlock>(mb, brlen, bclen);
 			mo.release();
 			
-			//determine coarse-grained partitioning
-			int numPerPart = PartitionedBroadcast.computeBlocksPerPartition(mo.getNumRows(), mo.getNumColumns(), brlen, bclen);
+			//determine coarse-grained partitioning (finer-grained for versioned broadcasts,
+			//i.e., broadcasts of named variables which might be updated in loops, to allow 
+			//reuse of unchanged partitions when broadcasting the next version)
+			boolean versioned = !varname.startsWith(Lop.MATRIX_VAR_NAME_PREFIX);
+			long scopeID = getVariables().getID();
+			int numPerPart = versioned ?
+				PartitionedBroadcast.computeBlocksPerPartitionVersioned(mo.getNumRows(), mo.getNumColumns(), brlen, bclen) :
+				PartitionedBroadcast.computeBlocksPerPartition(mo.getNumRows(), mo.getNumColumns(), brlen, bclen);
 			int numParts = (int) Math.ceil((double)pmb.getNumRowBlocks()*pmb.getNumColumnBlocks() / numPerPart); 
 			Broadcast<PartitionedBlock<MatrixBlock>>[] ret = new Broadcast[numParts];
-					
+			BroadcastVersion prev = versioned ? _bcVersions.getVersion(scopeID, varname) : null;
+			if( prev != null && !prev.isCompatible(pmb, numPerPart) )
+				prev = null;
+			
 			//create coarse-grained partitioned broadcasts
-			if( numParts > 1 ) {
-				for( int i=0; i<numParts; i++ ) {
-					int offset = i * numPerPart;
-					int numBlks = Math.min(numPerPart, pmb.getNumRowBlocks()*pmb.getNumColumnBlocks()-offset);
-					PartitionedBlock<MatrixBlock> tmp = pmb.createPartition(offset, numBlks, new MatrixBlock());
-					ret[i] = getSparkContext().broadcast(tmp);
+			int numReused = 0;
+			for( int i=0; i<numParts; i++ ) {
+				int offset = i * numPerPart;
+				int numBlks = Math.min(numPerPart, pmb.getNumRowBlocks()*pmb.getNumColumnBlocks()-offset);
+				PartitionedBlock<MatrixBlock> part = (numParts > 1) ? 
+					pmb.createPartition(offset, numBlks, new MatrixBlock()) : pmb;
+				//reuse unchanged partition of previous version, otherwise broadcast
+				if( prev != null && prev.isEqualPartition(i, part, offset, numBlks) ) {
+					ret[i] = prev.getBroadcast(i);
+					numReused++;
 				}
+				else
+					ret[i] = getSparkContext().broadcast(part);
 			}
-			else { //single partition
-				ret[0] = getSparkContext().broadcast( pmb);
+			
+			//register versioned broadcast as latest version of the variable in the 
+			//current scope, and cleanup partitions of the previous version that are 
+			//no longer referenced
+			if( versioned ) {
+				BroadcastVersion bv = new BroadcastVersion(ret, numPerPart, pmb);
+				for( Broadcast<?> bc : _bcVersions.registerVersion(scopeID, varname, bv) )
+					cleanupBroadcastVariable(bc);
 			}
+			if( DMLScript.STATISTICS )
+				Statistics.incSparkBroadcastReuseCount(numReused);
 		
-			bret = new PartitionedBroadcast<MatrixBlock>(ret);
+			bret = new PartitionedBroadcast<MatrixBlock>(ret, numPerPart);
 			BroadcastObject<MatrixBlock> bchandle = new BroadcastObject<MatrixBlock>(bret, varname);
 			mo.setBroadcastHandle(bchandle);
 		}
@@ -1145,6 +1228,35 @@ public class SparkExecutionContext extends ExecutionContext
 		}
 	}
 	
+	/**
+	 * Unpersists the checkpoint rdd of the given variable that has been replaced by
+	 * a partitioned checkpoint (see getPartitionedBinaryBlockRDDHandleForVariable).
+	 * This is intended to be called after the partitioned rdd has been materialized 
+	 * by an action, in order to avoid caching both rdds until the variable is removed.
+	 * The replaced checkpoint is kept if it is still referenced by other variables.
+	 * 
+	 * @param varname variable name
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	public void cleanupReplacedCheckpointRDD( String varname ) 
+		throws DMLRuntimeException
+	{
+		RDDObject ro = getMatrixObject(varname).getRDDHandle();
+		if( ro == null || !ro.isCheckpointRDD() || ro.getLineageChilds().size() != 1 )
+			return;
+		LineageObject lo = ro.getLineageChilds().get(0);
+		if( !(lo instanceof RDDObject) || !((RDDObject)lo).isCheckpointRDD() )
+			return;
+		
+		//probe for a partitioned checkpoint (partitioner differs from child checkpoint)
+		Option<Partitioner> p1 = ro.getRDD().rdd().partitioner();
+		Option<Partitioner> p2 = ((RDDObject)lo).getRDD().rdd().partitioner();
+		if( p1.isDefined() && !p1.equals(p2) 
+			&& lo.getNumReferences() == 1 && !lo.hasBackReference() ) {
+			cleanupRDDVariable(((RDDObject)lo).getRDD());
+		}
+	}
+	
 	/**
 	 * This call destroys a broadcast variable at all executors and the driver.
 	 * Hence, it is intended to be used on rmvar only. Depending on the
@@ -1155,12 +1267,37 @@ public class SparkExecutionContext extends ExecutionContext
 	public void cleanupBroadcastVariable(Broadcast<?> bvar) 
 	{
 		//in comparison to 'unpersist' (which would only delete the broadcast from the executors),
-		//this call also deletes related data from the driver.
-		if( bvar.isValid() ) {
+		//this call also deletes related data from the driver. Broadcasts that are shared by
+		//multiple versions of a variable are only deleted if no longer referenced.
+		if( _bcVersions.release(bvar) && bvar.isValid() ) {
 			bvar.destroy( ASYNCHRONOUS_VAR_DESTROY );
 		}
 	}
 	
+	/**
+	 * This call releases the versioned broadcast of the given variable in the
+	 * current scope (if any), and destroys its partitions unless still referenced.
+	 * Hence, it is intended to be used on rmvar only.
+	 * 
+	 * @param varname variable name
+	 */
+	public void cleanupBroadcastVersion(String varname) 
+	{
+		for( Broadcast<?> bc : _bcVersions.releaseVersion(getVariables().getID(), varname) )
+			cleanupBroadcastVariable(bc);
+	}
+	
+	/**
+	 * This call releases all versioned broadcasts of the current scope, and
+	 * destroys their partitions unless still referenced. Hence, it is intended
+	 * to be used at the end of function calls only.
+	 */
+	public void cleanupBroadcastVersions() 
+	{
+		for( Broadcast<?> bc : _bcVersions.releaseScope(getVariables().getID()) )
+			cleanupBroadcastVariable(bc);
+	}
+	
 	/**
 	 * This call removes an rdd variable from executor memory and disk if required.
 	 * Hence, it is intended to be used on rmvar only. Depending on the
@@ -1209,7 +1346,8 @@ public class SparkExecutionContext extends ExecutionContext
 		
 		//convert mcsr into memory-efficient csr if potentially sparse
 		if( OptimizerUtils.checkSparseBlockCSRConversion(mcIn) ) {				
-			out = out.mapValues(new CreateSparseBlockFunction(SparseBlock.Type.CSR));
+			out = out.mapValues(new CreateSparseBlockFunction(
+				OptimizerUtils.getCheckpointSparseBlockType(mcIn)));
 		}
 		
 		//persist rdd in default storage level 
@@ -1244,6 +1382,41 @@ public class SparkExecutionContext extends ExecutionContext
 			in.count(); //trigger caching to prevent contention			       
 	}
 
+	/**
+	 * Obtains the exact block statistics of a checkpointed rdd-backed matrix with 
+	 * unknown number of non-zeros, and updates its matrix characteristics for 
+	 * dynamic recompilation. The statistics are collected by the checkpoint as a 
+	 * side effect of its materialization by preceding consumers, i.e., this call 
+	 * never triggers a spark job and returns null if the checkpoint is not (fully) 
+	 * materialized yet.
+	 * 
+	 * @param var variable name
+	 * @return block statistics, or null if not available
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	public BlockStatistics updateMatrixStatistics( String var ) 
+		throws DMLRuntimeException
+	{
+		MatrixObject mo = getMatrixObject(var);
+		MatrixCharacteristics mc = mo.getMatrixCharacteristics();
+		
+		//skip known, in-memory, or non-rdd matrices
+		if( mc.nnzKnown() || mo.getRDDHandle() == null || mo.isCached(true) )
+			return null;
+		
+		//obtain lazily collected statistics of checkpoint, if complete
+		BlockStatisticsAccumulator acc = mo.getRDDHandle().getBlockStatistics();
+		BlockStatistics stats = (acc != null) ? acc.value() : null;
+		if( stats == null )
+			return null;
+		
+		//update meta data
+		mc.setNonZeros(stats.getNonZeros());
+		if( LOG.isDebugEnabled() )
+			LOG.debug("Runtime statistics of "+var+": "+stats.toString());
+		return stats;
+	}
+
 	public void setThreadLocalSchedulerPool(String poolName) {
 		if( FAIR_SCHEDULER_MODE ) {
 			getSparkContext().sc().setLocalProperty(
@@ -1287,7 +1460,7 @@ public class SparkExecutionContext extends ExecutionContext
 	 * 
 	 * @return spark cluster configuration
 	 */
-	public static SparkClusterConfig getSparkClusterConfig() {
+	public synchronized static SparkClusterConfig getSparkClusterConfig() {
 		//lazy creation of spark cluster config		
 		if( _sconf == null )
 			_sconf = new SparkClusterConfig();
@@ -1387,6 +1560,7 @@ public class SparkExecutionContext extends ExecutionContext
 		private double _memDataMinFrac = -1; //minimum data fraction
 		private double _memDataMaxFrac = -1; //maximum data fraction
 		private double _memBroadcastFrac = -1; //broadcast fraction
+		private long _memOffHeap = -1; //off-heap mem per executor
 		
 		//degree of parallelism configurations
 		private int _numExecutors = -1; //total executors
@@ -1426,7 +1600,9 @@ public class SparkExecutionContext extends ExecutionContext
 				numExec = Math.max(jsc.sc().getExecutorMemoryStatus().size() - 1, 1);
 			}
 			
-			//compute data memory budget
+			//compute data memory budget (off-heap for off-heap checkpoints)
+			if( _memOffHeap > 0 && Checkpoint.getCheckpointStorage() == CheckpointStorage.OFFHEAP )
+				return numExec * _memOffHeap;
 			return (long) ( numExec * _memExecutor *
 				(min ? _memDataMinFrac : _memDataMaxFrac) );	
 		}
@@ -1479,6 +1655,12 @@ public class SparkExecutionContext extends ExecutionContext
 			_memDataMaxFrac = sconf.getDouble("spark.memory.fraction", 0.75); //default 75%
 			_memBroadcastFrac = _memDataMaxFrac * BROADCAST_DATA_FRACTION; //default 22.5%
 			
+			//get off-heap memory (only used for storage by off-heap checkpoints)
+			_memOffHeap = sconf.getBoolean("spark.memory.offHeap.enabled", false) ?
+				UtilFunctions.parseMemorySize(sconf.get("spark.memory.offHeap.size", "0")) : 0;
+			if( _memOffHeap <= 0 && Checkpoint.getCheckpointStorage() == CheckpointStorage.OFFHEAP )
+				LOG.warn("Off-heap checkpoints without configured spark.memory.offHeap.enabled/size.");
+			
 			//analyze spark degree of parallelism 
 			analyzeSparkParallelismConfiguation(sconf);
 		}
@@ -1529,6 +1711,7 @@ public class SparkExecutionContext extends ExecutionContext
 			sb.append("-- memDataMinFrac   = " + _memDataMinFrac + "\n");
 			sb.append("-- memDataMaxFrac   = " + _memDataMaxFrac + "\n");
 			sb.append("-- memBroadcastFrac = " + _memBroadcastFrac + "\n");
+			sb.append("-- memOffHeap       = " + _memOffHeap + "\n");
 			sb.append("-- numExecutors     = " + _numExecutors + "\n");
 			sb.append("-- defaultPar       = " + _defaultPar + "\n");		
 			return sb.toString();
@@ -1571,4 +1754,178 @@ public class SparkExecutionContext extends ExecutionContext
 			_rdds.clear();
 		}
 	}
+	
+	/**
+	 * Partitioned broadcast of a specific version of a variable, used
+	 * to reuse unchanged partitions when broadcasting the next version.
+	 * For comparisons, the partitions are obtained from the broadcasts
+	 * (which are materialized at the driver anyway), in order to avoid
+	 * additional driver-side copies outside the buffer pool.
+	 */
+	private static class BroadcastVersion
+	{
+		private final Broadcast<PartitionedBlock<MatrixBlock>>[] _bcs;
+		private final int _numPerPart;
+		private final long _rlen;
+		private final long _clen;
+		private final int _brlen;
+		private final int _bclen;
+		
+		public BroadcastVersion(Broadcast<PartitionedBlock<MatrixBlock>>[] bcs, int numPerPart, PartitionedBlock<MatrixBlock> pmb) {
+			_bcs = bcs;
+			_numPerPart = numPerPart;
+			_rlen = pmb.getNumRows();
+			_clen = pmb.getNumCols();
+			_brlen = pmb.getNumRowsPerBlock();
+			_bclen = pmb.getNumColumnsPerBlock();
+		}
+		
+		public Broadcast<PartitionedBlock<MatrixBlock>> getBroadcast(int pos) {
+			return _bcs[pos];
+		}
+		
+		public boolean isCompatible(PartitionedBlock<MatrixBlock> pmb, int numPerPart) {
+			return _numPerPart == numPerPart
+				&& _rlen == pmb.getNumRows() && _clen == pmb.getNumCols()
+				&& _brlen == pmb.getNumRowsPerBlock() 
+				&& _bclen == pmb.getNumColumnsPerBlock();
+		}
+		
+		public boolean isEqualPartition(int pos, PartitionedBlock<MatrixBlock> part, int offset, int numBlks) 
+			throws DMLRuntimeException
+		{
+			//check for destroyed broadcast (e.g., cleanup by another context)
+			if( !_bcs[pos].isValid() )
+				return false;
+			
+			//exact comparison of all blocks of the partition
+			PartitionedBlock<MatrixBlock> prev = _bcs[pos].value();
+			int ncblks = part.getNumColumnBlocks();
+			for( int ix=offset; ix<offset+numBlks; ix++ ) {
+				MatrixBlock mb1 = prev.getBlock(ix/ncblks+1, ix%ncblks+1);
+				MatrixBlock mb2 = part.getBlock(ix/ncblks+1, ix%ncblks+1);
+				if( !isEqualBlock(mb1, mb2) )
+					return false;
+			}
+			return true;
+		}
+		
+		private static boolean isEqualBlock(MatrixBlock mb1, MatrixBlock mb2) {
+			int rlen = mb1.getNumRows();
+			int clen = mb1.getNumColumns();
+			if( rlen != mb2.getNumRows() || clen != mb2.getNumColumns() 
+				|| mb1.getNonZeros() != mb2.getNonZeros() )
+				return false;
+			if( mb1.isEmptyBlock(false) )
+				return true;
+			
+			//dense-dense comparison over arrays
+			if( !mb1.isInSparseFormat() && !mb2.isInSparseFormat() ) {
+				double[] a = mb1.getDenseBlock();
+				double[] b = mb2.getDenseBlock();
+				for( int i=0; i<rlen*clen; i++ )
+					if( Double.doubleToLongBits(a[i]) != Double.doubleToLongBits(b[i]) )
+						return false;
+				return true;
+			}
+			
+			//comparison over the non-zeros of the sparse block, which is
+			//sufficient due to equal number of non-zeros of both blocks
+			MatrixBlock sp = mb1.isInSparseFormat() ? mb1 : mb2;
+			MatrixBlock other = (sp == mb1) ? mb2 : mb1;
+			SparseBlock a = sp.getSparseBlock();
+			for( int i=0; i<rlen; i++ ) {
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int k=apos; k<apos+alen; k++ )
+					if( Double.doubleToLongBits(avals[k]) 
+						!= Double.doubleToLongBits(other.quickGetValue(i, aix[k])) )
+						return false;
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Registry of the latest broadcast versions per variable, where a variable
+	 * is identified by its scope (i.e., the id of the symbol table of the main 
+	 * program, function call, or parfor worker) and its name. Partitions are 
+	 * reference counted, and released on rmvar or at the end of a function call.
+	 */
+	private static class BroadcastVersionManager
+	{
+		private HashMap<Long, HashMap<String, BroadcastVersion>> _versions;
+		private HashMap<Long, Integer> _refs;
+		
+		public BroadcastVersionManager() {
+			_versions = new HashMap<Long, HashMap<String, BroadcastVersion>>();
+			_refs = new HashMap<Long, Integer>();
+		}
+		
+		public synchronized BroadcastVersion getVersion(long scopeID, String varname) {
+			HashMap<String, BroadcastVersion> scope = _versions.get(scopeID);
+			return (scope != null) ? scope.get(varname) : null;
+		}
+		
+		public synchronized List<Broadcast<?>> registerVersion(long scopeID, String varname, BroadcastVersion bv) {
+			//acquire references by the new version and the registry
+			for( Broadcast<?> bc : bv._bcs ) {
+				Integer cnt = _refs.get(bc.id());
+				_refs.put(bc.id(), ((cnt!=null) ? cnt : 0) + 2);
+			}
+			
+			//release registry references of the previous version
+			if( !_versions.containsKey(scopeID) )
+				_versions.put(scopeID, new HashMap<String, BroadcastVersion>());
+			return getBroadcasts(_versions.get(scopeID).put(varname, bv));
+		}
+		
+		public synchronized List<Broadcast<?>> releaseVersion(long scopeID, String varname) {
+			HashMap<String, BroadcastVersion> scope = _versions.get(scopeID);
+			if( scope == null )
+				return new ArrayList<Broadcast<?>>();
+			List<Broadcast<?>> ret = getBroadcasts(scope.remove(varname));
+			if( scope.isEmpty() )
+				_versions.remove(scopeID);
+			return ret;
+		}
+		
+		public synchronized List<Broadcast<?>> releaseScope(long scopeID) {
+			List<Broadcast<?>> ret = new ArrayList<Broadcast<?>>();
+			HashMap<String, BroadcastVersion> scope = _versions.remove(scopeID);
+			if( scope != null )
+				for( BroadcastVersion bv : scope.values() )
+					ret.addAll(getBroadcasts(bv));
+			return ret;
+		}
+		
+		public synchronized boolean release(Broadcast<?> bc) {
+			//untracked broadcasts are always released
+			Integer cnt = _refs.get(bc.id());
+			if( cnt == null )
+				return true;
+			if( cnt > 1 ) {
+				_refs.put(bc.id(), cnt-1);
+				return false;
+			}
+			_refs.remove(bc.id());
+			return true;
+		}
+		
+		public synchronized void clear() {
+			_versions.clear();
+			_refs.clear();
+		}
+		
+		private static List<Broadcast<?>> getBroadcasts(BroadcastVersion bv) {
+			List<Broadcast<?>> ret = new ArrayList<Broadcast<?>>();
+			if( bv != null )
+				for( Broadcast<?> bc : bv._bcs )
+					ret.add(bc);
+			return ret;
+		}
+	}
 }
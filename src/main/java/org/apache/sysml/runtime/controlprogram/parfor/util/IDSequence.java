@@ -57,6 +57,17 @@ public class IDSequence
 		return val;
 	}
 	
+	/**
+	 * Reserves a contiguous range of IDs, which are subsequently not
+	 * returned by {@link #getNextID()}.
+	 * 
+	 * @param len number of IDs to reserve
+	 * @return first ID of the reserved range
+	 */
+	public long reserveIDs(long len) {
+		return _current.getAndAdd(len) + 1;
+	}
+	
 	public long getCurrentID() {
 		return _current.get();
 	}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.controlprogram.parfor.util;
+
+/**
+ * ID sequence that allows threads to draw IDs from a previously reserved,
+ * thread-local range. This makes the IDs assigned by a thread independent 
+ * of the interleaving with other threads (e.g., for parallel compilation). 
+ * Once the thread-local range is exhausted or if no range is set, IDs are 
+ * drawn from the global sequence.
+ * 
+ */
+public class RangeIDSequence extends IDSequence
+{
+	//thread-local range [next, end) of unused IDs
+	private final ThreadLocal<long[]> _range = new ThreadLocal<long[]>();
+	
+	@Override
+	public long getNextID() {
+		long[] range = _range.get();
+		if( range != null && range[0] < range[1] )
+			return range[0]++;
+		return super.getNextID();
+	}
+	
+	/**
+	 * Sets the range of IDs used by the current thread.
+	 * 
+	 * @param start first ID of the range (see {@link #reserveIDs(long)})
+	 * @param len number of IDs in the range
+	 */
+	public void setThreadRange(long start, long len) {
+		_range.set(new long[]{start, start+len});
+	}
+	
+	public void clearThreadRange() {
+		_range.remove();
+	}
+}
@@ -52,6 +52,7 @@ import org.apache.sysml.runtime.instructions.spark.CheckpointSPInstruction;
 import org.apache.sysml.runtime.instructions.spark.CompressionSPInstruction;
 import org.apache.sysml.runtime.instructions.spark.ConvolutionSPInstruction;
 import org.apache.sysml.runtime.instructions.spark.CovarianceSPInstruction;
+import org.apache.sysml.runtime.instructions.spark.CopmmSPInstruction;
 import org.apache.sysml.runtime.instructions.spark.CpmmSPInstruction;
 import org.apache.sysml.runtime.instructions.spark.CumulativeAggregateSPInstruction;
 import org.apache.sysml.runtime.instructions.spark.CumulativeOffsetSPInstruction;
@@ -127,6 +128,7 @@ public class SPInstructionParser extends InstructionParser
 		String2SPInstructionType.put( "pmm"        , SPINSTRUCTION_TYPE.PMM);
 		String2SPInstructionType.put( "zipmm"      , SPINSTRUCTION_TYPE.ZIPMM);
 		String2SPInstructionType.put( "pmapmm"     , SPINSTRUCTION_TYPE.PMAPMM);
+		String2SPInstructionType.put( "copmm"      , SPINSTRUCTION_TYPE.COPMM);
 		
 		
 		String2SPInstructionType.put( "uaggouterchain", SPINSTRUCTION_TYPE.UaggOuterChain);
@@ -330,6 +332,8 @@ public class SPInstructionParser extends InstructionParser
 				return ZipmmSPInstruction.parseInstruction(str);
 			case PMAPMM:
 				return PMapmmSPInstruction.parseInstruction(str);
+			case COPMM:
+				return CopmmSPInstruction.parseInstruction(str);
 				
 				
 			case UaggOuterChain:
@@ -38,6 +38,7 @@ import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContextFactory;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.instructions.Instruction;
 import org.apache.sysml.runtime.instructions.InstructionUtils;
 
@@ -195,6 +196,10 @@ public class FunctionCallCPInstruction extends CPInstruction
 			}
 		}
 		
+		// release versioned broadcasts of the function scope
+		if( fn_ec instanceof SparkExecutionContext )
+			((SparkExecutionContext)fn_ec).cleanupBroadcastVersions();
+		
 		// Unpin the pinned variables
 		ec.unpinVariables(_boundInputParamNames, pinStatus);
 		
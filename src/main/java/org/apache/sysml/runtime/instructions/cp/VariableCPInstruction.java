@@ -38,6 +38,7 @@ import org.apache.sysml.runtime.controlprogram.caching.FrameObject;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject.UpdateType;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverter;
 import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
 import org.apache.sysml.runtime.instructions.Instruction;
@@ -805,6 +806,10 @@ public class VariableCPInstruction extends CPInstruction
 		if ( input1_data instanceof MatrixObject ) {
 			ec.cleanupMatrixObject( (MatrixObject) input1_data );
 		}
+		
+		//release versioned broadcasts of the variable (if any)
+		if( ec instanceof SparkExecutionContext )
+			((SparkExecutionContext)ec).cleanupBroadcastVersion(varname);
 	}
 	
 	/**
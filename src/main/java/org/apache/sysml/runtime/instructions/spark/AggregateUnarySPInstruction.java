@@ -27,10 +27,12 @@ import org.apache.spark.api.java.function.PairFunction;
 import scala.Tuple2;
 
 import org.apache.sysml.hops.AggBinaryOp.SparkAggType;
+import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.lops.PartialAggregate.CorrectionLocationType;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.apache.sysml.runtime.instructions.InstructionUtils;
 import org.apache.sysml.runtime.instructions.cp.CPOperand;
 import org.apache.sysml.runtime.instructions.spark.functions.AggregateDropCorrectionFunction;
@@ -117,8 +119,12 @@ public class AggregateUnarySPInstruction extends UnarySPInstruction
 			}
 			else if( _aggtype == SparkAggType.MULTI_BLOCK ) {
 				//in case of multi-block aggregation, we always keep the correction
+				//(with map-side pre-aggregation of one partial per key and partition, 
+				//and a number of output partitions bounded by the output size, e.g., 
+				//colSums over many row blocks produces only a single row of blocks)
 				out = out.mapToPair(new RDDUAggFunction(auop, mc.getRowsPerBlock(), mc.getColsPerBlock()));			
-				out = RDDAggregateUtils.aggByKeyStable(out, aggop, false);
+				out = RDDAggregateUtils.aggByKeyStable(out, aggop, 
+					getNumOutputPartitions(sec, auop, out.getNumPartitions()), false);
 	
 				//drop correction after aggregation if required (aggbykey creates 
 				//partitioning, drop correction via partitioning-preserving mapvalues)
@@ -133,6 +139,21 @@ public class AggregateUnarySPInstruction extends UnarySPInstruction
 		}		
 	}
 
+	private int getNumOutputPartitions(SparkExecutionContext sec, AggregateUnaryOperator auop, int numPartitions) 
+		throws DMLRuntimeException
+	{
+		updateUnaryAggOutputMatrixCharacteristics(sec, auop.indexFn);
+		MatrixCharacteristics mcOut = sec.getMatrixCharacteristics(output.getName());
+		if( !mcOut.dimsKnown() )
+			return numPartitions;
+		
+		//worst-case dense output size over hdfs block size
+		double size = OptimizerUtils.estimatePartitionedSizeExactSparsity(mcOut.getRows(), 
+			mcOut.getCols(), mcOut.getRowsPerBlock(), mcOut.getColsPerBlock(), 1.0);
+		int outParts = (int) Math.max(Math.ceil(size/InfrastructureAnalyzer.getHDFSBlockSize()), 1);
+		return Math.min(numPartitions, outParts);
+	}
+
 	private static class RDDUAggFunction implements PairFunction<Tuple2<MatrixIndexes, MatrixBlock>, MatrixIndexes, MatrixBlock> 
 	{
 		private static final long serialVersionUID = 2672082409287856038L;
@@ -22,6 +22,7 @@ package org.apache.sysml.runtime.instructions.spark;
 import java.util.ArrayList;
 import java.util.Iterator;
 
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.function.PairFlatMapFunction;
 import org.apache.spark.api.java.function.PairFunction;
@@ -35,6 +36,7 @@ import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.functionobjects.OffsetColumnIndex;
 import org.apache.sysml.runtime.instructions.InstructionUtils;
 import org.apache.sysml.runtime.instructions.cp.CPOperand;
+import org.apache.sysml.runtime.instructions.spark.utils.SparkUtils;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
@@ -92,11 +94,16 @@ public class AppendGSPInstruction extends BinarySPInstruction
 		// General case: This one needs shifting and merging and hence has huge performance hit.
 		JavaPairRDD<MatrixIndexes,MatrixBlock> shifted_in2 = in2
 				.flatMapToPair(new ShiftMatrix(mc1, mc2, _cbind));
-		out = in1.cogroup(shifted_in2)
+		
+		//w/ skew-aware partitioning in output block space if applicable
+		updateBinaryAppendOutputMatrixCharacteristics(sec, _cbind);
+		Partitioner partitioner = SparkUtils.getSkewAwarePartitioner(
+			sec.getMatrixCharacteristics(output.getName()), 
+			Math.max(in1.getNumPartitions(), shifted_in2.getNumPartitions()), in1, shifted_in2);
+		out = ((partitioner != null) ? in1.cogroup(shifted_in2, partitioner) : in1.cogroup(shifted_in2))
 				.mapToPair(new MergeWithShiftedBlocks(mc1, mc2, _cbind));
 		
 		//put output RDD handle into symbol table
-		updateBinaryAppendOutputMatrixCharacteristics(sec, _cbind);
 		sec.setRDDHandleForVariable(output.getName(), out);
 		sec.addLineageRDD(output.getName(), input1.getName());
 		sec.addLineageRDD(output.getName(), input2.getName());
@@ -19,6 +19,7 @@
 
 package org.apache.sysml.runtime.instructions.spark;
 
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 
 import org.apache.sysml.lops.BinaryM.VectorType;
@@ -35,6 +36,7 @@ import org.apache.sysml.runtime.instructions.spark.functions.MatrixScalarUnaryFu
 import org.apache.sysml.runtime.instructions.spark.functions.MatrixVectorBinaryOpPartitionFunction;
 import org.apache.sysml.runtime.instructions.spark.functions.OuterVectorBinaryOpFunction;
 import org.apache.sysml.runtime.instructions.spark.functions.ReplicateVectorFunction;
+import org.apache.sysml.runtime.instructions.spark.utils.SparkUtils;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
@@ -111,9 +113,11 @@ public abstract class BinarySPInstruction extends ComputationSPInstruction
 		if( numRepRight > 1 )
 			in2 = in2.flatMapToPair(new ReplicateVectorFunction(rowvector, numRepRight));
 		
-		//execute binary operation
-		JavaPairRDD<MatrixIndexes,MatrixBlock> out = in1
-				.join(in2)
+		//execute binary operation (w/ skew-aware join partitioning if applicable)
+		Partitioner partitioner = SparkUtils.getSkewAwarePartitioner(mc1, 
+			Math.max(in1.getNumPartitions(), in2.getNumPartitions()), in1, in2);
+		JavaPairRDD<MatrixIndexes,MatrixBlock> out = ((partitioner != null) ? 
+				in1.join(in2, partitioner) : in1.join(in2))
 				.mapValues(new MatrixMatrixBinaryOpFunction(bop));
 		
 		//set output RDD
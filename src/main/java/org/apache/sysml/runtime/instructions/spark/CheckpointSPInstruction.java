@@ -21,6 +21,7 @@ package org.apache.sysml.runtime.instructions.spark;
 
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.storage.StorageLevel;
+import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.runtime.DMLRuntimeException;
@@ -30,6 +31,7 @@ import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.instructions.InstructionUtils;
 import org.apache.sysml.runtime.instructions.cp.BooleanObject;
 import org.apache.sysml.runtime.instructions.cp.CPOperand;
+import org.apache.sysml.runtime.instructions.spark.data.BlockStatisticsAccumulator;
 import org.apache.sysml.runtime.instructions.spark.data.RDDObject;
 import org.apache.sysml.runtime.instructions.spark.functions.CopyFrameBlockFunction;
 import org.apache.sysml.runtime.instructions.spark.functions.CreateSparseBlockFunction;
@@ -39,7 +41,6 @@ import org.apache.sysml.runtime.matrix.data.InputInfo;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
-import org.apache.sysml.runtime.matrix.data.SparseBlock;
 import org.apache.sysml.runtime.matrix.operators.Operator;
 
 
@@ -48,25 +49,34 @@ public class CheckpointSPInstruction extends UnarySPInstruction
 	//default storage level
 	private StorageLevel _level = null;
 	
+	//compressed matrix blocks
+	private boolean _compressed = false;
+	
 	public CheckpointSPInstruction(Operator op, CPOperand in, CPOperand out, StorageLevel level, String opcode, String istr) {
+		this(op, in, out, level, false, opcode, istr);
+	}
+	
+	public CheckpointSPInstruction(Operator op, CPOperand in, CPOperand out, StorageLevel level, boolean compressed, String opcode, String istr) {
 		super(op, in, out, opcode, istr);
 		_sptype = SPINSTRUCTION_TYPE.Checkpoint;
 		
 		_level = level;
+		_compressed = compressed;
 	}
 	
 	public static CheckpointSPInstruction parseInstruction ( String str ) 
 		throws DMLRuntimeException 
 	{
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
-		InstructionUtils.checkNumFields(parts, 3);
+		InstructionUtils.checkNumFields(parts, 3, 4);
 		
 		String opcode = parts[0];
 		CPOperand in = new CPOperand(parts[1]);
 		CPOperand out = new CPOperand(parts[2]);
 		StorageLevel level = StorageLevel.fromString(parts[3]);
+		boolean compressed = (parts.length > 4) && Boolean.parseBoolean(parts[4]);
 
-		return new CheckpointSPInstruction(null, in, out, level, opcode, str);
+		return new CheckpointSPInstruction(null, in, out, level, compressed, opcode, str);
 	}
 	
 	@Override
@@ -98,6 +108,7 @@ public class CheckpointSPInstruction extends UnarySPInstruction
 		// This prevents unnecessary overhead if the dataset is only consumed by cp operations.
 
 		JavaPairRDD<?,?> out = null;
+		BlockStatisticsAccumulator stats = null;
 		if( !in.getStorageLevel().equals( _level ) ) 
 		{
 			//(trigger coalesce if intended number of partitions exceeded by 20%
@@ -122,12 +133,30 @@ public class CheckpointSPInstruction extends UnarySPInstruction
 						.mapValues(new CopyFrameBlockFunction(false));	
 			}
 		
-			//convert mcsr into memory-efficient csr if potentially sparse
-			if( input1.getDataType()==DataType.MATRIX 
+			//compress matrix blocks (decompressed on demand by consumers),
+			//otherwise convert mcsr into memory-efficient csr if potentially sparse
+			//(not for serialized storage levels, which write csr anyway)
+			if( input1.getDataType()==DataType.MATRIX && _compressed ) {
+				out = ((JavaPairRDD<MatrixIndexes,MatrixBlock>)out)
+					.mapValues(new CompressionSPInstruction.CompressionFunction());
+			}
+			else if( input1.getDataType()==DataType.MATRIX && _level.deserialized()
 				&& OptimizerUtils.checkSparseBlockCSRConversion(mcIn) ) 
 			{				
 				out = ((JavaPairRDD<MatrixIndexes,MatrixBlock>)out)
-					.mapValues(new CreateSparseBlockFunction(SparseBlock.Type.CSR));
+					.mapValues(new CreateSparseBlockFunction(
+						OptimizerUtils.getCheckpointSparseBlockType(mcIn)));
+			}
+			
+			//adaptive mode: collect exact block statistics as a side effect of materializing
+			//the checkpoint by its first consumer (w/o additional job), for recompilation
+			if( input1.getDataType()==DataType.MATRIX && !mcIn.nnzKnown()
+				&& ConfigurationManager.isAdaptiveSpark() )
+			{
+				stats = new BlockStatisticsAccumulator(out.getNumPartitions());
+				sec.getSparkContext().sc().register(stats, "blockstats");
+				out = SparkUtils.collectBlockStatistics(
+					(JavaPairRDD<MatrixIndexes,MatrixBlock>)out, stats);
 			}
 			
 			//actual checkpoint into given storage level
@@ -151,6 +180,7 @@ public class CheckpointSPInstruction extends UnarySPInstruction
 			RDDObject inro =  cd.getRDDHandle();  //guaranteed to exist (see above)
 			RDDObject outro = new RDDObject(out, output.getName()); //create new rdd object
 			outro.setCheckpointRDD(true);         //mark as checkpointed
+			outro.setBlockStatistics(stats);      //lazily collected statistics, if any
 			outro.addLineageChild(inro);          //keep lineage to prevent cycles on cleanup
 			cd.setRDDHandle(outro);
 		}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.spark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import org.apache.spark.Partitioner;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.function.FlatMapFunction2;
+import org.apache.spark.api.java.function.PairFlatMapFunction;
+
+import scala.Tuple2;
+
+import org.apache.sysml.lops.MMCoPart;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.functionobjects.Multiply;
+import org.apache.sysml.runtime.functionobjects.Plus;
+import org.apache.sysml.runtime.instructions.InstructionUtils;
+import org.apache.sysml.runtime.instructions.cp.CPOperand;
+import org.apache.sysml.runtime.instructions.spark.data.BlockPartitioner;
+import org.apache.sysml.runtime.instructions.spark.data.LazyIterableIterator;
+import org.apache.sysml.runtime.instructions.spark.utils.RDDAggregateUtils;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.matrix.data.OperationsOnMatrixValues;
+import org.apache.sysml.runtime.matrix.operators.AggregateBinaryOperator;
+import org.apache.sysml.runtime.matrix.operators.AggregateOperator;
+import org.apache.sysml.runtime.matrix.operators.Operator;
+
+/**
+ * Co-partitioned matrix-vector multiplication X %*% v as a broadcast-free 
+ * alternative to mapmm for large vectors (e.g., in iterative algorithms). 
+ * X is partitioned into tiles of row and column blocks, which is done once 
+ * for checkpointed inputs and then reused across operations. Per operation, 
+ * we only replicate the vector blocks to all row tiles, co-partition them with 
+ * X (shuffle of the vector only), and compute the block matrix multiplications 
+ * via a partition-local zip of both inputs, followed by the aggregation of 
+ * partial results per output block (with map-side pre-aggregation).
+ */
+public class CopmmSPInstruction extends BinarySPInstruction 
+{
+	public CopmmSPInstruction(Operator op, CPOperand in1, CPOperand in2, CPOperand out, String opcode, String istr )
+	{
+		super(op, in1, in2, out, opcode, istr);
+		_sptype = SPINSTRUCTION_TYPE.COPMM;
+	}
+
+	public static CopmmSPInstruction parseInstruction( String str ) 
+		throws DMLRuntimeException 
+	{
+		String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
+		String opcode = parts[0];
+
+		if ( !opcode.equalsIgnoreCase(MMCoPart.OPCODE) )
+			throw new DMLRuntimeException("CopmmSPInstruction.parseInstruction():: Unknown opcode " + opcode);
+		
+		CPOperand in1 = new CPOperand(parts[1]);
+		CPOperand in2 = new CPOperand(parts[2]);
+		CPOperand out = new CPOperand(parts[3]);
+		AggregateOperator agg = new AggregateOperator(0, Plus.getPlusFnObject());
+		AggregateBinaryOperator aggbin = new AggregateBinaryOperator(Multiply.getMultiplyFnObject(), agg);
+		
+		return new CopmmSPInstruction(aggbin, in1, in2, out, opcode, str);
+	}
+	
+	@Override
+	public void processInstruction(ExecutionContext ec) 
+		throws DMLRuntimeException
+	{	
+		SparkExecutionContext sec = (SparkExecutionContext)ec;
+		MatrixCharacteristics mc1 = sec.getMatrixCharacteristics(input1.getName());
+		MatrixCharacteristics mc2 = sec.getMatrixCharacteristics(input2.getName());
+		
+		//get tile-partitioned rdd of X (reuse of existing partitioning, or 
+		//repartitioning and persist in-place if X is a checkpoint)
+		JavaPairRDD<MatrixIndexes,MatrixBlock> in1 = sec.getBinaryBlockRDDHandleForVariable( input1.getName() );
+		BlockPartitioner bp = getBlockPartitioner(in1, mc1);
+		in1 = sec.getPartitionedBinaryBlockRDDHandleForVariable(input1.getName(), bp);
+		
+		//replicate vector blocks to all row tiles and co-partition with X
+		long rbPerPart = bp.getNumRowBlocksPerPartition();
+		long numRowTiles = (long)Math.ceil((double)mc1.getNumRowBlocks()/rbPerPart);
+		JavaPairRDD<MatrixIndexes,MatrixBlock> in2 = sec.getBinaryBlockRDDHandleForVariable( input2.getName() )
+			.flatMapToPair(new ReplicateVectorBlockFunction(rbPerPart, numRowTiles))
+			.partitionBy(bp);
+		
+		//execute partition-local block matrix multiplications and aggregation
+		JavaPairRDD<MatrixIndexes,MatrixBlock> out = JavaPairRDD.fromJavaRDD(
+			in1.zipPartitions(in2, new CoPartitionMultFunction(rbPerPart, (int)mc2.getCols())));
+		out = RDDAggregateUtils.sumByKeyStable(out, false);
+		
+		//put output RDD handle into symbol table
+		sec.setRDDHandleForVariable(output.getName(), out);
+		sec.addLineageRDD(output.getName(), input1.getName());
+		sec.addLineageRDD(output.getName(), input2.getName());
+		
+		//update output statistics if not inferred
+		updateBinaryMMOutputMatrixCharacteristics(sec, true);
+	}
+	
+	private static BlockPartitioner getBlockPartitioner(JavaPairRDD<MatrixIndexes,MatrixBlock> in, MatrixCharacteristics mc) {
+		//reuse existing block partitioner (e.g., from previous loop iterations)
+		if( !in.rdd().partitioner().isEmpty() ) {
+			Partitioner p = in.rdd().partitioner().get();
+			if( p instanceof BlockPartitioner )
+				return (BlockPartitioner) p;
+		}
+		return new BlockPartitioner(mc, in.getNumPartitions());
+	}
+	
+	/**
+	 * Replicates a vector block of index (j,1) to the indexes (t*rbPerPart+1,j)
+	 * of all row tiles t, i.e., into the same partitions as the tiles of X with 
+	 * column block index j.
+	 */
+	private static class ReplicateVectorBlockFunction implements PairFlatMapFunction<Tuple2<MatrixIndexes,MatrixBlock>, MatrixIndexes, MatrixBlock> 
+	{
+		private static final long serialVersionUID = -3612396874561730286L;
+		
+		private final long _rbPerPart;
+		private final long _numRowTiles;
+		
+		public ReplicateVectorBlockFunction(long rbPerPart, long numRowTiles) {
+			_rbPerPart = rbPerPart;
+			_numRowTiles = numRowTiles;
+		}
+		
+		@Override
+		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call(Tuple2<MatrixIndexes, MatrixBlock> arg0) 
+			throws Exception 
+		{
+			ArrayList<Tuple2<MatrixIndexes, MatrixBlock>> ret = new ArrayList<Tuple2<MatrixIndexes, MatrixBlock>>();
+			long cix = arg0._1().getRowIndex();
+			for( long t=0; t<_numRowTiles; t++ )
+				ret.add(new Tuple2<MatrixIndexes, MatrixBlock>(
+					new MatrixIndexes(t*_rbPerPart+1, cix), arg0._2()));
+			return ret.iterator();
+		}
+	}
+	
+	private static class CoPartitionMultFunction implements FlatMapFunction2<Iterator<Tuple2<MatrixIndexes,MatrixBlock>>, 
+		Iterator<Tuple2<MatrixIndexes,MatrixBlock>>, Tuple2<MatrixIndexes,MatrixBlock>> 
+	{
+		private static final long serialVersionUID = 4873460584196137251L;
+		
+		private final long _rbPerPart;
+		private final int _ncol;
+		private final AggregateBinaryOperator _op;
+		
+		public CoPartitionMultFunction(long rbPerPart, int ncol) {
+			_rbPerPart = rbPerPart;
+			_ncol = ncol;
+			
+			//created operator for reuse
+			AggregateOperator agg = new AggregateOperator(0, Plus.getPlusFnObject());
+			_op = new AggregateBinaryOperator(Multiply.getMultiplyFnObject(), agg);
+		}
+		
+		@Override
+		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call(Iterator<Tuple2<MatrixIndexes, MatrixBlock>> arg0,
+			Iterator<Tuple2<MatrixIndexes, MatrixBlock>> arg1) 
+			throws Exception 
+		{
+			//collect co-partitioned vector blocks (small)
+			HashMap<MatrixIndexes, MatrixBlock> vblks = new HashMap<MatrixIndexes, MatrixBlock>();
+			while( arg1.hasNext() ) {
+				Tuple2<MatrixIndexes, MatrixBlock> tmp = arg1.next();
+				vblks.put(tmp._1(), tmp._2());
+			}
+			
+			//lazy block matrix multiplications over the partition of X
+			return new CoPartitionMultIterator(arg0, vblks);
+		}
+		
+		private class CoPartitionMultIterator extends LazyIterableIterator<Tuple2<MatrixIndexes, MatrixBlock>>
+		{
+			private final HashMap<MatrixIndexes, MatrixBlock> _vblks;
+			
+			public CoPartitionMultIterator(Iterator<Tuple2<MatrixIndexes, MatrixBlock>> in, HashMap<MatrixIndexes, MatrixBlock> vblks) {
+				super(in);
+				_vblks = vblks;
+			}
+
+			@Override
+			protected Tuple2<MatrixIndexes, MatrixBlock> computeNext(Tuple2<MatrixIndexes, MatrixBlock> arg)
+				throws Exception
+			{
+				MatrixIndexes ixIn = arg._1();
+				MatrixBlock blkIn = arg._2();
+				
+				//probe vector block of the row tile (empty if not existing)
+				long rix = (ixIn.getRowIndex()-1)/_rbPerPart*_rbPerPart+1;
+				MatrixBlock vblk = _vblks.get(new MatrixIndexes(rix, ixIn.getColumnIndex()));
+				MatrixBlock blkOut = (vblk != null) ?
+					(MatrixBlock) OperationsOnMatrixValues.performAggregateBinaryIgnoreIndexes(
+						blkIn, vblk, new MatrixBlock(), _op) :
+					new MatrixBlock(blkIn.getNumRows(), _ncol, true);
+				
+				return new Tuple2<MatrixIndexes, MatrixBlock>(
+					new MatrixIndexes(ixIn.getRowIndex(), 1), blkOut);
+			}
+		}
+	}
+}
@@ -19,6 +19,7 @@
 
 package org.apache.sysml.runtime.instructions.spark;
 
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.function.PairFunction;
 
@@ -33,6 +34,7 @@ import org.apache.sysml.runtime.functionobjects.Plus;
 import org.apache.sysml.runtime.instructions.InstructionUtils;
 import org.apache.sysml.runtime.instructions.cp.CPOperand;
 import org.apache.sysml.runtime.instructions.spark.utils.RDDAggregateUtils;
+import org.apache.sysml.runtime.instructions.spark.utils.SparkUtils;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
 import org.apache.sysml.runtime.matrix.mapred.IndexedMatrixValue;
@@ -93,11 +95,15 @@ public class CpmmSPInstruction extends BinarySPInstruction
 		JavaPairRDD<MatrixIndexes,MatrixBlock> in1 = sec.getBinaryBlockRDDHandleForVariable( input1.getName() );
 		JavaPairRDD<MatrixIndexes,MatrixBlock> in2 = sec.getBinaryBlockRDDHandleForVariable( input2.getName() );
 		
-		//process core cpmm matrix multiply 
+		//process core cpmm matrix multiply (w/ skew-aware join partitioning if applicable)
 		JavaPairRDD<Long, IndexedMatrixValue> tmp1 = in1.mapToPair(new CpmmIndexFunction(true));
 		JavaPairRDD<Long, IndexedMatrixValue> tmp2 = in2.mapToPair(new CpmmIndexFunction(false));
-		JavaPairRDD<MatrixIndexes,MatrixBlock> out = tmp1
-				   .join(tmp2)                              // join over common dimension
+		Partitioner partitioner = SparkUtils.getSkewAwareCpmmPartitioner(
+			sec.getMatrixCharacteristics(input1.getName()),
+			Math.max(in1.getNumPartitions(), in2.getNumPartitions()), in1, in2);
+		JavaPairRDD<MatrixIndexes,MatrixBlock> out = 
+				   ((partitioner != null) ? tmp1.join(tmp2, partitioner) : 
+				   tmp1.join(tmp2))                         // join over common dimension
 				   .mapToPair(new CpmmMultiplyFunction());  // compute block multiplications
 				   
 		//process cpmm aggregation and handle outputs				
@@ -20,8 +20,10 @@
 package org.apache.sysml.runtime.instructions.spark;
 
 
+import org.apache.spark.HashPartitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.Optional;
 import org.apache.spark.api.java.function.Function;
 
 import scala.Tuple2;
@@ -35,14 +37,17 @@ import org.apache.sysml.runtime.instructions.InstructionUtils;
 import org.apache.sysml.runtime.instructions.cp.CPOperand;
 import org.apache.sysml.runtime.instructions.spark.data.PartitionedBroadcast;
 import org.apache.sysml.runtime.instructions.spark.utils.RDDAggregateUtils;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
 import org.apache.sysml.runtime.matrix.operators.Operator;
+import org.apache.sysml.runtime.util.UtilFunctions;
 
 public class MapmmChainSPInstruction extends SPInstruction 
 {
 		
 	private ChainType _chainType = null;
+	private boolean _copartW = false;
 	
 	private CPOperand _input1 = null;
 	private CPOperand _input2 = null;
@@ -64,7 +69,7 @@ public class MapmmChainSPInstruction extends SPInstruction
 	}
 	
 	public MapmmChainSPInstruction(Operator op, CPOperand in1, CPOperand in2, CPOperand in3, CPOperand out, 
-                                   ChainType type, String opcode, String istr )
+                                   ChainType type, boolean copartW, String opcode, String istr )
 	{
 		super(op, opcode, istr);
 		_sptype = SPINSTRUCTION_TYPE.MAPMMCHAIN;
@@ -75,13 +80,14 @@ public class MapmmChainSPInstruction extends SPInstruction
 		_output = out;
 		
 		_chainType = type;
+		_copartW = copartW;
 	}
 
 	public static MapmmChainSPInstruction parseInstruction( String str ) 
 		throws DMLRuntimeException 
 	{
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType( str );	
-		InstructionUtils.checkNumFields ( parts, 4, 5 );
+		InstructionUtils.checkNumFields ( parts, 4, 6 );
 		String opcode = parts[0];
 
 		//check supported opcode 
@@ -100,13 +106,14 @@ public class MapmmChainSPInstruction extends SPInstruction
 			
 			return new MapmmChainSPInstruction(null, in1, in2, out, type, opcode, str);
 		}
-		else //parts.length==6
+		else //parts.length==7
 		{
 			CPOperand in3 = new CPOperand(parts[3]);
 			CPOperand out = new CPOperand(parts[4]);
 			ChainType type = ChainType.valueOf(parts[5]);
+			boolean copartW = Boolean.parseBoolean(parts[6]);
 		
-			return new MapmmChainSPInstruction(null, in1, in2, in3, out, type, opcode, str);
+			return new MapmmChainSPInstruction(null, in1, in2, in3, out, type, copartW, opcode, str);
 		}
 	}
 	
@@ -126,6 +133,23 @@ public class MapmmChainSPInstruction extends SPInstruction
 			JavaRDD<MatrixBlock> tmp = inX.values().map(new RDDMapMMChainFunction(inV));
 			out = RDDAggregateUtils.sumStable(tmp);		
 		}
+		else if( _copartW ) { // ChainType.XtwXv / ChainType.XtXvy w/o broadcast of w
+			//co-partition w with X (partitioning of X reused or persisted in-place if
+			//checkpoint), and join without shuffle of X since X has a single column block
+			inX = sec.getPartitionedBinaryBlockRDDHandleForVariable( _input1.getName(), 
+				!inX.rdd().partitioner().isEmpty() ? inX.rdd().partitioner().get() : 
+				new HashPartitioner(inX.getNumPartitions()) );
+			JavaPairRDD<MatrixIndexes,MatrixBlock> inW = sec.getBinaryBlockRDDHandleForVariable( _input3.getName() );
+			MatrixCharacteristics mcW = sec.getMatrixCharacteristics( _input3.getName() );
+			
+			//left outer join because w might not contain empty blocks
+			JavaRDD<MatrixBlock> tmp = inX.leftOuterJoin(inW, inX.rdd().partitioner().get())
+				.map(new RDDMapMMChainFunction3(inV, mcW, _chainType));
+			out = RDDAggregateUtils.sumStable(tmp);
+			
+			//unpersist checkpoint of X replaced by the now materialized partitioned X
+			sec.cleanupReplacedCheckpointRDD( _input1.getName() );
+		}
 		else { // ChainType.XtwXv / ChainType.XtXvy
 			PartitionedBroadcast<MatrixBlock> inW = sec.getBroadcastForVariable( _input3.getName() );
 			JavaRDD<MatrixBlock> tmp = inX.map(new RDDMapMMChainFunction2(inV, inW, _chainType));
@@ -203,4 +227,44 @@ public class MapmmChainSPInstruction extends SPInstruction
 					_pmW.getBlock(rowIx,1), new MatrixBlock(), _chainType);
 		}
 	}
+	
+	/**
+	 * This function implements the chain types XtwXv and XtXvy with co-partitioned
+	 * weights, i.e., a single broadcast and the weights joined with X. 
+	 */
+	private static class RDDMapMMChainFunction3 implements Function<Tuple2<MatrixIndexes, Tuple2<MatrixBlock, Optional<MatrixBlock>>>, MatrixBlock> 
+	{
+		private static final long serialVersionUID = 2960457231806834195L;
+
+		private PartitionedBroadcast<MatrixBlock> _pmV = null;
+		private MatrixCharacteristics _mcW = null;
+		private ChainType _chainType = null;
+		
+		public RDDMapMMChainFunction3( PartitionedBroadcast<MatrixBlock> bV, MatrixCharacteristics mcW, ChainType chain) 
+			throws DMLRuntimeException
+		{			
+			//get first broadcast vector (always single block)
+			_pmV = bV;
+			_mcW = mcW;
+			_chainType = chain;
+		}
+		
+		@Override
+		public MatrixBlock call( Tuple2<MatrixIndexes, Tuple2<MatrixBlock, Optional<MatrixBlock>>> arg0 ) 
+			throws Exception 
+		{
+			MatrixBlock pmV = _pmV.getBlock(1, 1);
+			
+			//obtain joined block of w, or empty block if not existing
+			MatrixIndexes ixIn = arg0._1();
+			MatrixBlock blkIn = arg0._2()._1();
+			MatrixBlock blkW = arg0._2()._2().isPresent() ? arg0._2()._2().get() :
+				new MatrixBlock(UtilFunctions.computeBlockSize(_mcW.getRows(), ixIn.getRowIndex(), 
+					_mcW.getRowsPerBlock()), (int)_mcW.getCols(), true);
+			
+			//execute mapmmchain operation (w/ joined block of w)
+			return blkIn.chainMatrixMultOperations(pmV, 
+					blkW, new MatrixBlock(), _chainType);
+		}
+	}
 }
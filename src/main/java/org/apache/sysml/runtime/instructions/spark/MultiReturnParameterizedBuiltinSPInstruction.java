@@ -123,23 +123,34 @@ public class MultiReturnParameterizedBuiltinSPInstruction extends ComputationSPI
 			Encoder encoderBuild = EncoderFactory.createEncoder(spec, colnames,
 					fo.getSchema(), (int)fo.getNumColumns(), null);
 			
-			MaxLongAccumulator accMax = registerMaxLongAccumulator(sec.getSparkContext()); 
-			JavaRDD<String> rcMaps = in
-					.mapPartitionsToPair(new TransformEncodeBuildFunction(encoderBuild))
-					.distinct().groupByKey()
-					.flatMap(new TransformEncodeGroupFunction(accMax));
-			if( containsMVImputeEncoder(encoderBuild) ) {
-				MVImputeAgent mva = getMVImputeEncoder(encoderBuild);
-				rcMaps = rcMaps.union(
-						in.mapPartitionsToPair(new TransformEncodeBuild2Function(mva))
-						  .groupByKey().flatMap(new TransformEncodeGroup2Function(mva)) );
+			//note: no build job for specs without recode maps or imputation (e.g., pure feature hashing)
+			boolean recode = containsRecodeEncoder(encoderBuild);
+			boolean impute = containsMVImputeEncoder(encoderBuild);
+			FrameBlock meta = null;
+			if( recode || impute ) {
+				MaxLongAccumulator accMax = registerMaxLongAccumulator(sec.getSparkContext()); 
+				JavaRDD<String> rcMaps = null;
+				if( recode ) {
+					rcMaps = in.mapPartitionsToPair(new TransformEncodeBuildFunction(encoderBuild))
+						.distinct().groupByKey()
+						.flatMap(new TransformEncodeGroupFunction(accMax));
+				}
+				if( impute ) {
+					MVImputeAgent mva = getMVImputeEncoder(encoderBuild);
+					JavaRDD<String> mvMeta = in.mapPartitionsToPair(new TransformEncodeBuild2Function(mva))
+						.groupByKey().flatMap(new TransformEncodeGroup2Function(mva));
+					rcMaps = (rcMaps != null) ? rcMaps.union(mvMeta) : mvMeta;
+				}
+				rcMaps.saveAsTextFile(fometa.getFileName()); //trigger eval
+				
+				//consolidate meta data frame (reuse multi-threaded reader, special handling missing values) 
+				FrameReader reader = FrameReaderFactory.createFrameReader(InputInfo.TextCellInputInfo);
+				meta = reader.readFrameFromHDFS(fometa.getFileName(), Math.max(accMax.value(), 0), fo.getNumColumns());
+				meta.recomputeColumnCardinality(); //recompute num distinct items per column
+			}
+			else {
+				meta = new FrameBlock((int)fo.getNumColumns(), ValueType.STRING);
 			}
-			rcMaps.saveAsTextFile(fometa.getFileName()); //trigger eval
-			
-			//consolidate meta data frame (reuse multi-threaded reader, special handling missing values) 
-			FrameReader reader = FrameReaderFactory.createFrameReader(InputInfo.TextCellInputInfo);
-			FrameBlock meta = reader.readFrameFromHDFS(fometa.getFileName(), accMax.value(), fo.getNumColumns());
-			meta.recomputeColumnCardinality(); //recompute num distinct items per column
 			meta.setColumnNames((colnames!=null)?colnames:meta.getColumnNames());
 			
 			//step 2: transform apply (similar to spark transformapply)
@@ -173,6 +184,14 @@ public class MultiReturnParameterizedBuiltinSPInstruction extends ComputationSPI
 		}
 	}
 
+	private boolean containsRecodeEncoder(Encoder encoder) {
+		if( encoder instanceof EncoderComposite )
+			for( Encoder cencoder : ((EncoderComposite)encoder).getEncoders() )
+				if( cencoder instanceof RecodeAgent )
+					return true;
+		return false;	
+	}
+
 	private boolean containsMVImputeEncoder(Encoder encoder) {
 		if( encoder instanceof EncoderComposite )
 			for( Encoder cencoder : ((EncoderComposite)encoder).getEncoders() )
@@ -260,13 +279,17 @@ public class MultiReturnParameterizedBuiltinSPInstruction extends ComputationSPI
 		public Iterator<Tuple2<Integer, Object>> call(Iterator<Tuple2<Long, FrameBlock>> iter)
 			throws Exception 
 		{
+			//no recode maps (e.g., pure feature hashing)
+			ArrayList<Tuple2<Integer,Object>> ret = new ArrayList<Tuple2<Integer,Object>>();
+			if( _raEncoder == null )
+				return ret.iterator();
+			
 			//build meta data (e.g., recode maps)
 			while( iter.hasNext() ) {
 				_raEncoder.buildPartial(iter.next()._2());	
 			}
 			
 			//output recode maps as columnID - token pairs
-			ArrayList<Tuple2<Integer,Object>> ret = new ArrayList<Tuple2<Integer,Object>>();
 			HashMap<Integer,HashSet<Object>> tmp = _raEncoder.getCPRecodeMapsPartial();
 			for( Entry<Integer,HashSet<Object>> e1 : tmp.entrySet() )
 				for( Object token : e1.getValue() )
@@ -36,6 +36,7 @@ import org.apache.sysml.runtime.instructions.cp.CPOperand;
 import org.apache.sysml.runtime.instructions.cp.DoubleObject;
 import org.apache.sysml.runtime.instructions.cp.ScalarObject;
 import org.apache.sysml.runtime.instructions.spark.utils.RDDAggregateUtils;
+import org.apache.sysml.runtime.instructions.spark.utils.RDDQuantileUtils;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
@@ -45,16 +46,18 @@ import org.apache.sysml.runtime.util.UtilFunctions;
 public class QuantilePickSPInstruction extends BinarySPInstruction
 {
 	private OperationTypes _type = null;
+	private boolean _sorted = true;
 	
-	public QuantilePickSPInstruction(Operator op, CPOperand in, CPOperand out, OperationTypes type, boolean inmem, String opcode, String istr){
-		this(op, in, null, out, type, inmem, opcode, istr);
+	public QuantilePickSPInstruction(Operator op, CPOperand in, CPOperand out, OperationTypes type, boolean inmem, boolean sorted, String opcode, String istr){
+		this(op, in, null, out, type, inmem, sorted, opcode, istr);
 	}
 	
-	public QuantilePickSPInstruction(Operator op, CPOperand in, CPOperand in2, CPOperand out,  OperationTypes type, boolean inmem, String opcode, String istr){
+	public QuantilePickSPInstruction(Operator op, CPOperand in, CPOperand in2, CPOperand out,  OperationTypes type, boolean inmem, boolean sorted, String opcode, String istr){
 		super(op, in, in2, out, opcode, istr);
 		_sptype = SPINSTRUCTION_TYPE.QPick;
 		
 		_type = type;
+		_sorted = sorted;
 		//inmem ignored here
 	}
 
@@ -79,24 +82,26 @@ public class QuantilePickSPInstruction extends BinarySPInstruction
 			CPOperand out = new CPOperand(parts[3]);
 			OperationTypes ptype = OperationTypes.IQM;
 			boolean inmem = false;
-			return new QuantilePickSPInstruction(null, in1, in2, out, ptype, inmem, opcode, str);			
+			return new QuantilePickSPInstruction(null, in1, in2, out, ptype, inmem, true, opcode, str);			
 		}
-		else if( parts.length == 5 )
+		else if( parts.length == 6 )
 		{
 			CPOperand in1 = new CPOperand(parts[1]);
 			CPOperand out = new CPOperand(parts[2]);
 			OperationTypes ptype = OperationTypes.valueOf(parts[3]);
 			boolean inmem = Boolean.parseBoolean(parts[4]);
-			return new QuantilePickSPInstruction(null, in1, out, ptype, inmem, opcode, str);
+			boolean sorted = Boolean.parseBoolean(parts[5]);
+			return new QuantilePickSPInstruction(null, in1, out, ptype, inmem, sorted, opcode, str);
 		}
-		else if( parts.length == 6 )
+		else if( parts.length == 7 )
 		{
 			CPOperand in1 = new CPOperand(parts[1]);
 			CPOperand in2 = new CPOperand(parts[2]);
 			CPOperand out = new CPOperand(parts[3]);
 			OperationTypes ptype = OperationTypes.valueOf(parts[4]);
 			boolean inmem = Boolean.parseBoolean(parts[5]);
-			return new QuantilePickSPInstruction(null, in1, in2, out, ptype, inmem, opcode, str);
+			boolean sorted = Boolean.parseBoolean(parts[6]);
+			return new QuantilePickSPInstruction(null, in1, in2, out, ptype, inmem, sorted, opcode, str);
 		}
 		
 		return null;
@@ -114,6 +119,12 @@ public class QuantilePickSPInstruction extends BinarySPInstruction
 		//get input rdds
 		JavaPairRDD<MatrixIndexes,MatrixBlock> in = sec.getBinaryBlockRDDHandleForVariable( input1.getName() );
 		
+		//sort-free selection over unsorted input (w/o weights)
+		if( !_sorted ) {
+			processSortFreeInstruction(ec, in, mc);
+			return;
+		}
+		
 		//NOTE: no difference between inmem/mr pick (see related cp instruction), but wrt w/ w/o weights
 		//(in contrast to cp instructions, w/o weights does not materializes weights of 1)
 		switch( _type ) 
@@ -161,6 +172,41 @@ public class QuantilePickSPInstruction extends BinarySPInstruction
 		}
 	}
 
+	private void processSortFreeInstruction(ExecutionContext ec, JavaPairRDD<MatrixIndexes,MatrixBlock> in, MatrixCharacteristics mc)
+		throws DMLRuntimeException
+	{
+		//NOTE: same keys as for the sorted input, but selection of values via 
+		//histogram passes instead of lookups into sorted rdd (see RDDQuantileUtils)
+		long n = mc.getRows() * mc.getCols();
+		double val = -1;
+		switch( _type ) 
+		{
+			case VALUEPICK: {
+				ScalarObject quantile = ec.getScalarInput(input2.getName(), input2.getValueType(), input2.isLiteral());
+				long key = (long)Math.ceil(quantile.getDoubleValue()*n);
+				val = RDDQuantileUtils.pickValues(in, n, new long[]{key})[0];
+				break;
+			}
+			case MEDIAN: {
+				long key = (long)Math.ceil(0.5*n);
+				val = RDDQuantileUtils.pickValues(in, n, new long[]{key})[0];
+				break;
+			}
+			case IQM: {
+				long key25 = (long)Math.ceil(0.25*n);
+				long key75 = (long)Math.ceil(0.75*n);
+				double[] vals = RDDQuantileUtils.pickValues(in, n, new long[]{key25, key75});
+				double sum = RDDQuantileUtils.sumRankRange(in, n, key25, vals[0], key75, vals[1]);
+				val = (sum + (key25-0.25*n)*vals[0] - (key75-0.75*n)*vals[1]) / (0.5*n);
+				break;
+			}
+			default:
+				throw new DMLRuntimeException("Unsupported sort-free qpick operation type: "+_type);
+		}
+		
+		ec.setScalarOutput(output.getName(), new DoubleObject(val));
+	}
+	
 	private double lookupKey(JavaPairRDD<MatrixIndexes,MatrixBlock> in, long key, int brlen)
 	{
 		long rix = UtilFunctions.computeBlockIndex(key, brlen);
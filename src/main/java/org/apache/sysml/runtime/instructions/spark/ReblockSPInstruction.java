@@ -178,7 +178,7 @@ public class ReblockSPInstruction extends UnarySPInstruction
 			
 			JavaPairRDD<MatrixIndexes, MatrixBlock> out = 
 					in1.flatMapToPair(new ExtractBlockForBinaryReblock(mc, mcOut));
-			out = RDDAggregateUtils.mergeByKey(out, false);
+			out = RDDAggregateUtils.mergeByKey(out, mcOut, out.getNumPartitions(), false);
 			
 			//put output RDD handle into symbol table
 			sec.setRDDHandleForVariable(output.getName(), out);
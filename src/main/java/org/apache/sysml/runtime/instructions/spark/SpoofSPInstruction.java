@@ -20,12 +20,17 @@
 package org.apache.sysml.runtime.instructions.spark;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.Optional;
+import org.apache.spark.api.java.function.Function;
 import org.apache.spark.api.java.function.PairFlatMapFunction;
 import org.apache.spark.api.java.function.PairFunction;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.lops.PartialAggregate.CorrectionLocationType;
 import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.codegen.CodegenUtils;
@@ -37,21 +42,30 @@ import org.apache.sysml.runtime.codegen.SpoofOuterProduct.OutProdType;
 import org.apache.sysml.runtime.codegen.SpoofRowAggregate;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.functionobjects.KahanPlus;
 import org.apache.sysml.runtime.instructions.InstructionUtils;
 import org.apache.sysml.runtime.instructions.cp.CPOperand;
 import org.apache.sysml.runtime.instructions.cp.DoubleObject;
+import org.apache.sysml.runtime.instructions.cp.KahanObject;
 import org.apache.sysml.runtime.instructions.cp.ScalarObject;
 import org.apache.sysml.runtime.instructions.spark.SPInstruction;
 import org.apache.sysml.runtime.instructions.spark.data.PartitionedBroadcast;
 import org.apache.sysml.runtime.instructions.spark.utils.RDDAggregateUtils;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.LibMatrixMult;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.matrix.operators.AggregateOperator;
+import org.apache.sysml.runtime.util.UtilFunctions;
 
 import scala.Tuple2;
 
 public class SpoofSPInstruction extends SPInstruction
 {
+	//test hook to join side inputs of equal dimensions (or row-aligned side
+	//inputs of row aggregates) independent of the broadcast memory budget
+	public static boolean FORCE_JOINED_SIDE_INPUTS = false;
+	
 	private final Class<?> _class;
 	private final byte[] _classBytes;
 	private final CPOperand[] _in;
@@ -92,33 +106,42 @@ public class SpoofSPInstruction extends SPInstruction
 		SparkExecutionContext sec = (SparkExecutionContext)ec;
 
 		//get input rdd and variable name
-		ArrayList<String> bcVars = new ArrayList<String>();
 		MatrixCharacteristics mcIn = sec.getMatrixCharacteristics(_in[0].getName());
 		JavaPairRDD<MatrixIndexes,MatrixBlock> in = sec.getBinaryBlockRDDHandleForVariable( _in[0].getName() );
 		JavaPairRDD<MatrixIndexes, MatrixBlock> out = null;
-				
-		//simple case: map-side only operation (one rdd input, broadcast all)
-		//keep track of broadcast variables
+		
+		//row aggregates require the entire rows of the main input, hence we
+		//create row panels (similar to row-wise mapmm) for multiple column blocks
+		boolean rowAgg = (_class.getSuperclass() == SpoofRowAggregate.class);
+		if( rowAgg && mcIn.getCols() > mcIn.getColsPerBlock() )
+			in = in.mapToPair(new ExtractRowPanelKeyFunction())
+				.groupByKey().mapValues(new CreateRowPanelFunction(mcIn));
+		
+		//decide upon broadcast or partitioned (joined) side inputs, and
+		//keep track of broadcast variables (null for partitioned inputs)
+		boolean[] bcVect = determineBroadcastInputs(sec, rowAgg);
 		ArrayList<PartitionedBroadcast<MatrixBlock>> bcMatrices = new ArrayList<PartitionedBroadcast<MatrixBlock>>();
 		ArrayList<ScalarObject> scalars = new ArrayList<ScalarObject>();
 		for( int i=1; i<_in.length; i++ ) {
 			if( _in[i].getDataType()==DataType.MATRIX) {
-				bcMatrices.add(sec.getBroadcastForVariable(_in[i].getName()));
-				bcVars.add(_in[i].getName());
+				bcMatrices.add(bcVect[i] ? 
+					sec.getBroadcastForVariable(_in[i].getName()) : null);
 			}
 			else if(_in[i].getDataType()==DataType.SCALAR) {
 				//note: even if literal, it might be compiled as scalar placeholder
 				scalars.add(sec.getScalarInput(_in[i].getName(), _in[i].getValueType(), _in[i].isLiteral()));
 			}
 		}
+		JavaPairRDD<MatrixIndexes, MatrixBlock[]> joined = createJoinedInputRDD(sec, in, bcVect, rowAgg);
 		
 		//initialize Spark Operator
 		if(_class.getSuperclass() == SpoofCellwise.class) // cellwise operator
 		{
+			SpoofOperator op = (SpoofOperator) CodegenUtils.createInstance(_class); 	
+			CellwiseFunction fmmc = new CellwiseFunction(_class.getName(), _classBytes, bcMatrices, scalars);
+			out = joined.mapPartitionsToPair(fmmc, true);
+			
 			if( _out.getDataType()==DataType.MATRIX ) {
-				SpoofOperator op = (SpoofOperator) CodegenUtils.createInstance(_class); 	
-				
-				out = in.mapPartitionsToPair(new CellwiseFunction(_class.getName(), _classBytes, bcMatrices, scalars), true);
 				if( ((SpoofCellwise)op).getCellType()==CellType.ROW_AGG && mcIn.getCols() > mcIn.getColsPerBlock() ) {
 					//NOTE: workaround with partition size needed due to potential bug in SPARK
 					//TODO investigate if some other side effect of correct blocks
@@ -130,21 +153,21 @@ public class SpoofSPInstruction extends SPInstruction
 				sec.setRDDHandleForVariable(_out.getName(), out);
 				
 				//maintain lineage information for output rdd
-				sec.addLineageRDD(_out.getName(), _in[0].getName());
-				for( String bcVar : bcVars )
-					sec.addLineageBroadcast(_out.getName(), bcVar);
+				maintainLineageInformation(sec, bcVect);
 				
 				//update matrix characteristics
 				updateOutputMatrixCharacteristics(sec, op);	
 			}
 			else { //SCALAR
-				out = in.mapPartitionsToPair(new CellwiseFunction(_class.getName(), _classBytes, bcMatrices, scalars), true);
-				MatrixBlock tmpMB = RDDAggregateUtils.sumStable(out);
-				sec.setVariable(_out.getName(), new DoubleObject(tmpMB.getValue(0, 0)));
+				//note: partials are pre-aggregated per partition
+				sec.setVariable(_out.getName(), new DoubleObject(aggregatePartials(out)));
 			}
 		}
 		else if(_class.getSuperclass() == SpoofOuterProduct.class) // outer product operator
 		{
+			OuterProductFunction fmmc = new OuterProductFunction(_class.getName(), _classBytes, bcMatrices, scalars);
+			out = joined.mapPartitionsToPair(fmmc, true);
+			
 			if( _out.getDataType()==DataType.MATRIX ) {
 				SpoofOperator op = (SpoofOperator) CodegenUtils.createInstance(_class); 	
 				OutProdType type = ((SpoofOuterProduct)op).getOuterProdType();
@@ -153,7 +176,6 @@ public class SpoofSPInstruction extends SPInstruction
 				updateOutputMatrixCharacteristics(sec, op);			
 				MatrixCharacteristics mcOut = sec.getMatrixCharacteristics(_out.getName());
 				
-				out = in.mapPartitionsToPair(new OuterProductFunction(_class.getName(), _classBytes, bcMatrices, scalars), true);
 				if(type == OutProdType.LEFT_OUTER_PRODUCT || type == OutProdType.RIGHT_OUTER_PRODUCT ) {
 					//NOTE: workaround with partition size needed due to potential bug in SPARK
 					//TODO investigate if some other side effect of correct blocks
@@ -165,29 +187,125 @@ public class SpoofSPInstruction extends SPInstruction
 				sec.setRDDHandleForVariable(_out.getName(), out);
 				
 				//maintain lineage information for output rdd
-				sec.addLineageRDD(_out.getName(), _in[0].getName());
-				for( String bcVar : bcVars )
-					sec.addLineageBroadcast(_out.getName(), bcVar);
-				
+				maintainLineageInformation(sec, bcVect);
 			}
 			else {
-				out = in.mapPartitionsToPair(new OuterProductFunction(_class.getName(), _classBytes, bcMatrices, scalars), true);
-				MatrixBlock tmp = RDDAggregateUtils.sumStable(out);
-				sec.setVariable(_out.getName(), new DoubleObject(tmp.getValue(0, 0)));
+				//note: partials are pre-aggregated per partition
+				sec.setVariable(_out.getName(), new DoubleObject(aggregatePartials(out)));
 			}
 		}
-		else if( _class.getSuperclass() == SpoofRowAggregate.class ) { //row aggregate operator
-			RowAggregateFunction fmmc = new RowAggregateFunction(_class.getName(), _classBytes, bcMatrices, scalars);
-			JavaPairRDD<MatrixIndexes,MatrixBlock> tmpRDD = in.mapToPair(fmmc);
-			MatrixBlock tmpMB = RDDAggregateUtils.sumStable(tmpRDD);		
+		else if( rowAgg ) { //row aggregate operator
+			RowAggregateFunction fmmc = new RowAggregateFunction(_class.getName(), _classBytes, bcMatrices, scalars, mcIn.getRowsPerBlock());
+			out = joined.mapPartitionsToPair(fmmc, true);
+			MatrixBlock tmpMB = RDDAggregateUtils.sumStable(out);		
 			sec.setMatrixOutput(_out.getName(), tmpMB);
-			return;
 		}
 		else {
 			throw new DMLRuntimeException("Operator " + _class.getSuperclass() + " is not supported on Spark");
 		}
 	}
 	
+	/**
+	 * Determines which matrix side inputs are broadcast. By default, we broadcast all
+	 * side inputs, but fall back to a partitioned join with the main input for large
+	 * side inputs of equal dimensions that exceed the broadcast memory budget. The
+	 * factors U and V of outer products are accessed via row and column indexes of 
+	 * the main input and hence always broadcast. Side inputs of row aggregates are
+	 * accessed via global row indexes or in full, hence we either broadcast all 
+	 * row-aligned side inputs, or join all of them as row panels if any of them 
+	 * exceeds the broadcast memory budget.
+	 * 
+	 * @param sec spark execution context
+	 * @param rowAgg indicator for row aggregate operators
+	 * @return boolean vector aligned with the instruction inputs (true for broadcast)
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	private boolean[] determineBroadcastInputs(SparkExecutionContext sec, boolean rowAgg) 
+		throws DMLRuntimeException 
+	{
+		boolean[] ret = new boolean[_in.length];
+		MatrixCharacteristics mcIn = sec.getMatrixCharacteristics(_in[0].getName());
+		boolean outerProd = (_class.getSuperclass() == SpoofOuterProduct.class);
+		
+		if( rowAgg ) {
+			boolean join = false;
+			for( int i=1; i<_in.length; i++ )
+				if( isRowAlignedSideInput(sec, i, mcIn) )
+					join |= !isBroadcastSideInput(sec.getMatrixCharacteristics(_in[i].getName()));
+			for( int i=1; i<_in.length; i++ )
+				ret[i] = _in[i].getDataType() == DataType.MATRIX
+					&& !(join && isRowAlignedSideInput(sec, i, mcIn));
+			return ret;
+		}
+		
+		for( int i=1; i<_in.length; i++ ) {
+			if( _in[i].getDataType() != DataType.MATRIX )
+				continue;
+			MatrixCharacteristics mc = sec.getMatrixCharacteristics(_in[i].getName());
+			ret[i] = (outerProd && i <= 2)
+				|| mc.getRows() != mcIn.getRows() || mc.getCols() != mcIn.getCols()
+				|| mc.getRowsPerBlock() != mcIn.getRowsPerBlock() || mc.getColsPerBlock() != mcIn.getColsPerBlock()
+				|| isBroadcastSideInput(mc);
+		}
+		return ret;
+	}
+	
+	private boolean isRowAlignedSideInput(SparkExecutionContext sec, int pos, MatrixCharacteristics mcIn) 
+		throws DMLRuntimeException 
+	{
+		//note: for square main inputs, vectors might be accessed in full (e.g., X %*% v)
+		if( _in[pos].getDataType() != DataType.MATRIX || mcIn.getRows() == mcIn.getCols() )
+			return false;
+		MatrixCharacteristics mc = sec.getMatrixCharacteristics(_in[pos].getName());
+		return mc.getRows() == mcIn.getRows() && mc.getRowsPerBlock() == mcIn.getRowsPerBlock();
+	}
+	
+	private static boolean isBroadcastSideInput(MatrixCharacteristics mc) {
+		return !FORCE_JOINED_SIDE_INPUTS
+			&& OptimizerUtils.checkSparkBroadcastMemoryBudget(mc.getRows(), mc.getCols(),
+				mc.getRowsPerBlock(), mc.getColsPerBlock(), mc.getNonZeros());
+	}
+	
+	private JavaPairRDD<MatrixIndexes, MatrixBlock[]> createJoinedInputRDD(SparkExecutionContext sec, 
+		JavaPairRDD<MatrixIndexes, MatrixBlock> in, boolean[] bcVect, boolean rowAgg) 
+		throws DMLRuntimeException 
+	{
+		//create joined input rdd w/ main input as first block
+		JavaPairRDD<MatrixIndexes, MatrixBlock[]> ret = in.mapValues(new MapInputSignature());
+		
+		//join partitioned side inputs in order of instruction inputs, where
+		//missing blocks of side inputs (e.g., empty blocks) are passed as empty
+		//blocks in order to retain all blocks of the main input
+		for( int i=1; i<_in.length; i++ )
+			if( _in[i].getDataType()==DataType.MATRIX && !bcVect[i] ) {
+				JavaPairRDD<MatrixIndexes, MatrixBlock> tmp = 
+					sec.getBinaryBlockRDDHandleForVariable( _in[i].getName() );
+				MatrixCharacteristics mc = new MatrixCharacteristics(
+					sec.getMatrixCharacteristics(_in[i].getName()));
+				if( rowAgg && mc.getCols() > mc.getColsPerBlock() )
+					tmp = tmp.mapToPair(new ExtractRowPanelKeyFunction())
+						.groupByKey().mapValues(new CreateRowPanelFunction(mc));
+				if( rowAgg ) //row panels w/ all columns
+					mc.setBlockSize(mc.getRowsPerBlock(), (int)Math.max(mc.getCols(), 1));
+				ret = ret.leftOuterJoin(tmp).mapToPair(new MapJoinSignature(mc));
+			}
+		
+		return ret;
+	}
+	
+	private void maintainLineageInformation(SparkExecutionContext sec, boolean[] bcVect) 
+		throws DMLRuntimeException 
+	{
+		sec.addLineageRDD(_out.getName(), _in[0].getName());
+		for( int i=1; i<_in.length; i++ )
+			if( _in[i].getDataType()==DataType.MATRIX ) {
+				if( bcVect[i] )
+					sec.addLineageBroadcast(_out.getName(), _in[i].getName());
+				else
+					sec.addLineageRDD(_out.getName(), _in[i].getName());
+			}
+	}
+	
 	private void updateOutputMatrixCharacteristics(SparkExecutionContext sec, SpoofOperator op) 
 		throws DMLRuntimeException 
 	{
@@ -216,8 +334,28 @@ public class SpoofSPInstruction extends SPInstruction
 				mcOut.set(mcIn2.getRows(), mcIn2.getCols(), mcIn2.getRowsPerBlock(), mcIn2.getColsPerBlock());
 		}
 	}
-		
-	private static class RowAggregateFunction implements PairFunction<Tuple2<MatrixIndexes, MatrixBlock>, MatrixIndexes, MatrixBlock> 
+	
+	private static ArrayList<MatrixBlock> getAllMatrixInputs(MatrixIndexes ixIn, MatrixBlock[] blkIn, 
+		ArrayList<PartitionedBroadcast<MatrixBlock>> inputs, int offset) 
+		throws DMLRuntimeException 
+	{
+		ArrayList<MatrixBlock> ret = new ArrayList<MatrixBlock>();
+		for( int i=offset, posRdd=1; i<inputs.size(); i++ ) {
+			PartitionedBroadcast<MatrixBlock> in = inputs.get(i);
+			//broadcast side input (matrix, row or column vector)
+			if( in != null ) {
+				int rowIndex = (int)((in.getNumRowBlocks()>=ixIn.getRowIndex())?ixIn.getRowIndex():1);
+				int colIndex = (int)((in.getNumColumnBlocks()>=ixIn.getColumnIndex())?ixIn.getColumnIndex():1);
+				ret.add(in.getBlock(rowIndex, colIndex));
+			}
+			//partitioned side input (joined by block indexes)
+			else
+				ret.add(blkIn[posRdd++]);
+		}
+		return ret;
+	}
+	
+	private static class RowAggregateFunction implements PairFlatMapFunction<Iterator<Tuple2<MatrixIndexes, MatrixBlock[]>>, MatrixIndexes, MatrixBlock> 
 	{
 		private static final long serialVersionUID = -7926980450209760212L;
 
@@ -225,54 +363,82 @@ public class SpoofSPInstruction extends SPInstruction
 		private ArrayList<ScalarObject> _scalars = null;
 		private byte[] _classBytes = null;
 		private String _className = null;
+		private int _brlen = -1;
 		private SpoofOperator _op = null;
+		private ArrayList<MatrixBlock> _sides = null;
 		
-		public RowAggregateFunction(String className, byte[] classBytes, ArrayList<PartitionedBroadcast<MatrixBlock>> bcMatrices, ArrayList<ScalarObject> scalars) 
+		public RowAggregateFunction(String className, byte[] classBytes, ArrayList<PartitionedBroadcast<MatrixBlock>> bcMatrices, ArrayList<ScalarObject> scalars, int brlen) 
 			throws DMLRuntimeException
 		{			
 			_className = className;
 			_classBytes = classBytes;
 			_vectors = bcMatrices;
 			_scalars = scalars;
+			_brlen = brlen;
 		}
 		
 		@Override
-		public Tuple2<MatrixIndexes, MatrixBlock> call( Tuple2<MatrixIndexes, MatrixBlock> arg0 ) 
+		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call( Iterator<Tuple2<MatrixIndexes, MatrixBlock[]>> arg ) 
 			throws Exception 
 		{
-			//lazy load of shipped class
+			//lazy load of shipped class and side inputs
 			if( _op == null ) {
 				Class<?> loadedClass = CodegenUtils.loadClass(_className, _classBytes);
 				_op = (SpoofOperator) CodegenUtils.createInstance(loadedClass); 
+				_sides = getVectorInputsFromBroadcast();
 			}
 			
-			//get main input block and indexes
-			MatrixIndexes ixIn = arg0._1();
-			MatrixBlock blkIn = arg0._2();
-			int rowIx = (int)ixIn.getRowIndex();
-			
-			//prepare output and execute single-threaded operator
-			ArrayList<MatrixBlock> inputs = getVectorInputsFromBroadcast(blkIn, rowIx);
-			MatrixIndexes ixOut = new MatrixIndexes(1,1);
-			MatrixBlock blkOut = new MatrixBlock();
-			_op.execute(inputs, _scalars, blkOut);
+			//pre-aggregate partial results of all row panels in partition
+			MatrixBlock blkAgg = null;
+			while( arg.hasNext() ) {
+				Tuple2<MatrixIndexes,MatrixBlock[]> tmp = arg.next();
+				MatrixIndexes ixIn = tmp._1();
+				MatrixBlock[] blkIn = tmp._2();
+				
+				//prepare inputs, where joined side inputs are row panels aligned 
+				//with the main input (no row offset), while broadcast side inputs 
+				//are complete vectors accessed via global row indexes
+				ArrayList<MatrixBlock> inputs = new ArrayList<MatrixBlock>();
+				inputs.add(blkIn[0]);
+				for( int i=0, posRdd=1; i<_sides.size(); i++ )
+					inputs.add((_sides.get(i) != null) ? _sides.get(i) : blkIn[posRdd++]);
+				int rowOffset = (blkIn.length > 1) ? 0 : (int)((ixIn.getRowIndex()-1) * _brlen);
+				
+				//prepare output and execute single-threaded operator
+				MatrixBlock blkOut = new MatrixBlock();
+				((SpoofRowAggregate)_op).executeRowPartition(inputs, _scalars, blkOut, rowOffset);
+				
+				if( blkAgg == null )
+					blkAgg = blkOut;
+				else
+					LibMatrixMult.vectAdd(blkOut.getDenseBlock(), blkAgg.getDenseBlock(), 
+						0, 0, blkAgg.getNumRows()*blkAgg.getNumColumns());
+			}
 			
-			//output new tuple
-			return new Tuple2<MatrixIndexes, MatrixBlock>(ixOut, blkOut);
+			//output single partial aggregate per partition
+			List<Tuple2<MatrixIndexes, MatrixBlock>> ret = new ArrayList<Tuple2<MatrixIndexes,MatrixBlock>>();
+			if( blkAgg != null ) {
+				blkAgg.recomputeNonZeros();
+				ret.add(new Tuple2<MatrixIndexes, MatrixBlock>(new MatrixIndexes(1,1), blkAgg));
+			}
+			return ret.iterator();
 		}
 		
-		private ArrayList<MatrixBlock> getVectorInputsFromBroadcast(MatrixBlock blkIn, int rowIndex) 
+		private ArrayList<MatrixBlock> getVectorInputsFromBroadcast() 
 			throws DMLRuntimeException 
 		{
+			//note: side inputs of row aggregates are accessed via global row 
+			//indexes or in full (e.g., dot products), hence we slice entire vectors
+			//(null for joined side inputs)
 			ArrayList<MatrixBlock> ret = new ArrayList<MatrixBlock>();
-			ret.add(blkIn);
 			for( PartitionedBroadcast<MatrixBlock> vector : _vectors )
-				ret.add(vector.getBlock((vector.getNumRowBlocks()>=rowIndex)?rowIndex:1, 1));
+				ret.add((vector == null) ? null : vector.sliceOperations(1, vector.getNumRows(), 
+					1, vector.getNumCols(), new MatrixBlock()));
 			return ret;
 		}
 	}
 	
-	private static class CellwiseFunction implements PairFlatMapFunction<Iterator<Tuple2<MatrixIndexes, MatrixBlock>>, MatrixIndexes, MatrixBlock> 
+	private static class CellwiseFunction implements PairFlatMapFunction<Iterator<Tuple2<MatrixIndexes, MatrixBlock[]>>, MatrixIndexes, MatrixBlock> 
 	{
 		private static final long serialVersionUID = -8209188316939435099L;
 		
@@ -292,7 +458,7 @@ public class SpoofSPInstruction extends SPInstruction
 		}
 		
 		@Override
-		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call(Iterator<Tuple2<MatrixIndexes, MatrixBlock>> arg)
+		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call(Iterator<Tuple2<MatrixIndexes, MatrixBlock[]>> arg)
 			throws Exception 
 		{
 			//lazy load of shipped class
@@ -301,47 +467,44 @@ public class SpoofSPInstruction extends SPInstruction
 				_op = (SpoofOperator) CodegenUtils.createInstance(loadedClass); 
 			}
 			
+			CellType type = ((SpoofCellwise)_op).getCellType();
+			KahanObject kbuff = new KahanObject(0, 0);
+			KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+			
 			List<Tuple2<MatrixIndexes, MatrixBlock>> ret = new ArrayList<Tuple2<MatrixIndexes,MatrixBlock>>();
 			while(arg.hasNext()) 
 			{
-				Tuple2<MatrixIndexes,MatrixBlock> tmp = arg.next();
+				Tuple2<MatrixIndexes,MatrixBlock[]> tmp = arg.next();
 				MatrixIndexes ixIn = tmp._1();
-				MatrixBlock blkIn = tmp._2();
+				MatrixBlock[] blkIn = tmp._2();
 				MatrixIndexes ixOut = ixIn; 
-				MatrixBlock blkOut = new MatrixBlock();
-				ArrayList<MatrixBlock> inputs = getVectorInputsFromBroadcast(blkIn, ixIn);
+				ArrayList<MatrixBlock> inputs = new ArrayList<MatrixBlock>();
+				inputs.add(blkIn[0]);
+				inputs.addAll(getAllMatrixInputs(ixIn, blkIn, _vectors, 0));
 					
 				//execute core operation
-				if(((SpoofCellwise)_op).getCellType()==CellType.FULL_AGG) {
+				if( type == CellType.FULL_AGG ) {
 					ScalarObject obj = _op.execute(inputs, _scalars, 1);
-					blkOut.reset(1, 1);
-					blkOut.quickSetValue(0, 0, obj.getDoubleValue());	
+					kplus.execute2(kbuff, obj.getDoubleValue());
 				}
 				else {
-					if(((SpoofCellwise)_op).getCellType()==CellType.ROW_AGG)
+					MatrixBlock blkOut = new MatrixBlock();
+					if( type == CellType.ROW_AGG )
 						ixOut = new MatrixIndexes(ixOut.getRowIndex(), 1);
 					_op.execute(inputs, _scalars, blkOut);
+					ret.add(new Tuple2<MatrixIndexes,MatrixBlock>(ixOut, blkOut));
 				}
-				ret.add(new Tuple2<MatrixIndexes,MatrixBlock>(ixOut, blkOut));
 			}
+			
+			//output single partial aggregate per partition
+			if( type == CellType.FULL_AGG )
+				ret.add(createPartialAggregate(kbuff));
+			
 			return ret.iterator();
 		}
-		
-		private ArrayList<MatrixBlock> getVectorInputsFromBroadcast(MatrixBlock blkIn, MatrixIndexes ixIn) 
-			throws DMLRuntimeException 
-		{
-			ArrayList<MatrixBlock> ret = new ArrayList<MatrixBlock>();
-			ret.add(blkIn);
-			for( PartitionedBroadcast<MatrixBlock> in : _vectors ) {
-				int rowIndex = (int)((in.getNumRowBlocks()>=ixIn.getRowIndex())?ixIn.getRowIndex():1);
-				int colIndex = (int)((in.getNumColumnBlocks()>=ixIn.getColumnIndex())?ixIn.getColumnIndex():1);
-				ret.add(in.getBlock(rowIndex, colIndex));
-			}
-			return ret;
-		}
 	}	
 	
-	private static class OuterProductFunction implements PairFlatMapFunction<Iterator<Tuple2<MatrixIndexes, MatrixBlock>>, MatrixIndexes, MatrixBlock> 
+	private static class OuterProductFunction implements PairFlatMapFunction<Iterator<Tuple2<MatrixIndexes, MatrixBlock[]>>, MatrixIndexes, MatrixBlock> 
 	{
 		private static final long serialVersionUID = -8209188316939435099L;
 		
@@ -361,7 +524,7 @@ public class SpoofSPInstruction extends SPInstruction
 		}
 		
 		@Override
-		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call(Iterator<Tuple2<MatrixIndexes, MatrixBlock>> arg)
+		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call(Iterator<Tuple2<MatrixIndexes, MatrixBlock[]>> arg)
 			throws Exception 
 		{
 			//lazy load of shipped class
@@ -370,32 +533,39 @@ public class SpoofSPInstruction extends SPInstruction
 				_op = (SpoofOperator) CodegenUtils.createInstance(loadedClass); 
 			}
 			
+			OutProdType type = ((SpoofOuterProduct)_op).getOuterProdType();
+			KahanObject kbuff = new KahanObject(0, 0);
+			KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+			
 			List<Tuple2<MatrixIndexes, MatrixBlock>> ret = new ArrayList<Tuple2<MatrixIndexes,MatrixBlock>>();
 			while(arg.hasNext())
 			{
-				Tuple2<MatrixIndexes,MatrixBlock> tmp = arg.next();
+				Tuple2<MatrixIndexes,MatrixBlock[]> tmp = arg.next();
 				MatrixIndexes ixIn = tmp._1();
-				MatrixBlock blkIn = tmp._2();
-				MatrixBlock blkOut = new MatrixBlock();
+				MatrixBlock[] blkIn = tmp._2();
 
 				ArrayList<MatrixBlock> inputs = new ArrayList<MatrixBlock>();
-				inputs.add(blkIn);
+				inputs.add(blkIn[0]);
 				inputs.add(_bcMatrices.get(0).getBlock((int)ixIn.getRowIndex(), 1)); // U
 				inputs.add(_bcMatrices.get(1).getBlock((int)ixIn.getColumnIndex(), 1)); // V
-						
+				inputs.addAll(getAllMatrixInputs(ixIn, blkIn, _bcMatrices, 2)); // e.g., W
+				
 				//execute core operation
-				if(((SpoofOuterProduct)_op).getOuterProdType()==OutProdType.AGG_OUTER_PRODUCT) {
-					ScalarObject obj = _op.execute(inputs, _scalars,1);
-					blkOut.reset(1, 1);
-					blkOut.quickSetValue(0, 0, obj.getDoubleValue());
+				if( type == OutProdType.AGG_OUTER_PRODUCT ) {
+					ScalarObject obj = _op.execute(inputs, _scalars, 1);
+					kplus.execute2(kbuff, obj.getDoubleValue());
 				}
 				else {
+					MatrixBlock blkOut = new MatrixBlock();
 					_op.execute(inputs, _scalars, blkOut);
+					ret.add(new Tuple2<MatrixIndexes,MatrixBlock>(createOutputIndexes(ixIn,_op), blkOut));
 				}
-				
-				ret.add(new Tuple2<MatrixIndexes,MatrixBlock>(createOutputIndexes(ixIn,_op), blkOut));				
 			}
 			
+			//output single partial aggregate per partition
+			if( type == OutProdType.AGG_OUTER_PRODUCT )
+				ret.add(createPartialAggregate(kbuff));
+			
 			return ret.iterator();
 		}
 		
@@ -408,4 +578,106 @@ public class SpoofSPInstruction extends SPInstruction
 				return in;
 		}		
 	}
+	
+	private static Tuple2<MatrixIndexes, MatrixBlock> createPartialAggregate(KahanObject kbuff) {
+		//partial aggregate w/ correction in last column
+		MatrixBlock blkOut = new MatrixBlock(1, 2, false);
+		blkOut.quickSetValue(0, 0, kbuff._sum);
+		blkOut.quickSetValue(0, 1, kbuff._correction);
+		return new Tuple2<MatrixIndexes,MatrixBlock>(new MatrixIndexes(1,1), blkOut);
+	}
+	
+	private static double aggregatePartials(JavaPairRDD<MatrixIndexes, MatrixBlock> partials) {
+		//stable aggregate of partials, which passes along their corrections
+		AggregateOperator aop = new AggregateOperator(0, KahanPlus.getKahanPlusFnObject(), 
+			true, CorrectionLocationType.LASTCOLUMN);
+		MatrixBlock tmp = RDDAggregateUtils.aggStable(partials, aop);
+		return tmp.quickGetValue(0, 0);
+	}
+	
+	private static class MapInputSignature implements Function<MatrixBlock, MatrixBlock[]> 
+	{
+		private static final long serialVersionUID = -816443970067626102L;
+
+		@Override
+		public MatrixBlock[] call(MatrixBlock v1) throws Exception {
+			return new MatrixBlock[]{ v1 };
+		}
+	}
+	
+	private static class MapJoinSignature implements PairFunction<Tuple2<MatrixIndexes, Tuple2<MatrixBlock[],Optional<MatrixBlock>>>, MatrixIndexes, MatrixBlock[]> 
+	{
+		private static final long serialVersionUID = -704403012606821854L;
+		
+		private final MatrixCharacteristics _mc;
+		
+		public MapJoinSignature(MatrixCharacteristics mc) {
+			_mc = mc;
+		}
+
+		@Override
+		public Tuple2<MatrixIndexes, MatrixBlock[]> call(Tuple2<MatrixIndexes, Tuple2<MatrixBlock[], Optional<MatrixBlock>>> arg0) 
+			throws Exception 
+		{
+			MatrixIndexes ix = arg0._1();
+			MatrixBlock[] blks = arg0._2()._1();
+			MatrixBlock[] ret = Arrays.copyOf(blks, blks.length+1);
+			ret[ret.length-1] = arg0._2()._2().isPresent() ? arg0._2()._2().get() :
+				new MatrixBlock(
+					UtilFunctions.computeBlockSize(_mc.getRows(), ix.getRowIndex(), _mc.getRowsPerBlock()),
+					UtilFunctions.computeBlockSize(_mc.getCols(), ix.getColumnIndex(), _mc.getColsPerBlock()), true);
+			return new Tuple2<MatrixIndexes, MatrixBlock[]>(ix, ret);
+		}
+	}
+	
+	private static class ExtractRowPanelKeyFunction implements PairFunction<Tuple2<MatrixIndexes,MatrixBlock>, MatrixIndexes, Tuple2<MatrixIndexes,MatrixBlock>> 
+	{
+		private static final long serialVersionUID = 4826403624327404391L;
+
+		@Override
+		public Tuple2<MatrixIndexes, Tuple2<MatrixIndexes, MatrixBlock>> call(Tuple2<MatrixIndexes, MatrixBlock> arg0) 
+			throws Exception 
+		{
+			MatrixIndexes ixOut = new MatrixIndexes(arg0._1().getRowIndex(), 1);
+			return new Tuple2<MatrixIndexes, Tuple2<MatrixIndexes, MatrixBlock>>(ixOut, arg0);
+		}
+	}
+	
+	private static class CreateRowPanelFunction implements Function<Iterable<Tuple2<MatrixIndexes,MatrixBlock>>, MatrixBlock> 
+	{
+		private static final long serialVersionUID = -2713958154474463582L;
+		
+		private final long _clen;
+		private final int _bclen;
+		
+		public CreateRowPanelFunction(MatrixCharacteristics mc) {
+			_clen = mc.getCols();
+			_bclen = mc.getColsPerBlock();
+		}
+
+		@Override
+		public MatrixBlock call(Iterable<Tuple2<MatrixIndexes, MatrixBlock>> arg0) 
+			throws Exception 
+		{
+			//determine output size and sparsity
+			int rows = 0;
+			long nnz = 0;
+			for( Tuple2<MatrixIndexes, MatrixBlock> in : arg0 ) {
+				rows = in._2().getNumRows();
+				nnz += in._2().getNonZeros();
+			}
+			
+			//copy disjoint blocks into row panel
+			MatrixBlock ret = new MatrixBlock(rows, (int)_clen, nnz);
+			for( Tuple2<MatrixIndexes, MatrixBlock> in : arg0 ) {
+				MatrixBlock blk = in._2();
+				int cl = (int)(in._1().getColumnIndex()-1) * _bclen;
+				ret.copy(0, rows-1, cl, cl+blk.getNumColumns()-1, blk, false);
+			}
+			ret.recomputeNonZeros();
+			ret.examSparsity();
+			
+			return ret;
+		}
+	}
 }
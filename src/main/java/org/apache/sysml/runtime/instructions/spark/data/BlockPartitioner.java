@@ -100,6 +100,14 @@ public class BlockPartitioner extends Partitioner
 	public int numPartitions() {
 		return _numParts;
 	}
+	
+	public long getNumRowBlocksPerPartition() {
+		return _rbPerPart;
+	}
+	
+	public long getNumColBlocksPerPartition() {
+		return _cbPerPart;
+	}
 
 	@Override
 	public boolean equals(Object obj) 
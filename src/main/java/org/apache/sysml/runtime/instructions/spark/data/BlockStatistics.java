@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.spark.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+
+/**
+ * Exact statistics of a binary block matrix rdd, i.e., the number of non-zeros,
+ * the maximum number of non-zeros per block, and a histogram of block sparsity,
+ * collected as a side effect of checkpoint materialization (see 
+ * {@link BlockStatisticsAccumulator}) for adaptive recompilation if 
+ * compile-time sparsity estimates are unknown.
+ * 
+ */
+public class BlockStatistics implements Serializable
+{
+	private static final long serialVersionUID = -2893517741268364915L;
+	
+	//histogram buckets: empty blocks, and block sparsity 
+	//in (0,0.1], (0.1,0.2], ..., (0.9,1.0]
+	public static final int NUM_BUCKETS = 11;
+	
+	private long _nnz = 0;
+	private long _maxBlockNnz = 0;
+	private final long[] _hist = new long[NUM_BUCKETS];
+	
+	public void add(MatrixBlock mb) {
+		long nnz = mb.getNonZeros();
+		double sp = (double)nnz / mb.getNumRows() / mb.getNumColumns();
+		_nnz += nnz;
+		_maxBlockNnz = Math.max(_maxBlockNnz, nnz);
+		_hist[(nnz==0) ? 0 : Math.min((int)Math.ceil(sp*10), 10)]++;
+	}
+	
+	public BlockStatistics merge(BlockStatistics that) {
+		_nnz += that._nnz;
+		_maxBlockNnz = Math.max(_maxBlockNnz, that._maxBlockNnz);
+		for( int i=0; i<NUM_BUCKETS; i++ )
+			_hist[i] += that._hist[i];
+		return this;
+	}
+	
+	public long getNonZeros() {
+		return _nnz;
+	}
+	
+	public long getMaxBlockNonZeros() {
+		return _maxBlockNnz;
+	}
+	
+	public long getNumBlocks() {
+		long ret = 0;
+		for( long cnt : _hist )
+			ret += cnt;
+		return ret;
+	}
+	
+	public long[] getSparsityHistogram() {
+		return _hist;
+	}
+	
+	@Override
+	public String toString() {
+		return "nnz=" + _nnz + ", blocks=" + getNumBlocks() 
+			+ ", maxBlockNnz=" + _maxBlockNnz + ", sparsityHist=" + Arrays.toString(_hist);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.spark.data;
+
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import org.apache.spark.util.AccumulatorV2;
+
+import scala.Tuple2;
+
+/**
+ * Accumulator of block statistics per partition, which are added when a partition
+ * is fully consumed. Keeping the statistics by partition index makes the result
+ * robust against recomputed partitions (e.g., on task failures or evicted cached
+ * blocks), and allows to determine if the statistics cover all partitions.
+ * 
+ */
+public class BlockStatisticsAccumulator extends AccumulatorV2<Tuple2<Integer,BlockStatistics>, BlockStatistics>
+{
+	private static final long serialVersionUID = 4305178216325398418L;
+
+	private final int _numPartitions;
+	private final HashMap<Integer, BlockStatistics> _stats = new HashMap<Integer, BlockStatistics>();
+	
+	public BlockStatisticsAccumulator(int numPartitions) {
+		_numPartitions = numPartitions;
+	}
+
+	/**
+	 * Indicates if statistics of all partitions have been collected.
+	 * 
+	 * @return true if complete
+	 */
+	public synchronized boolean isComplete() {
+		return _stats.size() == _numPartitions;
+	}
+
+	@Override
+	public synchronized void add(Tuple2<Integer, BlockStatistics> arg0) {
+		_stats.put(arg0._1(), arg0._2());
+	}
+
+	@Override
+	public synchronized AccumulatorV2<Tuple2<Integer, BlockStatistics>, BlockStatistics> copy() {
+		BlockStatisticsAccumulator ret = new BlockStatisticsAccumulator(_numPartitions);
+		ret._stats.putAll(_stats);
+		return ret;
+	}
+
+	@Override
+	public synchronized boolean isZero() {
+		return _stats.isEmpty();
+	}
+
+	@Override
+	public synchronized void merge(AccumulatorV2<Tuple2<Integer, BlockStatistics>, BlockStatistics> arg0) {
+		BlockStatisticsAccumulator that = (BlockStatisticsAccumulator) arg0;
+		synchronized( that ) {
+			for( Entry<Integer, BlockStatistics> e : that._stats.entrySet() )
+				_stats.put(e.getKey(), e.getValue());
+		}
+	}
+
+	@Override
+	public synchronized void reset() {
+		_stats.clear();
+	}
+
+	/**
+	 * Returns the aggregated statistics over all partitions, 
+	 * or null if not all partitions have been consumed yet.
+	 * 
+	 * @return block statistics, or null if incomplete
+	 */
+	@Override
+	public synchronized BlockStatistics value() {
+		if( !isComplete() )
+			return null;
+		BlockStatistics ret = new BlockStatistics();
+		for( BlockStatistics stats : _stats.values() )
+			ret.merge(stats);
+		return ret;
+	}
+}
@@ -38,8 +38,10 @@ public class PartitionedBroadcast<T extends CacheBlock> implements Serializable
 	private static final long serialVersionUID = 7041959166079438401L;
 
 	protected static final long BROADCAST_PARTSIZE = 200L*1024*1024; //200M cells ~ 1.6GB 
+	public static long BROADCAST_PARTSIZE_VERSIONED = 4L*1024*1024; //4M cells ~ 32MB (modified in tests)
 	
 	private Broadcast<PartitionedBlock<T>>[] _pbc = null;
+	private int _numPerPart = -1; //-1 for default partitioning
 	
 	public PartitionedBroadcast() {
 		//do nothing (required for Externalizable)
@@ -50,10 +52,24 @@ public class PartitionedBroadcast<T extends CacheBlock> implements Serializable
 		_pbc = broadcasts;
 	}
 	
+	public PartitionedBroadcast(Broadcast<PartitionedBlock<T>>[] broadcasts, int numPerPart)
+	{
+		_pbc = broadcasts;
+		_numPerPart = numPerPart;
+	}
+	
 	public Broadcast<PartitionedBlock<T>>[] getBroadcasts() {
 		return _pbc;
 	}
 
+	public long getNumRows() {
+		return _pbc[0].value().getNumRows();
+	}
+	
+	public long getNumCols() {
+		return _pbc[0].value().getNumCols();
+	}
+	
 	public int getNumRowBlocks() {
 		return _pbc[0].value().getNumRowBlocks();
 	}
@@ -66,6 +82,22 @@ public class PartitionedBroadcast<T extends CacheBlock> implements Serializable
 		return (int) Math.floor( BROADCAST_PARTSIZE /  
 				Math.min(rlen, brlen) / Math.min(clen, bclen));
 	}
+	
+	/**
+	 * Computes the number of blocks per partition for versioned broadcasts,
+	 * where smaller partitions allow for the reuse of unchanged partitions
+	 * if only parts of a broadcast variable are updated (e.g., in loops).
+	 * 
+	 * @param rlen number of rows
+	 * @param clen number of columns
+	 * @param brlen number of rows per block
+	 * @param bclen number of columns per block
+	 * @return number of blocks per partition
+	 */
+	public static int computeBlocksPerPartitionVersioned(long rlen, long clen, long brlen, long bclen) {
+		return (int) Math.max(Math.floor( BROADCAST_PARTSIZE_VERSIONED /  
+				Math.min(rlen, brlen) / Math.min(clen, bclen)), 1);
+	}
 
 	public T getBlock(int rowIndex, int colIndex) 
 		throws DMLRuntimeException 
@@ -75,7 +107,8 @@ public class PartitionedBroadcast<T extends CacheBlock> implements Serializable
 		if( _pbc.length > 1 ) { 
 			//compute partition index
 			PartitionedBlock<T> tmp = _pbc[0].value();
-			int numPerPart = computeBlocksPerPartition(tmp.getNumRows(), tmp.getNumCols(), 
+			int numPerPart = (_numPerPart > 0) ? _numPerPart :
+				computeBlocksPerPartition(tmp.getNumRows(), tmp.getNumCols(), 
 					tmp.getNumRowsPerBlock(), tmp.getNumColumnsPerBlock());
 			int ix = (rowIndex-1)*tmp.getNumColumnBlocks()+(colIndex-1);
 			pix = ix / numPerPart;
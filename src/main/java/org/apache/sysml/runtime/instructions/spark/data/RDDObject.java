@@ -30,6 +30,7 @@ public class RDDObject extends LineageObject
 	private boolean _hdfsfile = false;     //created from hdfs file
 	private String  _hdfsFname = null;     //hdfs filename, if created from hdfs.  
 	private boolean _parRDD = false;
+	private BlockStatisticsAccumulator _stats = null; //lazily collected block statistics
 	
 	public RDDObject( JavaPairRDD<?,?> rddvar, String varName) {
 		super(varName);
@@ -72,6 +73,14 @@ public class RDDObject extends LineageObject
 		return _parRDD; 
 	}
 	
+	public void setBlockStatistics( BlockStatisticsAccumulator stats ) {
+		_stats = stats;
+	}
+	
+	public BlockStatisticsAccumulator getBlockStatistics() {
+		return _stats;
+	}
+	
 
 	/**
 	 * Indicates if rdd is an hdfs file or a checkpoint over an hdfs file;
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.spark.data;
+
+import java.util.Arrays;
+
+import org.apache.spark.Partitioner;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+
+/**
+ * Skew-aware range partitioner for binary block rdd operations, which assigns
+ * contiguous ranges of blocks (in row-major order) to partitions such that the
+ * partitions are balanced by bytes instead of by number of blocks. The ranges
+ * are derived from a histogram of block sizes over equi-width buckets of the 
+ * linearized block index space. Besides matrix indexes, this partitioner also 
+ * supports long keys (e.g., the common dimension index of cpmm), which are 
+ * interpreted as 1-based positions in the key space.
+ * 
+ * Note that a single block is the unit of assignment, i.e., a single very large
+ * block (or join key) cannot be split but is at least isolated into its own 
+ * partition instead of being colocated with other large blocks.
+ */
+public class SkewAwareBlockPartitioner extends Partitioner
+{
+	private static final long serialVersionUID = -3489720348713459384L;
+	
+	private final long _ncblks;  //number of column blocks, 0 for long keys
+	private final long[] _cuts;  //exclusive upper bounds of linear key ranges
+	
+	private SkewAwareBlockPartitioner(long ncblks, long[] cuts) {
+		_ncblks = ncblks;
+		_cuts = cuts;
+	}
+	
+	/**
+	 * Creates a skew-aware partitioner from the given histogram of block sizes.
+	 * 
+	 * @param hist histogram of sizes over equi-width buckets of linear keys
+	 * @param bucketWidth number of linear keys per bucket
+	 * @param ncblks number of column blocks, or 0 for long keys
+	 * @param numParts number of partitions
+	 * @return partitioner
+	 */
+	public static SkewAwareBlockPartitioner create(double[] hist, long bucketWidth, long ncblks, int numParts) {
+		return new SkewAwareBlockPartitioner(ncblks, 
+			computeCuts(hist, bucketWidth, numParts));
+	}
+	
+	/**
+	 * Computes the sizes of all partitions of this partitioner for the given 
+	 * histogram, whose bucket boundaries align with the range boundaries.
+	 * 
+	 * @param hist histogram of sizes over equi-width buckets of linear keys
+	 * @param bucketWidth number of linear keys per bucket
+	 * @return partition sizes
+	 */
+	public double[] computePartitionSizes(double[] hist, long bucketWidth) {
+		double[] ret = new double[numPartitions()];
+		for( int i=0; i<hist.length; i++ )
+			ret[getLinearPartition((long)i * bucketWidth)] += hist[i];
+		return ret;
+	}
+	
+	/**
+	 * Computes the maximum partition size normalized by the average partition 
+	 * size, which serves as a simple skew indicator of a given assignment 
+	 * (e.g., of the default hash partitioning).
+	 * 
+	 * @param parts sizes of all partitions
+	 * @return max to average partition size ratio
+	 */
+	public static double computeSkewFactor(double[] parts) {
+		double max = 0, total = 0;
+		for( double p : parts ) {
+			max = Math.max(max, p);
+			total += p;
+		}
+		return (total > 0) ? max / (total/parts.length) : 1;
+	}
+	
+	private static long[] computeCuts(double[] hist, long bucketWidth, int numParts) {
+		double remaining = 0;
+		for( double w : hist )
+			remaining += w;
+		
+		//greedy assignment of contiguous buckets, where the target size is
+		//recomputed after each cut (remaining size over remaining partitions)
+		//in order to compensate for heavy buckets that exceed their share
+		long[] cuts = new long[numParts];
+		int pos = 0;
+		double acc = 0;
+		for( int i=0; i<hist.length && pos<numParts-1; i++ ) {
+			double target = remaining / (numParts-pos);
+			//cut before heavy bucket if closer to the target
+			if( acc > 0 && acc+hist[i]-target > target-acc ) {
+				cuts[pos++] = i * bucketWidth;
+				remaining -= acc;
+				acc = 0;
+				if( pos >= numParts-1 )
+					break;
+				target = remaining / (numParts-pos);
+			}
+			acc += hist[i];
+			if( acc >= target ) {
+				cuts[pos++] = (i+1) * bucketWidth;
+				remaining -= acc;
+				acc = 0;
+			}
+		}
+		
+		//fill remaining partitions with the open-ended tail
+		Arrays.fill(cuts, pos, numParts, Long.MAX_VALUE);
+		return cuts;
+	}
+	
+	@Override
+	public int getPartition(Object arg0) 
+	{
+		//linearize matrix indexes and long keys
+		long lix = -1;
+		if( arg0 instanceof MatrixIndexes ) {
+			MatrixIndexes ix = (MatrixIndexes) arg0;
+			lix = (ix.getRowIndex()-1) * _ncblks + (ix.getColumnIndex()-1);
+		}
+		else if( arg0 instanceof Long ) {
+			lix = (Long)arg0 - 1;
+		}
+		else {
+			throw new RuntimeException("Unsupported key class "
+				+ "(expected MatrixIndexes or Long): "+arg0.getClass().getName());
+		}
+		
+		return getLinearPartition(lix);
+	}
+	
+	private int getLinearPartition(long lix) {
+		//binary search for first range with upper bound > lix
+		//(finite cut points are strictly increasing by construction)
+		int pos = Arrays.binarySearch(_cuts, lix);
+		pos = (pos >= 0) ? pos + 1 : -pos - 1;
+		return Math.min(pos, _cuts.length-1);
+	}
+	
+	@Override
+	public int numPartitions() {
+		return _cuts.length;
+	}
+	
+	@Override
+	public boolean equals(Object obj) 
+	{
+		if( !(obj instanceof SkewAwareBlockPartitioner) )
+			return false;
+		
+		SkewAwareBlockPartitioner that = (SkewAwareBlockPartitioner) obj;
+		return _ncblks == that._ncblks
+			&& Arrays.equals(_cuts, that._cuts);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(_cuts);
+	}
+}
@@ -43,8 +43,8 @@ public class CreateSparseBlockFunction implements Function<MatrixBlock,MatrixBlo
 	public MatrixBlock call(MatrixBlock arg0)
 		throws Exception 
 	{
-		//convert given block to CSR representation if in sparse format
-		//but allow shallow pass-through if already in CSR representation. 
+		//convert given block to target representation if in sparse format
+		//but allow shallow pass-through if already in target representation. 
 		if( arg0.isInSparseFormat() && !(arg0 instanceof CompressedMatrixBlock) )
 			return new MatrixBlock(arg0, _stype, false);
 		else //pass through dense
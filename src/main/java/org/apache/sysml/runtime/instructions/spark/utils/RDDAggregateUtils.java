@@ -19,16 +19,19 @@
 
 package org.apache.sysml.runtime.instructions.spark.utils;
 
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.api.java.function.Function2;
+import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.lops.PartialAggregate.CorrectionLocationType;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.functionobjects.KahanPlus;
 import org.apache.sysml.runtime.instructions.cp.KahanObject;
 import org.apache.sysml.runtime.instructions.spark.data.CorrMatrixBlock;
 import org.apache.sysml.runtime.instructions.spark.data.RowMatrixBlock;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
 import org.apache.sysml.runtime.matrix.data.OperationsOnMatrixValues;
@@ -43,10 +46,11 @@ import org.apache.sysml.runtime.matrix.operators.AggregateOperator;
  */
 public class RDDAggregateUtils 
 {	
-	//internal configuration to use tree aggregation (treeReduce w/ depth=2),
-	//this is currently disabled because it was 2x slower than a simple
-	//single-block reduce due to additional overhead for shuffling 
-	private static final boolean TREE_AGGREGATION = false; 
+	//internal configuration to use tree aggregation (treeAggregate w/ configured 
+	//depth) only for inputs with many partitions, because for small numbers of 
+	//partitions it was 2x slower than a simple single-block reduce due to the 
+	//additional overhead for shuffling
+	public static int TREE_AGGREGATION_MIN_PARTITIONS = 256;
 
 	public static MatrixBlock sumStable( JavaPairRDD<MatrixIndexes, MatrixBlock> in ) {
 		return sumStable( in.values() );
@@ -55,9 +59,15 @@ public class RDDAggregateUtils
 	public static MatrixBlock sumStable( JavaRDD<MatrixBlock> in )
 	{
 		//stable sum of all blocks with correction block per function instance
-		if( TREE_AGGREGATION ) {
-			return in.treeReduce( 
-					new SumSingleBlockFunction(true) );	
+		int depth = getTreeAggregationDepth(in);
+		if( depth > 1 ) {
+			//multi-level aggregation of one partial per partition, where 
+			//corrections are passed along with partial aggregates
+			return in.treeAggregate(
+					new CorrMatrixBlock(new MatrixBlock()),
+					new MergeTreeValueFunction(new MergeSumBlockValueFunction()),
+					new MergeTreeCombinerFunction(new MergeSumBlockCombinerFunction()), 
+					depth).getValue();
 		}
 		else { //DEFAULT
 			//reduce-all aggregate via fold instead of reduce to allow 
@@ -131,6 +141,16 @@ public class RDDAggregateUtils
 	public static MatrixBlock aggStable( JavaRDD<MatrixBlock> in, AggregateOperator aop )
 	{
 		//stable aggregate of all blocks with correction block per function instance
+		int depth = getTreeAggregationDepth(in);
+		if( depth > 1 ) {
+			//multi-level aggregation of one partial per partition, where 
+			//corrections are passed along with partial aggregates
+			return in.treeAggregate(
+					new CorrMatrixBlock(new MatrixBlock()),
+					new MergeTreeValueFunction(new MergeAggBlockValueFunction(aop)),
+					new MergeTreeCombinerFunction(new MergeAggBlockCombinerFunction(aop)), 
+					depth).getValue();
+		}
 		
 		//reduce-all aggregate via fold instead of reduce to allow 
 		//for update in-place w/o deep copy of left-hand-side blocks
@@ -138,6 +158,18 @@ public class RDDAggregateUtils
 				new MatrixBlock(),
 				new AggregateSingleBlockFunction(aop) );
 	}
+	
+	/**
+	 * Obtains the depth of single-block aggregations of the given rdd, where 
+	 * a depth of 1 refers to a simple fold and larger depths to tree aggregation.
+	 * 
+	 * @param in matrix as {@code JavaRDD<MatrixBlock>}
+	 * @return aggregation depth
+	 */
+	public static int getTreeAggregationDepth( JavaRDD<MatrixBlock> in ) {
+		return (in.getNumPartitions() > TREE_AGGREGATION_MIN_PARTITIONS) ?
+			ConfigurationManager.getSparkAggTreeDepth() : 1;
+	}
 
 	public static JavaPairRDD<MatrixIndexes, MatrixBlock> aggByKeyStable( JavaPairRDD<MatrixIndexes, MatrixBlock> in, 
 			AggregateOperator aop) {
@@ -216,6 +248,44 @@ public class RDDAggregateUtils
 			    new MergeBlocksFunction(false), numPartitions );
 	}
 	
+	/**
+	 * Merges disjoint data of all blocks per key.
+	 * 
+	 * Note: The behavior of this method is undefined for both sparse and dense data if the 
+	 * assumption of disjoint data is violated.
+	 * 
+	 * @param in matrix as {@code JavaPairRDD<MatrixIndexes, MatrixBlock>}
+	 * @param partitioner partitioner of the output
+	 * @param deepCopyCombiner indicator if the createCombiner functions needs to deep copy the input block
+	 * @return matrix as {@code JavaPairRDD<MatrixIndexes, MatrixBlock>}
+	 */
+	public static JavaPairRDD<MatrixIndexes, MatrixBlock> mergeByKey( JavaPairRDD<MatrixIndexes, MatrixBlock> in,
+			Partitioner partitioner, boolean deepCopyCombiner )
+	{
+		return in.combineByKey( 
+				new CreateBlockCombinerFunction(deepCopyCombiner), 
+				new MergeBlocksFunction(false), 
+				new MergeBlocksFunction(false), partitioner );
+	}
+	
+	/**
+	 * Merges disjoint data of all blocks per key, with skew-aware partitioning 
+	 * if enabled and the input exhibits significant skew of block sizes.
+	 * 
+	 * @param in matrix as {@code JavaPairRDD<MatrixIndexes, MatrixBlock>}
+	 * @param mc matrix characteristics of the output
+	 * @param numPartitions number of output partitions
+	 * @param deepCopyCombiner indicator if the createCombiner functions needs to deep copy the input block
+	 * @return matrix as {@code JavaPairRDD<MatrixIndexes, MatrixBlock>}
+	 */
+	public static JavaPairRDD<MatrixIndexes, MatrixBlock> mergeByKey( JavaPairRDD<MatrixIndexes, MatrixBlock> in,
+			MatrixCharacteristics mc, int numPartitions, boolean deepCopyCombiner )
+	{
+		Partitioner partitioner = SparkUtils.getSkewAwarePartitioner(mc, numPartitions, in, null);
+		return (partitioner != null) ? mergeByKey(in, partitioner, deepCopyCombiner) :
+			mergeByKey(in, numPartitions, deepCopyCombiner);
+	}
+	
 	/**
 	 * Merges disjoint data of all blocks per key.
 	 * 
@@ -480,6 +550,63 @@ public class RDDAggregateUtils
 		}	
 	}
 
+	/**
+	 * Wrapper of the given value merge function for tree aggregation, which handles 
+	 * the empty zero value and empty blocks, and creates the partial aggregate of a 
+	 * partition as a deep copy of the first block (because input blocks might be cached).
+	 */
+	private static class MergeTreeValueFunction implements Function2<CorrMatrixBlock, MatrixBlock, CorrMatrixBlock> 
+	{
+		private static final long serialVersionUID = -5427903371638453011L;
+		
+		private final Function2<CorrMatrixBlock, MatrixBlock, CorrMatrixBlock> _fn;
+		
+		public MergeTreeValueFunction(Function2<CorrMatrixBlock, MatrixBlock, CorrMatrixBlock> fn) {
+			_fn = fn;
+		}
+		
+		@Override
+		public CorrMatrixBlock call(CorrMatrixBlock arg0, MatrixBlock arg1) 
+			throws Exception 
+		{
+			if( isEmptyZeroValue(arg1) )
+				return arg0;
+			else if( isEmptyZeroValue(arg0.getValue()) )
+				return arg0.set(new MatrixBlock(arg1), null);
+			return _fn.call(arg0, arg1);
+		}
+	}
+	
+	/**
+	 * Wrapper of the given combiner merge function for tree aggregation, which
+	 * handles the empty zero value, e.g., of empty partitions.
+	 */
+	private static class MergeTreeCombinerFunction implements Function2<CorrMatrixBlock, CorrMatrixBlock, CorrMatrixBlock> 
+	{
+		private static final long serialVersionUID = 2170986517306472498L;
+		
+		private final Function2<CorrMatrixBlock, CorrMatrixBlock, CorrMatrixBlock> _fn;
+		
+		public MergeTreeCombinerFunction(Function2<CorrMatrixBlock, CorrMatrixBlock, CorrMatrixBlock> fn) {
+			_fn = fn;
+		}
+		
+		@Override
+		public CorrMatrixBlock call(CorrMatrixBlock arg0, CorrMatrixBlock arg1) 
+			throws Exception 
+		{
+			if( isEmptyZeroValue(arg1.getValue()) )
+				return arg0;
+			else if( isEmptyZeroValue(arg0.getValue()) )
+				return arg1;
+			return _fn.call(arg0, arg1);
+		}
+	}
+	
+	private static boolean isEmptyZeroValue(MatrixBlock mb) {
+		return mb.getNumRows() <= 0 || mb.getNumColumns() <= 0;
+	}
+
 	private static class ExtractMatrixBlock implements Function<CorrMatrixBlock, MatrixBlock> 
 	{
 		private static final long serialVersionUID = 5242158678070843495L;
@@ -22,6 +22,8 @@ package org.apache.sysml.runtime.instructions.spark.utils;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -33,6 +35,7 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.api.java.function.Function2;
 import org.apache.spark.api.java.function.PairFlatMapFunction;
 import org.apache.spark.api.java.function.PairFunction;
 import org.apache.spark.ml.feature.LabeledPoint;
@@ -46,8 +49,11 @@ import org.apache.spark.sql.Row;
 import org.apache.spark.sql.RowFactory;
 import org.apache.spark.sql.SQLContext;
 import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
 import org.apache.spark.storage.StorageLevel;
 import org.apache.spark.util.LongAccumulator;
 import org.apache.sysml.conf.ConfigurationManager;
@@ -64,9 +70,9 @@ import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixCell;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
 import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
 import org.apache.sysml.runtime.matrix.mapred.IndexedMatrixValue;
 import org.apache.sysml.runtime.matrix.mapred.ReblockBuffer;
-import org.apache.sysml.runtime.util.DataConverter;
 import org.apache.sysml.runtime.util.FastStringTokenizer;
 import org.apache.sysml.runtime.util.MapReduceTool;
 import org.apache.sysml.runtime.util.UtilFunctions;
@@ -92,7 +98,7 @@ public class RDDConverterUtils
 		}
 		
 		//aggregate partial matrix blocks
-		out = RDDAggregateUtils.mergeByKey(out, false); 
+		out = RDDAggregateUtils.mergeByKey(out, mcOut, out.getNumPartitions(), false); 
 		
 		return out;
 	}
@@ -112,7 +118,7 @@ public class RDDConverterUtils
 		}
 		
 		//aggregate partial matrix blocks
-		out = RDDAggregateUtils.mergeByKey(out, false); 
+		out = RDDAggregateUtils.mergeByKey(out, mcOut, out.getNumPartitions(), false); 
 		
 		return out;
 	}
@@ -194,7 +200,7 @@ public class RDDConverterUtils
 		//partitions as the data is likely smaller in binary block format,
 		//but also to bound the size of partitions for compressed inputs)
 		int parts = SparkUtils.getNumPreferredPartitions(mc, out);
-		return RDDAggregateUtils.mergeByKey(out, parts, false); 
+		return RDDAggregateUtils.mergeByKey(out, mc, parts, false); 
 	}
 	
 	/**
@@ -234,6 +240,29 @@ public class RDDConverterUtils
 	public static JavaPairRDD<MatrixIndexes, MatrixBlock> dataFrameToBinaryBlock(JavaSparkContext sc,
 			Dataset<Row> df, MatrixCharacteristics mc, boolean containsID, boolean isVector) 
 	{
+		return dataFrameToBinaryBlock(sc, df, mc, containsID, isVector, false);
+	}
+	
+	/**
+	 * Converts a data frame into a binary block matrix. If internal rows are requested 
+	 * (and supported by the schema, see {@link #isInternalRowConvertible}), we read Spark's 
+	 * internal binary rows and fill the dense or sparse blocks in bulk, which avoids the 
+	 * conversion to external rows and the boxing of individual cell values.
+	 * 
+	 * @param sc java spark context
+	 * @param df data frame of rows or vectors
+	 * @param mc matrix characteristics, updated if unknown
+	 * @param containsID true if the data frame contains an ID column
+	 * @param isVector true if the data frame contains a vector column
+	 * @param internal true if conversion over internal rows
+	 * @return binary block matrix
+	 */
+	public static JavaPairRDD<MatrixIndexes, MatrixBlock> dataFrameToBinaryBlock(JavaSparkContext sc,
+			Dataset<Row> df, MatrixCharacteristics mc, boolean containsID, boolean isVector, boolean internal) 
+	{
+		if( internal && isInternalRowConvertible(df.schema(), containsID, isVector) )
+			return internalRowsToBinaryBlock(df, mc, containsID, isVector);
+		
 		//determine unknown dimensions and sparsity if required
 		if( !mc.dimsKnown(true) ) {
 			LongAccumulator aNnz = sc.sc().longAccumulator("nnz");
@@ -269,16 +298,44 @@ public class RDDConverterUtils
 		return RDDAggregateUtils.mergeByKey(out, parts, false); 
 	}
 
+	/**
+	 * Indicates if a data frame of the given schema can be converted over Spark's 
+	 * internal rows, which requires numeric columns or a single ml vector column.
+	 * 
+	 * @param schema data frame schema
+	 * @param containsID true if the data frame contains an ID column
+	 * @param isVector true if the data frame contains a vector column
+	 * @return true if conversion over internal rows supported
+	 */
+	public static boolean isInternalRowConvertible(StructType schema, boolean containsID, boolean isVector) {
+		StructField[] fields = schema.fields();
+		int off = containsID ? 1 : 0;
+		if( containsID && (!isNumericType(fields[0].dataType()) 
+			|| schema.fieldIndex(DF_ID_COLUMN) != 0) )
+			return false;
+		if( isVector )
+			return fields.length == off+1 && fields[off].dataType() instanceof VectorUDT;
+		for( int i=off; i<fields.length; i++ )
+			if( !isNumericType(fields[i].dataType()) )
+				return false;
+		return fields.length > off;
+	}
+	
 	public static Dataset<Row> binaryBlockToDataFrame(SparkSession sparkSession,
 			JavaPairRDD<MatrixIndexes, MatrixBlock> in, MatrixCharacteristics mc, boolean toVector)  
 	{
 		if( !mc.colsKnown() )
 			throw new RuntimeException("Number of columns needed to convert binary block to data frame.");
 		
-		//slice blocks into rows, align and convert into data frame rows
-		JavaRDD<Row> rowsRDD = in
-			.flatMapToPair(new SliceBinaryBlockToRowsFunction(mc.getRowsPerBlock()))
-			.groupByKey().map(new ConvertRowBlocksToRows((int)mc.getCols(), mc.getColsPerBlock(), toVector));
+		//convert row-aligned blocks into data frame rows in bulk, i.e., w/o 
+		//slicing and shuffling individual rows (no shuffle for single column block),
+		//where wide row panels are split into row groups of bounded size
+		ConvertBlocksToRowsFunction fconv = new ConvertBlocksToRowsFunction(
+			mc.getCols(), mc.getColsPerBlock(), toVector);
+		JavaRDD<Row> rowsRDD = (mc.getCols() <= mc.getColsPerBlock()) ?
+			in.flatMap(new ConvertBlockToRowsFunction(fconv, mc.getRowsPerBlock())) :
+			in.flatMapToPair(new ExtractRowGroupsFunction(mc.getCols(), mc.getRowsPerBlock()))
+				.groupByKey().flatMap(fconv);
 		
 		//create data frame schema
 		List<StructField> fields = new ArrayList<StructField>();
@@ -376,6 +433,73 @@ public class RDDConverterUtils
 		return in.mapToPair(new TextToSerTextFunction());
 	}
 
+	private static JavaPairRDD<MatrixIndexes, MatrixBlock> internalRowsToBinaryBlock(
+			Dataset<Row> df, MatrixCharacteristics mc, boolean containsID, boolean isVector) 
+	{
+		//obtain internal rows and column types (w/o conversion to external rows)
+		JavaRDD<InternalRow> rows = df.queryExecution().toRdd().toJavaRDD();
+		DataType[] types = new DataType[df.schema().fields().length];
+		for( int i=0; i<types.length; i++ )
+			types[i] = df.schema().fields()[i].dataType();
+		
+		//determine unknown dimensions and sparsity if required (single pass)
+		if( !mc.dimsKnown(true) ) {
+			long[] stats = rows
+				.mapPartitions(new InternalRowAnalysisFunction(types, containsID, isVector))
+				.reduce(new InternalRowAnalysisMergeFunction());
+			long clen = !isVector ? types.length - (containsID?1:0) : stats[2];
+			mc.set(stats[0], clen, mc.getRowsPerBlock(), mc.getColsPerBlock(), stats[1]);
+		}
+		
+		//ensure valid blocksizes
+		if( mc.getRowsPerBlock()<=1 || mc.getColsPerBlock()<=1 ) {
+			mc.setBlockSize(ConfigurationManager.getBlocksize());
+		}
+		
+		//construct or reuse row ids
+		JavaPairRDD<InternalRow, Long> prepinput = containsID ?
+				rows.mapToPair(new InternalRowExtractIDFunction(types[0])) :
+				rows.zipWithIndex(); //zip row index
+		
+		//convert internal rows to binary block rdd (w/ partial blocks)
+		boolean sparse = requiresSparseAllocation(prepinput, mc);
+		JavaPairRDD<MatrixIndexes, MatrixBlock> out = 
+				prepinput.mapPartitionsToPair(
+					new InternalRowToBinaryBlockFunction(mc, sparse, types, containsID, isVector));
+		
+		//aggregate partial matrix blocks (see dataFrameToBinaryBlock)
+		int parts = SparkUtils.getNumPreferredPartitions(mc, out);
+		return RDDAggregateUtils.mergeByKey(out, parts, false); 
+	}
+	
+	private static boolean isNumericType(DataType dt) {
+		return dt == DataTypes.DoubleType || dt == DataTypes.FloatType 
+			|| dt == DataTypes.LongType || dt == DataTypes.IntegerType
+			|| dt == DataTypes.ShortType || dt == DataTypes.ByteType;
+	}
+	
+	private static double getDouble(InternalRow row, int pos, DataType dt) {
+		if( row.isNullAt(pos) )
+			return 0;
+		else if( dt == DataTypes.DoubleType )
+			return row.getDouble(pos);
+		else if( dt == DataTypes.FloatType )
+			return row.getFloat(pos);
+		else if( dt == DataTypes.LongType )
+			return row.getLong(pos);
+		else if( dt == DataTypes.IntegerType )
+			return row.getInt(pos);
+		else if( dt == DataTypes.ShortType )
+			return row.getShort(pos);
+		else //ByteType
+			return row.getByte(pos);
+	}
+	
+	private static Vector getVector(InternalRow row, int pos, VectorUDT udt) {
+		//deserialize vector from internal struct (bulk copy of arrays)
+		return udt.deserialize(row.getStruct(pos, udt.sqlType().size()));
+	}
+	
 	private static boolean requiresSparseAllocation(JavaPairRDD<?,?> in, MatrixCharacteristics mc) {
 		//if nnz unknown or sparse, pick the robust sparse representation
 		if( !mc.nnzKnown() || (mc.nnzKnown() && MatrixBlock.evalSparseFormatInMemory(
@@ -1173,52 +1297,396 @@ public class RDDConverterUtils
 		}
 	}
 
-	private static class ConvertRowBlocksToRows implements Function<Tuple2<Long, Iterable<Tuple2<Long, MatrixBlock>>>, Row> {
+	private static class ExtractRowGroupsFunction implements PairFlatMapFunction<Tuple2<MatrixIndexes,MatrixBlock>,Long,Tuple2<MatrixIndexes,MatrixBlock>> 
+	{
+		private static final long serialVersionUID = -3120385718394152237L;
+		
+		//max number of cells per row group (i.e., rows grouped across column blocks)
+		private static final long MAX_ROW_GROUP_CELLS = 8L*1024*1024; //8M cells ~ 64MB
+		
+		private final int _brlen;
+		private final int _rgsize;
 		
+		public ExtractRowGroupsFunction(long clen, int brlen) {
+			_brlen = brlen;
+			_rgsize = (int) Math.max(Math.min(MAX_ROW_GROUP_CELLS / clen, brlen), 1);
+		}
+
+		@Override
+		public Iterator<Tuple2<Long, Tuple2<MatrixIndexes, MatrixBlock>>> call(Tuple2<MatrixIndexes, MatrixBlock> arg0) 
+			throws Exception 
+		{
+			//split block into row groups, keyed by their global row offset
+			MatrixIndexes ix = arg0._1();
+			MatrixBlock blk = arg0._2();
+			long rowoff = (ix.getRowIndex()-1) * _brlen;
+			ArrayList<Tuple2<Long, Tuple2<MatrixIndexes,MatrixBlock>>> ret = 
+				new ArrayList<Tuple2<Long, Tuple2<MatrixIndexes,MatrixBlock>>>();
+			for( int rl=0; rl<blk.getNumRows(); rl+=_rgsize ) {
+				int ru = Math.min(rl+_rgsize, blk.getNumRows()) - 1;
+				MatrixBlock tmp = (rl==0 && ru==blk.getNumRows()-1) ? blk :
+					blk.sliceOperations(rl, ru, 0, blk.getNumColumns()-1, new MatrixBlock());
+				ret.add(new Tuple2<Long, Tuple2<MatrixIndexes,MatrixBlock>>(rowoff+rl, 
+					new Tuple2<MatrixIndexes,MatrixBlock>(ix, tmp)));
+			}
+			return ret.iterator();
+		}
+	}
+	
+	private static class ConvertBlockToRowsFunction implements FlatMapFunction<Tuple2<MatrixIndexes,MatrixBlock>,Row> 
+	{
+		private static final long serialVersionUID = 8234810586471265239L;
+		
+		private final ConvertBlocksToRowsFunction _fconv;
+		private final int _brlen;
+		
+		public ConvertBlockToRowsFunction(ConvertBlocksToRowsFunction fconv, int brlen) {
+			_fconv = fconv;
+			_brlen = brlen;
+		}
+
+		@Override
+		public Iterator<Row> call(Tuple2<MatrixIndexes, MatrixBlock> arg0) 
+			throws Exception 
+		{
+			return _fconv.call(new Tuple2<Long, Iterable<Tuple2<MatrixIndexes,MatrixBlock>>>(
+				(arg0._1().getRowIndex()-1) * _brlen, Collections.singletonList(arg0)));
+		}
+	}
+	
+	/**
+	 * Converts the row-aligned blocks of a row group (keyed by its global 0-based
+	 * row offset) into data frame rows, where rows are created on demand while 
+	 * iterating, and missing column blocks are treated as empty blocks.
+	 */
+	private static class ConvertBlocksToRowsFunction implements FlatMapFunction<Tuple2<Long, Iterable<Tuple2<MatrixIndexes,MatrixBlock>>>, Row> 
+	{
 		private static final long serialVersionUID = 4441184411670316972L;
+		private static final Double ZERO = 0d;
 		
-		private int _clen;
-		private int _bclen;
-		private boolean _toVector;
+		private final int _clen;
+		private final int _bclen;
+		private final boolean _toVector;
 		
-		public ConvertRowBlocksToRows(int clen, int bclen, boolean toVector) {
-			_clen = clen;
+		public ConvertBlocksToRowsFunction(long clen, int bclen, boolean toVector) {
+			_clen = (int)clen;
 			_bclen = bclen;
 			_toVector = toVector;
 		}
 
 		@Override
-		public Row call(Tuple2<Long, Iterable<Tuple2<Long, MatrixBlock>>> arg0)
+		public Iterator<Row> call(Tuple2<Long, Iterable<Tuple2<MatrixIndexes, MatrixBlock>>> arg0)
 			throws Exception 
 		{
-			Object[] row = new Object[_toVector ? 2 : _clen+1];
-			row[0] = (double) arg0._1(); //row index
+			//collect and sort column blocks of row group (null if missing)
+			final MatrixBlock[] blks = new MatrixBlock[(int)Math.ceil((double)_clen/_bclen)];
+			int rlen = 0;
+			for( Tuple2<MatrixIndexes, MatrixBlock> kv : arg0._2() ) {
+				blks[(int)kv._1().getColumnIndex()-1] = kv._2();
+				rlen = kv._2().getNumRows();
+			}
+			final int nrows = rlen;
+			final long rowoff = arg0._1();
 			
-			//copy block data into target row
-			if( _toVector ) {
-				if( _clen <= _bclen ) { //single block
-					row[1] = createVector(arg0._2().iterator().next()._2());
+			//convert rows of all column blocks in bulk, one row per call of next
+			return new Iterator<Row>() {
+				private int _pos = 0;
+				
+				@Override
+				public boolean hasNext() {
+					return _pos < nrows;
+				}
+				
+				@Override
+				public Row next() {
+					return createRow(blks, _pos, rowoff + _pos++);
 				}
-				else { //multiple column blocks
+			};
+		}
+		
+		private Row createRow(MatrixBlock[] blks, int i, long rix) {
+			Object[] row = new Object[_toVector ? 2 : _clen+1];
+			row[0] = (double) (rix + 1); //row index
+			if( _toVector ) {
+				if( blks.length == 1 && blks[0].isInSparseFormat() ) //SPARSE ROW
+					row[1] = createSparseVector(blks[0], i);
+				else { //DENSE ROW
 					double[] tmp = new double[_clen];
-					for(Tuple2<Long, MatrixBlock> kv : arg0._2()) {
-						int cl = (kv._1().intValue()-1)*_bclen;
-						MatrixBlock mb = kv._2();
-						DataConverter.copyToDoubleVector(mb, tmp, cl);
-					}
+					for( int k=0; k<blks.length; k++ )
+						copyRow(blks[k], i, tmp, k*_bclen);
 					row[1] = Vectors.dense(tmp);
 				}
 			}
 			else {
-				for(Tuple2<Long, MatrixBlock> kv : arg0._2()) {
-					int cl = (kv._1().intValue()-1)*_bclen;
-					MatrixBlock mb = kv._2();
-					for( int j=0; j<mb.getNumColumns(); j++ )
-						row[cl+j+1] = mb.quickGetValue(0, j);
+				Arrays.fill(row, 1, _clen+1, ZERO);
+				for( int k=0; k<blks.length; k++ )
+					copyRow(blks[k], i, row, k*_bclen+1);
+			}
+			return RowFactory.create(row);
+		}
+		
+		private static Vector createSparseVector(MatrixBlock mb, int i) {
+			SparseBlock sb = mb.getSparseBlock();
+			if( sb == null || sb.isEmpty(i) )
+				return Vectors.sparse(mb.getNumColumns(), new int[0], new double[0]);
+			int apos = sb.pos(i);
+			int alen = sb.size(i);
+			return Vectors.sparse(mb.getNumColumns(), 
+				Arrays.copyOfRange(sb.indexes(i), apos, apos+alen),
+				Arrays.copyOfRange(sb.values(i), apos, apos+alen));
+		}
+		
+		private static void copyRow(MatrixBlock mb, int i, double[] c, int cix) {
+			if( mb == null || mb.isEmptyBlock(false) )
+				return;
+			int n = mb.getNumColumns();
+			if( mb.isInSparseFormat() ) {
+				SparseBlock sb = mb.getSparseBlock();
+				if( sb.isEmpty(i) ) return;
+				int apos = sb.pos(i);
+				int alen = sb.size(i);
+				int[] aix = sb.indexes(i);
+				double[] avals = sb.values(i);
+				for( int k=apos; k<apos+alen; k++ )
+					c[cix+aix[k]] = avals[k];
+			}
+			else
+				System.arraycopy(mb.getDenseBlock(), i*n, c, cix, n);
+		}
+		
+		private static void copyRow(MatrixBlock mb, int i, Object[] c, int cix) {
+			if( mb == null || mb.isEmptyBlock(false) )
+				return;
+			int n = mb.getNumColumns();
+			if( mb.isInSparseFormat() ) {
+				SparseBlock sb = mb.getSparseBlock();
+				if( sb.isEmpty(i) ) return;
+				int apos = sb.pos(i);
+				int alen = sb.size(i);
+				int[] aix = sb.indexes(i);
+				double[] avals = sb.values(i);
+				for( int k=apos; k<apos+alen; k++ )
+					c[cix+aix[k]] = avals[k];
+			}
+			else {
+				double[] a = mb.getDenseBlock();
+				for( int j=0, aix=i*n; j<n; j++, aix++ )
+					c[cix+j] = a[aix];
+			}
+		}
+	}
+	
+	/////////////////////////////////
+	// INTERNALROW-SPECIFIC FUNCTIONS
+	
+	private static class InternalRowAnalysisFunction implements FlatMapFunction<Iterator<InternalRow>, long[]> 
+	{
+		private static final long serialVersionUID = -2961374097452364827L;
+		
+		private final DataType[] _types;
+		private final boolean _containsID;
+		private final boolean _isVector;
+		
+		public InternalRowAnalysisFunction(DataType[] types, boolean containsID, boolean isVector) {
+			_types = types;
+			_containsID = containsID;
+			_isVector = isVector;
+		}
+		
+		@Override
+		public Iterator<long[]> call(Iterator<InternalRow> arg0) 
+			throws Exception 
+		{
+			//determine number of rows, non-zeros, and max vector size
+			long[] ret = new long[3];
+			int off = _containsID ? 1 : 0;
+			VectorUDT udt = _isVector ? (VectorUDT) _types[off] : null;
+			while( arg0.hasNext() ) {
+				InternalRow row = arg0.next();
+				ret[0]++;
+				if( _isVector ) {
+					Vector vect = getVector(row, off, udt);
+					ret[1] += vect.numNonzeros();
+					ret[2] = Math.max(ret[2], vect.size());
 				}
+				else {
+					for( int j=off; j<_types.length; j++ )
+						ret[1] += (getDouble(row, j, _types[j]) != 0) ? 1 : 0;
+				}
+			}
+			return Collections.singletonList(ret).iterator();
+		}
+	}
+	
+	private static class InternalRowAnalysisMergeFunction implements Function2<long[], long[], long[]> 
+	{
+		private static final long serialVersionUID = 3802548016839207423L;
+
+		@Override
+		public long[] call(long[] arg0, long[] arg1) 
+			throws Exception 
+		{
+			return new long[]{arg0[0]+arg1[0], arg0[1]+arg1[1], Math.max(arg0[2], arg1[2])};
+		}
+	}
+	
+	private static class InternalRowExtractIDFunction implements PairFunction<InternalRow, InternalRow, Long> 
+	{
+		private static final long serialVersionUID = -4425839102736208513L;
+		
+		private final DataType _type;
+		
+		public InternalRowExtractIDFunction(DataType type) {
+			_type = type;
+		}
+
+		@Override
+		public Tuple2<InternalRow, Long> call(InternalRow arg0) throws Exception {
+			//extract 1-based IDs and convert to 0-based positions
+			long id = UtilFunctions.toLong(getDouble(arg0, 0, _type));
+			if( id <= 0 ) {
+				throw new DMLRuntimeException("ID Column '" + DF_ID_COLUMN 
+						+ "' expected to be 1-based, but found value: "+id);
 			}
+			return new Tuple2<InternalRow,Long>(arg0, id-1);
+		}
+	}
+	
+	private static class InternalRowToBinaryBlockFunction implements PairFlatMapFunction<Iterator<Tuple2<InternalRow,Long>>,MatrixIndexes,MatrixBlock> 
+	{
+		private static final long serialVersionUID = 5310584317829054276L;
+		
+		private final long _rlen;
+		private final long _clen;
+		private final int _brlen;
+		private final int _bclen;
+		private final double _sparsity;
+		private final boolean _sparse;
+		private final DataType[] _types;
+		private final boolean _containsID;
+		private final boolean _isVector;
+		
+		public InternalRowToBinaryBlockFunction(MatrixCharacteristics mc, boolean sparse, DataType[] types, boolean containsID, boolean isVector) {
+			_rlen = mc.getRows();
+			_clen = mc.getCols();
+			_brlen = mc.getRowsPerBlock();
+			_bclen = mc.getColsPerBlock();
+			_sparsity = OptimizerUtils.getSparsity(mc);
+			_sparse = sparse;
+			_types = types;
+			_containsID = containsID;
+			_isVector = isVector;
+		}
+		
+		@Override
+		public Iterator<Tuple2<MatrixIndexes, MatrixBlock>> call(Iterator<Tuple2<InternalRow, Long>> arg0) 
+			throws Exception 
+		{
+			ArrayList<Tuple2<MatrixIndexes,MatrixBlock>> ret = new ArrayList<Tuple2<MatrixIndexes,MatrixBlock>>();
 			
-			return RowFactory.create(row);
+			int ncblks = (int)Math.ceil((double)_clen/_bclen);
+			MatrixIndexes[] ix = new MatrixIndexes[ncblks];
+			MatrixBlock[] mb = new MatrixBlock[ncblks];
+			int off = _containsID ? 1 : 0;
+			VectorUDT udt = _isVector ? (VectorUDT) _types[off] : null;
+			double[] buff = _isVector ? null : new double[(int)_clen];
+			
+			while( arg0.hasNext() )
+			{
+				//note: internal rows might be reused, hence we consume them immediately 
+				Tuple2<InternalRow,Long> tmp = arg0.next();
+				long rowix = tmp._2() + 1;
+				
+				long rix = UtilFunctions.computeBlockIndex(rowix, _brlen);
+				int pos = UtilFunctions.computeCellInBlock(rowix, _brlen);
+			
+				//create new blocks for entire row
+				if( ix[0] == null || ix[0].getRowIndex() != rix ) {
+					if( ix[0] !=null )
+						flushBlocksToList(ix, mb, ret);
+					long len = UtilFunctions.computeBlockSize(_rlen, rix, _brlen);
+					createBlocks(rix, (int)len, ix, mb);
+				}
+				
+				//extract row data (vector or unboxed numeric columns)
+				Vector vect = null;
+				if( _isVector )
+					vect = getVector(tmp._1(), off, udt);
+				else
+					for( int j=0; j<_clen; j++ )
+						buff[j] = getDouble(tmp._1(), off+j, _types[off+j]);
+				
+				//bulk copy of dense rows, append of sparse rows
+				if( vect instanceof SparseVector ) {
+					SparseVector svect = (SparseVector) vect;
+					int[] aix = svect.indices();
+					double[] avals = svect.values();
+					for( int cix=1, pix=0; cix<=ncblks; cix++ ) {
+						int cl = (cix-1)*_bclen;
+						int pix2 = pix;
+						while( pix2<aix.length && aix[pix2]<cix*_bclen )
+							pix2++;
+						if( mb[cix-1].isInSparseFormat() ) {
+							mb[cix-1].getSparseBlock().allocate(pos, pix2-pix);
+							for( ; pix<pix2; pix++ )
+								mb[cix-1].appendValue(pos, aix[pix]-cl, avals[pix]);
+						}
+						else {
+							double[] c = mb[cix-1].getDenseBlock();
+							int clen = mb[cix-1].getNumColumns();
+							for( ; pix<pix2; pix++ )
+								c[pos*clen+aix[pix]-cl] = avals[pix];
+						}
+					}
+				}
+				else {
+					double[] a = (vect != null) ? vect.toArray() : buff;
+					for( int cix=1; cix<=ncblks; cix++ ) {
+						int cl = (cix-1)*_bclen;
+						int lclen = mb[cix-1].getNumColumns();
+						if( mb[cix-1].isInSparseFormat() ) {
+							int lnnz = 0;
+							for( int j=cl; j<cl+lclen; j++ )
+								lnnz += (a[j] != 0) ? 1 : 0;
+							mb[cix-1].getSparseBlock().allocate(pos, lnnz);
+							for( int j=0; j<lclen; j++ )
+								mb[cix-1].appendValue(pos, j, a[cl+j]);
+						}
+						else {
+							System.arraycopy(a, cl, mb[cix-1].getDenseBlock(), pos*lclen, lclen);
+						}
+					}
+				}
+			}
+		
+			//flush last blocks
+			flushBlocksToList(ix, mb, ret);
+		
+			return ret.iterator();
+		}
+		
+		// Creates new state of empty column blocks for current row block index.
+		private void createBlocks(long rix, int lrlen, MatrixIndexes[] ix, MatrixBlock[] mb)
+		{
+			for( int cix=1; cix<=ix.length; cix++ ) {
+				int lclen = (int)UtilFunctions.computeBlockSize(_clen, cix, _bclen);				
+				ix[cix-1] = new MatrixIndexes(rix, cix);
+				mb[cix-1] = new MatrixBlock(lrlen, lclen, _sparse,(int)(lrlen*lclen*_sparsity));
+				mb[cix-1].allocateDenseOrSparseBlock();
+			}
+		}
+		
+		// Flushes current state of filled column blocks to output list.
+		private void flushBlocksToList( MatrixIndexes[] ix, MatrixBlock[] mb, ArrayList<Tuple2<MatrixIndexes,MatrixBlock>> ret ) 
+			throws DMLRuntimeException
+		{
+			for( int i=0; i<ix.length; i++ )
+				if( mb[i] != null ) {
+					if( !mb[i].isInSparseFormat() )
+						mb[i].recomputeNonZeros(); //after bulk copy
+					ret.add(new Tuple2<MatrixIndexes,MatrixBlock>(ix[i],mb[i]));
+					mb[i].examSparsity(); //ensure right representation
+				}	
 		}
 	}
 }
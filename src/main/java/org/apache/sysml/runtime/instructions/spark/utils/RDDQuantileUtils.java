@@ -0,0 +1,399 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.spark.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.api.java.function.Function2;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.functionobjects.KahanPlus;
+import org.apache.sysml.runtime.instructions.cp.KahanObject;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+
+/**
+ * Sort-free selection of order statistics (quantiles, median, iqm) over binary 
+ * block rdds. Instead of a full sort with shuffle, we use a radix histogram 
+ * selection over order-preserving 64bit keys of all values: each pass computes 
+ * per-partition histograms of the next 16 key bits for all values that match the 
+ * already resolved key prefix of a target rank, which are aggregated at the driver 
+ * in order to determine the next prefix. Once the target bucket is small enough, 
+ * a final pass collects its values for an exact local selection. For most data,
+ * this requires two narrow passes without shuffle. Zeros of sparse or missing 
+ * blocks are not materialized but counted implicitly.
+ * 
+ */
+public class RDDQuantileUtils 
+{
+	//number of key bits resolved per histogram pass
+	private static final int HIST_BITS = 16;
+	
+	//max number of values per target collected for local selection (modified in tests)
+	public static long MAX_LOCAL_SELECT = 4L * 1024 * 1024;
+	
+	/**
+	 * Picks the values of the given ranks (1-based, in ascending order of 
+	 * values) without sorting the input.
+	 * 
+	 * @param in input rdd of values
+	 * @param ncells total number of cells of the input, including zeros
+	 * @param ranks 1-based ranks of the requested values
+	 * @return values at the requested ranks
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	public static double[] pickValues( JavaPairRDD<MatrixIndexes, MatrixBlock> in, long ncells, long[] ranks ) 
+		throws DMLRuntimeException
+	{
+		int len = ranks.length;
+		long[] prefix = new long[len]; //resolved key bits per target
+		int[] nbits = new int[len];    //number of resolved key bits
+		long[] rank = new long[len];   //rank within bucket of prefix
+		long[] count = new long[len];  //number of values w/ prefix
+		boolean[] done = new boolean[len];
+		double[] ret = new double[len];
+		for( int i=0; i<len; i++ ) {
+			rank[i] = Math.max(Math.min(ranks[i], ncells), 1);
+			count[i] = ncells;
+		}
+		
+		long zkey = toSortableKey(0);
+		int pending = len;
+		while( pending > 0 ) {
+			//histogram or collect pass over all pending targets
+			boolean[] collect = new boolean[len];
+			for( int i=0; i<len; i++ )
+				collect[i] = !done[i] && count[i] <= MAX_LOCAL_SELECT;
+			SelectPartial agg = in.values()
+				.mapPartitions(new SelectPartitionFunction(prefix, nbits, done, collect))
+				.treeReduce(new MergeSelectFunction());
+			long zeros = ncells - agg.nnz;
+			
+			//refine targets via histograms or local selection
+			for( int i=0; i<len; i++ ) {
+				if( done[i] )
+					continue;
+				long nzeros = matchesPrefix(zkey, prefix[i], nbits[i]) ? zeros : 0;
+				if( collect[i] ) {
+					double[] vals = Arrays.copyOf(agg.vals[i], (int)(agg.vlen[i] + nzeros));
+					Arrays.sort(vals); //zeros appended by copy
+					if( rank[i] > vals.length )
+						throw new DMLRuntimeException("Invalid rank "+rank[i]+" for "+vals.length+" values.");
+					ret[i] = vals[(int)rank[i]-1];
+					done[i] = true;
+				}
+				else {
+					long[] hist = agg.hist[i];
+					hist[getDigit(zkey, nbits[i])] += nzeros;
+					int b = 0;
+					while( rank[i] > hist[b] && b < hist.length-1 )
+						rank[i] -= hist[b++];
+					if( rank[i] > hist[b] )
+						throw new DMLRuntimeException("Invalid rank "+ranks[i]+" for "+ncells+" cells.");
+					prefix[i] = (prefix[i] << HIST_BITS) | b;
+					nbits[i] += HIST_BITS;
+					count[i] = hist[b];
+					if( nbits[i] == 64 ) { //all values in bucket equal
+						ret[i] = fromSortableKey(prefix[i]);
+						done[i] = true;
+					}
+				}
+				pending -= done[i] ? 1 : 0;
+			}
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Computes the sum of all values with ranks in (rank1, rank2], given the values 
+	 * at rank1 and rank2, in a single narrow pass over the unsorted input.
+	 * 
+	 * @param in input rdd of values
+	 * @param ncells total number of cells of the input, including zeros
+	 * @param rank1 lower rank (exclusive)
+	 * @param val1 value at lower rank
+	 * @param rank2 upper rank (inclusive)
+	 * @param val2 value at upper rank
+	 * @return sum of values in rank range
+	 */
+	public static double sumRankRange( JavaPairRDD<MatrixIndexes, MatrixBlock> in, long ncells, 
+			long rank1, double val1, long rank2, double val2 )
+	{
+		long key1 = toSortableKey(val1);
+		long key2 = toSortableKey(val2);
+		if( key1 == key2 )
+			return (rank2 - rank1) * val1;
+		
+		RangeSumPartial agg = in.values()
+			.mapPartitions(new RangeSumPartitionFunction(key1, key2))
+			.treeReduce(new MergeRangeSumFunction());
+		
+		//account for zeros not materialized in the input
+		long zeros = ncells - agg.nnz;
+		long zkey = toSortableKey(0);
+		agg.cntLe1 += (Long.compareUnsigned(zkey, key1) <= 0) ? zeros : 0;
+		agg.cntLt2 += (Long.compareUnsigned(zkey, key2) < 0) ? zeros : 0;
+		
+		//sum of values in (val1, val2) and duplicates of boundary values
+		return agg.sum + agg.corr + (agg.cntLe1 - rank1) * val1 + (rank2 - agg.cntLt2) * val2;
+	}
+	
+	private static long toSortableKey(double val) {
+		//order-preserving mapping of doubles to unsigned long keys
+		long bits = Double.doubleToLongBits(val);
+		return (bits < 0) ? ~bits : bits ^ Long.MIN_VALUE;
+	}
+	
+	private static double fromSortableKey(long key) {
+		return Double.longBitsToDouble((key < 0) ? key ^ Long.MIN_VALUE : ~key);
+	}
+	
+	private static boolean matchesPrefix(long key, long prefix, int nbits) {
+		return nbits == 0 || (key >>> (64-nbits)) == prefix;
+	}
+	
+	private static int getDigit(long key, int nbits) {
+		return (int)((key << nbits) >>> (64-HIST_BITS));
+	}
+	
+	private static abstract class ValueAggregator implements Serializable
+	{
+		private static final long serialVersionUID = 5271438109273512034L;
+		
+		protected long nnz = 0;
+		
+		protected abstract void add(double val);
+		
+		protected void addBlock(MatrixBlock mb) {
+			if( mb.isEmptyBlock(false) )
+				return;
+			if( mb.isInSparseFormat() ) {
+				SparseBlock sb = mb.getSparseBlock();
+				for( int i=0; i<sb.numRows(); i++ ) {
+					if( sb.isEmpty(i) ) continue;
+					int apos = sb.pos(i);
+					int alen = sb.size(i);
+					double[] avals = sb.values(i);
+					for( int k=apos; k<apos+alen; k++ )
+						add(avals[k]);
+				}
+			}
+			else {
+				double[] a = mb.getDenseBlock();
+				int len = mb.getNumRows() * mb.getNumColumns();
+				for( int i=0; i<len; i++ )
+					if( a[i] != 0 )
+						add(a[i]);
+			}
+		}
+	}
+	
+	private static class SelectPartial extends ValueAggregator
+	{
+		private static final long serialVersionUID = -3391428652340574163L;
+		
+		private final long[] _prefix;
+		private final int[] _nbits;
+		private final boolean[] _active;
+		private final boolean[] _collect;
+		private final long[][] hist;
+		private final double[][] vals;
+		private final int[] vlen;
+		
+		public SelectPartial(long[] prefix, int[] nbits, boolean[] done, boolean[] collect) {
+			int len = prefix.length;
+			_prefix = prefix;
+			_nbits = nbits;
+			_active = new boolean[len];
+			_collect = collect;
+			hist = new long[len][];
+			vals = new double[len][];
+			vlen = new int[len];
+			for( int i=0; i<len; i++ ) {
+				_active[i] = !done[i];
+				if( _active[i] && collect[i] )
+					vals[i] = new double[32];
+				else if( _active[i] )
+					hist[i] = new long[1 << HIST_BITS];
+			}
+		}
+		
+		@Override
+		protected void add(double val) {
+			nnz++;
+			long key = toSortableKey(val);
+			for( int i=0; i<_active.length; i++ ) {
+				if( !_active[i] || !matchesPrefix(key, _prefix[i], _nbits[i]) )
+					continue;
+				if( _collect[i] )
+					append(i, val);
+				else
+					hist[i][getDigit(key, _nbits[i])]++;
+			}
+		}
+		
+		private void append(int i, double val) {
+			if( vlen[i] == vals[i].length )
+				vals[i] = Arrays.copyOf(vals[i], 2*vals[i].length);
+			vals[i][vlen[i]++] = val;
+		}
+		
+		public SelectPartial merge(SelectPartial that) {
+			nnz += that.nnz;
+			for( int i=0; i<_active.length; i++ ) {
+				if( !_active[i] ) continue;
+				if( _collect[i] ) {
+					for( int k=0; k<that.vlen[i]; k++ )
+						append(i, that.vals[i][k]);
+				}
+				else {
+					for( int k=0; k<hist[i].length; k++ )
+						hist[i][k] += that.hist[i][k];
+				}
+			}
+			return this;
+		}
+	}
+	
+	private static class RangeSumPartial extends ValueAggregator
+	{
+		private static final long serialVersionUID = 6618273470284710412L;
+		
+		private final long _key1;
+		private final long _key2;
+		private long cntLe1 = 0; //values <= val1
+		private long cntLt2 = 0; //values < val2
+		private double sum = 0;  //sum of values in (val1, val2)
+		private double corr = 0; //kahan correction
+		
+		public RangeSumPartial(long key1, long key2) {
+			_key1 = key1;
+			_key2 = key2;
+		}
+		
+		@Override
+		protected void add(double val) {
+			nnz++;
+			long key = toSortableKey(val);
+			boolean le1 = Long.compareUnsigned(key, _key1) <= 0;
+			boolean lt2 = Long.compareUnsigned(key, _key2) < 0;
+			cntLe1 += le1 ? 1 : 0;
+			cntLt2 += lt2 ? 1 : 0;
+			if( !le1 && lt2 )
+				addKahan(val, 0);
+		}
+		
+		private void addKahan(double val, double cor) {
+			KahanObject kbuff = new KahanObject(sum, corr);
+			KahanPlus.getKahanPlusFnObject().execute2(kbuff, val);
+			KahanPlus.getKahanPlusFnObject().execute2(kbuff, cor);
+			sum = kbuff._sum;
+			corr = kbuff._correction;
+		}
+		
+		public RangeSumPartial merge(RangeSumPartial that) {
+			nnz += that.nnz;
+			cntLe1 += that.cntLe1;
+			cntLt2 += that.cntLt2;
+			addKahan(that.sum, that.corr);
+			return this;
+		}
+	}
+	
+	private static class SelectPartitionFunction implements FlatMapFunction<Iterator<MatrixBlock>, SelectPartial> 
+	{
+		private static final long serialVersionUID = 2780251407136483913L;
+		
+		private final long[] _prefix;
+		private final int[] _nbits;
+		private final boolean[] _done;
+		private final boolean[] _collect;
+		
+		public SelectPartitionFunction(long[] prefix, int[] nbits, boolean[] done, boolean[] collect) {
+			_prefix = prefix.clone();
+			_nbits = nbits.clone();
+			_done = done.clone();
+			_collect = collect.clone();
+		}
+		
+		@Override
+		public Iterator<SelectPartial> call(Iterator<MatrixBlock> arg0) 
+			throws Exception 
+		{
+			SelectPartial ret = new SelectPartial(_prefix, _nbits, _done, _collect);
+			while( arg0.hasNext() )
+				ret.addBlock(arg0.next());
+			return Collections.singletonList(ret).iterator();
+		}
+	}
+	
+	private static class MergeSelectFunction implements Function2<SelectPartial, SelectPartial, SelectPartial> 
+	{
+		private static final long serialVersionUID = -1523720364584957781L;
+
+		@Override
+		public SelectPartial call(SelectPartial arg0, SelectPartial arg1) 
+			throws Exception 
+		{
+			return arg0.merge(arg1);
+		}
+	}
+	
+	private static class RangeSumPartitionFunction implements FlatMapFunction<Iterator<MatrixBlock>, RangeSumPartial> 
+	{
+		private static final long serialVersionUID = -7365480713263310251L;
+		
+		private final long _key1;
+		private final long _key2;
+		
+		public RangeSumPartitionFunction(long key1, long key2) {
+			_key1 = key1;
+			_key2 = key2;
+		}
+		
+		@Override
+		public Iterator<RangeSumPartial> call(Iterator<MatrixBlock> arg0) 
+			throws Exception 
+		{
+			RangeSumPartial ret = new RangeSumPartial(_key1, _key2);
+			while( arg0.hasNext() )
+				ret.addBlock(arg0.next());
+			return Collections.singletonList(ret).iterator();
+		}
+	}
+	
+	private static class MergeRangeSumFunction implements Function2<RangeSumPartial, RangeSumPartial, RangeSumPartial> 
+	{
+		private static final long serialVersionUID = 4492716502583647721L;
+
+		@Override
+		public RangeSumPartial call(RangeSumPartial arg0, RangeSumPartial arg1) 
+			throws Exception 
+		{
+			return arg0.merge(arg1);
+		}
+	}
+}
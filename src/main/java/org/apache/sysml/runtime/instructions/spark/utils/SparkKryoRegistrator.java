@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.spark.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.spark.serializer.KryoRegistrator;
+import org.apache.sysml.runtime.compress.CompressedMatrixBlock;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo registration of SystemML's block and index classes, used for serialized
+ * checkpoint storage (in memory or off-heap). All registered classes are serialized
+ * via their compact Writable representation instead of Kryo's field serializer, 
+ * which is both faster and avoids the serialization of transient internals. 
+ * 
+ * Note: registered via spark.kryo.registrator, see SparkExecutionContext.
+ */
+public class SparkKryoRegistrator implements KryoRegistrator 
+{
+	@Override
+	public void registerClasses(Kryo kryo) {
+		kryo.register(MatrixIndexes.class, new WritableSerializer<MatrixIndexes>());
+		kryo.register(MatrixBlock.class, new WritableSerializer<MatrixBlock>());
+		kryo.register(CompressedMatrixBlock.class, new WritableSerializer<CompressedMatrixBlock>());
+		kryo.register(FrameBlock.class, new WritableSerializer<FrameBlock>());
+	}
+	
+	/**
+	 * Generic kryo serializer for Writables, which writes directly through
+	 * to kryo's buffered input and output streams.
+	 */
+	private static class WritableSerializer<T extends Writable> extends Serializer<T>
+	{
+		@Override
+		public void write(Kryo kryo, Output output, T object) {
+			try {
+				object.write(new DataOutputStream(output));
+			}
+			catch(IOException ex) {
+				throw new KryoException(ex);
+			}
+		}
+
+		@Override
+		public T read(Kryo kryo, Input input, Class<T> type) {
+			T ret = kryo.newInstance(type);
+			try {
+				ret.readFields(new DataInputStream(input));
+			}
+			catch(IOException ex) {
+				throw new KryoException(ex);
+			}
+			return ret;
+		}
+	}
+}
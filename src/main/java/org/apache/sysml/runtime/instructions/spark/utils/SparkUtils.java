@@ -21,14 +21,18 @@
 package org.apache.sysml.runtime.instructions.spark.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
 import org.apache.spark.HashPartitioner;
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.api.java.function.Function2;
 import org.apache.spark.api.java.function.PairFlatMapFunction;
@@ -38,6 +42,9 @@ import org.apache.sysml.lops.Checkpoint;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.apache.sysml.runtime.instructions.spark.data.BlockStatistics;
+import org.apache.sysml.runtime.instructions.spark.data.BlockStatisticsAccumulator;
+import org.apache.sysml.runtime.instructions.spark.data.SkewAwareBlockPartitioner;
 import org.apache.sysml.runtime.instructions.spark.functions.CopyBinaryCellFunction;
 import org.apache.sysml.runtime.instructions.spark.functions.CopyBlockFunction;
 import org.apache.sysml.runtime.instructions.spark.functions.CopyBlockPairFunction;
@@ -56,6 +63,18 @@ public class SparkUtils
 {	
 	//internal configuration
 	public static final StorageLevel DEFAULT_TMP = Checkpoint.DEFAULT_STORAGE_LEVEL;
+	
+	//skew-aware partitioning (sample fraction for non-persisted inputs, 
+	//histogram resolution, and min skew factor to replace hash partitioning)
+	public static final double SKEW_SAMPLE_FRACTION = 0.1;
+	public static final int SKEW_BUCKETS_PER_PARTITION = 64;
+	public static final double SKEW_THRESHOLD = 2.0;
+	
+	private enum BlockKeyType {
+		LINEAR, //row-major linearized block indexes
+		ROW,    //row block indexes 
+		COL,    //column block indexes
+	}
 
 	public static IndexedMatrixValue toIndexedMatrixBlock( Tuple2<MatrixIndexes,MatrixBlock> in ) {
 		return new IndexedMatrixValue(in._1(), in._2());
@@ -129,6 +148,115 @@ public class SparkUtils
 		return (int) Math.max(Math.ceil(matrixPSize/hdfsBlockSize), 1);
 	}
 	
+	/**
+	 * Obtains a skew-aware partitioner for shuffling the given binary block rdds 
+	 * (e.g., for aggregation or joins) into the block space of the given matrix 
+	 * characteristics, which balances partitions by bytes according to a histogram 
+	 * of block sizes. The histogram is computed exactly from persisted inputs and
+	 * via sampling otherwise.
+	 * 
+	 * @param mc matrix characteristics of the output block space
+	 * @param numParts number of partitions
+	 * @param in1 first matrix as {@code JavaPairRDD<MatrixIndexes,MatrixBlock>}
+	 * @param in2 optional second matrix as {@code JavaPairRDD<MatrixIndexes,MatrixBlock>}
+	 * @return partitioner, or null if not applicable or no significant skew
+	 */
+	public static Partitioner getSkewAwarePartitioner(MatrixCharacteristics mc, int numParts,
+		JavaPairRDD<MatrixIndexes,MatrixBlock> in1, JavaPairRDD<MatrixIndexes,MatrixBlock> in2)
+	{
+		//keep existing partitioning (e.g., for co-partitioned joins w/o shuffle)
+		if( !mc.dimsKnown() || !in1.rdd().partitioner().isEmpty() 
+			|| (in2 != null && !in2.rdd().partitioner().isEmpty()) )
+			return null;
+		return getSkewAwarePartitioner(mc.getNumRowBlocks()*mc.getNumColBlocks(), 
+			mc.getNumColBlocks(), numParts, in1, BlockKeyType.LINEAR, in2, BlockKeyType.LINEAR);
+	}
+	
+	/**
+	 * Obtains a skew-aware partitioner for the cpmm join over the common dimension,
+	 * whose keys are the column block indexes of the left and the row block indexes
+	 * of the right input.
+	 * 
+	 * @param mc1 matrix characteristics of the left input
+	 * @param numParts number of partitions
+	 * @param in1 left matrix as {@code JavaPairRDD<MatrixIndexes,MatrixBlock>}
+	 * @param in2 right matrix as {@code JavaPairRDD<MatrixIndexes,MatrixBlock>}
+	 * @return partitioner, or null if not applicable or no significant skew
+	 */
+	public static Partitioner getSkewAwareCpmmPartitioner(MatrixCharacteristics mc1, int numParts,
+		JavaPairRDD<MatrixIndexes,MatrixBlock> in1, JavaPairRDD<MatrixIndexes,MatrixBlock> in2)
+	{
+		if( !mc1.dimsKnown() )
+			return null;
+		return getSkewAwarePartitioner(mc1.getNumColBlocks(), 0, 
+			numParts, in1, BlockKeyType.COL, in2, BlockKeyType.ROW);
+	}
+	
+	private static Partitioner getSkewAwarePartitioner(long nkeys, long ncblks, int numParts,
+		JavaPairRDD<MatrixIndexes,MatrixBlock> in1, BlockKeyType type1, 
+		JavaPairRDD<MatrixIndexes,MatrixBlock> in2, BlockKeyType type2)
+	{
+		if( !OptimizerUtils.ALLOW_SKEW_AWARE_PARTITIONING 
+			|| numParts <= 1 || nkeys <= numParts )
+			return null;
+		
+		//compute histogram of block sizes over equi-width buckets of keys, 
+		//and the partition sizes of the default hash partitioning
+		long bucketWidth = (long)Math.ceil((double)nkeys / 
+			Math.min(nkeys, (long)numParts * SKEW_BUCKETS_PER_PARTITION));
+		int numBuckets = (int)Math.ceil((double)nkeys / bucketWidth);
+		double[] hist = computeBlockSizeHistogram(in1, type1, ncblks, bucketWidth, numBuckets, numParts);
+		if( in2 != null ) {
+			double[] hist2 = computeBlockSizeHistogram(in2, type2, ncblks, bucketWidth, numBuckets, numParts);
+			for( int i=0; i<hist.length; i++ )
+				hist[i] += hist2[i];
+		}
+		
+		return createSkewAwarePartitioner(Arrays.copyOfRange(hist, 0, numBuckets),
+			Arrays.copyOfRange(hist, numBuckets, hist.length), bucketWidth, ncblks);
+	}
+	
+	/**
+	 * Creates a skew-aware partitioner if the default hash partitioning exhibits 
+	 * significant skew (max to average partition size of at least SKEW_THRESHOLD)
+	 * and the skew-aware range partitioning reduces this skew.
+	 * 
+	 * @param hist histogram of sizes over equi-width buckets of linear keys
+	 * @param hashParts partition sizes of the default hash partitioning
+	 * @param bucketWidth number of linear keys per bucket
+	 * @param ncblks number of column blocks, or 0 for long keys
+	 * @return partitioner, or null if no significant skew
+	 */
+	public static SkewAwareBlockPartitioner createSkewAwarePartitioner(double[] hist, double[] hashParts, long bucketWidth, long ncblks) {
+		//fall back to default hash partitioning w/o significant skew
+		double hashSkew = SkewAwareBlockPartitioner.computeSkewFactor(hashParts);
+		if( hashSkew < SKEW_THRESHOLD )
+			return null;
+		SkewAwareBlockPartitioner ret = SkewAwareBlockPartitioner
+			.create(hist, bucketWidth, ncblks, hashParts.length);
+		double rangeSkew = SkewAwareBlockPartitioner
+			.computeSkewFactor(ret.computePartitionSizes(hist, bucketWidth));
+		return (rangeSkew < hashSkew) ? ret : null;
+	}
+	
+	private static double[] computeBlockSizeHistogram(JavaPairRDD<MatrixIndexes,MatrixBlock> in, 
+		BlockKeyType type, long ncblks, long bucketWidth, int numBuckets, int numParts) 
+	{
+		//exact histogram for persisted inputs, sample otherwise
+		boolean sample = in.getStorageLevel().equals(StorageLevel.NONE());
+		JavaPairRDD<MatrixIndexes,MatrixBlock> tmp = sample ? 
+			in.sample(false, SKEW_SAMPLE_FRACTION) : in;
+		double[] hist = tmp
+			.mapPartitions(new BlockSizeHistogramFunction(type, ncblks, bucketWidth, numBuckets, numParts))
+			.reduce(new SumHistogramFunction());
+		
+		//scale sampled histogram for consistency with exact histograms
+		if( sample )
+			for( int i=0; i<hist.length; i++ )
+				hist[i] /= SKEW_SAMPLE_FRACTION;
+		return hist;
+	}
+	
 	/**
 	 * Creates a partitioning-preserving deep copy of the input matrix RDD, where 
 	 * the indexes and values are copied.
@@ -227,6 +355,136 @@ public class SparkUtils
 		return ret;
 	}
 
+	/**
+	 * Utility to collect exact statistics (non-zeros, block sparsity histogram) 
+	 * of a given binary block RDD as a side effect of its lazy evaluation, e.g., 
+	 * when a checkpoint is materialized by its first consumer, i.e., without an 
+	 * additional job. The statistics of fully consumed partitions are added to 
+	 * the given accumulator.
+	 * 
+	 * @param input matrix as {@code JavaPairRDD<MatrixIndexes, MatrixBlock>}
+	 * @param acc block statistics accumulator
+	 * @return matrix as {@code JavaPairRDD<MatrixIndexes, MatrixBlock>}
+	 */
+	public static JavaPairRDD<MatrixIndexes, MatrixBlock> collectBlockStatistics(
+		JavaPairRDD<MatrixIndexes, MatrixBlock> input, BlockStatisticsAccumulator acc) 
+	{
+		return JavaPairRDD.fromJavaRDD(input
+			.mapPartitionsWithIndex(new CollectBlockStatisticsFunction(acc), true));
+	}
+
+	private static class CollectBlockStatisticsFunction implements Function2<Integer, 
+		Iterator<Tuple2<MatrixIndexes,MatrixBlock>>, Iterator<Tuple2<MatrixIndexes,MatrixBlock>>> 
+	{
+		private static final long serialVersionUID = -6720397546101326573L;
+
+		private final BlockStatisticsAccumulator _acc;
+		
+		public CollectBlockStatisticsFunction(BlockStatisticsAccumulator acc) {
+			_acc = acc;
+		}
+		
+		@Override
+		public Iterator<Tuple2<MatrixIndexes,MatrixBlock>> call(Integer arg0, Iterator<Tuple2<MatrixIndexes,MatrixBlock>> arg1) 
+			throws Exception 
+		{
+			return new BlockStatisticsIterator(arg0, arg1, _acc);
+		}
+	}
+
+	/**
+	 * Lazy pass-through iterator that analyzes the blocks of a partition, and
+	 * adds the partition statistics to the accumulator once the input is consumed.
+	 */
+	private static class BlockStatisticsIterator implements Iterator<Tuple2<MatrixIndexes,MatrixBlock>> 
+	{
+		private final int _pix;
+		private final Iterator<Tuple2<MatrixIndexes,MatrixBlock>> _in;
+		private final BlockStatisticsAccumulator _acc;
+		private final BlockStatistics _stats = new BlockStatistics();
+		private boolean _done = false;
+		
+		public BlockStatisticsIterator(int pix, Iterator<Tuple2<MatrixIndexes,MatrixBlock>> in, BlockStatisticsAccumulator acc) {
+			_pix = pix;
+			_in = in;
+			_acc = acc;
+		}
+
+		@Override
+		public boolean hasNext() {
+			boolean ret = _in.hasNext();
+			if( !ret && !_done ) {
+				_acc.add(new Tuple2<Integer,BlockStatistics>(_pix, _stats));
+				_done = true;
+			}
+			return ret;
+		}
+
+		@Override
+		public Tuple2<MatrixIndexes, MatrixBlock> next() {
+			Tuple2<MatrixIndexes,MatrixBlock> ret = _in.next();
+			_stats.add(ret._2());
+			return ret;
+		}
+	}
+
+	/**
+	 * Computes the histogram of block sizes over equi-width buckets of keys, 
+	 * followed by the partition sizes of the default hash partitioning, where 
+	 * the keys of the join over rows or columns (e.g., cpmm) are long indexes.
+	 */
+	private static class BlockSizeHistogramFunction implements FlatMapFunction<Iterator<Tuple2<MatrixIndexes,MatrixBlock>>, double[]> 
+	{
+		private static final long serialVersionUID = 5187734622930541737L;
+
+		private final BlockKeyType _type;
+		private final long _ncblks;
+		private final long _bucketWidth;
+		private final int _numBuckets;
+		private final HashPartitioner _hash;
+		
+		public BlockSizeHistogramFunction(BlockKeyType type, long ncblks, long bucketWidth, int numBuckets, int numParts) {
+			_type = type;
+			_ncblks = ncblks;
+			_bucketWidth = bucketWidth;
+			_numBuckets = numBuckets;
+			_hash = new HashPartitioner(numParts);
+		}
+		
+		@Override
+		public Iterator<double[]> call(Iterator<Tuple2<MatrixIndexes, MatrixBlock>> arg0) 
+			throws Exception 
+		{
+			double[] hist = new double[_numBuckets + _hash.numPartitions()];
+			while( arg0.hasNext() ) {
+				Tuple2<MatrixIndexes, MatrixBlock> tmp = arg0.next();
+				MatrixIndexes ix = tmp._1();
+				long lix = (_type == BlockKeyType.ROW) ? ix.getRowIndex()-1 :
+					(_type == BlockKeyType.COL) ? ix.getColumnIndex()-1 :
+					(ix.getRowIndex()-1) * _ncblks + ix.getColumnIndex()-1;
+				Object key = (_type == BlockKeyType.LINEAR) ? ix : Long.valueOf(lix+1);
+				double size = tmp._2().getExactSizeOnDisk();
+				hist[(int)Math.min(lix / _bucketWidth, _numBuckets-1)] += size;
+				hist[_numBuckets + _hash.getPartition(key)] += size;
+			}
+			return Collections.singletonList(hist).iterator();
+		}
+	}
+
+	private static class SumHistogramFunction implements Function2<double[], double[], double[]> 
+	{
+		private static final long serialVersionUID = -1782436901285371964L;
+
+		@Override
+		public double[] call(double[] arg0, double[] arg1) 
+			throws Exception 
+		{
+			for( int i=0; i<arg0.length; i++ )
+				arg0[i] += arg1[i];
+			return arg0;
+		}
+	}
+
 	private static class AnalyzeCellMatrixCharacteristics implements Function<Tuple2<MatrixIndexes,MatrixCell>, MatrixCharacteristics> 
 	{
 		private static final long serialVersionUID = 8899395272683723008L;
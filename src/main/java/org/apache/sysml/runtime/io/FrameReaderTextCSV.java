@@ -38,7 +38,6 @@ import org.apache.sysml.runtime.matrix.data.CSVFileFormatProperties;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.Pair;
 import org.apache.sysml.runtime.transform.TfUtils;
-import org.apache.sysml.runtime.util.UtilFunctions;
 
 /**
  * Single-threaded frame text csv reader.
@@ -81,6 +80,10 @@ public class FrameReaderTextCSV extends FrameReader
 		//core read (sequential/parallel) 
 		readCSVFrameFromHDFS(path, job, fs, ret, lschema, lnames, rlen, clen);
 		
+		//compact categorical string columns
+		if( FrameBlock.DICTIONARY_ENCODING )
+			ret.dictionaryEncodeColumns(FrameBlock.DICTIONARY_MAX_DISTINCT_FRACTION);
+		
 		return ret;
 	}
 
@@ -145,11 +148,11 @@ public class FrameReaderTextCSV extends FrameReader
 					part = part.trim();
 					if ( part.isEmpty() ) {
 						if( isFill && dfillValue!=0 )
-							dest.set(row, col, UtilFunctions.stringToObject(schema[col], sfillValue));
+							dest.setString(row, col, sfillValue);
 						emptyValuesFound = true;
 					}
 					else {
-						dest.set(row, col, UtilFunctions.stringToObject(schema[col], part));
+						dest.setString(row, col, part);
 					}
 					col++;
 				}
@@ -39,7 +39,6 @@ import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.util.FastStringTokenizer;
-import org.apache.sysml.runtime.util.UtilFunctions;
 
 /**
  * Single-threaded frame textcell reader.
@@ -110,7 +109,6 @@ public class FrameReaderTextCell extends FrameReader
 	protected final void readTextCellFrameFromInputSplit( InputSplit split, TextInputFormat informat, JobConf job, FrameBlock dest)
 		throws IOException
 	{
-		ValueType[] schema = dest.getSchema();
 		int rlen = dest.getNumRows();
 		int clen = dest.getNumColumns();
 		
@@ -134,7 +132,7 @@ public class FrameReaderTextCell extends FrameReader
 				else if( row == -2 )
 					dest.getColumnMetadata(col).setNumDistinct(st.nextLong());
 				else
-					dest.set(row, col, UtilFunctions.stringToObject(schema[col], st.nextToken()));
+					dest.setString(row, col, st.nextToken());
 			}
 		}
 		catch(Exception ex) 
@@ -186,7 +184,7 @@ public class FrameReaderTextCell extends FrameReader
 				else if (row == -2)
 					dest.getColumnMetadata(col).setNumDistinct(st.nextLong());
 				else
-					dest.set(row, col, UtilFunctions.stringToObject(schema[col], st.nextToken()));
+					dest.setString(row, col, st.nextToken());
 			}
 		}
 		catch(Exception ex)
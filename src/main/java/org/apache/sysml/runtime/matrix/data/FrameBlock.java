@@ -41,6 +41,7 @@ import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.caching.CacheBlock;
 import org.apache.sysml.runtime.io.IOUtilFunctions;
 import org.apache.sysml.runtime.util.IndexRange;
+import org.apache.sysml.runtime.util.StringIntHashMap;
 import org.apache.sysml.runtime.util.UtilFunctions;
 
 @SuppressWarnings({"rawtypes","unchecked"}) //allow generic native arrays
@@ -53,6 +54,14 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 	//internal configuration
 	private static final boolean REUSE_RECODE_MAPS = true;
 	
+	//schema flag of serialized recode map columns in compact form
+	private static final int RECODE_MAP_FLAG = 0x40;
+	
+	//dictionary encoding of string columns w/ few distinct values (relative to rows)
+	//on csv read (opt-in, because in-place access via getColumn decodes columns)
+	public static boolean DICTIONARY_ENCODING = false;
+	public static final double DICTIONARY_MAX_DISTINCT_FRACTION = 0.1;
+	
 	/** The number of rows of the FrameBlock */
 	private int _numRows = -1;
 	
@@ -68,12 +77,12 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 	private Array[] _coldata = null;
 	
 	/** Cache for recode maps from frame meta data, indexed by column 0-based */
-	private Map<Integer, SoftReference<HashMap<String,Long>>> _rcdMapCache = null;
+	private Map<Integer, SoftReference<StringIntHashMap>> _rcdMapCache = null;
 	
 	public FrameBlock() {
 		_numRows = 0;
 		if( REUSE_RECODE_MAPS )
-			_rcdMapCache = new HashMap<Integer, SoftReference<HashMap<String,Long>>>();
+			_rcdMapCache = new HashMap<Integer, SoftReference<StringIntHashMap>>();
 	}
 	
 	/**
@@ -121,7 +130,7 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		for( int i=0; i<data.length; i++ )
 			appendRow(data[i]);
 		if( REUSE_RECODE_MAPS )
-			_rcdMapCache = new HashMap<Integer, SoftReference<HashMap<String,Long>>>();
+			_rcdMapCache = new HashMap<Integer, SoftReference<StringIntHashMap>>();
 	}
 	
 	/**
@@ -347,6 +356,51 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 	public void set(int r, int c, Object val) {
 		_coldata[c].set(r, UtilFunctions.objectToObject(_schema[c], val));
 	}
+	
+	/**
+	 * Sets the value in position (r,c) from its string representation, 
+	 * which is parsed according to the schema directly into the primitive 
+	 * column storage without intermediate boxed objects.
+	 * 
+	 * @param r row index, 0-based
+	 * @param c column index, 0-based
+	 * @param val string value to parse and set, null for default value
+	 */
+	public void setString(int r, int c, String val) {
+		_coldata[c].setString(r, val);
+	}
+	
+	/**
+	 * Gets the value in position (r,c) as a double without boxing 
+	 * for numeric and boolean columns. String values are parsed, 
+	 * where null or empty strings are returned as 0.
+	 * 
+	 * @param r row index, 0-based
+	 * @param c column index, 0-based
+	 * @return double value at specified position
+	 */
+	public double getDouble(int r, int c) {
+		return _coldata[c].getDouble(r);
+	}
+	
+	/**
+	 * Gets the values of rows [rl,ru) of column c as doubles, written 
+	 * into the given output array starting at position 0. This bulk 
+	 * accessor avoids boxing for all value types and parses distinct 
+	 * values of dictionary-encoded string columns only once.
+	 * 
+	 * @param c column index, 0-based
+	 * @param rl row lower index, inclusive, 0-based
+	 * @param ru row upper index, exclusive, 0-based
+	 * @param ret output array, allocated if null or too small
+	 * @return output array
+	 */
+	public double[] getColumnAsDouble(int c, int rl, int ru, double[] ret) {
+		if( ret == null || ret.length < ru-rl )
+			ret = new double[ru-rl];
+		_coldata[c].getDouble(rl, ru, ret);
+		return ret;
+	}
 
 	public void reset(int nrow, boolean clearMeta) {
 		if( clearMeta ) {
@@ -412,6 +466,26 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		_numRows = col.length;
 	}
 	
+	/**
+	 * Append a dictionary-encoded column of value type STRING as the last 
+	 * column of the data frame. Each cell is represented by an int code
+	 * into the shared dictionary of distinct values, where negative codes 
+	 * represent null values. The given arrays are wrapped but not copied 
+	 * and hence might be updated in the future.
+	 * 
+	 * @param codes array of dictionary codes
+	 * @param dict dictionary of distinct strings
+	 */
+	public void appendColumn(int[] codes, String[] dict) {
+		ensureColumnCompatibility(codes.length);
+		String[] colnames = getColumnNames(); //before schema modification
+		_colnames = (String[]) ArrayUtils.add(colnames, createColName(_schema.length));
+		_schema = (ValueType[]) ArrayUtils.add(_schema, ValueType.STRING);
+		_coldata = (_coldata==null) ? new Array[]{new DictionaryArray(codes, dict)} :
+			(Array[]) ArrayUtils.add(_coldata, new DictionaryArray(codes, dict));
+		_numRows = codes.length;
+	}
+	
 	/**
 	 * Append a column of value type BOOLEAN as the last column of 
 	 * the data frame. The given array is wrapped but not copied 
@@ -485,6 +559,10 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 	}
 
 	public Object getColumn(int c) {
+		//decode dictionary-encoded columns in place in order to 
+		//return the modifiable column data as for all other columns
+		if( _coldata[c] instanceof DictionaryArray )
+			_coldata[c] = new StringArray(((DictionaryArray)_coldata[c]).decode());
 		switch(_schema[c]) {
 			case STRING:  return ((StringArray)_coldata[c])._data; 
 			case BOOLEAN: return ((BooleanArray)_coldata[c])._data;
@@ -494,6 +572,57 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 	 	}
 	}
 	
+	/**
+	 * Indicates if the given column is a dictionary-encoded string column.
+	 * 
+	 * @param c column index, 0-based
+	 * @return true if dictionary-encoded
+	 */
+	public boolean isDictionaryEncoded(int c) {
+		return _coldata[c] instanceof DictionaryArray;
+	}
+	
+	/**
+	 * Gets the codes of a dictionary-encoded string column, which allows
+	 * encoders and writers to process distinct values once. Negative codes 
+	 * represent null values, and the array might be larger than the number 
+	 * of rows.
+	 * 
+	 * @param c column index, 0-based
+	 * @return array of dictionary codes
+	 */
+	public int[] getColumnCodes(int c) {
+		return ((DictionaryArray)_coldata[c])._codes;
+	}
+	
+	/**
+	 * Gets the dictionary of a dictionary-encoded string column. The 
+	 * dictionary might be larger than the number of distinct values.
+	 * 
+	 * @param c column index, 0-based
+	 * @return dictionary of distinct strings
+	 */
+	public String[] getColumnDictionary(int c) {
+		return ((DictionaryArray)_coldata[c]).getDictionary();
+	}
+	
+	/**
+	 * Converts all string columns with a number of distinct values below 
+	 * the given fraction of rows into dictionary-encoded columns. 
+	 * 
+	 * @param maxDistinctFraction maximum ratio of distinct values to rows
+	 */
+	public void dictionaryEncodeColumns(double maxDistinctFraction) {
+		int maxDistinct = (int)(maxDistinctFraction * _numRows);
+		for( int j=0; j<getNumColumns(); j++ )
+			if( _coldata[j] instanceof StringArray ) {
+				DictionaryArray tmp = DictionaryArray.create(
+					(StringArray)_coldata[j], _numRows, maxDistinct);
+				if( tmp != null )
+					_coldata[j] = tmp;
+			}
+	}
+	
 	/**
 	 * Get a row iterator over the frame where all fields are encoded
 	 * as strings independent of their value types.  
@@ -551,14 +680,24 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		out.writeBoolean(isDefaultMeta);
 		//write columns (value type, data)
 		for( int j=0; j<getNumColumns(); j++ ) {
-			out.writeByte(_schema[j].ordinal());
+			boolean rcdMap = isRecodeMapColumn(j);
+			out.writeByte(_schema[j].ordinal() | (rcdMap ? RECODE_MAP_FLAG : 0));
 			if( !isDefaultMeta ) {
 				out.writeUTF(getColumnName(j));
 				out.writeLong(_colmeta[j].getNumDistinct());
 				out.writeUTF( (_colmeta[j].getMvValue()!=null) ? 
 						_colmeta[j].getMvValue() : "" );
 			}
-			_coldata[j].write(out);
+			if( rcdMap ) {
+				//compact recode map: tokens only, codes given by row positions
+				for( int i=0; i<_numRows; i++ ) {
+					String entry = (String)_coldata[j].get(i);
+					out.writeUTF((entry!=null) ? entry.substring(0, 
+						getRecodeMapTokenLength(entry, i+1)) : "");
+				}
+			}
+			else
+				_coldata[j].write(out);
 		}
 	}
 
@@ -579,19 +718,27 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 				_coldata : new Array[numCols];
 		//read columns (value type, meta, data)
 		for( int j=0; j<numCols; j++ ) {
-			ValueType vt = ValueType.values()[in.readByte()];
+			byte type = in.readByte();
+			boolean rcdMap = (type & RECODE_MAP_FLAG) != 0;
+			ValueType vt = ValueType.values()[type & ~RECODE_MAP_FLAG];
 			String name = isDefaultMeta ? createColName(j) : in.readUTF();
 			long ndistinct = isDefaultMeta ? 0 : in.readLong();
 			String mvvalue = isDefaultMeta ? null : in.readUTF();
 			Array arr = null;
 			switch( vt ) {
-				case STRING:  arr = new StringArray(new String[_numRows]); break;
+				case STRING:  arr = (_coldata[j] instanceof DictionaryArray) ? //retain encoding
+					new DictionaryArray(new int[_numRows], new String[0]) :
+					new StringArray(new String[_numRows]); break;
 				case BOOLEAN: arr = new BooleanArray(new boolean[_numRows]); break;
 				case INT:     arr = new LongArray(new long[_numRows]); break;
 				case DOUBLE:  arr = new DoubleArray(new double[_numRows]); break;
 				default: throw new IOException("Unsupported value type: "+vt);
 			}
 			arr.readFields(in);
+			if( rcdMap ) //expand compact recode map to token-code entries
+				for( int i=0; i<_numRows; i++ )
+					if( arr.get(i) != null )
+						arr.set(i, arr.get(i) + Lop.DATATYPE_PREFIX + (i+1));
 			_schema[j] = vt;
 			_colnames[j] = name;
 			_colmeta[j] = new ColumnMetadata(ndistinct, 
@@ -644,9 +791,16 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 				case INT:
 				case DOUBLE: size += 8*_numRows; break;
 				case STRING: 
-					StringArray arr = (StringArray)_coldata[j];
+					if( _coldata[j] instanceof DictionaryArray ) {
+						DictionaryArray darr = (DictionaryArray)_coldata[j];
+						size += 4*_numRows + 8 + 32 + 8*darr._dsize;
+						for( int i=0; i<darr._dsize; i++ )
+							size += getInMemoryStringSize(darr._dict[i]);
+						break;
+					}
+					Array arr = _coldata[j];
 					for( int i=0; i<_numRows; i++ )
-						size += getInMemoryStringSize(arr.get(i));
+						size += getInMemoryStringSize((String)arr.get(i));
 					break;
 				default: //not applicable	
 			}
@@ -675,9 +829,13 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 				case INT:
 				case DOUBLE: size += 8*_numRows; break;
 				case STRING: 
-					StringArray arr = (StringArray)_coldata[j];
-					for( int i=0; i<_numRows; i++ )
-						size += IOUtilFunctions.getUTFSize(arr.get(i));
+					Array arr = _coldata[j];
+					boolean rcdMap = isRecodeMapColumn(j);
+					for( int i=0; i<_numRows; i++ ) {
+						String entry = (String)arr.get(i);
+						size += IOUtilFunctions.getUTFSize((rcdMap && entry!=null) ? 
+							entry.substring(0, getRecodeMapTokenLength(entry, i+1)) : entry);
+					}
 					break;
 				default: //not applicable	
 			}
@@ -686,6 +844,43 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		return size;
 	}
 	
+	/**
+	 * Indicates if the given column is a recode map in compact form, i.e., all
+	 * non-null entries at row i are non-empty tokens with code i+1 in the form
+	 * token-prefix-code. Such columns are serialized as tokens only.
+	 * 
+	 * @param c column index
+	 * @return true if recode map column in compact form
+	 */
+	private boolean isRecodeMapColumn(int c) {
+		if( _schema[c] != ValueType.STRING || _numRows == 0 )
+			return false;
+		for( int i=0; i<_numRows; i++ ) {
+			String entry = (String)_coldata[c].get(i);
+			if( entry != null && getRecodeMapTokenLength(entry, i+1) <= 0 )
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the length of the token of the given recode map entry, if the 
+	 * entry has the given code, without parsing the code into a string.
+	 * 
+	 * @param entry recode map entry token-prefix-code
+	 * @param code expected code
+	 * @return token length, or -1 if the entry has a different form or code
+	 */
+	private static int getRecodeMapTokenLength(String entry, int code) {
+		//compare digits of the code from the end of the entry
+		int pos = entry.length();
+		for( int c=code; c>0; c/=10 )
+			if( --pos < 0 || entry.charAt(pos) != '0' + c%10 )
+				return -1;
+		pos -= Lop.DATATYPE_PREFIX.length();
+		return (pos >= 0 && entry.startsWith(Lop.DATATYPE_PREFIX, pos)) ? pos : -1;
+	}
+	
 	@Override
 	public boolean isShallowSerialize() {
 		//shallow serialize if non-string schema because a frame block
@@ -954,8 +1149,8 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 			//general case w/ schema transformation
 			else 
 				for( int i=rl; i<=ru; i++ ) {
-					String tmp = src.get(i-rl, j-cl)!=null ? src.get(i-rl, j-cl).toString() : null;
-					set(i, j, UtilFunctions.stringToObject(_schema[j], tmp));
+					Object tmp = src.get(i-rl, j-cl);
+					setString(i, j, (tmp!=null) ? tmp.toString() : null);
 				}
 		}
 	}
@@ -972,35 +1167,33 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 	 * @param col	is the column # from frame data which contains Recode map generated earlier.
 	 * @return map of token and code for every element in the input column of a frame containing Recode map
 	 */
-	public HashMap<String,Long> getRecodeMap(int col) {
+	public StringIntHashMap getRecodeMap(int col) {
 		//probe cache for existing map
 		if( REUSE_RECODE_MAPS ) {
-			SoftReference<HashMap<String,Long>> tmp = _rcdMapCache.get(col);
-			HashMap<String,Long> map = (tmp!=null) ? tmp.get() : null;
+			SoftReference<StringIntHashMap> tmp = _rcdMapCache.get(col);
+			StringIntHashMap map = (tmp!=null) ? tmp.get() : null;
 			if( map != null ) return map;
 		}
 		
-		//construct recode map
-		HashMap<String,Long> map = new HashMap<String,Long>();
+		//construct recode map (sized by the number of meta data entries)
 		Array ldata = _coldata[col]; 
+		int nnz = 0;
+		for( int i=0; i<getNumRows(); i++ )
+			nnz += (ldata.get(i) != null) ? 1 : 0;
+		StringIntHashMap map = new StringIntHashMap(nnz);
 		for( int i=0; i<getNumRows(); i++ ) {
 			Object val = ldata.get(i);
 			if( val != null ) {
-//				String[] tmp = IOUtilFunctions.splitCSV(
-//						val.toString(), Lop.DATATYPE_PREFIX);
-
 				// Instead of using splitCSV which is forcing string with RFC-4180 format, using Lop.DATATYPE_PREFIX separator to split token and code 
-				String[] tmp = 	new String[2];
-				int pos = val.toString().lastIndexOf(Lop.DATATYPE_PREFIX);
-				tmp[0] = val.toString().substring(0, pos);
-				tmp[1] = val.toString().substring(pos+1);
-				map.put(tmp[0], Long.parseLong(tmp[1]));
+				String entry = val.toString();
+				int pos = entry.lastIndexOf(Lop.DATATYPE_PREFIX);
+				map.put(entry.substring(0, pos), Integer.parseInt(entry.substring(pos+1)));
 			}
 		}
 		
 		//put created map into cache
 		if( REUSE_RECODE_MAPS ) {
-			_rcdMapCache.put(col, new SoftReference<HashMap<String,Long>>(map));
+			_rcdMapCache.put(col, new SoftReference<StringIntHashMap>(map));
 		}
 		
 		return map;
@@ -1183,12 +1376,37 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 	 * in order to avoid unnecessary dependencies.
 	 */
 	private abstract static class Array<T> implements Writable {
+		//number of values per bulk (de)serialization buffer of primitive arrays,
+		//in the same big-endian byte format as the value-by-value DataOutput
+		protected static final int BUFFER_SIZE = 1024;
+		
 		protected int _size = 0;
 		protected int newSize() {
 			return (int) Math.max(_size*2, 4); 
 		}
+		protected static void longToBa(final long val, byte[] ba, final int off) {
+			//shift and mask out 8 bytes
+			ba[ off+0 ] = (byte)((val >>> 56) & 0xFF);
+			ba[ off+1 ] = (byte)((val >>> 48) & 0xFF);
+			ba[ off+2 ] = (byte)((val >>> 40) & 0xFF);
+			ba[ off+3 ] = (byte)((val >>> 32) & 0xFF);
+			ba[ off+4 ] = (byte)((val >>> 24) & 0xFF);
+			ba[ off+5 ] = (byte)((val >>> 16) & 0xFF);
+			ba[ off+6 ] = (byte)((val >>>  8) & 0xFF);
+			ba[ off+7 ] = (byte)((val >>>  0) & 0xFF);
+		}
+		protected static long baToLong(byte[] ba, final int off) {
+			//shift and add 8 bytes into single long
+			return ((long)(ba[off+0] & 0xFF) << 56) + ((long)(ba[off+1] & 0xFF) << 48)
+				+ ((long)(ba[off+2] & 0xFF) << 40) + ((long)(ba[off+3] & 0xFF) << 32)
+				+ ((long)(ba[off+4] & 0xFF) << 24) + ((long)(ba[off+5] & 0xFF) << 16)
+				+ ((long)(ba[off+6] & 0xFF) <<  8) + ((long)(ba[off+7] & 0xFF) <<  0);
+		}
 		public abstract T get(int index);
+		public abstract double getDouble(int index);
+		public abstract void getDouble(int rl, int ru, double[] ret);
 		public abstract void set(int index, T value);
+		public abstract void setString(int index, String value);
 		public abstract void set(int rl, int ru, Array value);
 		public abstract void set(int rl, int ru, Array value, int rlSrc);
 		public abstract void setNz(int rl, int ru, Array value);
@@ -1208,20 +1426,35 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		public String get(int index) {
 			return _data[index];
 		}
+		public double getDouble(int index) {
+			return UtilFunctions.objectToDouble(ValueType.STRING, _data[index]);
+		}
+		public void getDouble(int rl, int ru, double[] ret) {
+			for( int i=rl; i<ru; i++ )
+				ret[i-rl] = getDouble(i);
+		}
 		public void set(int index, String value) {
 			_data[index] = value;
 		}
+		public void setString(int index, String value) {
+			_data[index] = value;
+		}
 		public void set(int rl, int ru, Array value) {
 			set(rl, ru, value, 0);
 		}
 		public void set(int rl, int ru, Array value, int rlSrc) {
-			System.arraycopy(((StringArray)value)._data, rlSrc, _data, rl, ru-rl+1);
+			if( value instanceof StringArray )
+				System.arraycopy(((StringArray)value)._data, rlSrc, _data, rl, ru-rl+1);
+			else //dictionary-encoded
+				for( int i=rl; i<=ru; i++ )
+					_data[i] = (String)value.get(rlSrc+i-rl);
 		}
 		public void setNz(int rl, int ru, Array value) {
-			String[] data2 = ((StringArray)value)._data;
-			for( int i=rl; i<ru+1; i++ )
-				if( data2[i]!=null )
-					_data[i] = data2[i];
+			for( int i=rl; i<ru+1; i++ ) {
+				String tmp = (String)value.get(i);
+				if( tmp!=null )
+					_data[i] = tmp;
+			}
 		}
 		public void append(String value) {
 			if( _data.length <= _size )
@@ -1257,9 +1490,19 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		public Boolean get(int index) {
 			return _data[index];
 		}
+		public double getDouble(int index) {
+			return _data[index] ? 1 : 0;
+		}
+		public void getDouble(int rl, int ru, double[] ret) {
+			for( int i=rl; i<ru; i++ )
+				ret[i-rl] = _data[i] ? 1 : 0;
+		}
 		public void set(int index, Boolean value) {
 			_data[index] = (value!=null) ? value : false;
 		}
+		public void setString(int index, String value) {
+			_data[index] = Boolean.parseBoolean(value);
+		}
 		public void set(int rl, int ru, Array value) {
 			set(rl, ru, value, 0);
 		}
@@ -1281,13 +1524,23 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 			_data[_size++] = (value!=null) ? value : false;
 		}
 		public void write(DataOutput out) throws IOException {
-			for( int i=0; i<_size; i++ )
-				out.writeBoolean(_data[i]);
+			byte[] buff = new byte[Math.min(_size, BUFFER_SIZE)];
+			for( int i=0; i<_size; i+=buff.length ) {
+				int len = Math.min(buff.length, _size-i);
+				for( int j=0; j<len; j++ )
+					buff[j] = (byte)(_data[i+j] ? 1 : 0);
+				out.write(buff, 0, len);
+			}
 		}
 		public void readFields(DataInput in) throws IOException {
 			_size = _data.length;
-			for( int i=0; i<_size; i++ )
-				_data[i] = in.readBoolean();
+			byte[] buff = new byte[Math.min(_size, BUFFER_SIZE)];
+			for( int i=0; i<_size; i+=buff.length ) {
+				int len = Math.min(buff.length, _size-i);
+				in.readFully(buff, 0, len);
+				for( int j=0; j<len; j++ )
+					_data[i+j] = (buff[j] != 0);
+			}
 		}
 		public Array clone() {
 			return new BooleanArray(Arrays.copyOf(_data, _size));
@@ -1307,9 +1560,19 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		public Long get(int index) {
 			return _data[index];
 		}
+		public double getDouble(int index) {
+			return _data[index];
+		}
+		public void getDouble(int rl, int ru, double[] ret) {
+			for( int i=rl; i<ru; i++ )
+				ret[i-rl] = _data[i];
+		}
 		public void set(int index, Long value) {
 			_data[index] = (value!=null) ? value : 0L;
 		}
+		public void setString(int index, String value) {
+			_data[index] = (value!=null) ? Long.parseLong(value) : 0L;
+		}
 		public void set(int rl, int ru, Array value) {
 			set(rl, ru, value, 0);
 		}
@@ -1331,13 +1594,23 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 			_data[_size++] = (value!=null) ? value : 0L;
 		}
 		public void write(DataOutput out) throws IOException {
-			for( int i=0; i<_size; i++ )
-				out.writeLong(_data[i]);
+			byte[] buff = new byte[8*Math.min(_size, BUFFER_SIZE)];
+			for( int i=0; i<_size; i+=buff.length/8 ) {
+				int len = Math.min(buff.length/8, _size-i);
+				for( int j=0; j<len; j++ )
+					longToBa(_data[i+j], buff, 8*j);
+				out.write(buff, 0, 8*len);
+			}
 		}
 		public void readFields(DataInput in) throws IOException {
 			_size = _data.length;
-			for( int i=0; i<_size; i++ )
-				_data[i] = in.readLong();
+			byte[] buff = new byte[8*Math.min(_size, BUFFER_SIZE)];
+			for( int i=0; i<_size; i+=buff.length/8 ) {
+				int len = Math.min(buff.length/8, _size-i);
+				in.readFully(buff, 0, 8*len);
+				for( int j=0; j<len; j++ )
+					_data[i+j] = baToLong(buff, 8*j);
+			}
 		}
 		public Array clone() {
 			return new LongArray(Arrays.copyOf(_data, _size));
@@ -1357,9 +1630,18 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		public Double get(int index) {
 			return _data[index];
 		}
+		public double getDouble(int index) {
+			return _data[index];
+		}
+		public void getDouble(int rl, int ru, double[] ret) {
+			System.arraycopy(_data, rl, ret, 0, ru-rl);
+		}
 		public void set(int index, Double value) {
 			_data[index] = (value!=null) ? value : 0d;
 		}
+		public void setString(int index, String value) {
+			_data[index] = (value!=null) ? Double.parseDouble(value) : 0d;
+		}
 		public void set(int rl, int ru, Array value) {
 			set(rl,ru, value, 0);
 		}
@@ -1381,13 +1663,23 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 			_data[_size++] = (value!=null) ? value : 0d;
 		}
 		public void write(DataOutput out) throws IOException {
-			for( int i=0; i<_size; i++ )
-				out.writeDouble(_data[i]);
+			byte[] buff = new byte[8*Math.min(_size, BUFFER_SIZE)];
+			for( int i=0; i<_size; i+=buff.length/8 ) {
+				int len = Math.min(buff.length/8, _size-i);
+				for( int j=0; j<len; j++ )
+					longToBa(Double.doubleToLongBits(_data[i+j]), buff, 8*j);
+				out.write(buff, 0, 8*len);
+			}
 		}
 		public void readFields(DataInput in) throws IOException {
 			_size = _data.length;
-			for( int i=0; i<_size; i++ )
-				_data[i] = in.readDouble();
+			byte[] buff = new byte[8*Math.min(_size, BUFFER_SIZE)];
+			for( int i=0; i<_size; i+=buff.length/8 ) {
+				int len = Math.min(buff.length/8, _size-i);
+				in.readFully(buff, 0, 8*len);
+				for( int j=0; j<len; j++ )
+					_data[i+j] = Double.longBitsToDouble(baToLong(buff, 8*j));
+			}
 		}
 		public Array clone() {
 			return new DoubleArray(Arrays.copyOf(_data, _size));
@@ -1397,6 +1689,155 @@ public class FrameBlock implements Writable, CacheBlock, Externalizable
 		}
 	}
 
+	/**
+	 * Dictionary-encoded string array, where each cell is an int code into a 
+	 * shared dictionary of distinct values (negative codes represent nulls). 
+	 * For categorical columns with few distinct values, this avoids a string 
+	 * object per cell and allows processing each distinct value only once. 
+	 * The serialized representation is identical to string arrays.
+	 */
+	private static class DictionaryArray extends Array<String> {
+		private int[] _codes = null;
+		private String[] _dict = null;
+		private int _dsize = 0;
+		private boolean _shared = false; //dictionary shared with clones
+		private HashMap<String,Integer> _map = null; //created on demand
+		
+		public DictionaryArray(int[] codes, String[] dict) {
+			_codes = codes;
+			_size = _codes.length;
+			_dict = dict;
+			_dsize = _dict.length;
+		}
+		
+		public static DictionaryArray create(StringArray arr, int len, int maxDistinct) {
+			HashMap<String,Integer> map = new HashMap<String,Integer>();
+			int[] codes = new int[len];
+			for( int i=0; i<len; i++ ) {
+				String tmp = arr._data[i];
+				if( tmp == null ) {
+					codes[i] = -1;
+					continue;
+				}
+				Integer code = map.get(tmp);
+				if( code == null ) {
+					if( map.size() >= maxDistinct )
+						return null; //abort encoding
+					map.put(tmp, code = map.size());
+				}
+				codes[i] = code;
+			}
+			String[] dict = new String[map.size()];
+			for( Map.Entry<String,Integer> e : map.entrySet() )
+				dict[e.getValue()] = e.getKey();
+			DictionaryArray ret = new DictionaryArray(codes, dict);
+			ret._map = map;
+			return ret;
+		}
+		
+		public String[] getDictionary() {
+			return (_dict.length == _dsize) ? _dict : 
+				Arrays.copyOf(_dict, _dsize);
+		}
+		public String get(int index) {
+			int code = _codes[index];
+			return (code >= 0) ? _dict[code] : null;
+		}
+		public double getDouble(int index) {
+			return UtilFunctions.objectToDouble(ValueType.STRING, get(index));
+		}
+		public void getDouble(int rl, int ru, double[] ret) {
+			//parse distinct values once
+			double[] lut = new double[_dsize];
+			for( int k=0; k<_dsize; k++ )
+				lut[k] = UtilFunctions.objectToDouble(ValueType.STRING, _dict[k]);
+			for( int i=rl; i<ru; i++ )
+				ret[i-rl] = (_codes[i] >= 0) ? lut[_codes[i]] : 0;
+		}
+		public void set(int index, String value) {
+			_codes[index] = getCode(value);
+		}
+		public void setString(int index, String value) {
+			_codes[index] = getCode(value);
+		}
+		public void set(int rl, int ru, Array value) {
+			set(rl, ru, value, 0);
+		}
+		public void set(int rl, int ru, Array value, int rlSrc) {
+			//fast path for shared dictionaries (e.g., slices and copies)
+			if( value instanceof DictionaryArray && ((DictionaryArray)value)._dict == _dict )
+				System.arraycopy(((DictionaryArray)value)._codes, rlSrc, _codes, rl, ru-rl+1);
+			else
+				for( int i=rl; i<=ru; i++ )
+					_codes[i] = getCode((String)value.get(rlSrc+i-rl));
+		}
+		public void setNz(int rl, int ru, Array value) {
+			for( int i=rl; i<ru+1; i++ ) {
+				String tmp = (String)value.get(i);
+				if( tmp!=null )
+					_codes[i] = getCode(tmp);
+			}
+		}
+		public void append(String value) {
+			if( _codes.length <= _size )
+				_codes = Arrays.copyOf(_codes, newSize());
+			_codes[_size++] = getCode(value);
+		}
+		public void write(DataOutput out) throws IOException {
+			for( int i=0; i<_size; i++ ) {
+				String tmp = get(i);
+				out.writeUTF((tmp!=null)?tmp:"");
+			}
+		}
+		public void readFields(DataInput in) throws IOException {
+			_size = _codes.length;
+			for( int i=0; i<_size; i++ ) {
+				String tmp = in.readUTF();
+				_codes[i] = getCode((!tmp.isEmpty()) ? tmp : null);
+			}
+		}
+		public Array clone() {
+			return createShared(Arrays.copyOf(_codes, _size));
+		}
+		public Array slice(int rl, int ru) {
+			return createShared(Arrays.copyOfRange(_codes,rl,ru+1));
+		}
+		private DictionaryArray createShared(int[] codes) {
+			//note: copy-on-write of the shared dictionary on append
+			DictionaryArray ret = new DictionaryArray(codes, _dict);
+			ret._dsize = _dsize;
+			ret._shared = _shared = true;
+			return ret;
+		}
+		public String[] decode() {
+			String[] ret = new String[_size];
+			for( int i=0; i<_size; i++ )
+				ret[i] = get(i);
+			return ret;
+		}
+		private int getCode(String value) {
+			if( value == null )
+				return -1;
+			if( _map == null ) {
+				_map = new HashMap<String,Integer>();
+				for( int k=0; k<_dsize; k++ )
+					_map.put(_dict[k], k);
+			}
+			Integer code = _map.get(value);
+			if( code == null ) {
+				//copy shared or full dictionary before append
+				if( _shared || _dict.length <= _dsize ) {
+					_dict = Arrays.copyOf(_dict, Math.max(2*_dsize, 4));
+					_shared = false;
+				}
+				code = _dsize;
+				_dict[_dsize++] = value;
+				_map.put(value, code);
+			}
+			return code;
+		}
+	}
+
 	public static class ColumnMetadata implements Serializable {
 		private static final long serialVersionUID = -90094082422100311L;
 		
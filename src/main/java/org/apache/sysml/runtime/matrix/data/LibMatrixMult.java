@@ -30,6 +30,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import org.apache.commons.math3.util.FastMath;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.estim.MMNode;
+import org.apache.sysml.hops.estim.SparsityEstimator;
 import org.apache.sysml.lops.MapMultChain.ChainType;
 import org.apache.sysml.lops.WeightedCrossEntropy.WCeMMType;
 import org.apache.sysml.lops.WeightedDivMM.WDivMMType;
@@ -40,6 +43,7 @@ import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.functionobjects.SwapIndex;
 import org.apache.sysml.runtime.functionobjects.ValueFunction;
 import org.apache.sysml.runtime.matrix.operators.ReorgOperator;
+import org.apache.sysml.runtime.util.SortUtils;
 import org.apache.sysml.runtime.util.UtilFunctions;
 
 /**
@@ -50,7 +54,8 @@ import org.apache.sysml.runtime.util.UtilFunctions;
  * 
  * In general all implementations use internally dense outputs
  * for direct access, but change the final result to sparse if necessary.
- * The only exceptions are ultra-sparse matrix mult, wsloss and wsigmoid.  
+ * The only exceptions are ultra-sparse matrix mult, sparse-sparse matrix 
+ * mult with sparse output, wsloss and wsigmoid.  
  * 
  * NOTES on BLAS:
  * * Experiments in 04/2013 showed that even on dense-dense this implementation 
@@ -133,6 +138,14 @@ public class LibMatrixMult
 			return;
 		}
 		
+		//sparse-sparse matrix mult w/ exact-sized sparse output
+		if( rl == 0 && ru == m1.rlen && isSparseOutputMatrixMult(m1, m2)
+			&& matrixMultSparseSparseCSR(m1, m2, ret, 1) ) {
+			if(examSparsity)
+				ret.examSparsity();
+			return;
+		}
+		
 		//Timing time = new Timing(true);
 		
 		//pre-processing: output allocation
@@ -198,6 +211,12 @@ public class LibMatrixMult
 			return;
 		}
 		
+		//sparse-sparse matrix mult w/ exact-sized sparse output
+		if( isSparseOutputMatrixMult(m1, m2) && matrixMultSparseSparseCSR(m1, m2, ret, k) ) {
+			ret.examSparsity();
+			return;
+		}
+		
 		//Timing time = new Timing(true);
 		
 		//pre-processing: output allocation (in contrast to single-threaded,
@@ -1462,6 +1481,99 @@ public class LibMatrixMult
 		}
 	}
 
+	/**
+	 * Gustavson-style sparse-sparse matrix multiplication with sparse output, which 
+	 * computes the output row-by-row in two phases over row partitions of the lhs: 
+	 * (1) a symbolic phase to determine the exact number of non-zeros per output row, 
+	 * and (2) a numeric phase that writes the sorted output rows directly into an 
+	 * exactly sized CSR output. Both phases use a thread-local sparse accumulator.
+	 * 
+	 * @param m1 first matrix
+	 * @param m2 second matrix
+	 * @param ret result matrix
+	 * @param k maximum parallelism
+	 * @return false if the output exceeds the capacity of CSR, otherwise true
+	 * @throws DMLRuntimeException if DMLRuntimeException occurs
+	 */
+	private static boolean matrixMultSparseSparseCSR(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, int k) 
+		throws DMLRuntimeException
+	{
+		SparseBlock a = m1.sparseBlock;
+		SparseBlock b = m2.sparseBlock;
+		final int m = m1.rlen;
+		final int n = m2.clen;
+		
+		//prepare row partitions (oversubscribed for load balance on skew)
+		int nk = (k > 1) ? UtilFunctions.roundToNext(Math.min(8*k, Math.max(m/32, 1)), k) : 1;
+		ArrayList<Integer> blklens = getBalancedBlockSizes(m, nk);
+		
+		//phase 1: symbolic (number of non-zeros per row in rptr[i+1])
+		int[] rptr = new int[m+1];
+		ArrayList<SparseSparseMMTask> tasks = new ArrayList<SparseSparseMMTask>();
+		for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
+			tasks.add(new SparseSparseMMTask(a, b, n, rptr, null, null, lb, lb+blklens.get(i)));
+		executeSparseSparseMMTasks(tasks, k);
+		
+		//exact output allocation (abort if too large for CSR)
+		long lnnz = 0;
+		for( int i=0; i<m; i++ )
+			rptr[i+1] = (int)(lnnz += rptr[i+1]);
+		if( lnnz > Integer.MAX_VALUE )
+			return false;
+		int[] cix = new int[(int)lnnz];
+		double[] cvals = new double[(int)lnnz];
+		
+		//phase 2: numeric (sorted output rows into preallocated CSR arrays)
+		tasks.clear();
+		for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
+			tasks.add(new SparseSparseMMTask(a, b, n, rptr, cix, cvals, lb, lb+blklens.get(i)));
+		long nnz = executeSparseSparseMMTasks(tasks, k);
+		
+		//compact output rows if any exact cancellation to zero
+		if( nnz < lnnz ) {
+			for( int i=0, pos=0; i<m; i++ ) {
+				int rpos = rptr[i], rlen = rptr[i+1]-rpos;
+				rptr[i] = pos;
+				for( int j=rpos; j<rpos+rlen; j++ )
+					if( cvals[j] != 0 ) {
+						cix[pos] = cix[j];
+						cvals[pos++] = cvals[j];
+					}
+			}
+			rptr[m] = (int)nnz;
+		}
+		
+		//set output (sparse block and nnz)
+		ret.cleanupBlock(true, true);
+		ret.sparse = true;
+		ret.sparseBlock = new SparseBlockCSR(rptr, cix, cvals, (int)nnz);
+		ret.nonZeros = nnz;
+		return true;
+	}
+	
+	private static long executeSparseSparseMMTasks(ArrayList<SparseSparseMMTask> tasks, int k) 
+		throws DMLRuntimeException
+	{
+		long ret = 0;
+		try {
+			if( k <= 1 ) {
+				for( SparseSparseMMTask task : tasks )
+					ret += task.call();
+			}
+			else {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				List<Future<Long>> taskret = pool.invokeAll(tasks);
+				pool.shutdown();
+				for( Future<Long> task : taskret )
+					ret += task.get();
+			}
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		return ret;
+	}
+
 	/**
 	 * This implementation applies to any combination of dense/sparse if at least one
 	 * input is ultrasparse (sparse and very few nnz). In that case, most importantly,
@@ -3450,6 +3562,23 @@ public class LibMatrixMult
 				&& 8*m2.rlen*m2.clen < 256*1024 ); //rhs fits in L2 cache
 	}
 
+	/**
+	 * Indicates if a sparse-sparse matrix-matrix multiplication (not vector)
+	 * of the given inputs directly produces a sparse output.
+	 *
+	 * @param m1 left-hand-side input block
+	 * @param m2 right-hand-side input block
+	 * @return true if sparse output
+	 */
+	public static boolean isSparseOutputMatrixMult( MatrixBlock m1, MatrixBlock m2 ) {
+		if( !LOW_LEVEL_OPTIMIZATION || !m1.sparse || !m2.sparse || m1.rlen == 1 || m2.clen == 1 )
+			return false;
+		//same decision as memory estimates of dynamic recompilation, where the configured
+		//estimator is only invoked if the average-case estimate indicates a dense output
+		SparsityEstimator estim = SparsityEstimator.createEstimator(OptimizerUtils.SPARSITY_ESTIMATOR);
+		return estim.estimSparseOutput(new MMNode(new MMNode(m1), new MMNode(m2))) >= 0;
+	}
+
 	private static boolean checkParMatrixMultRightInputRows( MatrixBlock m1, MatrixBlock m2, int k ) {
 		//parallelize over rows in rhs matrix if number of rows in lhs/output is very small
 		return (m1.rlen==1 && LOW_LEVEL_OPTIMIZATION && m2.clen>1 && !(m1.isUltraSparse()||m2.isUltraSparse()))
@@ -3618,6 +3747,198 @@ public class LibMatrixMult
 		}
 	}
 
+	/**
+	 * Task for the symbolic (cix==null) and numeric phases of Gustavson-style
+	 * sparse-sparse matrix multiplication over the row range [rl,ru).
+	 */
+	private static class SparseSparseMMTask implements Callable<Long> 
+	{
+		private final SparseBlock _a;
+		private final SparseBlock _b;
+		private final int _n;
+		private final int[] _rptr;
+		private final int[] _cix;
+		private final double[] _cvals;
+		private final int _rl;
+		private final int _ru;
+		
+		protected SparseSparseMMTask( SparseBlock a, SparseBlock b, int n, 
+			int[] rptr, int[] cix, double[] cvals, int rl, int ru ) 
+		{
+			_a = a;
+			_b = b;
+			_n = n;
+			_rptr = rptr;
+			_cix = cix;
+			_cvals = cvals;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Long call() {
+			boolean symbolic = (_cix == null);
+			SparseRowAccumulator acc = new SparseRowAccumulator(_n);
+			long nnz = 0;
+			for( int i=_rl; i<_ru; i++ ) {
+				if( _a.isEmpty(i) )
+					continue;
+				int apos = _a.pos(i);
+				int alen = _a.size(i);
+				int[] aix = _a.indexes(i);
+				double[] avals = _a.values(i);
+				
+				//determine upper bound of output row nnz
+				long flops = 0;
+				for( int k=apos; k<apos+alen; k++ )
+					flops += _b.size(aix[k]);
+				if( flops == 0 )
+					continue;
+				acc.reset((int)Math.min(flops, _n));
+				
+				//accumulate scaled rows of rhs
+				for( int k=apos; k<apos+alen; k++ ) {
+					if( _b.isEmpty(aix[k]) )
+						continue;
+					int bpos = _b.pos(aix[k]);
+					int blen = _b.size(aix[k]);
+					int[] bix = _b.indexes(aix[k]);
+					double[] bvals = _b.values(aix[k]);
+					double aval = avals[k];
+					for( int j=bpos; j<bpos+blen; j++ )
+						acc.add(bix[j], aval * bvals[j]);
+				}
+				
+				//output row nnz or sorted row values
+				if( symbolic ) {
+					_rptr[i+1] = acc.size();
+					nnz += acc.size();
+				}
+				else
+					nnz += acc.extract(_cix, _cvals, _rptr[i]);
+			}
+			return nnz;
+		}
+	}
+	
+	/**
+	 * Thread-local sparse accumulator for a single output row, which uses a dense 
+	 * SPA (values and row markers of length n) if the output row is expected to
+	 * be dense enough and the number of columns small enough, and an open-addressing
+	 * hash map (linear probing) from column indexes to positions otherwise.
+	 */
+	private static class SparseRowAccumulator
+	{
+		private static final int SPA_MAX_COLS = 1024*1024;
+		
+		private final int _n;
+		private boolean _spa = false;
+		//dense sparse accumulator (lazily allocated)
+		private double[] _spaVals = null;
+		private int[] _spaMark = null;
+		private int _stamp = 0;
+		//open-addressing hash map (col index -> position)
+		private int[] _hkeys = null;
+		private int[] _hpos = null;
+		private int _hmask = 0;
+		private int _hshift = 0;
+		//touched column indexes and values (in insertion order)
+		private int[] _cols = new int[16];
+		private double[] _vals = new double[16];
+		private int _size = 0;
+		
+		public SparseRowAccumulator(int n) {
+			_n = n;
+		}
+		
+		public void reset(int maxnnz) {
+			_size = 0;
+			_spa = (_n <= SPA_MAX_COLS && maxnnz > _n / 16);
+			if( _spa ) {
+				if( _spaVals == null ) {
+					_spaVals = new double[_n];
+					_spaMark = new int[_n];
+				}
+				if( ++_stamp == Integer.MAX_VALUE ) {
+					Arrays.fill(_spaMark, 0);
+					_stamp = 1;
+				}
+			}
+			else {
+				int cap = Integer.highestOneBit(Math.max(2*maxnnz-1, 1)) << 1;
+				if( _hkeys == null || _hkeys.length < cap ) {
+					_hkeys = new int[cap];
+					_hpos = new int[cap];
+				}
+				Arrays.fill(_hkeys, 0, cap, -1);
+				_hmask = cap - 1;
+				_hshift = 32 - Integer.numberOfTrailingZeros(cap);
+			}
+			if( _cols.length < maxnnz ) {
+				_cols = new int[maxnnz];
+				_vals = new double[maxnnz];
+			}
+		}
+		
+		public void add(int j, double v) {
+			if( _spa ) {
+				if( _spaMark[j] != _stamp ) {
+					_spaMark[j] = _stamp;
+					_spaVals[j] = v;
+					append(j);
+				}
+				else
+					_spaVals[j] += v;
+			}
+			else {
+				int ix = (j * 0x9E3779B9) >>> _hshift; //fibonacci hashing
+				while( _hkeys[ix] != -1 && _hkeys[ix] != j )
+					ix = (ix + 1) & _hmask;
+				if( _hkeys[ix] == -1 ) {
+					_hkeys[ix] = j;
+					_hpos[ix] = _size;
+					_vals[_size] = v;
+					append(j);
+				}
+				else
+					_vals[_hpos[ix]] += v;
+			}
+		}
+		
+		public int size() {
+			return _size;
+		}
+		
+		public int extract(int[] cix, double[] cvals, int pos) {
+			//sort column indexes (and values) and write non-zeros
+			if( _spa ) {
+				Arrays.sort(_cols, 0, _size);
+				for( int j=0; j<_size; j++ )
+					_vals[j] = _spaVals[_cols[j]];
+			}
+			else
+				SortUtils.sortByIndex(0, _size, _cols, _vals);
+			int cnt = 0;
+			for( int j=0; j<_size; j++ )
+				if( _vals[j] != 0 ) {
+					cix[pos+cnt] = _cols[j];
+					cvals[pos+cnt++] = _vals[j];
+				}
+			//fill remaining slots for compaction
+			for( int j=cnt; j<_size; j++ )
+				cvals[pos+j] = 0;
+			return cnt;
+		}
+		
+		private void append(int j) {
+			if( _size == _cols.length ) {
+				_cols = Arrays.copyOf(_cols, 2*_size);
+				_vals = Arrays.copyOf(_vals, 2*_size);
+			}
+			_cols[_size++] = j;
+		}
+	}
+
 	private static class MatrixMultChainTask implements Callable<double[]> 
 	{
 		private MatrixBlock _m1  = null;
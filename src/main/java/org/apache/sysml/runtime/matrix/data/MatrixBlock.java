@@ -176,7 +176,7 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		nonZeros = that.nonZeros;
 		estimatedNNzsPerRow = that.estimatedNNzsPerRow;
 		sparseBlock = SparseBlockFactory
-				.copySparseBlock(stype, that.sparseBlock, deep);
+				.copySparseBlock(stype, that.sparseBlock, deep, that.clen);
 	}
 	
 	////////
@@ -366,7 +366,7 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	{	
 		//allocate block if non-existing or too small (guaranteed to be 0-initialized)
 		if( sparseBlock == null || sparseBlock.numRows()<rlen ) {
-			sparseBlock = SparseBlockFactory.createSparseBlock(DEFAULT_SPARSEBLOCK, rlen);
+			sparseBlock = SparseBlockFactory.createSparseBlock(DEFAULT_SPARSEBLOCK, rlen, clen);
 		}
 		
 		//clear nnz if necessary
@@ -2524,7 +2524,8 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	public boolean isShallowSerialize() {
 		//shallow serialize if dense, dense in serialized form or already in CSR
 		return !sparse || !evalSparseFormatOnDisk()
-			|| (sparse && sparseBlock instanceof SparseBlockCSR);
+			|| (sparse && (sparseBlock instanceof SparseBlockCSR
+				|| sparseBlock instanceof SparseBlockCCSR));
 	}
 	
 	@Override
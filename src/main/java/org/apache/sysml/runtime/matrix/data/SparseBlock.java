@@ -46,6 +46,7 @@ public abstract class SparseBlock implements Serializable
 	public enum Type {
 		MCSR,
 		CSR,
+		CCSR,
 		COO,
 	}
 	
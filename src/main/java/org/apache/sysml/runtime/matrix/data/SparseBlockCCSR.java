@@ -0,0 +1,749 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.matrix.data;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.apache.sysml.runtime.util.SortUtils;
+
+/**
+ * SparseBlock implementation that realizes a 'compact compressed sparse row'
+ * representation. Similar to SparseBlockCSR, the entire sparse block is stored
+ * as three arrays ptr, indexes, and values, but column indexes are stored as
+ * unsigned 8-bit (byte) or 16-bit (char) values if the number of columns is less
+ * than or equal to 256 or 65536, respectively. For the default block size of 1000,
+ * this reduces the size per non-zero from 12 to 10 bytes, and for narrow blocks
+ * to 9 bytes. Column indexes are transparently widened from 8 to 16 bits if
+ * larger column indexes are inserted.
+ *
+ * Since the sparse block api exposes column indexes as int arrays, indexes(r)
+ * decodes the column indexes of row r on first access into a reusable int buffer 
+ * at the row's position (invalidated on modifications), i.e., only rows that are 
+ * actually accessed are decoded. The buffer is softly referenced and hence does 
+ * not pin memory of cached blocks. values(r) returns the shared values array, and 
+ * pos(r) the actual row offset, i.e., row-wise kernels neither allocate per row 
+ * nor lose in-place updates. This format is meant for read-mostly blocks (e.g., 
+ * checkpointed or cached blocks). The non-zero iterator and getIndex(pos) directly 
+ * access the compact representation without any decoding.
+ *
+ */
+public class SparseBlockCCSR extends SparseBlock
+{
+	private static final long serialVersionUID = 5209237549126843287L;
+
+	//maximum number of columns for 8-bit and 16-bit column indexes
+	public static final int MAX_COLS_BYTE = 256;
+	public static final int MAX_COLS_CHAR = 65536;
+
+	private int[] _ptr = null;        //row pointer array (size: rlen+1)
+	private byte[] _bindexes = null;  //8-bit column index array (size: >=nnz)
+	private char[] _cindexes = null;  //16-bit column index array (size: >=nnz)
+	private double[] _values = null;  //value array (size: >=nnz)
+	private int _size = 0;            //actual number of nnz
+	
+	//reusable buffer of row-wise decoded column indexes for indexes(r) (not serialized)
+	private transient volatile SoftReference<DecodeBuffer> _indexes = null;
+
+	public SparseBlockCCSR(int rlen, int clen) {
+		this(rlen, clen, INIT_CAPACITY);
+	}
+
+	public SparseBlockCCSR(int rlen, int clen, int capacity) {
+		if( !isSupported(clen) )
+			throw new RuntimeException("SparseBlockCCSR supports ncol<="+MAX_COLS_CHAR+" but got "+clen);
+		_ptr = new int[rlen+1]; //ix0=0
+		allocIndexes(clen, capacity);
+		_values = new double[capacity];
+		_size = 0;
+	}
+
+	/**
+	 * Copy constructor sparse block abstraction, where the width of
+	 * column indexes is derived from the maximum column index.
+	 *
+	 * @param sblock sparse block to copy
+	 */
+	public SparseBlockCCSR(SparseBlock sblock) {
+		this(sblock, getMaxColumnIndex(sblock)+1);
+	}
+
+	/**
+	 * Copy constructor sparse block abstraction.
+	 *
+	 * @param sblock sparse block to copy
+	 * @param clen number of columns
+	 */
+	public SparseBlockCCSR(SparseBlock sblock, int clen)
+	{
+		long size = sblock.size();
+		if( size > Integer.MAX_VALUE )
+			throw new RuntimeException("SparseBlockCCSR supports nnz<=Integer.MAX_VALUE but got "+size);
+		if( !isSupported(clen) )
+			throw new RuntimeException("SparseBlockCCSR supports ncol<="+MAX_COLS_CHAR+" but got "+clen);
+
+		//special case SparseBlockCCSR
+		if( sblock instanceof SparseBlockCCSR ) {
+			SparseBlockCCSR occsr = (SparseBlockCCSR)sblock;
+			_ptr = Arrays.copyOf(occsr._ptr, occsr.numRows()+1);
+			_bindexes = (occsr._bindexes!=null) ? Arrays.copyOf(occsr._bindexes, occsr._size) : null;
+			_cindexes = (occsr._cindexes!=null) ? Arrays.copyOf(occsr._cindexes, occsr._size) : null;
+			_values = Arrays.copyOf(occsr._values, occsr._size);
+			_size = occsr._size;
+		}
+		//general case SparseBlock
+		else {
+			int rlen = sblock.numRows();
+
+			_ptr = new int[rlen+1];
+			allocIndexes(clen, (int)size);
+			_values = new double[(int)size];
+			_size = (int)size;
+
+			for( int i=0, pos=0; i<rlen; i++ ) {
+				if( !sblock.isEmpty(i) ) {
+					int apos = sblock.pos(i);
+					int alen = sblock.size(i);
+					int[] aix = sblock.indexes(i);
+					double[] avals = sblock.values(i);
+					for( int j=apos; j<apos+alen; j++ )
+						setIndex(pos+j-apos, aix[j]);
+					System.arraycopy(avals, apos, _values, pos, alen);
+					pos += alen;
+				}
+				_ptr[i+1]=pos;
+			}
+		}
+	}
+
+	/**
+	 * Indicates if the given number of columns can be represented
+	 * with compact column indexes.
+	 *
+	 * @param ncols number of columns
+	 * @return true if compact column indexes are supported
+	 */
+	public static boolean isSupported(long ncols) {
+		return ncols >= 0 && ncols <= MAX_COLS_CHAR;
+	}
+
+	/**
+	 * Get the estimated in-memory size of the sparse block in CCSR
+	 * with the given dimensions w/o accounting for overallocation.
+	 *
+	 * @param nrows number of rows
+	 * @param ncols number of columns
+	 * @param sparsity sparsity ratio
+	 * @return memory estimate
+	 */
+	public static long estimateMemory(long nrows, long ncols, double sparsity) {
+		double lnnz = Math.max(INIT_CAPACITY, Math.ceil(sparsity*nrows*ncols));
+		double ixsize = (ncols <= MAX_COLS_BYTE) ? 1 : 2;
+
+		//32B overhead per array, int arr in nrows, byte/char/double arr in nnz
+		double size = 16 + 4 + 8;    //object + int field + 2 refs
+		size += 32 + (nrows+1) * 4d; //ptr array (row pointers)
+		size += 32 + lnnz * ixsize;  //indexes array (column indexes)
+		size += 32 + lnnz * 8d;      //values array (non-zero values)
+
+		//robustness for long overflows
+		return (long) Math.min(size, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Indicates if column indexes are stored as 8-bit values,
+	 * otherwise they are stored as 16-bit values.
+	 *
+	 * @return true if 8-bit column indexes
+	 */
+	public boolean isByteIndexes() {
+		return (_bindexes != null);
+	}
+
+	///////////////////
+	//SparseBlock implementation
+
+	@Override
+	public void allocate(int r) {
+		//do nothing everything preallocated
+	}
+
+	@Override
+	public void allocate(int r, int nnz) {
+		//do nothing everything preallocated
+	}
+
+	@Override
+	public void allocate(int r, int ennz, int maxnnz) {
+		//do nothing everything preallocated
+	}
+
+	@Override
+	public int numRows() {
+		return _ptr.length-1;
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+
+	@Override
+	public boolean isContiguous() {
+		return true;
+	}
+
+	@Override
+	public void reset() {
+		_size = 0;
+		_indexes = null;
+		Arrays.fill(_ptr, 0);
+	}
+
+	@Override
+	public void reset(int ennz, int maxnnz) {
+		_size = 0;
+		_indexes = null;
+		Arrays.fill(_ptr, 0);
+	}
+
+	@Override
+	public void reset(int r, int ennz, int maxnnz) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		if( len > 0 ) {
+			//overlapping array copy (shift rhs values left)
+			shiftLeftByN(pos+len, len);
+			decrPtr(r+1, len);
+		}
+	}
+
+	@Override
+	public long size() {
+		return _size;
+	}
+
+	@Override
+	public int size(int r) {
+		return _ptr[r+1] - _ptr[r];
+	}
+
+	@Override
+	public long size(int rl, int ru) {
+		return _ptr[ru] - _ptr[rl];
+	}
+
+	@Override
+	public long size(int rl, int ru, int cl, int cu) {
+		long nnz = 0;
+		for(int i=rl; i<ru; i++)
+			if( !isEmpty(i) ) {
+				int start = internalPosFIndexGTE(i, cl);
+				int end = internalPosFIndexGTE(i, cu);
+				nnz += (start!=-1) ? ((end!=-1) ? end : _ptr[i+1]) - start : 0;
+			}
+		return nnz;
+	}
+
+	@Override
+	public boolean isEmpty(int r) {
+		return (_ptr[r+1] - _ptr[r] == 0);
+	}
+
+	@Override
+	public int[] indexes(int r) {
+		//obtain reusable buffer (allocated on first access or after gc)
+		SoftReference<DecodeBuffer> ref = _indexes;
+		DecodeBuffer buff = (ref != null) ? ref.get() : null;
+		if( buff == null ) {
+			buff = new DecodeBuffer(numRows(), _values.length);
+			_indexes = new SoftReference<DecodeBuffer>(buff);
+		}
+		
+		//decode column indexes of row r once into the buffer at the row
+		//position (benign race of concurrent readers, equal decoded rows)
+		if( buff.decoded.get(r) == 0 ) {
+			for( int j=_ptr[r]; j<_ptr[r+1]; j++ )
+				buff.indexes[j] = getIndex(j);
+			buff.decoded.set(r, 1);
+		}
+		return buff.indexes;
+	}
+
+	@Override
+	public double[] values(int r) {
+		return _values;
+	}
+
+	@Override
+	public int pos(int r) {
+		return _ptr[r];
+	}
+
+	@Override
+	public boolean set(int r, int c, double v) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		//search for existing col index
+		int index = binarySearch(pos, pos+len, c);
+		if( index >= 0 ) {
+			//delete/overwrite existing value (on value delete, we shift
+			//left for (1) correct nnz maintenance, and (2) smaller size)
+			if( v == 0 ) {
+				shiftLeftByN(index+1, 1);
+				decrPtr(r+1, 1);
+				return true; // nnz--
+			}
+			else {
+				_values[index] = v;
+				return false;
+			}
+		}
+
+		//early abort on zero (if no overwrite)
+		if( v==0 ) return false;
+
+		//insert new index-value pair
+		index = Math.abs( index+1 );
+		if( _size==_values.length )
+			resize(_size+1);
+		shiftRightByN(index, 1);
+		setIndex(index, c);
+		_values[index] = v;
+		incrPtr(r+1, 1);
+		return true; // nnz++
+	}
+
+	@Override
+	public void set(int r, SparseRow row, boolean deep) {
+		int alen = row.size();
+		int[] aix = row.indexes();
+		double[] avals = row.values();
+
+		//delete existing values if necessary
+		if( !isEmpty(r) )
+			reset(r, -1, -1);
+
+		//prepare free space (allocate and shift)
+		int pos = _ptr[r];
+		if( _values.length < _size+alen )
+			resize(_size+alen);
+		shiftRightByN(pos, alen);
+
+		//copy input row into internal representation
+		for( int j=0; j<alen; j++ )
+			setIndex(pos+j, aix[j]);
+		System.arraycopy(avals, 0, _values, pos, alen);
+		incrPtr(r+1, alen);
+	}
+
+	@Override
+	public void append(int r, int c, double v) {
+		//early abort on zero
+		if( v==0 ) return;
+
+		int pos = _ptr[r+1];
+		if( _size==_values.length )
+			resize(_size+1);
+		shiftRightByN(pos, 1);
+		setIndex(pos, c);
+		_values[pos] = v;
+		incrPtr(r+1, 1);
+	}
+
+	@Override
+	public void setIndexRange(int r, int cl, int cu, double[] v, int vix, int vlen) {
+		//delete existing values in range if necessary
+		if( !isEmpty(r) )
+			deleteIndexRange(r, cl, cu);
+
+		//determine input nnz
+		int lnnz = 0;
+		for( int i=vix; i<vix+vlen; i++ )
+			lnnz += ( v[i] != 0 ) ? 1 : 0;
+
+		//prepare free space (allocate and shift)
+		if( _values.length < _size+lnnz )
+			resize(_size+lnnz);
+		int index = internalPosFIndexGT(r, cl);
+		int index2 = (index>0) ? index : _ptr[r+1];
+		shiftRightByN(index2, lnnz);
+
+		//insert values
+		for( int i=vix; i<vix+vlen; i++ )
+			if( v[i] != 0 ) {
+				setIndex(index2, cl+i-vix);
+				_values[index2] = v[i];
+				index2++;
+			}
+		incrPtr(r+1, lnnz);
+	}
+
+	@Override
+	public void deleteIndexRange(int r, int cl, int cu) {
+		int start = internalPosFIndexGTE(r, cl);
+		if( start < 0 ) //nothing to delete
+			return;
+
+		int end = internalPosFIndexGTE(r, cu);
+		if( end < 0 ) //delete all remaining
+			end = _ptr[r+1];
+
+		//overlapping array copy (shift rhs values left)
+		shiftLeftByN(end, end-start);
+		decrPtr(r+1, end-start);
+	}
+
+	@Override
+	public void sort() {
+		int rlen = numRows();
+		for( int i=0; i<rlen && _ptr[i]<_size; i++ )
+			sort(i);
+	}
+
+	@Override
+	public void sort(int r) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		//decode, sort, and encode row
+		int[] aix = new int[len];
+		for( int j=0; j<len; j++ )
+			aix[j] = getIndex(pos+j);
+		if( len<=100 || !SortUtils.isSorted(0, len, aix) ) {
+			double[] avals = Arrays.copyOfRange(_values, pos, pos+len);
+			SortUtils.sortByIndex(0, len, aix, avals);
+			for( int j=0; j<len; j++ )
+				setIndex(pos+j, aix[j]);
+			System.arraycopy(avals, 0, _values, pos, len);
+		}
+	}
+
+	@Override
+	public double get(int r, int c) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		//search for existing col index in [pos,pos+len)
+		int index = binarySearch(pos, pos+len, c);
+		return (index >= 0) ? _values[index] : 0;
+	}
+
+	@Override
+	public SparseRow get(int r) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		SparseRow row = new SparseRow(len);
+		int[] aix = row.indexes();
+		for( int j=0; j<len; j++ )
+			aix[j] = getIndex(pos+j);
+		System.arraycopy(_values, pos, row.values(), 0, len);
+		row.setSize(len);
+
+		return row;
+	}
+
+	@Override
+	public int posFIndexLTE(int r, int c) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		//search for existing col index in [pos,pos+len)
+		int index = binarySearch(pos, pos+len, c);
+		if( index >= 0  )
+			return index-pos;
+
+		//search lt col index (see binary search)
+		index = Math.abs( index+1 );
+		return (index-1 >= pos) ? index-1-pos : -1;
+	}
+
+	@Override
+	public int posFIndexGTE(int r, int c) {
+		int index = internalPosFIndexGTE(r, c);
+		return (index >= 0) ? index-_ptr[r] : -1;
+	}
+
+	@Override
+	public int posFIndexGT(int r, int c) {
+		int index = internalPosFIndexGT(r, c);
+		return (index >= 0) ? index-_ptr[r] : -1;
+	}
+
+	@Override
+	public Iterator<IJV> getIterator() {
+		return new SparseBlockCCSRIterator(0, numRows());
+	}
+
+	@Override
+	public Iterator<IJV> getIterator(int ru) {
+		return new SparseBlockCCSRIterator(0, ru);
+	}
+
+	@Override
+	public Iterator<IJV> getIterator(int rl, int ru) {
+		return new SparseBlockCCSRIterator(rl, Math.min(ru, numRows()));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SparseBlockCCSR: rlen=");
+		sb.append(numRows());
+		sb.append(", nnz=");
+		sb.append(size());
+		sb.append(", ixbits=");
+		sb.append(isByteIndexes() ? 8 : 16);
+		sb.append("\n");
+		for( int i=0; i<numRows(); i++ ) {
+			sb.append("row +");
+			sb.append(i);
+			sb.append(": ");
+			//append row
+			int pos = _ptr[i];
+			int len = size(i);
+			for(int j=pos; j<pos+len; j++) {
+				sb.append(getIndex(j));
+				sb.append(": ");
+				sb.append(_values[j]);
+				sb.append("\t");
+			}
+			sb.append("\n");
+		}
+
+		return sb.toString();
+	}
+
+	///////////////////////////
+	// private helper methods
+
+	private static int getMaxColumnIndex(SparseBlock sblock) {
+		int ret = -1;
+		for( int i=0; i<sblock.numRows(); i++ )
+			if( !sblock.isEmpty(i) ) {
+				int apos = sblock.pos(i);
+				int alen = sblock.size(i);
+				int[] aix = sblock.indexes(i);
+				for( int j=apos; j<apos+alen; j++ )
+					ret = Math.max(ret, aix[j]);
+			}
+		return ret;
+	}
+
+	private void allocIndexes(int clen, int capacity) {
+		if( clen <= MAX_COLS_BYTE )
+			_bindexes = new byte[capacity];
+		else
+			_cindexes = new char[capacity];
+	}
+
+	/**
+	 * Returns the column index at the given position, i.e., provides 
+	 * direct access to the compact column indexes without decoding.
+	 * 
+	 * @param ix position in [pos(r), pos(r)+size(r))
+	 * @return column index
+	 */
+	public int getIndex(int ix) {
+		return (_bindexes != null) ?
+			_bindexes[ix] & 0xFF : _cindexes[ix];
+	}
+
+	private void setIndex(int ix, int c) {
+		_indexes = null;
+		if( _bindexes != null ) {
+			if( c < MAX_COLS_BYTE ) {
+				_bindexes[ix] = (byte) c;
+				return;
+			}
+			//widen 8-bit to 16-bit column indexes
+			_cindexes = new char[_bindexes.length];
+			for( int i=0; i<_bindexes.length; i++ )
+				_cindexes[i] = (char)(_bindexes[i] & 0xFF);
+			_bindexes = null;
+		}
+		if( c >= MAX_COLS_CHAR )
+			throw new RuntimeException("SparseBlockCCSR supports column indexes <"+MAX_COLS_CHAR+" but got "+c);
+		_cindexes[ix] = (char) c;
+	}
+
+	private Object getIndexArray() {
+		return (_bindexes != null) ? _bindexes : _cindexes;
+	}
+
+	private int binarySearch(int fromIndex, int toIndex, int c) {
+		//see Arrays.binarySearch, but over unsigned column indexes
+		int low = fromIndex;
+		int high = toIndex - 1;
+		while( low <= high ) {
+			int mid = (low + high) >>> 1;
+			int midVal = getIndex(mid);
+			if( midVal < c )
+				low = mid + 1;
+			else if( midVal > c )
+				high = mid - 1;
+			else
+				return mid; //key found
+		}
+		return -(low + 1); //key not found
+	}
+
+	private int internalPosFIndexGTE(int r, int c) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		//search for existing col index
+		int index = binarySearch(pos, pos+len, c);
+		if( index >= 0  )
+			return index;
+
+		//search gt col index (see binary search)
+		index = Math.abs( index+1 );
+		return (index < pos+len) ? index : -1;
+	}
+
+	private int internalPosFIndexGT(int r, int c) {
+		int pos = _ptr[r];
+		int len = size(r);
+
+		//search for existing col index
+		int index = binarySearch(pos, pos+len, c);
+		if( index >= 0  )
+			return (index+1 < pos+len) ? index+1 : -1;
+
+		//search gt col index (see binary search)
+		index = Math.abs( index+1 );
+		return (index < pos+len) ? index : -1;
+	}
+
+	private int newCapacity(int minsize) {
+		//compute new size until minsize reached
+		double tmpCap = Math.max(_values.length, 1);
+		while( tmpCap < minsize ) {
+			tmpCap *= (tmpCap <= 1024) ?
+					RESIZE_FACTOR1 : RESIZE_FACTOR2;
+		}
+
+		return (int)Math.min(tmpCap, Integer.MAX_VALUE);
+	}
+
+	private void resize(int minsize) {
+		//reallocate arrays and copy old values
+		int newCap = newCapacity(minsize);
+		_indexes = null;
+		if( _bindexes != null )
+			_bindexes = Arrays.copyOf(_bindexes, newCap);
+		else
+			_cindexes = Arrays.copyOf(_cindexes, newCap);
+		_values = Arrays.copyOf(_values, newCap);
+	}
+
+	private void shiftRightByN(int ix, int n) {
+		//overlapping array copy (shift rhs values right by n)
+		_indexes = null;
+		System.arraycopy(getIndexArray(), ix, getIndexArray(), ix+n, _size-ix);
+		System.arraycopy(_values, ix, _values, ix+n, _size-ix);
+		_size += n;
+	}
+
+	private void shiftLeftByN(int ix, int n) {
+		//overlapping array copy (shift rhs values left by n)
+		_indexes = null;
+		System.arraycopy(getIndexArray(), ix, getIndexArray(), ix-n, _size-ix);
+		System.arraycopy(_values, ix, _values, ix-n, _size-ix);
+		_size -= n;
+	}
+
+	private void incrPtr(int rl, int cnt) {
+		int rlen = numRows();
+		for( int i=rl; i<rlen+1; i++ )
+			_ptr[i]+=cnt;
+	}
+
+	private void decrPtr(int rl, int cnt) {
+		int rlen = numRows();
+		for( int i=rl; i<rlen+1; i++ )
+			_ptr[i]-=cnt;
+	}
+
+	/**
+	 * Buffer of decoded column indexes, where rows are decoded on demand.
+	 */
+	private static class DecodeBuffer
+	{
+		private final int[] indexes;
+		private final AtomicIntegerArray decoded;
+		
+		protected DecodeBuffer(int rlen, int capacity) {
+			indexes = new int[capacity];
+			decoded = new AtomicIntegerArray(rlen);
+		}
+	}
+
+	/**
+	 * Non-zero iterator that directly scans the compact column
+	 * indexes without decoding them via indexes(r).
+	 */
+	private class SparseBlockCCSRIterator implements Iterator<IJV>
+	{
+		private final int _ru;   //row upper
+		private int _curRow;     //current row
+		private int _curPos;     //current position
+		private IJV retijv = new IJV(); //reuse output tuple
+
+		protected SparseBlockCCSRIterator(int rl, int ru) {
+			_ru = ru;
+			_curRow = rl;
+			_curPos = (rl < ru) ? _ptr[rl] : 0;
+			findNextNonZeroRow();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return _curRow < _ru;
+		}
+
+		@Override
+		public IJV next() {
+			retijv.set(_curRow, getIndex(_curPos), _values[_curPos]);
+			_curPos++;
+			findNextNonZeroRow();
+			return retijv;
+		}
+
+		@Override
+		public void remove() {
+			throw new RuntimeException("SparseBlockCCSRIterator is unsupported!");
+		}
+
+		private void findNextNonZeroRow() {
+			while( _curRow < _ru && _curPos >= _ptr[_curRow+1] ) {
+				_curRow++;
+				if( _curRow < _ru )
+					_curPos = _ptr[_curRow];
+			}
+		}
+	}
+}
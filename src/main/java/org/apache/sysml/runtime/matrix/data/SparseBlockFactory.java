@@ -28,16 +28,49 @@ public abstract class SparseBlockFactory
 	}
 
 	public static SparseBlock createSparseBlock( SparseBlock.Type type, int rlen ) {
+		//CCSR w/o known number of columns starts with 8-bit column indexes,
+		//which are widened to 16-bit on demand
+		return createSparseBlock(type, rlen, SparseBlockCCSR.MAX_COLS_BYTE);
+	}
+
+	/**
+	 * Creates a sparse block of the given type, where the number of columns
+	 * determines the width of compact column indexes (8-bit for clen &lt;= 256,
+	 * 16-bit for clen &lt;= 65536, and CSR for wider blocks).
+	 * 
+	 * @param type sparse block type
+	 * @param rlen number of rows
+	 * @param clen number of columns
+	 * @return sparse block
+	 */
+	public static SparseBlock createSparseBlock( SparseBlock.Type type, int rlen, int clen ) {
 		switch( type ) {
 			case MCSR: return new SparseBlockMCSR(rlen, -1);
 			case CSR: return new SparseBlockCSR(rlen);
+			case CCSR: return SparseBlockCCSR.isSupported(clen) ?
+				new SparseBlockCCSR(rlen, clen) : new SparseBlockCSR(rlen);
 			case COO: return new SparseBlockCOO(rlen);
 			default:
 				throw new RuntimeException("Unexpected sparse block type: "+type.toString());
 		}
 	}
 
-	public static SparseBlock copySparseBlock( SparseBlock.Type type, SparseBlock sblock, boolean forceCopy )
+	public static SparseBlock copySparseBlock( SparseBlock.Type type, SparseBlock sblock, boolean forceCopy ) {
+		return copySparseBlock(type, sblock, forceCopy, -1);
+	}
+
+	/**
+	 * Copies or converts the given sparse block into the given type, where a 
+	 * known number of columns (clen &gt;= 0) determines the width of compact column 
+	 * indexes, otherwise it is derived from the maximum column index.
+	 * 
+	 * @param type sparse block type
+	 * @param sblock sparse block
+	 * @param forceCopy if true, copy even if the sparse block has already the given type
+	 * @param clen number of columns, or -1 if unknown
+	 * @return sparse block
+	 */
+	public static SparseBlock copySparseBlock( SparseBlock.Type type, SparseBlock sblock, boolean forceCopy, int clen )
 	{
 		//sanity check for empty inputs
 		if( sblock == null )
@@ -47,6 +80,7 @@ public abstract class SparseBlockFactory
 		if( !forceCopy && 
 			( (sblock instanceof SparseBlockMCSR && type == SparseBlock.Type.MCSR)
 			||(sblock instanceof SparseBlockCSR && type == SparseBlock.Type.CSR)
+			||(sblock instanceof SparseBlockCCSR && type == SparseBlock.Type.CCSR)
 			||(sblock instanceof SparseBlockCOO && type == SparseBlock.Type.COO))  )
 		{
 			return sblock;
@@ -56,16 +90,35 @@ public abstract class SparseBlockFactory
 		switch( type ) {
 			case MCSR: return new SparseBlockMCSR(sblock);
 			case CSR: return new SparseBlockCSR(sblock);
+			case CCSR: return (clen < 0) ? new SparseBlockCCSR(sblock) :
+				SparseBlockCCSR.isSupported(clen) ? new SparseBlockCCSR(sblock, clen) :
+				new SparseBlockCSR(sblock);
 			case COO: return new SparseBlockCOO(sblock);
 			default:
 				throw new RuntimeException("Unexpected sparse block type: "+type.toString());
 		}
 	}
 
+	/**
+	 * Obtains the most memory-efficient sparse block type for read-mostly
+	 * blocks (e.g., checkpointed blocks), which is CSR with compact column
+	 * indexes if the number of columns allows it, and CSR otherwise.
+	 * 
+	 * @param ncols number of columns
+	 * @return sparse block type
+	 */
+	public static SparseBlock.Type getCompactSparseBlockType(long ncols) {
+		return SparseBlockCCSR.isSupported(ncols) ?
+			SparseBlock.Type.CCSR : SparseBlock.Type.CSR;
+	}
+
 	public static long estimateSizeSparseInMemory(SparseBlock.Type type, long nrows, long ncols, double sparsity) {
 		switch( type ) {
 			case MCSR: return SparseBlockMCSR.estimateMemory(nrows, ncols, sparsity);
 			case CSR: return SparseBlockCSR.estimateMemory(nrows, ncols, sparsity);
+			case CCSR: return SparseBlockCCSR.isSupported(ncols) ?
+				SparseBlockCCSR.estimateMemory(nrows, ncols, sparsity) :
+				SparseBlockCSR.estimateMemory(nrows, ncols, sparsity);
 			case COO: return SparseBlockCOO.estimateMemory(nrows, ncols, sparsity);
 			default:
 				throw new RuntimeException("Unexpected sparse block type: "+type.toString());
@@ -336,17 +336,42 @@ public class BinAgent extends Encoder
 
 	@Override
 	public MatrixBlock apply(FrameBlock in, MatrixBlock out) {
+		applyRowRange(in, out, out, 0, in.getNumRows());
+		return out;
+	}
+	
+	@Override
+	public boolean isRowPartitionable() {
+		return true;
+	}
+	
+	@Override
+	public Object buildPartial(FrameBlock in, int rl, int ru) {
+		return null; //consistent with build
+	}
+	
+	@Override
+	public void mergeBuildPartial(Object partial) {
+		//do nothing
+	}
+	
+	@Override
+	public void applyRowRange(FrameBlock in, MatrixBlock out, MatrixBlock ret, int rl, int ru) {
 		for(int j=0; j<_colList.length; j++) {
 			int colID = _colList[j];
-			for( int i=0; i<in.getNumRows(); i++ ) {
+			for( int i=rl; i<ru; i++ ) {
 				double inVal = UtilFunctions.objectToDouble(
 						in.getSchema()[colID-1], in.get(i, colID-1));
 				int ix = Arrays.binarySearch(_binMaxs[j], inVal);
 				int binID = ((ix < 0) ? Math.abs(ix+1) : ix) + 1;		
-				out.quickSetValue(i, colID-1, binID);
+				ret.quickSetValue(i, colID-1, binID);
 			}	
 		}
-		return out;
+	}
+
+	public double[] getBinMaxs(int colID) {
+		int idx = isApplicable(colID);
+		return (idx == -1) ? null : _binMaxs[idx];
 	}
 
 	@Override
@@ -32,6 +32,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.hadoop.fs.FileSystem;
@@ -41,8 +45,10 @@ import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.OutputCollector;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
 import org.apache.sysml.runtime.transform.encode.Encoder;
 import org.apache.sysml.runtime.transform.meta.TfMetaUtils;
+import org.apache.sysml.runtime.util.StringIntHashMap;
 import org.apache.sysml.runtime.util.UtilFunctions;
 import org.apache.wink.json4j.JSONException;
 import org.apache.wink.json4j.JSONObject;
@@ -52,7 +58,7 @@ public class DummycodeAgent extends Encoder
 	private static final long serialVersionUID = 5832130477659116489L;
 
 	private HashMap<Integer, HashMap<String,String>> _finalMaps = null;
-	private HashMap<Integer, HashMap<String,Long>> _finalMapsCP = null;
+	private HashMap<Integer, StringIntHashMap> _finalMapsCP = null;
 	private int[] _binList = null;
 	private int[] _numBins = null;
 	
@@ -74,6 +80,11 @@ public class DummycodeAgent extends Encoder
 		return (int)_dummycodedLength;
 	}
 	
+	public int getDomainSize(int colID) {
+		int idx = isApplicable(colID);
+		return (idx == -1) ? 0 : _domainSizes[idx];
+	}
+	
 	/**
 	 * Method to output transformation metadata from the mappers. 
 	 * This information is collected and merged by the reducers.
@@ -95,7 +106,7 @@ public class DummycodeAgent extends Encoder
 		_finalMaps = maps;
 	}
 	
-	public void setRecodeMapsCP(HashMap<Integer, HashMap<String,Long>> maps) {
+	public void setRecodeMapsCP(HashMap<Integer, StringIntHashMap> maps) {
 		_finalMapsCP = maps;
 	}
 	
@@ -216,26 +227,16 @@ public class DummycodeAgent extends Encoder
 			for(int i=0; i <_colList.length; i++) 
 			{
 				int colID = _colList[i];
-				HashMap<String,Long> map = _finalMapsCP.get(colID);
+				StringIntHashMap map = _finalMapsCP.get(colID);
 				String colName = UtilFunctions.unquote(names[colID-1]);
 				
 				if ( map != null  ) 
 				{
 					// order map entries by their recodeID
-					List<Map.Entry<String, Long>> entryList = new ArrayList<Map.Entry<String, Long>>(map.entrySet());
-					Comparator<Map.Entry<String, Long>> comp = new Comparator<Map.Entry<String, Long>>() {
-						@Override
-						public int compare(Entry<String, Long> entry1, Entry<String, Long> entry2) {
-							Long value1 = entry1.getValue();
-							Long value2 = entry2.getValue();
-							return (int) (value1 - value2);
-						}
-					};
-					Collections.sort(entryList, comp);
-					newNames = new ArrayList<String>();
-					for (Entry<String, Long> entry : entryList) {
-						newNames.add(entry.getKey());
-					}
+					String[] tmp = new String[map.size()];
+					for( int k=0; k<map.size(); k++ )
+						tmp[map.getValue(k)-1] = map.getKey(k);
+					newNames = Arrays.asList(tmp);
 					
 					// construct concatenated string of map entries
 					sb.setLength(0);
@@ -423,13 +424,168 @@ public class DummycodeAgent extends Encoder
 	@Override
 	public MatrixBlock apply(FrameBlock in, MatrixBlock out) 
 	{
+		//sparse output written directly into exactly sized CSR
+		if( isSparseOutput(out.getNumRows()) )
+			return applySparse(in, out, 1);
+		
 		MatrixBlock ret = new MatrixBlock(out.getNumRows(), (int)_dummycodedLength, false);
+		applyRowRange(in, out, ret, 0, out.getNumRows());
+		return ret;
+	}
+	
+	/**
+	 * Indicates if the dummycoded output is sparse, according to the upper 
+	 * bound of one non-zero per input column and row.
+	 * 
+	 * @param rlen number of rows
+	 * @return true if the output should be created in sparse format
+	 */
+	public boolean isSparseOutput(int rlen) {
+		return isApplicable() && MatrixBlock.evalSparseFormatInMemory(
+			rlen, _dummycodedLength, (long)rlen*_clen);
+	}
+	
+	/**
+	 * Applies the dummycoding into a sparse output, where we first compute 
+	 * the number of non-zeros per row, and subsequently write the row 
+	 * pointers, column indexes and values of the final CSR block directly, 
+	 * without intermediate dense or MCSR allocations and conversions. Both 
+	 * passes are multi-threaded over disjoint row ranges for k &gt; 1.
+	 * 
+	 * @param in input frame block
+	 * @param out input matrix block (output of previous encoders)
+	 * @param k degree of parallelism
+	 * @return output matrix block in CSR format
+	 */
+	public MatrixBlock applySparse(FrameBlock in, MatrixBlock out, int k) 
+	{
+		final int rlen = out.getNumRows();
+		int[] rptr = new int[rlen+1];
 		
-		for( int i=0; i<out.getNumRows(); i++ ) {
+		//count non-zeros per row (into rptr[i+1])
+		ArrayList<SparseApplyTask> tasks = new ArrayList<SparseApplyTask>();
+		int blklen = (int)Math.ceil((double)rlen/Math.max(k,1));
+		for( int i=0; i<k && i*blklen<rlen; i++ )
+			tasks.add(new SparseApplyTask(this, in, out, rptr, null, null, i*blklen, Math.min((i+1)*blklen, rlen)));
+		executeSparseApplyTasks(tasks, k);
+		
+		//compute row pointers via prefix sums
+		long nnz = 0;
+		for( int i=0; i<rlen; i++ ) {
+			nnz += rptr[i+1];
+			if( nnz > Integer.MAX_VALUE )
+				throw new RuntimeException("Dummycoded CSR output supports nnz<=Integer.MAX_VALUE but got "+nnz);
+			rptr[i+1] = (int)nnz;
+		}
+		
+		//write column indexes and values into exactly sized arrays
+		int[] cix = new int[(int)nnz];
+		double[] cvals = new double[(int)nnz];
+		for( SparseApplyTask task : tasks )
+			task.setOutputs(cix, cvals);
+		executeSparseApplyTasks(tasks, k);
+		
+		return new MatrixBlock(rlen, (int)_dummycodedLength, nnz, 
+			new SparseBlockCSR(rptr, cix, cvals, (int)nnz));
+	}
+	
+	private int applySparseRow(FrameBlock in, MatrixBlock out, int i, int[] cix, double[] cvals, int pos) {
+		int lnnz = 0;
+		for(int colID=1, idx=0, ncolID=1; colID <= out.getNumColumns(); colID++) {
+			if(idx < _colList.length && colID==_colList[idx]) {
+				double val = out.quickGetValue(i, colID-1);
+				if( isValidCode(val, _domainSizes[idx]) ) {
+					if( cix != null ) {
+						cix[pos+lnnz] = ncolID-1+(int)val-1;
+						cvals[pos+lnnz] = 1;
+					}
+					lnnz++;
+				}
+				ncolID += _domainSizes[idx];
+				idx++;
+			}
+			else {
+				double ptval = UtilFunctions.objectToDouble(in.getSchema()[colID-1], in.get(i, colID-1));
+				if( ptval != 0 ) {
+					if( cix != null ) {
+						cix[pos+lnnz] = ncolID-1;
+						cvals[pos+lnnz] = ptval;
+					}
+					lnnz++;
+				}
+				ncolID++;
+			}
+		}
+		return lnnz;
+	}
+	
+	/**
+	 * Indicates if the given code is a valid input for dummycoding, i.e., in 
+	 * the range 1..domain size. Invalid codes (e.g., NaN for missing or unseen 
+	 * tokens) produce all-zero one-hot vectors in both dense and sparse outputs.
+	 * 
+	 * @param val recoded value
+	 * @param domainSize domain size of the dummycoded column
+	 * @return true if the code is valid
+	 */
+	public static boolean isValidCode(double val, int domainSize) {
+		return val >= 1 && val <= domainSize;
+	}
+	
+	private static void executeSparseApplyTasks(ArrayList<SparseApplyTask> tasks, int k) {
+		try {
+			if( k <= 1 || tasks.size() <= 1 ) {
+				for( SparseApplyTask task : tasks )
+					task.call();
+			}
+			else {
+				ExecutorService pool = Executors.newFixedThreadPool(k);
+				try {
+					for( Future<Object> rtask : pool.invokeAll(tasks) )
+						rtask.get(); //error handling
+				}
+				finally {
+					pool.shutdown();
+				}
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	@Override
+	public boolean isRowPartitionable() {
+		return true;
+	}
+	
+	@Override
+	public Object buildPartial(FrameBlock in, int rl, int ru) {
+		return null; //no meta data
+	}
+	
+	@Override
+	public void mergeBuildPartial(Object partial) {
+		//do nothing
+	}
+	
+	@Override
+	public MatrixBlock allocateApplyOutput(FrameBlock in, MatrixBlock out) {
+		//preallocated dense output for concurrent row-range updates
+		MatrixBlock ret = new MatrixBlock(out.getNumRows(), (int)_dummycodedLength, false);
+		ret.allocateDenseBlock();
+		return ret;
+	}
+	
+	@Override
+	public void applyRowRange(FrameBlock in, MatrixBlock out, MatrixBlock ret, int rl, int ru) 
+	{
+		for( int i=rl; i<ru; i++ ) {
 			for(int colID=1, idx=0, ncolID=1; colID <= out.getNumColumns(); colID++) {
 				double val = out.quickGetValue(i, colID-1);
 				if(idx < _colList.length && colID==_colList[idx]) {
-					ret.quickSetValue(i, ncolID-1+(int)val-1, 1);
+					if( isValidCode(val, _domainSizes[idx]) )
+						ret.quickSetValue(i, ncolID-1+(int)val-1, 1);
 					ncolID += _domainSizes[idx];
 					idx++;
 				}
@@ -440,8 +596,6 @@ public class DummycodeAgent extends Encoder
 				}
 			}
 		}
-		
-		return ret;
 	}
 
 	@Override
@@ -460,4 +614,45 @@ public class DummycodeAgent extends Encoder
 			_dummycodedLength +=  _domainSizes[j]-1;
 		}
 	}
+	
+	private static class SparseApplyTask implements Callable<Object> 
+	{
+		private final DummycodeAgent _agent;
+		private final FrameBlock _in;
+		private final MatrixBlock _out;
+		private final int[] _rptr;
+		private int[] _cix;
+		private double[] _cvals;
+		private final int _rl;
+		private final int _ru;
+		
+		protected SparseApplyTask(DummycodeAgent agent, FrameBlock in, MatrixBlock out, 
+			int[] rptr, int[] cix, double[] cvals, int rl, int ru) {
+			_agent = agent;
+			_in = in;
+			_out = out;
+			_rptr = rptr;
+			_cix = cix;
+			_cvals = cvals;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		protected void setOutputs(int[] cix, double[] cvals) {
+			_cix = cix;
+			_cvals = cvals;
+		}
+		
+		@Override
+		public Object call() throws Exception {
+			//count non-zeros per row (w/o outputs) or write row entries
+			for( int i=_rl; i<_ru; i++ ) {
+				if( _cix == null )
+					_rptr[i+1] = _agent.applySparseRow(_in, _out, i, null, null, 0);
+				else
+					_agent.applySparseRow(_in, _out, i, _cix, _cvals, _rptr[i]);
+			}
+			return null;
+		}
+	}
 }
@@ -52,6 +52,7 @@ import org.apache.sysml.runtime.matrix.data.Pair;
 import org.apache.sysml.runtime.matrix.operators.CMOperator;
 import org.apache.sysml.runtime.matrix.operators.CMOperator.AggregateOperationTypes;
 import org.apache.sysml.runtime.transform.encode.Encoder;
+import org.apache.sysml.runtime.transform.encode.EncoderFeatureHash;
 import org.apache.sysml.runtime.transform.meta.TfMetaUtils;
 import org.apache.sysml.runtime.util.UtilFunctions;
 
@@ -90,6 +91,8 @@ public class MVImputeAgent extends Encoder
 	private String[] _replacementList = null;		// replacements: for global_mean, mean; and for global_mode, recode id of mode category
 	private String[] _NAstrings = null;
 	private List<Integer> _rcList = null; 
+	private List<Integer> _haList = null;
+	private int _haK = -1;
 	private HashMap<Integer,HashMap<String,Long>> _hist = null;
 	
 	public String[] getReplacements() { return _replacementList; }
@@ -961,6 +964,74 @@ public class MVImputeAgent extends Encoder
 		}
 	}
 
+	@Override
+	public boolean isRowPartitionable() {
+		return true;
+	}
+	
+	@Override
+	public Object buildPartial(FrameBlock in, int rl, int ru) {
+		//compute partial column means and histograms per row range 
+		Object[] ret = new Object[_colList.length];
+		for( int j=0; j<_colList.length; j++ ) {
+			int colID = _colList[j];
+			if( _mvMethodList[j] == MVMethod.GLOBAL_MEAN ) {
+				KahanObject mean = new KahanObject(0, 0);
+				for( int i=rl; i<ru; i++ )
+					_meanFn.execute2(mean, UtilFunctions.objectToDouble(
+						in.getSchema()[colID-1], in.get(i, colID-1)), i-rl+1);
+				ret[j] = mean;
+			}
+			else if( _mvMethodList[j] == MVMethod.GLOBAL_MODE ) {
+				HashMap<String,Long> hist = new HashMap<String,Long>();
+				for( int i=rl; i<ru; i++ ) {
+					String key = String.valueOf(in.get(i, colID-1));
+					if( key != null && !key.isEmpty() ) {
+						Long val = hist.get(key);
+						hist.put(key, (val!=null) ? val+1 : 1);
+					}
+				}
+				ret[j] = hist;
+			}
+		}
+		return new Pair<Long,Object[]>((long)(ru-rl), ret);
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public void mergeBuildPartial(Object partial) {
+		Pair<Long,Object[]> p = (Pair<Long,Object[]>) partial;
+		long count = p.getKey();
+		for( int j=0; j<_colList.length; j++ ) {
+			int colID = _colList[j];
+			if( _mvMethodList[j] == MVMethod.GLOBAL_MEAN ) {
+				//merge means as weighted incremental update
+				KahanObject mean = (KahanObject) p.getValue()[j];
+				long tcount = _countList[j] + count;
+				if( count > 0 )
+					_meanFn.execute2(_meanList[j], mean._sum, (double)tcount/count);
+				_replacementList[j] = String.valueOf(_meanList[j]._sum);
+				_countList[j] = tcount;
+			}
+			else if( _mvMethodList[j] == MVMethod.GLOBAL_MODE ) {
+				//merge histograms and determine mode
+				HashMap<String,Long> hist = _hist.containsKey(colID) ? 
+						_hist.get(colID) : new HashMap<String,Long>();
+				for( Entry<String, Long> e : ((HashMap<String,Long>) p.getValue()[j]).entrySet() ) {
+					Long val = hist.get(e.getKey());
+					hist.put(e.getKey(), (val!=null) ? val+e.getValue() : e.getValue());
+				}
+				_hist.put(colID, hist);
+				long max = Long.MIN_VALUE; 
+				for( Entry<String, Long> e : hist.entrySet() ) 
+					if( e.getValue() > max  ) {
+						_replacementList[j] = e.getKey();
+						max = e.getValue();
+					}
+			}
+		}
+	}
+
 	@Override
 	public String[] apply(String[] words) 
 	{	
@@ -993,14 +1064,19 @@ public class MVImputeAgent extends Encoder
 	
 	@Override
 	public MatrixBlock apply(FrameBlock in, MatrixBlock out) {
-		for(int i=0; i<in.getNumRows(); i++) {
+		applyRowRange(in, out, out, 0, in.getNumRows());
+		return out;
+	}
+	
+	@Override
+	public void applyRowRange(FrameBlock in, MatrixBlock out, MatrixBlock ret, int rl, int ru) {
+		for(int i=rl; i<ru; i++) {
 			for(int j=0; j<_colList.length; j++) {
 				int colID = _colList[j];
 				if( Double.isNaN(out.quickGetValue(i, colID-1)) )
-					out.quickSetValue(i, colID-1, Double.parseDouble(_replacementList[j]));
+					ret.quickSetValue(i, colID-1, Double.parseDouble(_replacementList[j]));
 			}
 		}
-		return out;
 	}
 	
 	@Override
@@ -1019,10 +1095,13 @@ public class MVImputeAgent extends Encoder
 			int colID = _colList[j];	
 			String mvVal = UtilFunctions.unquote(meta.getColumnMetadata(colID-1).getMvValue()); 
 			if( _rcList.contains(colID) ) {
-				Long mvVal2 = meta.getRecodeMap(colID-1).get(mvVal);
-				if( mvVal2 == null)
+				int mvVal2 = meta.getRecodeMap(colID-1).get(mvVal);
+				if( mvVal2 < 0 )
 					throw new RuntimeException("Missing recode value for impute value '"+mvVal+"' (colID="+colID+").");
-				_replacementList[j] = mvVal2.toString();
+				_replacementList[j] = String.valueOf(mvVal2);
+			}
+			else if( _haList != null && _haList.contains(colID) ) {
+				_replacementList[j] = String.valueOf((int)EncoderFeatureHash.getCode(mvVal, _haK));
 			}
 			else {
 				_replacementList[j] = mvVal;
@@ -1030,6 +1109,11 @@ public class MVImputeAgent extends Encoder
 		}
 	}
 
+	public void initHashIDList(List<Integer> haList, int K) {
+		_haList = haList;
+		_haK = K;
+	}
+	
 	public void initRecodeIDList(List<Integer> rcList) {
 		_rcList = rcList;
 	}
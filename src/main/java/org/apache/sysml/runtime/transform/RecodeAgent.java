@@ -29,8 +29,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map.Entry;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -45,6 +45,7 @@ import org.apache.sysml.runtime.transform.MVImputeAgent.MVMethod;
 import org.apache.sysml.runtime.transform.decode.DecoderRecode;
 import org.apache.sysml.runtime.transform.encode.Encoder;
 import org.apache.sysml.runtime.transform.meta.TfMetaUtils;
+import org.apache.sysml.runtime.util.StringIntHashMap;
 import org.apache.sysml.runtime.util.UtilFunctions;
 import org.apache.wink.json4j.JSONException;
 import org.apache.wink.json4j.JSONObject;
@@ -56,11 +57,15 @@ public class RecodeAgent extends Encoder
 	private int[] _mvrcdList = null;
 	private int[] _fullrcdList = null;
 	
-	//recode maps and custom map for partial recode maps 
-	private HashMap<Integer, HashMap<String, Long>> _rcdMaps  = new HashMap<Integer, HashMap<String, Long>>();
+	//recode maps (token-code maps w/o boxing, or token-count maps during the 
+	//csv-based build) and custom map for partial recode maps 
+	private HashMap<Integer, StringIntHashMap> _rcdMaps  = new HashMap<Integer, StringIntHashMap>();
 	private HashMap<Integer, HashMap<String,String>> _finalMaps = null;
 	private HashMap<Integer, HashSet<Object>> _rcdMapsPart = null;
 	
+	//reusable buffer for lookups of trimmed and unquoted tokens
+	private transient char[] _buff = null;
+	
 	public RecodeAgent(JSONObject parsedSpec, String[] colnames, int clen)
 		throws JSONException 
 	{
@@ -90,7 +95,7 @@ public class RecodeAgent extends Encoder
 		}
 	}
 	
-	public HashMap<Integer, HashMap<String,Long>> getCPRecodeMaps() { 
+	public HashMap<Integer, StringIntHashMap> getCPRecodeMaps() { 
 		return _rcdMaps; 
 	}
 	
@@ -102,6 +107,16 @@ public class RecodeAgent extends Encoder
 		return _finalMaps;
 	}
 	
+	/**
+	 * Returns the recode map of the given column, after build or initMetaData.
+	 * 
+	 * @param colID column ID (1-based)
+	 * @return recode map, or null if not existing
+	 */
+	public StringIntHashMap getRecodeMap(int colID) {
+		return _rcdMaps.get(colID);
+	}
+	
 	void prepare(String[] words, TfUtils agents) {
 		if ( _colList == null && _mvrcdList == null )
 			return;
@@ -110,18 +125,12 @@ public class RecodeAgent extends Encoder
 		for (int colID : _fullrcdList) {
 			w = UtilFunctions.unquote(words[colID-1].trim());
 			if(_rcdMaps.get(colID) == null ) 
-				_rcdMaps.put(colID, new HashMap<String, Long>());
-			
-			HashMap<String, Long> map = _rcdMaps.get(colID);
-			Long count = map.get(w);
-			if(count == null)
-				map.put(w, new Long(1));
-			else
-				map.put(w, count+1);
+				_rcdMaps.put(colID, new StringIntHashMap());
+			_rcdMaps.get(colID).add(w, 1);
 		}
 	}
 	
-	private HashMap<String, Long> handleMVConstant(int colID, TfUtils agents, HashMap<String, Long> map)
+	private StringIntHashMap handleMVConstant(int colID, TfUtils agents, StringIntHashMap map)
 	{
 		MVImputeAgent mvagent = agents.getMVImputeAgent();
 		if ( mvagent.getMethod(colID) == MVMethod.CONSTANT ) 
@@ -132,12 +141,8 @@ public class RecodeAgent extends Encoder
 				throw new RuntimeException("Expecting a constant replacement value for column ID " + colID);
 			
 			repValue = UtilFunctions.unquote(repValue);
-			Long count = map.get(repValue);
 			long mvCount = agents.getValid() - mvagent.getNonMVCount(colID);
-			if(count == null)
-				map.put(repValue, mvCount);
-			else
-				map.put(repValue, count + mvCount);
+			map.add(repValue, (int)mvCount);
 		}
 		return map;
 	}
@@ -165,7 +170,7 @@ public class RecodeAgent extends Encoder
 			for(int i=0; i < _fullrcdList.length; i++) 
 			{
 				int colID = _fullrcdList[i];
-				HashMap<String, Long> map = _rcdMaps.get(colID);
+				StringIntHashMap map = _rcdMaps.get(colID);
 				
 				if(map != null) 
 				{
@@ -173,12 +178,12 @@ public class RecodeAgent extends Encoder
 					
 					if ( out != null ) {
 						IntWritable iw = new IntWritable(colID);
-						for(String s : map.keySet()) 
-							out.collect(iw, new DistinctValue(s, map.get(s)));
+						for(int k=0; k<map.size(); k++) 
+							out.collect(iw, new DistinctValue(map.getKey(k), map.getValue(k)));
 					}
 					else if ( list != null ) {
-						for(String s : map.keySet()) 
-							list.add(new Pair<Integer,DistinctValue>(colID, new DistinctValue(s, map.get(s))) );
+						for(int k=0; k<map.size(); k++) 
+							list.add(new Pair<Integer,DistinctValue>(colID, new DistinctValue(map.getKey(k), map.getValue(k))) );
 					}
 				}
 			}
@@ -199,15 +204,15 @@ public class RecodeAgent extends Encoder
 	 * - just mv imputed (w/ global_mode)	(write .impute)
 	 * - both recoded and mv imputed		(write .map, .ndistinct, .mode, .impute)
 	 * 
-	 * @param map recode maps
+	 * @param map token counts
 	 * @param outputDir output directory
 	 * @param colID column id
 	 * @param fs file system
 	 * @param agents ?
-	 * @param fromCP ?
+	 * @return recode map of tokens and codes
 	 * @throws IOException if IOException occurs
 	 */
-	private void writeMetadata(HashMap<String,Long> map, String outputDir, int colID, FileSystem fs, TfUtils agents, boolean fromCP) throws IOException {
+	private StringIntHashMap writeMetadata(HashMap<String,Long> map, String outputDir, int colID, FileSystem fs, TfUtils agents) throws IOException {
 		// output recode maps and mode
 		
 		MVImputeAgent mvagent = agents.getMVImputeAgent();
@@ -229,15 +234,13 @@ public class RecodeAgent extends Encoder
 			for(String naword : agents.getNAStrings()) 
 				map.remove(naword);
 		
-		if(fromCP)
-			map = handleMVConstant(colID, agents,  map);
-		
 		if ( map.size() == 0 ) 
 			throw new RuntimeException("Can not proceed since \"" + agents.getName(colID) + "\" (id=" + colID + ") contains only the missing values, and not a single valid value -- set imputation method to \"constant\".");
 		
 		// Order entries by category (string) value
 		List<String> newNames = new ArrayList<String>(map.keySet());
 		Collections.sort(newNames);
+		StringIntHashMap codes = new StringIntHashMap(newNames.size());
 
 		for(String w : newNames) { //map.keySet()) {
 				count = map.get(w);
@@ -253,8 +256,8 @@ public class RecodeAgent extends Encoder
 					modeIndex = rcdIndex;
 				}
 				
-				// Replace count with recode index (useful when invoked from CP)
-				map.put(w, (long)rcdIndex);
+				// Collect recode index (useful when invoked from CP)
+				codes.put(w, rcdIndex);
 		}
 		
 		if(br != null)		
@@ -288,6 +291,7 @@ public class RecodeAgent extends Encoder
 			br.close();
 		}
 		
+		return codes;
 	}
 	
 	public void outputTransformationMetadata(String outputDir, FileSystem fs, TfUtils agents) throws IOException {
@@ -296,7 +300,12 @@ public class RecodeAgent extends Encoder
 		
 		for(int i=0; i<_fullrcdList.length; i++) {
 			int colID = _fullrcdList[i];
-			writeMetadata(_rcdMaps.get(colID), outputDir, colID, fs, agents, true);
+			//replace token counts by recode map of tokens and codes
+			StringIntHashMap map = handleMVConstant(colID, agents, _rcdMaps.get(colID));
+			HashMap<String,Long> counts = new HashMap<String,Long>();
+			for(int k=0; k<map.size(); k++)
+				counts.put(map.getKey(k), (long)map.getValue(k));
+			_rcdMaps.put(colID, writeMetadata(counts, outputDir, colID, fs, agents));
 		}
 	}
 	
@@ -324,7 +333,7 @@ public class RecodeAgent extends Encoder
 				map.put(word, val+count);
 		}
 		
-		writeMetadata(map, outputDir, colID, fs, agents, false);
+		writeMetadata(map, outputDir, colID, fs, agents);
 	}
 	
 	/**
@@ -365,13 +374,23 @@ public class RecodeAgent extends Encoder
 		}
 	}	
 
-	private String lookupRCDMap(int colID, String key) {
+	private String lookupRCDMap(int colID, String word) {
 		if( _finalMaps!=null )
-			return _finalMaps.get(colID).get(key);
-		else { //used for cp
-			Long tmp = _rcdMaps.get(colID).get(key);
-			return (tmp!=null) ? Long.toString(tmp) : null;
+			return _finalMaps.get(colID).get(UtilFunctions.unquote(word.trim()));
+		
+		//used for cp: lookup trimmed and unquoted token w/o temporary strings
+		int rl = 0, ru = word.length();
+		while( rl < ru && word.charAt(rl) <= ' ' ) rl++;
+		while( ru > rl && word.charAt(ru-1) <= ' ' ) ru--;
+		if( ru-rl >= 2 && word.charAt(rl) == word.charAt(ru-1)
+			&& (word.charAt(rl) == '"' || word.charAt(rl) == '\'') ) {
+			rl++; ru--;
 		}
+		if( _buff == null || _buff.length < ru-rl )
+			_buff = new char[Math.max(ru-rl, 64)];
+		word.getChars(rl, ru, _buff, 0);
+		int code = _rcdMaps.get(colID).get(_buff, 0, ru-rl);
+		return (code >= 0) ? Integer.toString(code) : null;
 	}
 	
 
@@ -392,22 +411,97 @@ public class RecodeAgent extends Encoder
 		if( !isApplicable() )
 			return;		
 
-		Iterator<String[]> iter = in.getStringRowIterator();
-		while( iter.hasNext() ) {
-			String[] row = iter.next(); 
-			for( int j=0; j<_colList.length; j++ ) {
-				int colID = _colList[j]; //1-based
-				//allocate column map if necessary
-				if( !_rcdMaps.containsKey(colID) ) 
-					_rcdMaps.put(colID, new HashMap<String,Long>());
-				//probe and build column map
-				HashMap<String,Long> map = _rcdMaps.get(colID);
-				String key = row[colID-1];
-				if( key!=null && !key.isEmpty() && !map.containsKey(key) )
-					map.put(key, Long.valueOf(map.size()+1));
+		//build column maps column-wise (codes in order of first occurrence),
+		//where dictionary-encoded columns probe each distinct value once
+		for( int j=0; j<_colList.length; j++ ) {
+			int colID = _colList[j]; //1-based
+			//allocate column map if necessary
+			if( !_rcdMaps.containsKey(colID) ) 
+				_rcdMaps.put(colID, new StringIntHashMap());
+			//probe and build column map
+			StringIntHashMap map = _rcdMaps.get(colID);
+			if( in.isDictionaryEncoded(colID-1) ) {
+				int[] codes = in.getColumnCodes(colID-1);
+				String[] dict = in.getColumnDictionary(colID-1);
+				boolean[] seen = new boolean[dict.length];
+				for( int i=0; i<in.getNumRows(); i++ ) {
+					int code = codes[i];
+					if( code >= 0 && !seen[code] ) {
+						seen[code] = true;
+						putRecodeMapEntry(map, dict[code]);
+					}
+				}
+			}
+			else {
+				for( int i=0; i<in.getNumRows(); i++ ) {
+					Object okey = in.get(i, colID-1);
+					putRecodeMapEntry(map, (okey!=null) ? okey.toString() : null);
+				}
 			}
 		}
 	}
+	
+	@Override
+	public boolean isRowPartitionable() {
+		return true;
+	}
+	
+	@Override
+	public Object buildPartial(FrameBlock in, int rl, int ru) {
+		if( !isApplicable() )
+			return null;
+		
+		//collect distinct tokens per column in order of first occurrence,
+		//which retains the codes of a sequential build after merging
+		ArrayList<LinkedHashSet<String>> ret = new ArrayList<LinkedHashSet<String>>();
+		for( int j=0; j<_colList.length; j++ ) {
+			int colID = _colList[j]; //1-based
+			LinkedHashSet<String> tokens = new LinkedHashSet<String>();
+			if( in.isDictionaryEncoded(colID-1) ) {
+				int[] codes = in.getColumnCodes(colID-1);
+				String[] dict = in.getColumnDictionary(colID-1);
+				boolean[] seen = new boolean[dict.length];
+				for( int i=rl; i<ru; i++ ) {
+					int code = codes[i];
+					if( code >= 0 && !seen[code] ) {
+						seen[code] = true;
+						tokens.add(dict[code]);
+					}
+				}
+			}
+			else {
+				for( int i=rl; i<ru; i++ ) {
+					Object okey = in.get(i, colID-1);
+					if( okey != null )
+						tokens.add(okey.toString());
+				}
+			}
+			ret.add(tokens);
+		}
+		return ret;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public void mergeBuildPartial(Object partial) {
+		if( !isApplicable() )
+			return;
+		
+		ArrayList<LinkedHashSet<String>> tokens = (ArrayList<LinkedHashSet<String>>) partial;
+		for( int j=0; j<_colList.length; j++ ) {
+			int colID = _colList[j]; //1-based
+			if( !_rcdMaps.containsKey(colID) ) 
+				_rcdMaps.put(colID, new StringIntHashMap());
+			StringIntHashMap map = _rcdMaps.get(colID);
+			for( String key : tokens.get(j) )
+				putRecodeMapEntry(map, key);
+		}
+	}
+	
+	private static void putRecodeMapEntry(StringIntHashMap map, String key) {
+		if( key!=null && !key.isEmpty() )
+			map.putIfAbsentSeq(key);
+	}
 
 	public void buildPartial(FrameBlock in) {
 		if( !isApplicable() )
@@ -447,8 +541,7 @@ public class RecodeAgent extends Encoder
 		for(int i=0; i < _colList.length; i++) {
 			//prepare input and get code
 			int colID = _colList[i];
-			String key = UtilFunctions.unquote(words[colID-1].trim());
-			String val = lookupRCDMap(colID, key);			
+			String val = lookupRCDMap(colID, words[colID-1]);
 			// replace unseen keys with NaN 
 			words[colID-1] = (val!=null) ? val : "NaN";
 		}
@@ -458,19 +551,39 @@ public class RecodeAgent extends Encoder
 	
 	@Override
 	public MatrixBlock apply(FrameBlock in, MatrixBlock out) {
+		applyRowRange(in, out, out, 0, in.getNumRows());
+		return out;
+	}
+	
+	@Override
+	public void applyRowRange(FrameBlock in, MatrixBlock out, MatrixBlock ret, int rl, int ru) {
 		//apply recode maps column wise
 		for( int j=0; j<_colList.length; j++ ) {
 			int colID = _colList[j];
-			for( int i=0; i<in.getNumRows(); i++ ) {
+			StringIntHashMap map = _rcdMaps.get(colID);
+			//dictionary-encoded columns: lookup distinct values once
+			if( in.isDictionaryEncoded(colID-1) ) {
+				int[] codes = in.getColumnCodes(colID-1);
+				String[] dict = in.getColumnDictionary(colID-1);
+				double[] lut = new double[dict.length];
+				for( int k=0; k<dict.length; k++ )
+					lut[k] = lookupCode(map, dict[k]);
+				for( int i=rl; i<ru; i++ )
+					ret.quickSetValue(i, colID-1, (codes[i] >= 0) ? lut[codes[i]] : Double.NaN);
+				continue;
+			}
+			for( int i=rl; i<ru; i++ ) {
 				Object okey = in.get(i, colID-1);
-				String key = (okey!=null) ? okey.toString() : null;
-				String val = lookupRCDMap(colID, key);			
-				out.quickSetValue(i, colID-1, (val!=null) ? 
-						Double.parseDouble(val) : Double.NaN);
+				ret.quickSetValue(i, colID-1, (okey!=null) ? 
+						lookupCode(map, okey.toString()) : Double.NaN);
 			}
 		}
-		
-		return out;
+	}
+	
+	private static double lookupCode(StringIntHashMap map, String key) {
+		//replace unseen keys with NaN
+		int code = map.get(key);
+		return (code >= 0) ? code : Double.NaN;
 	}
 
 	@Override
@@ -487,17 +600,16 @@ public class RecodeAgent extends Encoder
 				maxDistinct = Math.max(maxDistinct, _rcdMaps.get(_colList[j]).size());
 		meta.ensureAllocatedColumns(maxDistinct);
 		
-		//create compact meta data representation
+		//create compact meta data representation (entries in insertion
+		//order, i.e., in order of codes for maps created by build)
 		for( int j=0; j<_colList.length; j++ ) {
 			int colID = _colList[j]; //1-based
-			int rowID = 0;
-			if( _rcdMaps.containsKey(_colList[j]) )
-				for( Entry<String, Long> e : _rcdMaps.get(colID).entrySet() ) {
-					String tmp = constructRecodeMapEntry(e.getKey(), e.getValue());
-					meta.set(rowID++, colID-1, tmp); 
-				}
+			StringIntHashMap map = _rcdMaps.get(colID);
+			if( map != null )
+				for( int i=0; i<map.size(); i++ )
+					meta.set(i, colID-1, constructRecodeMapEntry(map.getKey(i), map.getValue(i)));
 			meta.getColumnMetadata(colID-1).setNumDistinct(
-					_rcdMaps.get(colID).size());
+					(map != null) ? map.size() : 0);
 		}
 		
 		return meta;
@@ -526,8 +638,8 @@ public class RecodeAgent extends Encoder
 	 * @param code  is code for token 
 	 * @return the concatenation of code and token with delimiter in between
 	 */
-	public static String constructRecodeMapEntry(String token, Long code) {
-		return token + Lop.DATATYPE_PREFIX + code.toString();
+	public static String constructRecodeMapEntry(String token, long code) {
+		return token + Lop.DATATYPE_PREFIX + code;
 	}
 }
  
\ No newline at end of file
@@ -50,13 +50,17 @@ public class DecoderFactory
 			List<Decoder> ldecoders = new ArrayList<Decoder>();
 		
 			//create decoders 'recode', 'dummy' and 'pass-through'
+			//note: hashed columns are not invertible and decoded to their codes
 			List<Integer> rcIDs = Arrays.asList(ArrayUtils.toObject(
 					TfMetaUtils.parseJsonIDList(jSpec, colnames, TfUtils.TXMETHOD_RECODE)));
 			List<Integer> dcIDs = Arrays.asList(ArrayUtils.toObject(
 					TfMetaUtils.parseJsonIDList(jSpec, colnames, TfUtils.TXMETHOD_DUMMYCODE))); 
-			rcIDs = new ArrayList<Integer>(CollectionUtils.union(rcIDs, dcIDs));
-			List<Integer> ptIDs = new ArrayList<Integer>(CollectionUtils
-					.subtract(UtilFunctions.getSequenceList(1, meta.getNumColumns(), 1), rcIDs)); 
+			List<Integer> haIDs = Arrays.asList(ArrayUtils.toObject(
+					TfMetaUtils.parseJsonIDList(jSpec, colnames, TfUtils.TXMETHOD_HASH)));
+			rcIDs = new ArrayList<Integer>(CollectionUtils.subtract(
+					CollectionUtils.union(rcIDs, dcIDs), haIDs));
+			List<Integer> ptIDs = new ArrayList<Integer>(CollectionUtils.subtract(CollectionUtils
+					.subtract(UtilFunctions.getSequenceList(1, meta.getNumColumns(), 1), rcIDs), dcIDs)); 
 
 			//create default schema if unspecified (with double columns for pass-through)
 			if( schema == null ) {
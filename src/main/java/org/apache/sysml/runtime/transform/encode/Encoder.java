@@ -128,6 +128,81 @@ public abstract class Encoder implements Serializable
 	 */
 	public abstract MatrixBlock apply(FrameBlock in, MatrixBlock out);
 	
+	/**
+	 * Multi-threaded block encode: build and apply (transform encode). By default,
+	 * this falls back to the single-threaded block encode.
+	 * 
+	 * @param in input frame block
+	 * @param out output matrix block
+	 * @param k degree of parallelism
+	 * @return output matrix block
+	 */
+	public MatrixBlock encode(FrameBlock in, MatrixBlock out, int k) {
+		return encode(in, out);
+	}
+	
+	/**
+	 * Indicates if build and apply of this encoder can be partitioned into
+	 * disjoint row ranges (see buildPartial, mergeBuildPartial, and applyRowRange),
+	 * which is used for multi-threaded transform encode.
+	 * 
+	 * @return true if row-partitionable
+	 */
+	public boolean isRowPartitionable() {
+		return false;
+	}
+	
+	/**
+	 * Build partial transform meta data for the rows [rl,ru) of the given block 
+	 * input, without modifying the encoder state. Partial results are merged 
+	 * in order of row ranges via mergeBuildPartial.
+	 * 
+	 * @param in input frame block
+	 * @param rl row lower bound (inclusive, 0-based)
+	 * @param ru row upper bound (exclusive, 0-based)
+	 * @return partial meta data, or null if nothing to build
+	 */
+	public Object buildPartial(FrameBlock in, int rl, int ru) {
+		throw new RuntimeException("Partial build not supported by "+getClass().getSimpleName()+".");
+	}
+	
+	/**
+	 * Merge the partial transform meta data of a row range into the encoder state.
+	 * 
+	 * @param partial partial meta data obtained from buildPartial
+	 */
+	public void mergeBuildPartial(Object partial) {
+		throw new RuntimeException("Partial build not supported by "+getClass().getSimpleName()+".");
+	}
+	
+	/**
+	 * Allocate the output of a row-partitioned apply, which is either the 
+	 * given output (in-place update) or a new preallocated matrix block.
+	 * 
+	 * @param in input frame block
+	 * @param out output matrix block of previous encoders
+	 * @return output matrix block of this encoder
+	 */
+	public MatrixBlock allocateApplyOutput(FrameBlock in, MatrixBlock out) {
+		return out;
+	}
+	
+	/**
+	 * Encode the rows [rl,ru) of the input data according to existing transform 
+	 * meta data (transform apply). This method is thread-safe for disjoint row
+	 * ranges if the output was preallocated in dense format; the number of 
+	 * non-zeros of the output is not maintained.
+	 * 
+	 * @param in input frame block
+	 * @param out output matrix block of previous encoders
+	 * @param ret output matrix block of this encoder (see allocateApplyOutput)
+	 * @param rl row lower bound (inclusive, 0-based)
+	 * @param ru row upper bound (exclusive, 0-based)
+	 */
+	public void applyRowRange(FrameBlock in, MatrixBlock out, MatrixBlock ret, int rl, int ru) {
+		throw new RuntimeException("Row-range apply not supported by "+getClass().getSimpleName()+".");
+	}
+	
 	/**
 	 * Encode input data according to existing transform meta
 	 * data (transform apply).
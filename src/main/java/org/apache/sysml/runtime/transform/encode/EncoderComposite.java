@@ -20,8 +20,13 @@
 package org.apache.sysml.runtime.transform.encode;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -32,6 +37,7 @@ import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.transform.DistinctValue;
+import org.apache.sysml.runtime.transform.DummycodeAgent;
 import org.apache.sysml.runtime.transform.TfUtils;
 
 /**
@@ -44,6 +50,9 @@ public class EncoderComposite extends Encoder
 {
 	private static final long serialVersionUID = -8473768154646831882L;
 	
+	//minimum number of input cells for multi-threaded encode
+	private static final long PAR_NUMCELL_THRESHOLD = 64*1024;
+	
 	private List<Encoder> _encoders = null;
 	private FrameBlock _meta = null;
 	
@@ -84,11 +93,75 @@ public class EncoderComposite extends Encoder
 		return out;
 	}
 
+	@Override
+	public MatrixBlock encode(FrameBlock in, MatrixBlock out, int k) {
+		//single-threaded encode for small inputs
+		if( k <= 1 || (long)in.getNumRows()*in.getNumColumns() < PAR_NUMCELL_THRESHOLD )
+			return encode(in, out);
+		
+		//build meta data first (for all encoders)
+		build(in, k);
+		
+		//propagate meta data 
+		_meta = new FrameBlock(in.getNumColumns(), ValueType.STRING);
+		for( Encoder encoder : _encoders )
+			_meta = encoder.getMetaData(_meta);
+		for( Encoder encoder : _encoders )
+			encoder.initMetaData(_meta);
+		
+		//apply meta data
+		return apply(in, out, k);
+	}
+
 	@Override
 	public void build(FrameBlock in) {
 		for( Encoder encoder : _encoders )
 			encoder.build(in);
 	}
+	
+	/**
+	 * Multi-threaded build of the transform meta data, where row-partitionable
+	 * encoders build partial meta data over disjoint row ranges, which are merged 
+	 * in order of row ranges afterwards. All other encoders are built sequentially.
+	 * 
+	 * @param in input frame block
+	 * @param k degree of parallelism
+	 */
+	public void build(FrameBlock in, int k) {
+		//collect row-partitionable encoders
+		ArrayList<Encoder> parEncoders = new ArrayList<Encoder>();
+		for( Encoder encoder : _encoders ) {
+			if( encoder.isRowPartitionable() )
+				parEncoders.add(encoder);
+			else
+				encoder.build(in);
+		}
+		if( parEncoders.isEmpty() )
+			return;
+		
+		//build partial meta data per row range
+		ExecutorService pool = Executors.newFixedThreadPool(k);
+		try {
+			ArrayList<BuildTask> tasks = new ArrayList<BuildTask>();
+			int blklen = (int)Math.ceil((double)in.getNumRows()/k);
+			for( int i=0; i<k && i*blklen<in.getNumRows(); i++ )
+				tasks.add(new BuildTask(parEncoders, in, i*blklen, Math.min((i+1)*blklen, in.getNumRows())));
+			List<Future<Object[]>> rtasks = pool.invokeAll(tasks);
+			
+			//merge partial meta data in order of row ranges
+			for( Future<Object[]> rtask : rtasks ) {
+				Object[] partials = rtask.get();
+				for( int j=0; j<parEncoders.size(); j++ )
+					parEncoders.get(j).mergeBuildPartial(partials[j]);
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
 
 
 	@Override
@@ -105,6 +178,75 @@ public class EncoderComposite extends Encoder
 		return out;
 	}
 	
+	/**
+	 * Multi-threaded apply of the transform meta data. Sequences of row-partitionable
+	 * encoders are applied together over disjoint row ranges, writing directly into 
+	 * preallocated dense outputs; dummycoding with sparse outputs writes directly 
+	 * into CSR, and all other encoders are applied sequentially.
+	 * 
+	 * @param in input frame block
+	 * @param out output matrix block
+	 * @param k degree of parallelism
+	 * @return output matrix block
+	 */
+	public MatrixBlock apply(FrameBlock in, MatrixBlock out, int k) {
+		ExecutorService pool = Executors.newFixedThreadPool(k);
+		try {
+			for( int pos=0; pos<_encoders.size(); ) {
+				//apply dummycoding w/ sparse output via two-pass CSR construction
+				Encoder encoder = _encoders.get(pos);
+				if( isSparseDummycode(encoder, in.getNumRows()) ) {
+					out = ((DummycodeAgent)encoder).applySparse(in, out, k);
+					pos++;
+					continue;
+				}
+				
+				//apply non-partitionable encoder or sparse output sequentially
+				if( !encoder.isRowPartitionable() || out.isInSparseFormat() ) {
+					out = encoder.apply(in, out);
+					pos++;
+					continue;
+				}
+				
+				//collect sequence of row-partitionable encoders and allocate outputs
+				ArrayList<Encoder> encoders = new ArrayList<Encoder>();
+				ArrayList<MatrixBlock> outputs = new ArrayList<MatrixBlock>();
+				out.allocateDenseBlock(false);
+				outputs.add(out);
+				for( ; pos<_encoders.size() && _encoders.get(pos).isRowPartitionable()
+					&& !isSparseDummycode(_encoders.get(pos), in.getNumRows()); pos++ ) {
+					encoders.add(_encoders.get(pos));
+					outputs.add(_encoders.get(pos).allocateApplyOutput(in, outputs.get(outputs.size()-1)));
+				}
+				
+				//apply encoders per row range
+				ArrayList<ApplyTask> tasks = new ArrayList<ApplyTask>();
+				int blklen = (int)Math.ceil((double)in.getNumRows()/k);
+				for( int i=0; i<k && i*blklen<in.getNumRows(); i++ )
+					tasks.add(new ApplyTask(encoders, outputs, in, i*blklen, Math.min((i+1)*blklen, in.getNumRows())));
+				for( Future<Object> rtask : pool.invokeAll(tasks) )
+					rtask.get(); //error handling
+				
+				//maintain non-zeros of the final output
+				out = outputs.get(outputs.size()-1);
+				out.recomputeNonZeros();
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+		
+		return out;
+	}
+	
+	private static boolean isSparseDummycode(Encoder encoder, int rlen) {
+		return encoder instanceof DummycodeAgent
+			&& ((DummycodeAgent)encoder).isSparseOutput(rlen);
+	}
+	
 	@Override
 	public FrameBlock getMetaData(FrameBlock out) {
 		if( _meta != null )
@@ -134,4 +276,52 @@ public class EncoderComposite extends Encoder
 	public void loadTxMtd(JobConf job, FileSystem fs, Path txMtdDir, TfUtils agents) throws IOException {
 		throw new RuntimeException("File-based api not supported.");
 	}
+	
+	private static class BuildTask implements Callable<Object[]> 
+	{
+		private final List<Encoder> _encoders;
+		private final FrameBlock _in;
+		private final int _rl;
+		private final int _ru;
+		
+		protected BuildTask(List<Encoder> encoders, FrameBlock in, int rl, int ru) {
+			_encoders = encoders;
+			_in = in;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Object[] call() throws Exception {
+			Object[] ret = new Object[_encoders.size()];
+			for( int j=0; j<_encoders.size(); j++ )
+				ret[j] = _encoders.get(j).buildPartial(_in, _rl, _ru);
+			return ret;
+		}
+	}
+	
+	private static class ApplyTask implements Callable<Object> 
+	{
+		private final List<Encoder> _encoders;
+		private final List<MatrixBlock> _outputs;
+		private final FrameBlock _in;
+		private final int _rl;
+		private final int _ru;
+		
+		protected ApplyTask(List<Encoder> encoders, List<MatrixBlock> outputs, FrameBlock in, int rl, int ru) {
+			_encoders = encoders;
+			_outputs = outputs;
+			_in = in;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Object call() throws Exception {
+			//apply encoders in order, where outputs.get(j) is the input of encoder j
+			for( int j=0; j<_encoders.size(); j++ )
+				_encoders.get(j).applyRowRange(_in, _outputs.get(j), _outputs.get(j+1), _rl, _ru);
+			return null;
+		}
+	}
 }
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.transform.encode;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.transform.DistinctValue;
+import org.apache.sysml.runtime.transform.TfUtils;
+import org.apache.sysml.runtime.transform.meta.TfMetaUtils;
+import org.apache.sysml.runtime.util.UtilFunctions;
+import org.apache.wink.json4j.JSONException;
+import org.apache.wink.json4j.JSONObject;
+
+/**
+ * Simple atomic encoder for feature hashing, which maps the tokens of
+ * categorical columns to K buckets (codes 1..K) without a build pass and 
+ * hence without meta data proportional to the number of distinct items.
+ * Hashed columns can be dummycoded like recoded columns, where the domain 
+ * size of all hashed columns is K.
+ * 
+ */
+public class EncoderFeatureHash extends Encoder
+{
+	private static final long serialVersionUID = 7435806042138687342L;
+	
+	private int _K = -1;
+	
+	protected EncoderFeatureHash(JSONObject parsedSpec, String[] colnames, int clen) 
+		throws JSONException 
+	{
+		super(null, clen);
+		_colList = TfMetaUtils.parseJsonIDList(parsedSpec, colnames, TfUtils.TXMETHOD_HASH);
+		_K = getK(parsedSpec);
+	}
+	
+	public int getK() {
+		return _K;
+	}
+	
+	/**
+	 * Obtain the number of hash buckets K of the given transform specification.
+	 * 
+	 * @param parsedSpec parsed transform specification
+	 * @return number of hash buckets
+	 * @throws JSONException if K is missing or invalid
+	 */
+	public static int getK(JSONObject parsedSpec) 
+		throws JSONException 
+	{
+		if( !parsedSpec.containsKey(TfUtils.TXMETHOD_HASH_K) )
+			throw new JSONException("Missing number of buckets '"+TfUtils.TXMETHOD_HASH_K+"' for feature hashing.");
+		int K = UtilFunctions.toInt(parsedSpec.get(TfUtils.TXMETHOD_HASH_K));
+		if( K <= 0 )
+			throw new JSONException("Invalid number of buckets for feature hashing: "+K+".");
+		return K;
+	}
+	
+	/**
+	 * Obtain the hash code (bucket) of the given token.
+	 * 
+	 * @param token input token
+	 * @param K number of buckets
+	 * @return code in 1..K, or NaN for missing values
+	 */
+	public static double getCode(String token, int K) {
+		if( token == null || token.isEmpty() )
+			return Double.NaN;
+		//note: String.hashCode is specified, i.e., consistent across JVMs
+		return (token.hashCode() & Integer.MAX_VALUE) % K + 1;
+	}
+	
+	@Override
+	public MatrixBlock encode(FrameBlock in, MatrixBlock out) {
+		return apply(in, out);
+	}
+
+	@Override
+	public void build(FrameBlock in) {
+		//do nothing
+	}
+
+	@Override
+	public String[] apply(String[] words) {
+		if( !isApplicable() )
+			return words;
+		for( int j=0; j<_colList.length; j++ ) {
+			int colID = _colList[j];
+			double code = getCode(words[colID-1], _K);
+			words[colID-1] = Double.isNaN(code) ? "NaN" : String.valueOf((int)code);
+		}
+		return words;
+	}
+	
+	@Override
+	public MatrixBlock apply(FrameBlock in, MatrixBlock out) {
+		applyRowRange(in, out, out, 0, in.getNumRows());
+		return out;
+	}
+	
+	@Override
+	public boolean isRowPartitionable() {
+		return true;
+	}
+	
+	@Override
+	public Object buildPartial(FrameBlock in, int rl, int ru) {
+		return null; //no meta data
+	}
+	
+	@Override
+	public void mergeBuildPartial(Object partial) {
+		//do nothing
+	}
+	
+	@Override
+	public void applyRowRange(FrameBlock in, MatrixBlock out, MatrixBlock ret, int rl, int ru) {
+		for( int j=0; j<_colList.length; j++ ) {
+			int colID = _colList[j];
+			for( int i=rl; i<ru; i++ ) {
+				Object okey = in.get(i, colID-1);
+				ret.quickSetValue(i, colID-1, getCode(
+					(okey!=null) ? okey.toString() : null, _K));
+			}
+		}
+	}
+
+	@Override
+	public FrameBlock getMetaData(FrameBlock meta) {
+		//domain size K per hashed column (e.g., for dummycoding)
+		for( int j=0; j<_colList.length; j++ )
+			meta.getColumnMetadata(_colList[j]-1).setNumDistinct(_K);
+		return meta;
+	}
+	
+	@Override
+	public void initMetaData(FrameBlock meta) {
+		//ensure domain sizes for subsequent encoders,
+		//independent of the origin of the meta data
+		if( meta != null && meta.getNumColumns() > 0 )
+			getMetaData(meta);
+	}
+
+	@Override
+	public void mapOutputTransformationMetadata(OutputCollector<IntWritable, DistinctValue> out, int taskID, TfUtils agents) throws IOException {
+		throw new RuntimeException("File-based api not supported.");
+	}
+
+	@Override
+	public void mergeAndOutputTransformationMetadata(Iterator<DistinctValue> values, String outputDir, int colID, FileSystem fs, TfUtils agents) throws IOException {
+		throw new RuntimeException("File-based api not supported.");
+	}
+
+	@Override
+	public void loadTxMtd(JobConf job, FileSystem fs, Path txMtdDir, TfUtils agents) throws IOException {
+		throw new RuntimeException("File-based api not supported.");
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This native string - int hashmap is specifically designed for recode
+ * maps, i.e., mappings of distinct tokens to integer codes, which only 
+ * require put - get semantics and iteration in insertion order. In contrast
+ * to a default hashmap, we use open addressing with linear probing over a 
+ * primitive slot table, and keep tokens, codes, and hash codes in dense 
+ * arrays in insertion order. This avoids entry objects and boxed values, 
+ * and allows lookups directly from character buffers without creating 
+ * temporary strings. The serialized form only includes tokens and codes.
+ * 
+ */
+public class StringIntHashMap implements Serializable
+{
+	private static final long serialVersionUID = -2542617185343633478L;
+	
+	private static final int INIT_CAPACITY = 16;
+	private static final int RESIZE_FACTOR = 2;
+	private static final float LOAD_FACTOR = 0.5f;
+	
+	//slot table of entry positions (1-based, 0 for empty slots)
+	private transient int[] _slots = null;
+	//entries in insertion order
+	private transient String[] _keys = null;
+	private transient int[] _values = null;
+	private transient int[] _hashes = null;
+	private transient int _size = -1;
+	
+	public StringIntHashMap() {
+		this(INIT_CAPACITY);
+	}
+	
+	public StringIntHashMap(int capacity) {
+		allocate(Math.max(capacity, 1));
+	}
+	
+	public int size() {
+		return _size;
+	}
+	
+	/**
+	 * Returns the value of the given key.
+	 * 
+	 * @param key token
+	 * @return value, or -1 if the key does not exist
+	 */
+	public int get(String key) {
+		if( key == null )
+			return -1;
+		int hash = key.hashCode();
+		for( int ix = indexFor(hash, _slots.length); _slots[ix] > 0; ix = next(ix) ) {
+			int pos = _slots[ix]-1;
+			if( _hashes[pos] == hash && key.equals(_keys[pos]) )
+				return _values[pos];
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the value of the key given as a region of a character buffer,
+	 * without creating a temporary string. 
+	 * 
+	 * @param buff character buffer
+	 * @param off offset of the key
+	 * @param len length of the key
+	 * @return value, or -1 if the key does not exist
+	 */
+	public int get(char[] buff, int off, int len) {
+		//hash consistent with String.hashCode
+		int hash = 0;
+		for( int i=off; i<off+len; i++ )
+			hash = 31*hash + buff[i];
+		for( int ix = indexFor(hash, _slots.length); _slots[ix] > 0; ix = next(ix) ) {
+			int pos = _slots[ix]-1;
+			if( _hashes[pos] == hash && equals(_keys[pos], buff, off, len) )
+				return _values[pos];
+		}
+		return -1;
+	}
+	
+	public boolean containsKey(String key) {
+		return get(key) >= 0;
+	}
+	
+	/**
+	 * Puts the given key-value pair, where existing values are replaced.
+	 * 
+	 * @param key token (not null)
+	 * @param value non-negative value
+	 */
+	public void put(String key, int value) {
+		int hash = key.hashCode();
+		int ix = indexFor(hash, _slots.length);
+		for( ; _slots[ix] > 0; ix = next(ix) ) {
+			int pos = _slots[ix]-1;
+			if( _hashes[pos] == hash && key.equals(_keys[pos]) ) {
+				_values[pos] = value;
+				return; //no need to append or resize
+			}
+		}
+		
+		//add non-existing entry
+		appendEntry(ix, key, value, hash);
+	}
+	
+	/**
+	 * Adds the given delta to the value of the given key, where
+	 * non-existing keys are added with a value of delta (e.g., for
+	 * counting the occurrences of distinct tokens).
+	 * 
+	 * @param key token (not null)
+	 * @param delta value increment
+	 * @return new value of the key
+	 */
+	public int add(String key, int delta) {
+		int hash = key.hashCode();
+		int ix = indexFor(hash, _slots.length);
+		for( ; _slots[ix] > 0; ix = next(ix) ) {
+			int pos = _slots[ix]-1;
+			if( _hashes[pos] == hash && key.equals(_keys[pos]) )
+				return _values[pos] += delta;
+		}
+		
+		//add non-existing entry
+		appendEntry(ix, key, delta, hash);
+		return delta;
+	}
+	
+	/**
+	 * Puts the given key with a value of size()+1 if the key does not 
+	 * exist yet, which assigns codes in order of first occurrence.
+	 * 
+	 * @param key token (not null)
+	 * @return value of the existing or added key
+	 */
+	public int putIfAbsentSeq(String key) {
+		int hash = key.hashCode();
+		int ix = indexFor(hash, _slots.length);
+		for( ; _slots[ix] > 0; ix = next(ix) ) {
+			int pos = _slots[ix]-1;
+			if( _hashes[pos] == hash && key.equals(_keys[pos]) )
+				return _values[pos];
+		}
+		
+		//add non-existing entry
+		int value = _size+1;
+		appendEntry(ix, key, value, hash);
+		return value;
+	}
+	
+	/**
+	 * Returns the key of the i-th entry in insertion order.
+	 * 
+	 * @param i entry position (0-based)
+	 * @return token
+	 */
+	public String getKey(int i) {
+		return _keys[i];
+	}
+	
+	/**
+	 * Returns the value of the i-th entry in insertion order.
+	 * 
+	 * @param i entry position (0-based)
+	 * @return value
+	 */
+	public int getValue(int i) {
+		return _values[i];
+	}
+	
+	private void appendEntry(int ix, String key, int value, int hash) {
+		if( _size == _keys.length ) {
+			int newlen = Math.max(_keys.length*RESIZE_FACTOR, 1);
+			_keys = Arrays.copyOf(_keys, newlen);
+			_values = Arrays.copyOf(_values, newlen);
+			_hashes = Arrays.copyOf(_hashes, newlen);
+		}
+		_keys[_size] = key;
+		_values[_size] = value;
+		_hashes[_size] = hash;
+		_slots[ix] = ++_size;
+		
+		//resize slot table if necessary
+		if( _size >= LOAD_FACTOR*_slots.length )
+			rehash(_slots.length*RESIZE_FACTOR);
+	}
+	
+	private void allocate(int capacity) {
+		int len = Integer.highestOneBit(Math.max((int)(capacity/LOAD_FACTOR), 2)-1)<<1;
+		_slots = new int[len];
+		_keys = new String[capacity];
+		_values = new int[capacity];
+		_hashes = new int[capacity];
+		_size = 0;
+	}
+	
+	private void rehash(int len) {
+		//check for integer overflow on resize
+		if( len < 0 )
+			throw new RuntimeException("Maximum capacity of recode map exceeded: "+_size);
+		_slots = new int[len];
+		for( int pos=0; pos<_size; pos++ ) {
+			int ix = indexFor(_hashes[pos], len);
+			while( _slots[ix] > 0 )
+				ix = next(ix);
+			_slots[ix] = pos+1;
+		}
+	}
+	
+	private int next(int ix) {
+		return (ix+1) & (_slots.length-1);
+	}
+	
+	private static int indexFor(int h, int length) {
+		//bit spreading (consistent w/ LongLongDoubleHashMap)
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h = h ^ (h >>> 7) ^ (h >>> 4);
+		return h & (length-1);
+	}
+	
+	private static boolean equals(String key, char[] buff, int off, int len) {
+		if( key.length() != len )
+			return false;
+		for( int i=0; i<len; i++ )
+			if( key.charAt(i) != buff[off+i] )
+				return false;
+		return true;
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		//compact serialized form of tokens and codes in insertion order
+		out.defaultWriteObject();
+		out.writeInt(_size);
+		for( int i=0; i<_size; i++ ) {
+			out.writeUTF(_keys[i]);
+			out.writeInt(_values[i]);
+		}
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int size = in.readInt();
+		allocate(size);
+		for( int i=0; i<size; i++ ) {
+			String key = in.readUTF();
+			put(key, in.readInt());
+		}
+	}
+}
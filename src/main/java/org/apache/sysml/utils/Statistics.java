@@ -48,9 +48,21 @@ import org.apache.sysml.runtime.matrix.data.LibMatrixDNN;
  */
 public class Statistics 
 {
+	public enum CompilePhase {
+		PARSE, HOPS, REWRITE, LOPS, INST
+	}
+	
 	private static long compileStartTime = 0;
 	private static long compileEndTime = 0;
 	
+	//compile times per phase (parse, hops, rewrites, lops, instructions)
+	private static final LongAdder[] compilePhaseTime = new LongAdder[CompilePhase.values().length]; //in nano sec
+	static {
+		for( int i=0; i<compilePhaseTime.length; i++ )
+			compilePhaseTime[i] = new LongAdder();
+	}
+	private static final LongAdder parallelCompiledUnits = new LongAdder(); //count
+	
 	private static long execStartTime = 0;
 	private static long execEndTime = 0;
 
@@ -71,6 +83,8 @@ public class Statistics
 	private static final LongAdder hopRecompileTime = new LongAdder(); //in nano sec
 	private static final LongAdder hopRecompilePred = new LongAdder(); //count
 	private static final LongAdder hopRecompileSB = new LongAdder();   //count
+	private static final LongAdder hopRecompileCacheHits = new LongAdder();   //count
+	private static final LongAdder hopRecompileCacheMisses = new LongAdder(); //count
 
 	//CODEGEN
 	private static final LongAdder codegenCompileTime = new LongAdder(); //in nano
@@ -80,6 +94,7 @@ public class Statistics
 	private static final LongAdder codegenClassCompile = new LongAdder(); //count
 	private static final LongAdder codegenPlanCacheHits = new LongAdder(); //count
 	private static final LongAdder codegenPlanCacheTotal = new LongAdder(); //count
+	private static final LongAdder codegenSparseOutput = new LongAdder(); //count
 	
 	//Function recompile stats 
 	private static final LongAdder funRecompileTime = new LongAdder(); //in nano sec
@@ -93,6 +108,7 @@ public class Statistics
 	private static final LongAdder sparkCollectCount = new LongAdder();
 	private static final LongAdder sparkBroadcast = new LongAdder();
 	private static final LongAdder sparkBroadcastCount = new LongAdder();
+	private static final LongAdder sparkBroadcastReuse = new LongAdder(); //reused partitions
 
 	//PARFOR optimization stats (low frequency updates)
 	private static long parforOptTime = 0; //in milli sec
@@ -223,6 +239,13 @@ public class Statistics
 		hopRecompileSB.add(delta);
 	}
 	
+	public static void incrementHOPRecompilePlanCache(boolean hit) {
+		if( hit )
+			hopRecompileCacheHits.increment();
+		else
+			hopRecompileCacheMisses.increment();
+	}
+	
 	public static void incrementCodegenDAGCompile() {
 		codegenHopCompile.increment();
 	}
@@ -251,6 +274,14 @@ public class Statistics
 		codegenPlanCacheTotal.increment();
 	}
 	
+	public static void incrementCodegenSparseOutput() {
+		codegenSparseOutput.increment();
+	}
+	
+	public static long getCodegenSparseOutput() {
+		return codegenSparseOutput.longValue();
+	}
+	
 	public static long getCodegenDAGCompile() {
 		return codegenHopCompile.longValue();
 	}
@@ -304,8 +335,12 @@ public class Statistics
 	}
 
 	public static void startCompileTimer() {
-		if( DMLScript.STATISTICS )
+		if( DMLScript.STATISTICS ) {
 			compileStartTime = System.nanoTime();
+			for( LongAdder time : compilePhaseTime )
+				time.reset();
+			parallelCompiledUnits.reset();
+		}
 	}
 
 	public static void stopCompileTimer() {
@@ -317,6 +352,32 @@ public class Statistics
 		return compileEndTime - compileStartTime;
 	}
 	
+	public static void incrementCompileTime(CompilePhase phase, long delta) {
+		compilePhaseTime[phase.ordinal()].add(delta);
+	}
+	
+	public static long getCompileTime(CompilePhase phase) {
+		return compilePhaseTime[phase.ordinal()].longValue();
+	}
+	
+	public static void incrementParallelCompiledUnits(long delta) {
+		parallelCompiledUnits.add(delta);
+	}
+	
+	public static long getParallelCompiledUnits() {
+		return parallelCompiledUnits.longValue();
+	}
+	
+	private static String displayCompileTimes() {
+		StringBuilder sb = new StringBuilder();
+		for( CompilePhase phase : CompilePhase.values() ) {
+			if( sb.length() > 0 )
+				sb.append("/");
+			sb.append(String.format("%.3f", ((double)getCompileTime(phase))/1000000000));
+		}
+		return sb.toString();
+	}
+	
 	/**
 	 * Starts the timer, should be invoked immediately before invoking
 	 * Program.execute()
@@ -347,10 +408,16 @@ public class Statistics
 		hopRecompileTime.reset();
 		hopRecompilePred.reset();
 		hopRecompileSB.reset();
+		hopRecompileCacheHits.reset();
+		hopRecompileCacheMisses.reset();
 		
 		funRecompiles.reset();
 		funRecompileTime.reset();
 		
+		codegenSparseOutput.reset();
+		
+		sparkBroadcastReuse.reset();
+		
 		parforOptCount = 0;
 		parforOptTime = 0;
 		parforInitTime = 0;
@@ -414,6 +481,14 @@ public class Statistics
 		sparkBroadcastCount.add(c);
 	}
 	
+	public static void incSparkBroadcastReuseCount(long c) {
+		sparkBroadcastReuse.add(c);
+	}
+	
+	public static long getSparkBroadcastReuseCount() {
+		return sparkBroadcastReuse.longValue();
+	}
+	
 	
 	public static String getCPHeavyHitterCode( Instruction inst )
 	{
@@ -557,6 +632,14 @@ public class Statistics
 		return hopRecompileSB.longValue();
 	}
 	
+	public static long getHopRecompilePlanCacheHits(){
+		return hopRecompileCacheHits.longValue();
+	}
+	
+	public static long getHopRecompilePlanCacheMisses(){
+		return hopRecompileCacheMisses.longValue();
+	}
+	
 	public static long getFunRecompileTime(){
 		return funRecompileTime.longValue();
 	}
@@ -602,6 +685,9 @@ public class Statistics
 		if( DMLScript.STATISTICS ) {
 			sb.append("Total elapsed time:\t\t" + String.format("%.3f", (getCompileTime()+getRunTime())*1e-9) + " sec.\n"); // nanoSec --> sec
 			sb.append("Total compilation time:\t\t" + String.format("%.3f", getCompileTime()*1e-9) + " sec.\n"); // nanoSec --> sec
+			sb.append("Compile times (P,H,R,L,I):\t" + displayCompileTimes() + " sec.\n");
+			if( getParallelCompiledUnits() > 0 )
+				sb.append("Parallel compiled units:\t" + getParallelCompiledUnits() + ".\n");
 		}
 		sb.append("Total execution time:\t\t" + String.format("%.3f", getRunTime()*1e-9) + " sec.\n"); // nanoSec --> sec
 		if( OptimizerUtils.isSparkExecutionMode() ) {
@@ -626,6 +712,8 @@ public class Statistics
 			sb.append("Cache times (ACQr/m, RLS, EXP):\t" + CacheStatistics.displayTime() + " sec.\n");
 			sb.append("HOP DAGs recompiled (PRED, SB):\t" + getHopRecompiledPredDAGs() + "/" + getHopRecompiledSBDAGs() + ".\n");
 			sb.append("HOP DAGs recompile time:\t" + String.format("%.3f", ((double)getHopRecompileTime())/1000000000) + " sec.\n");
+			if( getHopRecompilePlanCacheHits()+getHopRecompilePlanCacheMisses()>0 )
+				sb.append("HOP DAGs plan cache (hit, miss):\t" + getHopRecompilePlanCacheHits() + "/" + getHopRecompilePlanCacheMisses() + ".\n");
 			if( getFunRecompiles()>0 ) {
 				sb.append("Functions recompiled:\t\t" + getFunRecompiles() + ".\n");
 				sb.append("Functions recompile time:\t" + String.format("%.3f", ((double)getFunRecompileTime())/1000000000) + " sec.\n");	
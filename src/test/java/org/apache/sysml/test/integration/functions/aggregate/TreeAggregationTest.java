@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.aggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.scheduler.SparkListener;
+import org.apache.spark.scheduler.SparkListenerJobEnd;
+import org.apache.spark.scheduler.SparkListenerJobStart;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContextFactory;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.instructions.InstructionUtils;
+import org.apache.sysml.runtime.instructions.spark.utils.RDDAggregateUtils;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This is a component test for the single-block aggregation of rdds via
+ * tree aggregation (for many partitions) and fold (for few partitions or
+ * disabled tree aggregation), including inputs with empty partitions and
+ * the numerical stability via corrections passed along with partials. Besides
+ * the results, the tests check the chosen aggregation path and its stages.
+ */
+public class TreeAggregationTest extends AutomatedTestBase
+{
+	private final static int rows = 17;
+	private final static int cols = 23;
+	private final static int numBlocks = 600;
+	private final static double eps = 1e-8;
+	private final static long timeout = 30000; //ms for listener events
+	
+	private enum AggType {
+		SUM,
+		SUM_STABLE, //large value followed by many small values
+		MAX,        //negative values to detect empty zero values
+	}
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testSumTree() {
+		//default threshold w/ more than 256 partitions
+		runTreeAggregationTest(AggType.SUM, 300, 300, -1, 2);
+	}
+	
+	@Test
+	public void testSumTreeEmptyPartitions() {
+		runTreeAggregationTest(AggType.SUM, 30, 300, -1, 2);
+	}
+	
+	@Test
+	public void testSumTreeDepth3() {
+		runTreeAggregationTest(AggType.SUM, numBlocks, 16, 8, 3);
+	}
+	
+	@Test
+	public void testSumFold() {
+		runTreeAggregationTest(AggType.SUM, numBlocks, 300, -1, 1);
+	}
+	
+	@Test
+	public void testSumStableTree() {
+		runTreeAggregationTest(AggType.SUM_STABLE, 1001, 300, -1, 2);
+	}
+	
+	@Test
+	public void testSumStableTreeLowThreshold() {
+		runTreeAggregationTest(AggType.SUM_STABLE, 1001, 16, 8, 2);
+	}
+	
+	@Test
+	public void testSumStableFold() {
+		runTreeAggregationTest(AggType.SUM_STABLE, 1001, 300, -1, 1);
+	}
+	
+	@Test
+	public void testMaxTree() {
+		runTreeAggregationTest(AggType.MAX, numBlocks, 300, -1, 2);
+	}
+	
+	@Test
+	public void testMaxTreeLowThreshold() {
+		runTreeAggregationTest(AggType.MAX, 30, 16, 8, 2);
+	}
+	
+	@Test
+	public void testMaxFold() {
+		runTreeAggregationTest(AggType.MAX, numBlocks, 300, -1, 1);
+	}
+	
+	/**
+	 * Runs a single-block aggregation and compares against a local aggregate.
+	 * 
+	 * @param type aggregation type
+	 * @param nblks number of input blocks
+	 * @param nparts number of input partitions
+	 * @param threshold min number of partitions for tree aggregation, or -1 for default
+	 * @param depth configured tree aggregation depth
+	 */
+	private void runTreeAggregationTest(AggType type, int nblks, int nparts, int threshold, int depth)
+	{
+		RUNTIME_PLATFORM platformOld = DMLScript.rtplatform;
+		boolean oldConfig = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		int thresholdOld = RDDAggregateUtils.TREE_AGGREGATION_MIN_PARTITIONS;
+		SparkExecutionContext sec = null;
+		
+		try
+		{
+			DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+			DMLScript.rtplatform = RUNTIME_PLATFORM.HYBRID_SPARK;
+			if( threshold > 0 )
+				RDDAggregateUtils.TREE_AGGREGATION_MIN_PARTITIONS = threshold;
+			DMLConfig conf = new DMLConfig();
+			conf.setTextValue(DMLConfig.SPARK_AGG_TREE_DEPTH, String.valueOf(depth));
+			ConfigurationManager.setLocalConfig(conf);
+			
+			//generate input blocks and expected result
+			boolean stable = (type == AggType.SUM_STABLE);
+			List<MatrixBlock> blocks = new ArrayList<MatrixBlock>();
+			double[][] R = new double[stable ? 1 : rows][stable ? 1 : cols];
+			for( int k=0; k<nblks; k++ ) {
+				double[][] A = stable ? new double[][]{{(k==0) ? 1e16 : 1}} :
+					(type == AggType.MAX) ? getRandomMatrix(rows, cols, -10, -1, 1.0, k+7) :
+					getRandomMatrix(rows, cols, -10, 10, 0.7, k+7);
+				blocks.add(DataConverter.convertToMatrixBlock(A));
+				for( int i=0; i<R.length; i++ )
+					for( int j=0; j<R[i].length; j++ )
+						R[i][j] = (type == AggType.MAX) ? 
+							((k==0) ? A[i][j] : Math.max(R[i][j], A[i][j])) : R[i][j] + A[i][j];
+			}
+			if( stable ) //exact sum, where a naive sum would lose all small values
+				R[0][0] = 1e16 + (nblks-1);
+			
+			//execute single-block aggregation
+			sec = (SparkExecutionContext) ExecutionContextFactory.createContext();
+			StageCountListener listener = new StageCountListener();
+			sec.getSparkContext().sc().addSparkListener(listener);
+			JavaRDD<MatrixBlock> in = sec.getSparkContext().parallelize(blocks, nparts);
+			Assert.assertEquals(nparts, in.getNumPartitions());
+			MatrixBlock out = (type == AggType.MAX) ?
+				RDDAggregateUtils.aggStable(in, InstructionUtils
+					.parseBasicAggregateUnaryOperator("uamax").aggOp) :
+				RDDAggregateUtils.sumStable(in);
+			
+			//check tree aggregation w/ configured depth for many partitions, 
+			//where the tree levels show up as additional shuffle stages
+			boolean tree = depth > 1 && nparts > RDDAggregateUtils.TREE_AGGREGATION_MIN_PARTITIONS;
+			Assert.assertEquals(depth, ConfigurationManager.getSparkAggTreeDepth());
+			Assert.assertEquals(tree ? depth : 1, RDDAggregateUtils.getTreeAggregationDepth(in));
+			int stages = listener.getNumStagesLastJob(timeout);
+			Assert.assertTrue("Unexpected number of stages: "+stages, tree ? stages > 1 : stages == 1);
+			
+			//compare results
+			double[][] B = DataConverter.convertToDoubleMatrix(out);
+			TestUtils.compareMatrices(R, B, R.length, R[0].length, stable ? 2 : eps);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			if( sec != null )
+				sec.close();
+			DMLScript.USE_LOCAL_SPARK_CONFIG = oldConfig;
+			DMLScript.rtplatform = platformOld;
+			RDDAggregateUtils.TREE_AGGREGATION_MIN_PARTITIONS = thresholdOld;
+			ConfigurationManager.clearLocalConfigs();
+		}
+	}
+	
+	/**
+	 * Spark listener that keeps the number of stages of the last job, 
+	 * which is available once the job end event has been delivered.
+	 */
+	private static class StageCountListener extends SparkListener 
+	{
+		private int _stages = -1;
+		private int _jobId = -1;
+		private boolean _ended = false;
+		
+		@Override
+		public synchronized void onJobStart(SparkListenerJobStart jobStart) {
+			_jobId = jobStart.jobId();
+			_stages = jobStart.stageInfos().size();
+			_ended = false;
+		}
+		
+		@Override
+		public synchronized void onJobEnd(SparkListenerJobEnd jobEnd) {
+			if( jobEnd.jobId() == _jobId ) {
+				_ended = true;
+				notifyAll();
+			}
+		}
+		
+		public synchronized int getNumStagesLastJob(long timeout) throws InterruptedException {
+			//listener events are delivered asynchronously
+			long end = System.currentTimeMillis() + timeout;
+			while( !_ended && System.currentTimeMillis() < end )
+				wait(Math.max(end - System.currentTimeMillis(), 1));
+			return _stages;
+		}
+	}
+}
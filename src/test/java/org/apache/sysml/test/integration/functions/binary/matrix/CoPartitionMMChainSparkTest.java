@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.binary.matrix;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.hops.AggBinaryOp;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * This test checks the spark mmchain operations with co-partitioned weights,
+ * where the weights are joined with X instead of broadcast, and the weights 
+ * contain empty (non-existing) blocks.
+ */
+public class CoPartitionMMChainSparkTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME1 = "CoPartitionMMChainTest1"; //XtwXv
+	private final static String TEST_NAME2 = "CoPartitionMMChainTest2"; //XtXvy
+	private final static String TEST_DIR = "functions/binary/matrix/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + 
+		CoPartitionMMChainSparkTest.class.getSimpleName() + "/";
+	private final static double eps = 1e-10;
+	
+	//single column block of X, multiple row blocks
+	private final static int rows = 3571;
+	private final static int cols = 97;
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.1;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration( TEST_NAME1, 
+			new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] { "C" }) );
+		addTestConfiguration( TEST_NAME2, 
+			new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[] { "C" }) );
+	}
+
+	@Test
+	public void testCoPartMMChainXtwXvDense() {
+		runCoPartitionMMChainTest(TEST_NAME1, false);
+	}
+	
+	@Test
+	public void testCoPartMMChainXtwXvSparse() {
+		runCoPartitionMMChainTest(TEST_NAME1, true);
+	}
+	
+	@Test
+	public void testCoPartMMChainXtXvyDense() {
+		runCoPartitionMMChainTest(TEST_NAME2, false);
+	}
+	
+	@Test
+	public void testCoPartMMChainXtXvySparse() {
+		runCoPartitionMMChainTest(TEST_NAME2, true);
+	}
+	
+	private void runCoPartitionMMChainTest( String testname, boolean sparse )
+	{
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		rtplatform = RUNTIME_PLATFORM.SPARK;
+		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+	
+		//force mmchain w/ co-partitioned instead of broadcast weights
+		boolean copartOld = AggBinaryOp.FORCED_MMCHAIN_COPART_W;
+		AggBinaryOp.FORCED_MMCHAIN_COPART_W = true;
+		
+		try
+		{
+			getAndLoadTestConfiguration(testname);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + testname + ".dml";
+			programArgs = new String[]{"-explain", "runtime", "-stats", "-args", 
+				input("X"), input("v"), input("w"), output("C")};
+			
+			fullRScriptName = HOME + testname + ".R";
+			rCmd = "Rscript" + " " + fullRScriptName + " " + inputDir() + " " + expectedDir();
+	
+			//generate actual dataset
+			double[][] X = getRandomMatrix(rows, cols, 0, 1, sparse?sparsity2:sparsity1, 7); 
+			writeInputMatrixWithMTD("X", X, true);
+			double[][] v = getRandomMatrix(cols, 1, 0, 1, 1.0, 3); 
+			writeInputMatrixWithMTD("v", v, true);
+			//weights w/ empty row blocks (i.e., missing blocks in binary block rdd)
+			double[][] w = getRandomMatrix(rows, 1, 0, 1, 1.0, 5);
+			for( int i=1000; i<3000; i++ )
+				w[i][0] = 0;
+			writeInputMatrixWithMTD("w", w, true);
+			
+			//check for mmchain instruction w/ co-partitioned weights
+			setExpectedStdOut((testname.equals(TEST_NAME1) ? "XtwXv" : "XtXvy") + " true");
+			
+			//run test case
+			runTest(true, false, null, -1); 
+			runRScript(true); 
+			
+			//compare matrices 
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("C");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("C");
+			TestUtils.compareMatrices(dmlfile, rfile, eps, "Stat-DML", "Stat-R");
+			Assert.assertTrue(heavyHittersContainsSubString("sp_mapmmchain"));
+		}
+		finally {
+			rtplatform = platformOld;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+			AggBinaryOp.FORCED_MMCHAIN_COPART_W = copartOld;
+		}
+	}
+}
@@ -21,11 +21,16 @@ package org.apache.sysml.test.integration.functions.binary.matrix;
 
 import java.util.HashMap;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.lops.LopProperties.ExecType;
+import org.apache.sysml.lops.SortKeys;
+import org.apache.sysml.runtime.instructions.Instruction;
+import org.apache.sysml.runtime.instructions.spark.utils.RDDQuantileUtils;
 import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
 import org.apache.sysml.test.integration.AutomatedTestBase;
 import org.apache.sysml.test.integration.TestConfiguration;
@@ -50,6 +55,15 @@ public class QuantileTest extends AutomatedTestBase
 	private final static double sparsity1 = 0.9;
 	private final static double sparsity2 = 0.3;
 	
+	//max number of values for local selection, which forces histogram refinement
+	private final static long maxLocalSelect = 16;
+	
+	private enum DataPattern {
+		POSITIVE,   //values in [1, maxVal]
+		NEGATIVE,   //values in [-maxVal, maxVal]
+		DUPLICATES, //integer values in [1, maxVal]
+	}
+	
 	@Override
 	public void setUp() 
 	{
@@ -170,6 +184,18 @@ public class QuantileTest extends AutomatedTestBase
 		runQuantileTest(TEST_NAME1, 0.75, true, ExecType.SPARK);
 	}
 
+	@Test
+	public void testQuantile2DenseSPSort() 
+	{
+		runQuantileTest(TEST_NAME1, 0.50, false, ExecType.SPARK, false);
+	}
+	
+	@Test
+	public void testQuantile1SparseSPSort() 
+	{
+		runQuantileTest(TEST_NAME1, 0.25, true, ExecType.SPARK, false);
+	}
+
 	@Test
 	public void testMedianDenseCP() 
 	{
@@ -206,6 +232,12 @@ public class QuantileTest extends AutomatedTestBase
 		runQuantileTest(TEST_NAME2, -1, true, ExecType.SPARK);
 	}
 
+	@Test
+	public void testMedianSparseSPSort() 
+	{
+		runQuantileTest(TEST_NAME2, -1, true, ExecType.SPARK, false);
+	}
+
 	@Test
 	public void testIQMDenseCP() 
 	{
@@ -242,13 +274,86 @@ public class QuantileTest extends AutomatedTestBase
 		runQuantileTest(TEST_NAME3, -1, true, ExecType.SPARK);
 	}
 	
+	@Test
+	public void testIQMDenseSPSort() 
+	{
+		runQuantileTest(TEST_NAME3, -1, false, ExecType.SPARK, false);
+	}
+	
+	@Test
+	public void testQuantile1DenseSPHistogram() 
+	{
+		runQuantileTest(TEST_NAME1, 0.25, false, ExecType.SPARK, true, DataPattern.POSITIVE, true);
+	}
+	
+	@Test
+	public void testQuantile3SparseSPHistogram() 
+	{
+		runQuantileTest(TEST_NAME1, 0.75, true, ExecType.SPARK, true, DataPattern.POSITIVE, true);
+	}
+	
+	@Test
+	public void testQuantile1DenseSPHistogramNegative() 
+	{
+		runQuantileTest(TEST_NAME1, 0.25, false, ExecType.SPARK, true, DataPattern.NEGATIVE, true);
+	}
+	
+	@Test
+	public void testMedianSparseSPHistogramNegative() 
+	{
+		runQuantileTest(TEST_NAME2, -1, true, ExecType.SPARK, true, DataPattern.NEGATIVE, true);
+	}
+	
+	@Test
+	public void testMedianDenseSPNegative() 
+	{
+		runQuantileTest(TEST_NAME2, -1, false, ExecType.SPARK, true, DataPattern.NEGATIVE, false);
+	}
+	
+	@Test
+	public void testQuantile2DenseSPHistogramDuplicates() 
+	{
+		runQuantileTest(TEST_NAME1, 0.50, false, ExecType.SPARK, true, DataPattern.DUPLICATES, true);
+	}
+	
+	@Test
+	public void testQuantile3SparseSPHistogramDuplicates() 
+	{
+		runQuantileTest(TEST_NAME1, 0.75, true, ExecType.SPARK, true, DataPattern.DUPLICATES, true);
+	}
+	
+	@Test
+	public void testIQMDenseSPHistogramDuplicates() 
+	{
+		runQuantileTest(TEST_NAME3, -1, false, ExecType.SPARK, true, DataPattern.DUPLICATES, true);
+	}
+	
+	@Test
+	public void testIQMSparseSPHistogramNegative() 
+	{
+		runQuantileTest(TEST_NAME3, -1, true, ExecType.SPARK, true, DataPattern.NEGATIVE, true);
+	}
+	
+	private void runQuantileTest( String TEST_NAME, double p, boolean sparse, ExecType et) {
+		runQuantileTest(TEST_NAME, p, sparse, et, true);
+	}
+	
+	private void runQuantileTest( String TEST_NAME, double p, boolean sparse, ExecType et, boolean sortFree) {
+		runQuantileTest(TEST_NAME, p, sparse, et, sortFree, DataPattern.POSITIVE, false);
+	}
+	
 	/**
 	 * 
-	 * @param sparseM1
-	 * @param sparseM2
-	 * @param instType
+	 * @param TEST_NAME test name
+	 * @param p quantile
+	 * @param sparse sparse input
+	 * @param et execution type
+	 * @param sortFree sort-free spark quantiles
+	 * @param pattern pattern of generated values
+	 * @param histogram force histogram refinement of sort-free quantiles
 	 */
-	private void runQuantileTest( String TEST_NAME, double p, boolean sparse, ExecType et)
+	private void runQuantileTest( String TEST_NAME, double p, boolean sparse, ExecType et, 
+		boolean sortFree, DataPattern pattern, boolean histogram)
 	{
 		//rtplatform for MR
 		RUNTIME_PLATFORM platformOld = rtplatform;
@@ -261,6 +366,11 @@ public class QuantileTest extends AutomatedTestBase
 		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
 		if( rtplatform == RUNTIME_PLATFORM.SPARK )
 			DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+		boolean sortFreeOld = OptimizerUtils.ALLOW_SORT_FREE_QUANTILES;
+		OptimizerUtils.ALLOW_SORT_FREE_QUANTILES = sortFree;
+		long maxLocalSelectOld = RDDQuantileUtils.MAX_LOCAL_SELECT;
+		if( histogram )
+			RDDQuantileUtils.MAX_LOCAL_SELECT = maxLocalSelect;
 		
 		try
 		{
@@ -268,14 +378,18 @@ public class QuantileTest extends AutomatedTestBase
 			
 			String HOME = SCRIPT_DIR + TEST_DIR;
 			fullDMLScriptName = HOME + TEST_NAME + ".dml";
-			programArgs = new String[]{"-args", input("A"), Double.toString(p), output("R")};
+			programArgs = new String[]{"-stats", "-args", input("A"), Double.toString(p), output("R")};
 			
 			fullRScriptName = HOME + TEST_NAME + ".R";
 			rCmd = "Rscript" + " " + fullRScriptName + " " + inputDir() + " " + p + " "+ expectedDir();
 	
 			//generate actual dataset (always dense because values <=0 invalid)
 			double sparsitya = sparse ? sparsity2 : sparsity1;
-			double[][] A = getRandomMatrix(rows, 1, 1, maxVal, sparsitya, 1236); 
+			double[][] A = getRandomMatrix(rows, 1, (pattern==DataPattern.NEGATIVE) ? -maxVal : 1, 
+				maxVal, sparsitya, 1236); 
+			if( pattern == DataPattern.DUPLICATES )
+				for( int i=0; i<rows; i++ )
+					A[i][0] = Math.round(A[i][0]);
 			writeInputMatrixWithMTD("A", A, true);
 			
 			runTest(true, false, null, -1); 
@@ -285,11 +399,19 @@ public class QuantileTest extends AutomatedTestBase
 			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
 			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("R");
 			TestUtils.compareMatrices(dmlfile, rfile, eps, "Stat-DML", "Stat-R");
+			
+			//check for sort-free spark quantiles w/o distributed sort
+			if( et == ExecType.SPARK ) {
+				String opcode = Instruction.SP_INST_PREFIX + SortKeys.OPCODE;
+				Assert.assertEquals(!sortFree, heavyHittersContainsSubString(opcode));
+			}
 		}
 		finally
 		{
 			rtplatform = platformOld;
 			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+			OptimizerUtils.ALLOW_SORT_FREE_QUANTILES = sortFreeOld;
+			RDDQuantileUtils.MAX_LOCAL_SELECT = maxLocalSelectOld;
 		}
 	}
 
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.binary.matrix;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.hops.AggBinaryOp;
+import org.apache.sysml.hops.AggBinaryOp.MMultMethod;
+import org.apache.sysml.lops.LopProperties.ExecType;
+import org.apache.sysml.runtime.instructions.spark.data.PartitionedBroadcast;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Repeated mapmm broadcasts of a partially updated vector in a loop,
+ * which creates multiple versions of the broadcast variable.
+ */
+public class VersionedBroadcastMMTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME1 = "VersionedBroadcastMMTest";
+	private final static String TEST_DIR = "functions/binary/matrix/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + 
+		VersionedBroadcastMMTest.class.getSimpleName() + "/";
+	private final static double eps = 1e-10;
+	
+	private final static int rows = 1407;
+	private final static int cols = 3112;
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.1;
+	
+	//4 row blocks of v, of which only the first is updated in each of 4 iterations
+	private final static int iterations = 4;
+	private final static int reusedParts = 3;
+	
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration( TEST_NAME1, 
+			new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] { "R" }) );
+	}
+
+	@Test
+	public void testVersionedBroadcastDenseSP() 
+	{
+		runVersionedBroadcastMMTest(false, ExecType.SPARK);
+	}
+	
+	@Test
+	public void testVersionedBroadcastSparseSP() 
+	{
+		runVersionedBroadcastMMTest(true, ExecType.SPARK);
+	}
+	
+	private void runVersionedBroadcastMMTest( boolean sparse, ExecType instType )
+	{
+		//rtplatform for MR
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		switch( instType ){
+			case MR: rtplatform = RUNTIME_PLATFORM.HADOOP; break;
+			case SPARK: rtplatform = RUNTIME_PLATFORM.SPARK; break;
+			default: rtplatform = RUNTIME_PLATFORM.HYBRID; break;
+		}
+	
+		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		if( rtplatform == RUNTIME_PLATFORM.SPARK )
+			DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+	
+		//force mapmm execution (w/ broadcast of v)
+		MMultMethod methodOld = AggBinaryOp.FORCED_MMULT_METHOD;
+		AggBinaryOp.FORCED_MMULT_METHOD = MMultMethod.MAPMM_R;
+		
+		//single block per partition of versioned broadcasts
+		long partSizeOld = PartitionedBroadcast.BROADCAST_PARTSIZE_VERSIONED;
+		PartitionedBroadcast.BROADCAST_PARTSIZE_VERSIONED = 1000;
+		
+		String TEST_NAME = TEST_NAME1;
+		
+		try
+		{
+			getAndLoadTestConfiguration(TEST_NAME);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-explain","-stats","-args", input("X"), input("v"), output("R")};
+			
+			fullRScriptName = HOME + TEST_NAME + ".R";
+			rCmd = "Rscript" + " " + fullRScriptName + " " + inputDir() + " " + expectedDir();
+	
+			//generate actual dataset
+			double[][] X = getRandomMatrix(rows, cols, 0, 1, sparse?sparsity2:sparsity1, 7); 
+			writeInputMatrixWithMTD("X", X, true);
+			double[][] v = getRandomMatrix(cols, 1, 0, 1, sparsity1, 3); 
+			writeInputMatrixWithMTD("v", v, true);
+	
+			//run test case
+			runTest(true, false, null, -1); 
+			runRScript(true); 
+			
+			//compare matrices 
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("R");
+			TestUtils.compareMatrices(dmlfile, rfile, eps, "Stat-DML", "Stat-R");
+			
+			//check reuse of unchanged partitions of v from the second broadcast
+			Assert.assertTrue("Unexpected number of reused broadcast partitions: "
+				+ Statistics.getSparkBroadcastReuseCount(),
+				Statistics.getSparkBroadcastReuseCount() >= (iterations-1) * reusedParts);
+		}
+		finally
+		{
+			rtplatform = platformOld;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+			AggBinaryOp.FORCED_MMULT_METHOD = methodOld;
+			PartitionedBroadcast.BROADCAST_PARTSIZE_VERSIONED = partSizeOld;
+		}
+	}
+}
@@ -48,11 +48,13 @@ public class FullMatrixMultiplicationUltraSparseTest extends AutomatedTestBase
 	private final static double sparsity1 = 0.7;
 	private final static double sparsity2 = 0.1;
 	private final static double sparsity3 = 0.000005;
+	private final static double sparsity4 = 0.001;
 	
 	private enum SparsityType{
 		DENSE,
 		SPARSE,
 		ULTRA_SPARSE,
+		VERY_SPARSE, //sparse output
 	}
 	
 	@Override
@@ -112,6 +114,18 @@ public class FullMatrixMultiplicationUltraSparseTest extends AutomatedTestBase
 		runMatrixMatrixMultiplicationTest(SparsityType.ULTRA_SPARSE, SparsityType.ULTRA_SPARSE, ExecType.CP);
 	}
 	
+	@Test
+	public void testMMVerySparseVerySparseCP() 
+	{
+		runMatrixMatrixMultiplicationTest(SparsityType.VERY_SPARSE, SparsityType.VERY_SPARSE, ExecType.CP);
+	}
+	
+	@Test
+	public void testMMVerySparseUltraSparseCP() 
+	{
+		runMatrixMatrixMultiplicationTest(SparsityType.VERY_SPARSE, SparsityType.ULTRA_SPARSE, ExecType.CP);
+	}
+	
 	@Test
 	public void testMMDenseUltraSparseMR() 
 	{
@@ -160,8 +174,8 @@ public class FullMatrixMultiplicationUltraSparseTest extends AutomatedTestBase
 		{
 			TestConfiguration config = getTestConfiguration(TEST_NAME);
 			
-			double sparsityLeft = (sparseM1==SparsityType.DENSE)? sparsity1 : (sparseM1==SparsityType.SPARSE)? sparsity2 : sparsity3;  
-			double sparsityRight = (sparseM2==SparsityType.DENSE)? sparsity1 : (sparseM2==SparsityType.SPARSE)? sparsity2 : sparsity3;  
+			double sparsityLeft = getSparsity(sparseM1);
+			double sparsityRight = getSparsity(sparseM2);
 
 			String TEST_CACHE_DIR = "";
 			if (TEST_CACHE_ENABLED) {
@@ -199,4 +213,13 @@ public class FullMatrixMultiplicationUltraSparseTest extends AutomatedTestBase
 			rtplatform = platformOld;
 		}
 	}
+
+	private static double getSparsity(SparsityType type) {
+		switch( type ) {
+			case DENSE: return sparsity1;
+			case SPARSE: return sparsity2;
+			case ULTRA_SPARSE: return sparsity3;
+			default: return sparsity4;
+		}
+	}
 }
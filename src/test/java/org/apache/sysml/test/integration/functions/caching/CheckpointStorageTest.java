@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.caching;
+
+import java.io.ByteArrayOutputStream;
+
+import org.apache.spark.SparkConf;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
+import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.lops.Checkpoint.CheckpointStorage;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.instructions.spark.utils.SparkKryoRegistrator;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.runtime.util.UtilFunctions;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * This is a component test for the configured storage of spark checkpoints,
+ * which covers the parsing of spark.checkpoint.storage, the selection of
+ * storage levels, and the kryo serialization of registered block classes.
+ */
+public class CheckpointStorageTest extends AutomatedTestBase
+{
+	private final static int rows = 1121;
+	private final static int cols = 37;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.07;
+
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+
+	@Test
+	public void testParseCheckpointStorage() {
+		Assert.assertEquals(CheckpointStorage.DEFAULT, Checkpoint.parseCheckpointStorage(null));
+		Assert.assertEquals(CheckpointStorage.DEFAULT, Checkpoint.parseCheckpointStorage(""));
+		Assert.assertEquals(CheckpointStorage.DEFAULT, Checkpoint.parseCheckpointStorage("default"));
+		Assert.assertEquals(CheckpointStorage.SERIALIZED, Checkpoint.parseCheckpointStorage("serialized"));
+		Assert.assertEquals(CheckpointStorage.COMPRESSED, Checkpoint.parseCheckpointStorage(" Compressed "));
+		Assert.assertEquals(CheckpointStorage.OFFHEAP, Checkpoint.parseCheckpointStorage("OFFHEAP"));
+	}
+
+	@Test
+	public void testParseCheckpointStorageInvalid() {
+		//invalid values fall back to default w/o exception
+		Assert.assertEquals(CheckpointStorage.DEFAULT, Checkpoint.parseCheckpointStorage("off-heap"));
+		Assert.assertEquals(CheckpointStorage.DEFAULT, Checkpoint.parseCheckpointStorage("MEMORY_ONLY"));
+	}
+
+	@Test
+	public void testCheckpointStorageLevels() {
+		String def = Checkpoint.getDefaultStorageLevelString();
+		String ser = Checkpoint.getSerializeStorageLevelString();
+		String off = Checkpoint.getOffHeapStorageLevelString();
+		Assert.assertEquals(def, Checkpoint.getStorageLevelString(CheckpointStorage.DEFAULT, false));
+		Assert.assertEquals(ser, Checkpoint.getStorageLevelString(CheckpointStorage.DEFAULT, true));
+		Assert.assertEquals(ser, Checkpoint.getStorageLevelString(CheckpointStorage.SERIALIZED, false));
+		Assert.assertEquals(def, Checkpoint.getStorageLevelString(CheckpointStorage.COMPRESSED, false));
+		Assert.assertEquals(ser, Checkpoint.getStorageLevelString(CheckpointStorage.COMPRESSED, true));
+		Assert.assertEquals(off, Checkpoint.getStorageLevelString(CheckpointStorage.OFFHEAP, false));
+		Assert.assertEquals(off, Checkpoint.getStorageLevelString(CheckpointStorage.OFFHEAP, true));
+	}
+
+	@Test
+	public void testKryoSparkConfSerialized() {
+		runKryoSparkConfTest("serialized", true);
+	}
+
+	@Test
+	public void testKryoSparkConfOffHeap() {
+		runKryoSparkConfTest("offheap", true);
+	}
+
+	@Test
+	public void testKryoSparkConfDefault() {
+		runKryoSparkConfTest("default", false);
+	}
+
+	@Test
+	public void testKryoSparkConfInvalid() {
+		runKryoSparkConfTest("invalid", false);
+	}
+
+	@Test
+	public void testKryoSerializationDenseMatrix() {
+		runKryoSerializationTest(sparsity1, false);
+	}
+
+	@Test
+	public void testKryoSerializationSparseMatrix() {
+		runKryoSerializationTest(sparsity2, false);
+	}
+
+	@Test
+	public void testKryoSerializationFrame() {
+		runKryoSerializationTest(sparsity1, true);
+	}
+
+	private void runKryoSparkConfTest(String storage, boolean kryo)
+	{
+		try {
+			DMLConfig conf = new DMLConfig();
+			conf.setTextValue(DMLConfig.CHECKPOINT_STORAGE, storage);
+			ConfigurationManager.setLocalConfig(conf);
+
+			SparkConf sconf = SparkExecutionContext.createSystemMLSparkConf();
+			Assert.assertEquals(kryo, sconf.contains("spark.kryo.registrator"));
+			if( kryo ) {
+				Assert.assertEquals(SparkKryoRegistrator.class.getName(), sconf.get("spark.kryo.registrator"));
+				Assert.assertEquals("org.apache.spark.serializer.KryoSerializer", sconf.get("spark.serializer"));
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			ConfigurationManager.clearLocalConfigs();
+		}
+	}
+
+	private void runKryoSerializationTest(double sparsity, boolean frame)
+	{
+		try {
+			Kryo kryo = new Kryo();
+			new SparkKryoRegistrator().registerClasses(kryo);
+
+			//data generation
+			double[][] A = getRandomMatrix(rows, cols, -10, 10, sparsity, 7);
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(A);
+			MatrixIndexes ix = new MatrixIndexes(3, 7);
+			FrameBlock fb = frame ? createFrame(A) : null;
+
+			//kryo serialization of index and block
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			Output out = new Output(bos);
+			kryo.writeObject(out, ix);
+			if( frame )
+				kryo.writeObject(out, fb);
+			else
+				kryo.writeObject(out, mb);
+			out.close();
+
+			//kryo deserialization of index and block
+			Input in = new Input(bos.toByteArray());
+			MatrixIndexes ix2 = kryo.readObject(in, MatrixIndexes.class);
+			Assert.assertEquals(ix, ix2);
+			if( frame ) {
+				FrameBlock fb2 = kryo.readObject(in, FrameBlock.class);
+				Assert.assertEquals(rows, fb2.getNumRows());
+				for( int i=0; i<rows; i++ )
+					for( int j=0; j<cols; j++ )
+						Assert.assertEquals(A[i][j], UtilFunctions.objectToDouble(
+							fb2.getSchema()[j], fb2.get(i, j)), 0);
+			}
+			else {
+				MatrixBlock mb2 = kryo.readObject(in, MatrixBlock.class);
+				Assert.assertEquals(mb.isInSparseFormat(), mb2.isInSparseFormat());
+				Assert.assertEquals(mb.getNonZeros(), mb2.getNonZeros());
+				TestUtils.compareMatrices(A, DataConverter.convertToDoubleMatrix(mb2), rows, cols, 0);
+			}
+			in.close();
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static FrameBlock createFrame(double[][] A) {
+		ValueType[] schema = UtilFunctions.nCopies(cols, ValueType.DOUBLE);
+		FrameBlock ret = new FrameBlock(schema);
+		Object[] row = new Object[cols];
+		for( int i=0; i<rows; i++ ) {
+			for( int j=0; j<cols; j++ )
+				row[j] = A[i][j];
+			ret.appendRow(row);
+		}
+		return ret;
+	}
+}
@@ -28,10 +28,12 @@ import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.lops.LopProperties.ExecType;
+import org.apache.sysml.runtime.instructions.spark.SpoofSPInstruction;
 import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
 import org.apache.sysml.test.integration.AutomatedTestBase;
 import org.apache.sysml.test.integration.TestConfiguration;
 import org.apache.sysml.test.utils.TestUtils;
+import org.apache.sysml.utils.Statistics;
 
 public class CellwiseTmplTest extends AutomatedTestBase 
 {	
@@ -44,6 +46,8 @@ public class CellwiseTmplTest extends AutomatedTestBase
 	private static final String TEST_NAME6 = TEST_NAME+6;
 	private static final String TEST_NAME7 = TEST_NAME+7;
 	private static final String TEST_NAME8 = TEST_NAME+8;
+	private static final String TEST_NAME9 = TEST_NAME+9; //sparse-safe, ultra-sparse
+	private static final String TEST_NAME10 = TEST_NAME+10; //multi-block, side input w/ missing blocks
 
 	private static final String TEST_DIR = "functions/codegen/";
 	private static final String TEST_CLASS_DIR = TEST_DIR + CellwiseTmplTest.class.getSimpleName() + "/";
@@ -52,10 +56,15 @@ public class CellwiseTmplTest extends AutomatedTestBase
 	
 	private static final double eps = Math.pow(10, -10);
 	
+	//multi-block inputs (3x2 blocks w/ default blocksize)
+	private static final int rows = 2321;
+	private static final int cols = 1307;
+	private static final double eps2 = Math.pow(10, -7);
+	
 	@Override
 	public void setUp() {
 		TestUtils.clearAssertionInformation();
-		for( int i=1; i<=8; i++ ) {
+		for( int i=1; i<=10; i++ ) {
 			addTestConfiguration( TEST_NAME+i, new TestConfiguration(
 					TEST_CLASS_DIR, TEST_NAME+i, new String[] {String.valueOf(i)}) );
 		}
@@ -102,6 +111,11 @@ public class CellwiseTmplTest extends AutomatedTestBase
 		testCodegenIntegration( TEST_NAME8, true, ExecType.CP  );
 	}
 
+	@Test
+	public void testCodegenCellwiseRewrite9() {
+		testCodegenIntegration( TEST_NAME9, true, ExecType.CP  );
+	}
+
 	@Test
 	public void testCodegenCellwise1() {
 		testCodegenIntegration( TEST_NAME1, false, ExecType.CP );
@@ -143,6 +157,11 @@ public class CellwiseTmplTest extends AutomatedTestBase
 		testCodegenIntegration( TEST_NAME8, false, ExecType.CP  );
 	}
 
+	@Test
+	public void testCodegenCellwise9() {
+		testCodegenIntegration( TEST_NAME9, false, ExecType.CP  );
+	}
+
 	@Test
 	public void testCodegenCellwiseRewrite1_sp() {
 		testCodegenIntegration( TEST_NAME1, true, ExecType.SPARK );
@@ -158,6 +177,21 @@ public class CellwiseTmplTest extends AutomatedTestBase
 		testCodegenIntegration( TEST_NAME8, true, ExecType.SPARK );
 	}
 	
+	@Test
+	public void testCodegenCellwiseMultiBlock10() {
+		testCodegenMultiBlock( TEST_NAME10, ExecType.CP, false );
+	}
+	
+	@Test
+	public void testCodegenCellwiseMultiBlock10_sp() {
+		testCodegenMultiBlock( TEST_NAME10, ExecType.SPARK, false );
+	}
+	
+	@Test
+	public void testCodegenCellwiseMultiBlock10Joined_sp() {
+		testCodegenMultiBlock( TEST_NAME10, ExecType.SPARK, true );
+	}
+	
 	private void testCodegenIntegration( String testname, boolean rewrites, ExecType instType )
 	{	
 		
@@ -207,6 +241,8 @@ public class CellwiseTmplTest extends AutomatedTestBase
 					|| heavyHittersContainsSubString("sp_spoofCell"));
 			if( testname.equals(TEST_NAME7) ) //ensure matrix mult is fused
 				Assert.assertTrue(!heavyHittersContainsSubString("tsmm"));
+			if( testname.equals(TEST_NAME9) ) //ensure sparse-safe sparse output
+				Assert.assertTrue(Statistics.getCodegenSparseOutput() > 0);
 		}
 		finally {
 			OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION = oldRewrites;
@@ -215,6 +251,55 @@ public class CellwiseTmplTest extends AutomatedTestBase
 		}
 	}	
 
+	private void testCodegenMultiBlock( String testname, ExecType instType, boolean joined )
+	{	
+		RUNTIME_PLATFORM oldPlatform = rtplatform;
+		boolean oldConfig = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		rtplatform = (instType == ExecType.SPARK) ? RUNTIME_PLATFORM.SPARK : RUNTIME_PLATFORM.HYBRID;
+		if( instType == ExecType.SPARK )
+			DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(testname);
+			loadTestConfiguration(config);
+			SpoofSPInstruction.FORCE_JOINED_SIDE_INPUTS = joined;
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + testname + ".dml";
+			programArgs = new String[]{"-explain", "runtime", "-stats", "-args", 
+				input("X"), input("Y"), output("S") };
+			
+			fullRScriptName = HOME + testname + ".R";
+			rCmd = getRCmd(inputDir(), expectedDir());
+			
+			//generate inputs, where the first row blocks of Y are empty
+			//(i.e., not materialized after reblock from text)
+			double[][] X = getRandomMatrix(rows, cols, 0, 1, 1.0, 7);
+			double[][] Y = getRandomMatrix(rows, cols, 0, 1, 0.5, 3);
+			for( int i=0; i<1000; i++ )
+				for( int j=0; j<cols; j++ )
+					Y[i][j] = 0;
+			writeInputMatrixWithMTD("X", X, true);
+			writeInputMatrixWithMTD("Y", Y, true);
+			
+			runTest(true, false, null, -1); 
+			runRScript(true); 
+			
+			//compare matrices 
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("S");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("S");
+			TestUtils.compareMatrices(dmlfile, rfile, eps2, "Stat-DML", "Stat-R");
+			Assert.assertTrue(heavyHittersContainsSubString(
+				(instType == ExecType.SPARK) ? "sp_spoofCell" : "spoofCell"));
+		}
+		finally {
+			SpoofSPInstruction.FORCE_JOINED_SIDE_INPUTS = false;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = oldConfig;
+			rtplatform = oldPlatform;
+		}
+	}
+
 	/**
 	 * Override default configuration with custom test configuration to ensure
 	 * scratch space and local temporary directory locations are also updated.
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.codegen;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.hops.codegen.SpoofCompiler;
+import org.apache.sysml.hops.codegen.SpoofCompiler.CompilerType;
+import org.apache.sysml.runtime.codegen.CodegenUtils;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * This is a component test for the compilation of generated operators with
+ * the embedded janino and the system javac compiler, as well as for the
+ * persistent class cache across runs.
+ */
+public class CodegenCompilerTest extends AutomatedTestBase
+{
+	private final static String CACHE_DIR = TEST_DATA_DIR + "functions/codegen/CodegenCompilerTest/classcache";
+
+	private final static String SRC =
+		  "package codegen;\n"
+		+ "public final class %NAME% {\n"
+		+ "  public double exec(double a) {\n"
+		+ "    double %VAR1% = a * 2;\n"
+		+ "    double %VAR2% = %VAR1% + 1;\n"
+		+ "    return %VAR2%;\n"
+		+ "  }\n"
+		+ "}\n";
+
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+
+	@Test
+	public void testCompileJanino() {
+		runCompileTest(CompilerType.JANINO, false);
+	}
+
+	@Test
+	public void testCompileJavac() {
+		runCompileTest(CompilerType.JAVAC, false);
+	}
+
+	@Test
+	public void testCompileJaninoClassCache() {
+		runCompileTest(CompilerType.JANINO, true);
+	}
+
+	@Test
+	public void testCompileJavacClassCache() {
+		runCompileTest(CompilerType.JAVAC, true);
+	}
+
+	@Test
+	public void testClassCacheKeyCompilerIdentity() {
+		CompilerType oldCompiler = SpoofCompiler.JAVA_COMPILER;
+		try {
+			String src = createSource("TMP10", 11, 12);
+			SpoofCompiler.JAVA_COMPILER = CompilerType.JANINO;
+			String hash1 = CodegenUtils.computeCanonicalHash("TMP10", src);
+			SpoofCompiler.JAVA_COMPILER = CompilerType.JAVAC;
+			String hash2 = CodegenUtils.computeCanonicalHash("TMP10", src);
+			Assert.assertNotEquals("Class cache key does not cover the compiler.", hash1, hash2);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			SpoofCompiler.JAVA_COMPILER = oldCompiler;
+		}
+	}
+
+	@Test
+	public void testCanonicalHashRenumbering() {
+		try {
+			//equivalent sources w/ different class and variable names
+			String hash1 = CodegenUtils.computeCanonicalHash("TMP10", createSource("TMP10", 11, 12));
+			String hash2 = CodegenUtils.computeCanonicalHash("TMP20", createSource("TMP20", 27, 23));
+			Assert.assertEquals(hash1, hash2);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private void runCompileTest(CompilerType compiler, boolean classCache)
+	{
+		CompilerType oldCompiler = SpoofCompiler.JAVA_COMPILER;
+		String oldCacheDir = SpoofCompiler.CLASS_CACHE_DIR;
+
+		try
+		{
+			SpoofCompiler.JAVA_COMPILER = compiler;
+			SpoofCompiler.CLASS_CACHE_DIR = classCache ? CACHE_DIR : null;
+			File dir = new File(CACHE_DIR);
+			FileUtils.deleteQuietly(dir);
+			CodegenUtils.clearClassCache();
+
+			//compile, load, and execute generated class
+			Class<?> cla1 = CodegenUtils.compileClass("TMP10", createSource("TMP10", 11, 12));
+			Assert.assertEquals(7.0, invoke(cla1, 3), 0);
+			Assert.assertNotNull(CodegenUtils.getClassAsByteArray(cla1.getName()));
+
+			if( classCache ) {
+				//check single persisted class file
+				Assert.assertEquals(1, dir.list().length);
+				long lastModified = dir.listFiles()[0].lastModified();
+
+				//equivalent class of a later run (w/o in-memory cache) reused from class cache
+				CodegenUtils.clearClassCache();
+				Class<?> cla2 = CodegenUtils.compileClass("TMP20", createSource("TMP20", 27, 23));
+				Assert.assertEquals(cla1.getName(), cla2.getName());
+				Assert.assertEquals(9.0, invoke(cla2, 4), 0);
+				Assert.assertEquals(1, dir.list().length);
+				Assert.assertEquals(lastModified, dir.listFiles()[0].lastModified());
+			}
+			else {
+				Assert.assertEquals("codegen.TMP10", cla1.getName());
+				Assert.assertFalse(dir.exists());
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			SpoofCompiler.JAVA_COMPILER = oldCompiler;
+			SpoofCompiler.CLASS_CACHE_DIR = oldCacheDir;
+			CodegenUtils.clearClassCache();
+		}
+	}
+
+	private static String createSource(String name, int var1, int var2) {
+		return SRC.replace("%NAME%", name)
+			.replace("%VAR1%", "TMP"+var1)
+			.replace("%VAR2%", "TMP"+var2);
+	}
+
+	private static double invoke(Class<?> cla, double a) throws Exception {
+		return (Double) cla.getMethod("exec", double.class)
+			.invoke(cla.newInstance(), a);
+	}
+}
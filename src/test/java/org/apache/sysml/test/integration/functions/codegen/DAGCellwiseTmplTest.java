@@ -38,20 +38,26 @@ public class DAGCellwiseTmplTest extends AutomatedTestBase
 	private static final String TEST_NAME1 = "DAGcellwisetmpl1";
 	private static final String TEST_NAME2 = "DAGcellwisetmpl2";
 	private static final String TEST_NAME3 = "DAGcellwisetmpl3";
+	private static final String TEST_NAME4 = "DAGcellwisetmpl4"; //expensive shared intermediate
 	
 	private static final String TEST_DIR = "functions/codegen/";
 	private static final String TEST_CLASS_DIR = TEST_DIR + DAGCellwiseTmplTest.class.getSimpleName() + "/";
 	private final static String TEST_CONF = "SystemML-config-codegen.xml";
 	private final static File   TEST_CONF_FILE = new File(SCRIPT_DIR + TEST_DIR, TEST_CONF);
+	private final static String TEST_CONF2 = "SystemML-config-codegen-costbased.xml";
+	private final static File   TEST_CONF_FILE2 = new File(SCRIPT_DIR + TEST_DIR, TEST_CONF2);
 	
 	private static final double eps = Math.pow(10, -10);
 	
+	private boolean _costBased = false;
+	
 	@Override
 	public void setUp() {
 		TestUtils.clearAssertionInformation();
 		addTestConfiguration( TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] { "S" }) );
 		addTestConfiguration( TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[] { "S" }) );
 		addTestConfiguration( TEST_NAME3, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME3, new String[] { "S" }) );
+		addTestConfiguration( TEST_NAME4, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME4, new String[] { "S" }) );
 	}
 		
 	@Test
@@ -114,6 +120,29 @@ public class DAGCellwiseTmplTest extends AutomatedTestBase
 		testCodegenIntegration( TEST_NAME3, false, true, ExecType.CP  );
 	}
 	
+	@Test
+	public void testDAGMatrixCellwiseFuseAll4() {
+		//log(X) fused redundantly into both consumers
+		testCodegenPlanSelection( TEST_NAME4, false );
+	}
+	
+	@Test
+	public void testDAGMatrixCellwiseCostBased4() {
+		//log(X) materialized once and read by both consumers
+		testCodegenPlanSelection( TEST_NAME4, true );
+	}
+	
+	private void testCodegenPlanSelection( String testname, boolean costBased ) {
+		_costBased = costBased;
+		try {
+			testCodegenIntegration( testname, true, false, ExecType.CP );
+			Assert.assertEquals(costBased, heavyHittersContainsSubString("log"));
+		}
+		finally {
+			_costBased = false;
+		}
+	}
+	
 	private void testCodegenIntegration( String testname, boolean rewrites, boolean vector, ExecType instType )
 	{	
 		
@@ -169,7 +198,8 @@ public class DAGCellwiseTmplTest extends AutomatedTestBase
 	@Override
 	protected File getConfigTemplateFile() {
 		// Instrumentation in this test's output log to show custom configuration file used for template.
-		System.out.println("This test case overrides default configuration with " + TEST_CONF_FILE.getPath());
-		return TEST_CONF_FILE;
+		File conf = _costBased ? TEST_CONF_FILE2 : TEST_CONF_FILE;
+		System.out.println("This test case overrides default configuration with " + conf.getPath());
+		return conf;
 	}
 }
@@ -28,6 +28,7 @@ import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.lops.LopProperties.ExecType;
+import org.apache.sysml.runtime.instructions.spark.SpoofSPInstruction;
 import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
 import org.apache.sysml.test.integration.AutomatedTestBase;
 import org.apache.sysml.test.integration.TestConfiguration;
@@ -40,6 +41,7 @@ public class RowAggTmplTest extends AutomatedTestBase
 	private static final String TEST_NAME3 = "rowAggPattern3";
 	private static final String TEST_NAME4 = "rowAggPattern4";
 	private static final String TEST_NAME5 = "rowAggPattern5";
+	private static final String TEST_NAME6 = "rowAggPattern6"; //multi-block, side inputs w/ missing blocks
 
 	private static final String TEST_DIR = "functions/codegen/";
 	private static final String TEST_CLASS_DIR = TEST_DIR + RowAggTmplTest.class.getSimpleName() + "/";
@@ -48,6 +50,11 @@ public class RowAggTmplTest extends AutomatedTestBase
 	
 	private static final double eps = Math.pow(10, -10);
 	
+	//multi-block inputs (3x2 blocks w/ default blocksize)
+	private static final int rows = 2321;
+	private static final int cols = 1307;
+	private static final double eps2 = Math.pow(10, -7);
+	
 	@Override
 	public void setUp() {
 		TestUtils.clearAssertionInformation();
@@ -56,6 +63,7 @@ public class RowAggTmplTest extends AutomatedTestBase
 		addTestConfiguration( TEST_NAME3, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME3, new String[] { "2" }) );
 		addTestConfiguration( TEST_NAME4, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME4, new String[] { "3" }) );
 		addTestConfiguration( TEST_NAME5, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME5, new String[] { "4" }) );
+		addTestConfiguration( TEST_NAME6, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME6, new String[] { "5" }) );
 	}
 	
 	@Test	
@@ -108,6 +116,46 @@ public class RowAggTmplTest extends AutomatedTestBase
 		testCodegenIntegration( TEST_NAME5, false, ExecType.CP );	
 	}
 	
+	@Test
+	public void testCodegenRowAggRewrite1_sp() {
+		testCodegenIntegration( TEST_NAME1, true, ExecType.SPARK );	
+	}
+	
+	@Test
+	public void testCodegenRowAggRewrite2_sp() {
+		testCodegenIntegration( TEST_NAME2, true, ExecType.SPARK );	
+	}
+	
+	@Test
+	public void testCodegenRowAggRewrite3_sp() {
+		testCodegenIntegration( TEST_NAME3, true, ExecType.SPARK );	
+	}
+	
+	@Test
+	public void testCodegenRowAggRewrite4_sp() {
+		testCodegenIntegration( TEST_NAME4, true, ExecType.SPARK );	
+	}
+	
+	@Test
+	public void testCodegenRowAggRewrite5_sp() {
+		testCodegenIntegration( TEST_NAME5, true, ExecType.SPARK );	
+	}
+	
+	@Test
+	public void testCodegenRowAggMultiBlock6() {
+		testCodegenMultiBlock( TEST_NAME6, ExecType.CP, false );
+	}
+	
+	@Test
+	public void testCodegenRowAggMultiBlock6_sp() {
+		testCodegenMultiBlock( TEST_NAME6, ExecType.SPARK, false );
+	}
+	
+	@Test
+	public void testCodegenRowAggMultiBlock6Joined_sp() {
+		testCodegenMultiBlock( TEST_NAME6, ExecType.SPARK, true );
+	}
+	
 	private void testCodegenIntegration( String testname, boolean rewrites, ExecType instType )
 	{	
 		boolean oldFlag = OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION;
@@ -153,6 +201,56 @@ public class RowAggTmplTest extends AutomatedTestBase
 		}
 	}	
 
+	private void testCodegenMultiBlock( String testname, ExecType instType, boolean joined )
+	{	
+		RUNTIME_PLATFORM oldPlatform = rtplatform;
+		boolean oldConfig = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		rtplatform = (instType == ExecType.SPARK) ? RUNTIME_PLATFORM.SPARK : RUNTIME_PLATFORM.HYBRID;
+		if( instType == ExecType.SPARK )
+			DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(testname);
+			loadTestConfiguration(config);
+			SpoofSPInstruction.FORCE_JOINED_SIDE_INPUTS = joined;
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + testname + ".dml";
+			programArgs = new String[]{"-explain", "-stats", "-args", 
+				input("X"), input("w"), input("z"), output("S") };
+			
+			fullRScriptName = HOME + testname + ".R";
+			rCmd = getRCmd(inputDir(), expectedDir());
+			
+			//generate inputs, where the first row block of w is empty
+			//(i.e., not materialized after reblock from text)
+			double[][] X = getRandomMatrix(rows, cols, 0, 1, 1.0, 7);
+			double[][] w = getRandomMatrix(rows, 1, 0, 1, 1.0, 3);
+			double[][] z = getRandomMatrix(rows, 1, 0, 1, 1.0, 5);
+			for( int i=0; i<1000; i++ )
+				w[i][0] = 0;
+			writeInputMatrixWithMTD("X", X, true);
+			writeInputMatrixWithMTD("w", w, true);
+			writeInputMatrixWithMTD("z", z, true);
+			
+			runTest(true, false, null, -1); 
+			runRScript(true); 
+			
+			//compare matrices 
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("S");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("S");
+			TestUtils.compareMatrices(dmlfile, rfile, eps2, "Stat-DML", "Stat-R");
+			Assert.assertTrue(heavyHittersContainsSubString(
+				(instType == ExecType.SPARK) ? "sp_spoofRA" : "spoofRA"));
+		}
+		finally {
+			SpoofSPInstruction.FORCE_JOINED_SIDE_INPUTS = false;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = oldConfig;
+			rtplatform = oldPlatform;
+		}
+	}
+
 	/**
 	 * Override default configuration with custom test configuration to ensure
 	 * scratch space and local temporary directory locations are also updated.
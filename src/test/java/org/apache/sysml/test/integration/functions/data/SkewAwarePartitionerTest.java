@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.data;
+
+import org.apache.spark.HashPartitioner;
+import org.apache.sysml.runtime.instructions.spark.data.SkewAwareBlockPartitioner;
+import org.apache.sysml.runtime.instructions.spark.utils.SparkUtils;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This is a component test for the skew-aware block partitioner and the 
+ * decision to replace the default hash partitioning, which is based on 
+ * the skew of the actual hash assignment of keys to partitions.
+ */
+public class SkewAwarePartitionerTest extends AutomatedTestBase
+{
+	private final static int numKeys = 64;
+	private final static int numParts = 4;
+	private final static long ncblks = 8;
+	
+	private enum SkewType {
+		UNIFORM,      //equal key sizes
+		RANGE,        //heavy first half of keys
+		HASH,         //heavy keys in the same hash partition
+		SINGLE_KEY,   //single non-empty key
+	}
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testSkewFactor() {
+		Assert.assertEquals(1, SkewAwareBlockPartitioner.computeSkewFactor(new double[]{3,3,3,3}), 0);
+		Assert.assertEquals(4, SkewAwareBlockPartitioner.computeSkewFactor(new double[]{7,0,0,0}), 0);
+		Assert.assertEquals(2, SkewAwareBlockPartitioner.computeSkewFactor(new double[]{4,2,1,1}), 0);
+		Assert.assertEquals(1, SkewAwareBlockPartitioner.computeSkewFactor(new double[]{0,0,0,0}), 0);
+	}
+	
+	@Test
+	public void testPartitionerBalancedRanges() {
+		double[] hist = createHistogram(SkewType.HASH);
+		SkewAwareBlockPartitioner p = SkewAwareBlockPartitioner.create(hist, 1, 0, numParts);
+		Assert.assertEquals(numParts, p.numPartitions());
+		
+		//contiguous, non-decreasing ranges over long keys
+		int last = 0;
+		double[] parts = new double[numParts];
+		for( int i=0; i<numKeys; i++ ) {
+			int pos = p.getPartition(Long.valueOf(i+1));
+			Assert.assertTrue(pos >= last && pos < numParts);
+			parts[pos] += hist[i];
+			last = pos;
+		}
+		Assert.assertArrayEquals(parts, p.computePartitionSizes(hist, 1), 0);
+		Assert.assertTrue(SkewAwareBlockPartitioner.computeSkewFactor(parts) < 1.5);
+	}
+	
+	@Test
+	public void testPartitionerMatrixIndexes() {
+		double[] hist = createHistogram(SkewType.RANGE);
+		SkewAwareBlockPartitioner p = SkewAwareBlockPartitioner.create(hist, 1, ncblks, numParts);
+		
+		//row-major linearization of matrix indexes
+		int last = 0;
+		for( long r=1; r<=numKeys/ncblks; r++ )
+			for( long c=1; c<=ncblks; c++ ) {
+				int pos = p.getPartition(new MatrixIndexes(r, c));
+				Assert.assertTrue(pos >= last && pos < numParts);
+				last = pos;
+			}
+		Assert.assertEquals(numParts-1, last);
+		Assert.assertEquals(p, SkewAwareBlockPartitioner.create(hist, 1, ncblks, numParts));
+		Assert.assertNotEquals(p, SkewAwareBlockPartitioner.create(hist, 1, 0, numParts));
+	}
+	
+	@Test
+	public void testDecisionUniform() {
+		runSkewDecisionTest(SkewType.UNIFORM, false);
+	}
+	
+	@Test
+	public void testDecisionRangeSkewHashBalanced() {
+		//skewed over equi-width ranges but balanced by the hash partitioner
+		runSkewDecisionTest(SkewType.RANGE, false);
+	}
+	
+	@Test
+	public void testDecisionHashSkew() {
+		runSkewDecisionTest(SkewType.HASH, true);
+	}
+	
+	@Test
+	public void testDecisionSingleKey() {
+		//skewed hash partitions but no improvement by range partitioning
+		runSkewDecisionTest(SkewType.SINGLE_KEY, false);
+	}
+	
+	private void runSkewDecisionTest(SkewType type, boolean expected) {
+		double[] hist = createHistogram(type);
+		double[] hashParts = computeHashPartitionSizes(hist);
+		SkewAwareBlockPartitioner p = SparkUtils.createSkewAwarePartitioner(hist, hashParts, 1, 0);
+		Assert.assertEquals(expected, p != null);
+		
+		//check the decision against the threshold and actual improvement
+		double hashSkew = SkewAwareBlockPartitioner.computeSkewFactor(hashParts);
+		Assert.assertEquals(type==SkewType.HASH || type==SkewType.SINGLE_KEY, 
+			hashSkew >= SparkUtils.SKEW_THRESHOLD);
+		if( p != null )
+			Assert.assertTrue(SkewAwareBlockPartitioner.computeSkewFactor(
+				p.computePartitionSizes(hist, 1)) < hashSkew);
+	}
+	
+	private static double[] createHistogram(SkewType type) {
+		double[] hist = new double[numKeys];
+		for( int i=0; i<numKeys; i++ ) {
+			long key = i+1;
+			switch( type ) {
+				case UNIFORM:    hist[i] = 10; break;
+				case RANGE:      hist[i] = (i < numKeys/2) ? 10 : 1; break;
+				case HASH:       hist[i] = (key % numParts == 0) ? 100 : 1; break;
+				case SINGLE_KEY: hist[i] = (key == 7) ? 1000 : 0; break;
+			}
+		}
+		return hist;
+	}
+	
+	private static double[] computeHashPartitionSizes(double[] hist) {
+		//partition sizes of the default hash partitioning of long keys
+		HashPartitioner hash = new HashPartitioner(numParts);
+		double[] ret = new double[numParts];
+		for( int i=0; i<hist.length; i++ )
+			ret[hash.getPartition(Long.valueOf(i+1))] += hist[i];
+		return ret;
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.estim;
+
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.hops.AggBinaryOp;
+import org.apache.sysml.hops.DataOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
+import org.apache.sysml.hops.MemoTable;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.estim.SparsityEstimator.EstimatorType;
+import org.apache.sysml.hops.recompile.Recompiler;
+import org.apache.sysml.hops.rewrite.HopRewriteUtils;
+import org.apache.sysml.lops.Lop;
+import org.apache.sysml.lops.LopProperties.ExecType;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
+import org.apache.sysml.runtime.controlprogram.caching.CacheableData;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.instructions.Instruction;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.LibMatrixMult;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * This test checks the use of sparsity estimates from in-memory inputs during
+ * dynamic recompilation, i.e., the output memory estimates of matrix multiplications,
+ * the resulting CP/SPARK decisions, and the sparsity-aware matrix multiplication chain
+ * optimization, as well as the consistency with the kernel selection at runtime.
+ */
+public class SparsityEstimatorRecompileTest extends AutomatedTestBase
+{
+	private final static int n = 1000;        //dims of small matrices
+	private final static int nLarge = 100000; //dims of large matrices
+	private final static double sparsity1 = 0.001;
+	private final static double sparsity2 = 0.3;
+	private final static double sparsity3 = 0.000001;
+	
+	private enum InputType {
+		UNIFORM_SPARSE,
+		UNIFORM_DENSE,
+		SKEWED,
+		VECTOR,
+	}
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testMemEstimateUniformSparse() {
+		runMemEstimateTest(InputType.UNIFORM_SPARSE, EstimatorType.DENSITY_MAP, true, true);
+	}
+	
+	@Test
+	public void testMemEstimateUniformDense() {
+		runMemEstimateTest(InputType.UNIFORM_DENSE, EstimatorType.DENSITY_MAP, true, false);
+	}
+	
+	@Test
+	public void testMemEstimateSkewedDensityMap() {
+		//average case dense, but density map sparse
+		runMemEstimateTest(InputType.SKEWED, EstimatorType.DENSITY_MAP, true, true);
+	}
+	
+	@Test
+	public void testMemEstimateSkewedBasicAvg() {
+		runMemEstimateTest(InputType.SKEWED, EstimatorType.BASIC_AVG, true, false);
+	}
+	
+	@Test
+	public void testMemEstimateMatrixVector() {
+		runMemEstimateTest(InputType.VECTOR, EstimatorType.DENSITY_MAP, true, false);
+	}
+	
+	@Test
+	public void testMemEstimateUncached() {
+		runMemEstimateTest(InputType.UNIFORM_SPARSE, EstimatorType.DENSITY_MAP, false, false);
+	}
+	
+	@Test
+	public void testExecTypeCached() {
+		runExecTypeTest(true, ExecType.CP);
+	}
+	
+	@Test
+	public void testExecTypeUncached() {
+		runExecTypeTest(false, ExecType.SPARK);
+	}
+	
+	@Test
+	public void testChainReorderingCached() {
+		//skew-aware synopses of in-memory inputs: A %*% (B %*% C)
+		runChainReorderingTest(true, "B", "C");
+	}
+	
+	@Test
+	public void testChainReorderingUncached() {
+		//uniform sparsity from matrix characteristics: (A %*% B) %*% C
+		runChainReorderingTest(false, "A", "B");
+	}
+	
+	private void runMemEstimateTest(InputType type, EstimatorType etype, boolean cached, boolean sparse)
+	{
+		EstimatorType oldEstim = OptimizerUtils.SPARSITY_ESTIMATOR;
+		boolean oldCaching = CacheableData.isCachingActive();
+		
+		try
+		{
+			OptimizerUtils.SPARSITY_ESTIMATOR = etype;
+			CacheableData.disableCaching();
+			
+			//data generation (skewed: product of non-zeros in the first column
+			//block of A and the first row and column block of B, i.e., all non-zeros
+			//of the output in the first column block, but dense average case)
+			MatrixBlock m1 = null, m2 = null;
+			switch( type ) {
+				case UNIFORM_SPARSE:
+				case UNIFORM_DENSE: {
+					double sp = (type == InputType.UNIFORM_SPARSE) ? sparsity1 : sparsity2;
+					m1 = MatrixBlock.randOperations(n, n, sp, 1, 10, "uniform", 3);
+					m2 = MatrixBlock.randOperations(n, n, sp, 1, 10, "uniform", 7);
+					break;
+				}
+				case SKEWED: {
+					double[][] A = getRandomMatrix(n, n, 1, 10, 0.9, 3);
+					double[][] B = getRandomMatrix(n, n, 1, 10, 0.9, 7);
+					for( int i=0; i<n; i++ )
+						for( int j=0; j<n; j++ ) {
+							A[i][j] = (j < 256) ? A[i][j] : 0;
+							B[i][j] = (i < 256 && j < 256) ? B[i][j] : 0;
+						}
+					m1 = DataConverter.convertToMatrixBlock(A);
+					m2 = DataConverter.convertToMatrixBlock(B);
+					break;
+				}
+				case VECTOR:
+					m1 = MatrixBlock.randOperations(n, n, sparsity1, 1, 10, "uniform", 3);
+					m2 = MatrixBlock.randOperations(n, 1, 0.1, 1, 10, "uniform", 7);
+					break;
+			}
+			if( type != InputType.VECTOR )
+				Assert.assertTrue(m1.isInSparseFormat() && m2.isInSparseFormat());
+			
+			//recompile statistics of C = A %*% B and memory estimates
+			LocalVariableMap vars = new LocalVariableMap();
+			vars.put("A", createMatrixObject(m1, cached));
+			vars.put("B", createMatrixObject(m2, cached));
+			Hop C = HopRewriteUtils.createMatrixMultiply(
+				createTransientRead("A"), createTransientRead("B"));
+			C.resetVisitStatus();
+			Recompiler.rUpdateStatistics(C, vars);
+			C.resetVisitStatus();
+			C.refreshMemEstimates(new MemoTable());
+			
+			//check sparsity estimate and output memory estimate
+			double est = ((AggBinaryOp)C).getSparsityEstimate();
+			long rows = m1.getNumRows(), cols = m2.getNumColumns();
+			double dense = OptimizerUtils.estimateSizeExactSparsity(rows, cols, 1.0);
+			Assert.assertEquals(sparse, est >= 0);
+			if( sparse ) {
+				//memory estimate w/ safety margin covers the actual output, 
+				//but is still smaller than the dense estimate
+				MatrixBlock out = new MatrixBlock((int)rows, (int)cols, false);
+				LibMatrixMult.matrixMult(m1, m2, out);
+				double spOut = OptimizerUtils.getSparsity(rows, cols, out.getNonZeros());
+				Assert.assertEquals(OptimizerUtils.estimateSizeExactSparsity(rows, cols, 
+					Math.min(1, est * OptimizerUtils.SPARSITY_ESTIMATE_MARGIN)), C.getOutputMemEstimate(), 1e-10);
+				Assert.assertTrue(C.getOutputMemEstimate() >= OptimizerUtils.estimateSizeExactSparsity(rows, cols, spOut));
+				Assert.assertTrue(C.getOutputMemEstimate() < dense);
+			}
+			else
+				Assert.assertEquals(dense, C.getOutputMemEstimate(), 1e-10);
+			
+			//check consistency with kernel selection (for in-memory inputs)
+			if( cached )
+				Assert.assertEquals(sparse, LibMatrixMult.isSparseOutputMatrixMult(m1, m2));
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			OptimizerUtils.SPARSITY_ESTIMATOR = oldEstim;
+			if( oldCaching )
+				CacheableData.enableCaching();
+		}
+	}
+	
+	private void runExecTypeTest(boolean cached, ExecType etype)
+	{
+		RUNTIME_PLATFORM oldPlatform = DMLScript.rtplatform;
+		boolean oldCaching = CacheableData.isCachingActive();
+		
+		try
+		{
+			DMLScript.rtplatform = RUNTIME_PLATFORM.HYBRID_SPARK;
+			CacheableData.disableCaching();
+			
+			//data generation (large ultra-sparse inputs, whose dense product
+			//exceeds the local memory budget, while the sparse product fits)
+			MatrixBlock m1 = MatrixBlock.randOperations(nLarge, nLarge, sparsity3, 1, 10, "uniform", 3);
+			MatrixBlock m2 = MatrixBlock.randOperations(nLarge, nLarge, sparsity3, 1, 10, "uniform", 7);
+			LocalVariableMap vars = new LocalVariableMap();
+			vars.put("A", createMatrixObject(m1, cached));
+			vars.put("B", createMatrixObject(m2, cached));
+			
+			//in-place recompile of C = A %*% B
+			Hop C = HopRewriteUtils.createMatrixMultiply(
+				createTransientRead("A"), createTransientRead("B"));
+			ArrayList<Hop> hops = new ArrayList<Hop>();
+			hops.add(createTransientWrite("C", C));
+			Recompiler.recompileHopsDag(null, hops, vars, null, true, 0);
+			
+			//check execution type of matrix multiplication
+			Assert.assertTrue(OptimizerUtils.estimateSizeExactSparsity(nLarge, nLarge, 1.0)
+				> OptimizerUtils.getLocalMemBudget());
+			Assert.assertEquals(etype, C.getExecType());
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			DMLScript.rtplatform = oldPlatform;
+			if( oldCaching )
+				CacheableData.enableCaching();
+		}
+	}
+	
+	private void runChainReorderingTest(boolean cached, String left, String right)
+	{
+		EstimatorType oldEstim = OptimizerUtils.SPARSITY_ESTIMATOR;
+		boolean oldCaching = CacheableData.isCachingActive();
+		
+		try
+		{
+			OptimizerUtils.SPARSITY_ESTIMATOR = EstimatorType.DENSITY_MAP;
+			CacheableData.disableCaching();
+			
+			//data generation (skewed: non-zeros of B in the first column block, and of C
+			//outside the first row block, i.e., B %*% C is empty but dense on average)
+			double[][] A = getRandomMatrix(n, n, 1, 10, 0.1, 3);
+			double[][] B = getRandomMatrix(n, n, 1, 10, 0.1, 7);
+			double[][] C = getRandomMatrix(n, n, 1, 10, 0.1, 11);
+			for( int i=0; i<n; i++ )
+				for( int j=0; j<n; j++ ) {
+					B[i][j] = (j < 256) ? B[i][j] : 0;
+					C[i][j] = (i >= 256) ? C[i][j] : 0;
+				}
+			LocalVariableMap vars = new LocalVariableMap();
+			vars.put("A", createMatrixObject(DataConverter.convertToMatrixBlock(A), cached));
+			vars.put("B", createMatrixObject(DataConverter.convertToMatrixBlock(B), cached));
+			vars.put("C", createMatrixObject(DataConverter.convertToMatrixBlock(C), cached));
+			
+			//recompile of D = (A %*% B) %*% C, incl dynamic rewrites
+			Hop D = HopRewriteUtils.createMatrixMultiply(HopRewriteUtils.createMatrixMultiply(
+				createTransientRead("A"), createTransientRead("B")), createTransientRead("C"));
+			ArrayList<Hop> hops = new ArrayList<Hop>();
+			hops.add(createTransientWrite("D", D));
+			ArrayList<Instruction> inst = Recompiler.recompileHopsDag(null, hops, vars, null, false, 0);
+			
+			//check for matrix multiplication of the expected inputs
+			boolean found = false;
+			for( Instruction linst : inst )
+				found |= isMatrixMultiply(linst, left, right);
+			Assert.assertTrue("Missing matrix multiplication "+left+" %*% "+right, found);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			OptimizerUtils.SPARSITY_ESTIMATOR = oldEstim;
+			if( oldCaching )
+				CacheableData.enableCaching();
+		}
+	}
+	
+	private static MatrixObject createMatrixObject(MatrixBlock mb, boolean cached)
+		throws Exception
+	{
+		MatrixCharacteristics mc = new MatrixCharacteristics(mb.getNumRows(), mb.getNumColumns(),
+			OptimizerUtils.DEFAULT_BLOCKSIZE, OptimizerUtils.DEFAULT_BLOCKSIZE, mb.getNonZeros());
+		MatrixObject mo = new MatrixObject(ValueType.DOUBLE, OptimizerUtils.getUniqueTempFileName(),
+			new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo));
+		if( cached ) {
+			//pin and release in order to obtain a cached in-memory matrix
+			mo.acquireModify(mb);
+			mo.release();
+		}
+		return mo;
+	}
+	
+	private static Hop createTransientRead(String name) {
+		return new DataOp(name, DataType.MATRIX, ValueType.DOUBLE, DataOpTypes.TRANSIENTREAD,
+			name, -1, -1, -1, OptimizerUtils.DEFAULT_BLOCKSIZE, OptimizerUtils.DEFAULT_BLOCKSIZE);
+	}
+	
+	private static Hop createTransientWrite(String name, Hop input) {
+		return new DataOp(name, DataType.MATRIX, ValueType.DOUBLE, input, DataOpTypes.TRANSIENTWRITE, name);
+	}
+	
+	private static boolean isMatrixMultiply(Instruction inst, String left, String right) {
+		String str = inst.toString();
+		return str.contains(Lop.OPERAND_DELIMITOR + "ba+*" + Lop.OPERAND_DELIMITOR
+			+ left + Lop.DATATYPE_PREFIX + DataType.MATRIX + Lop.VALUETYPE_PREFIX
+			+ ValueType.DOUBLE + Lop.OPERAND_DELIMITOR + right + Lop.DATATYPE_PREFIX);
+	}
+}
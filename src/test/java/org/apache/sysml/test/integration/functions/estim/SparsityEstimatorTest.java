@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.estim;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.estim.MMNode;
+import org.apache.sysml.hops.estim.SparsityEstimator;
+import org.apache.sysml.hops.estim.SparsityEstimator.EstimatorType;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.LibMatrixMult;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * This is a component test for the sparsity estimators of matrix products
+ * and chains of matrix products, which compares the estimates against the
+ * actual number of non-zeros for uniform and skewed inputs (where skew-aware
+ * estimates are also compared against the average-case estimate).
+ */
+public class SparsityEstimatorTest extends AutomatedTestBase 
+{
+	private final static int m = 600;
+	private final static int k = 800;
+	private final static int n = 500;
+	private final static double sparsity1 = 0.01;
+	private final static double sparsity2 = 0.1;
+	private final static double eps = 0.05; //relative error
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testBasicAvgUniformSparse() {
+		runSparsityEstimateTest(EstimatorType.BASIC_AVG, sparsity1, false);
+	}
+	
+	@Test
+	public void testBasicAvgUniformDense() {
+		runSparsityEstimateTest(EstimatorType.BASIC_AVG, sparsity2, false);
+	}
+	
+	@Test
+	public void testDensityMapUniformSparse() {
+		runSparsityEstimateTest(EstimatorType.DENSITY_MAP, sparsity1, false);
+	}
+	
+	@Test
+	public void testDensityMapUniformDense() {
+		runSparsityEstimateTest(EstimatorType.DENSITY_MAP, sparsity2, false);
+	}
+	
+	@Test
+	public void testDensityMapSkewedSparse() {
+		runSparsityEstimateTest(EstimatorType.DENSITY_MAP, sparsity1, true);
+	}
+	
+	@Test
+	public void testDensityMapSkewedDense() {
+		runSparsityEstimateTest(EstimatorType.DENSITY_MAP, sparsity2, true);
+	}
+	
+	@Test
+	public void testBitsetUniformSparse() {
+		runSparsityEstimateTest(EstimatorType.BITSET, sparsity1, false);
+	}
+	
+	@Test
+	public void testBitsetUniformDense() {
+		runSparsityEstimateTest(EstimatorType.BITSET, sparsity2, false);
+	}
+	
+	@Test
+	public void testBitsetSkewedSparse() {
+		runSparsityEstimateTest(EstimatorType.BITSET, sparsity1, true);
+	}
+	
+	@Test
+	public void testBitsetSkewedDense() {
+		runSparsityEstimateTest(EstimatorType.BITSET, sparsity2, true);
+	}
+	
+	@Test
+	public void testDensityMapChainSparse() {
+		runSparsityEstimateChainTest(EstimatorType.DENSITY_MAP, sparsity1);
+	}
+	
+	@Test
+	public void testBitsetChainSparse() {
+		runSparsityEstimateChainTest(EstimatorType.BITSET, sparsity1);
+	}
+	
+	@Test
+	public void testDensityMapMetaData() {
+		//w/o input blocks, the density map estimate matches the average case
+		MatrixCharacteristics mc1 = new MatrixCharacteristics(m, k, -1, -1, (long)(sparsity1*m*k));
+		MatrixCharacteristics mc2 = new MatrixCharacteristics(k, n, -1, -1, (long)(sparsity1*k*n));
+		double sp1 = SparsityEstimator.createEstimator(EstimatorType.BASIC_AVG).estim(mc1, mc2);
+		double sp2 = SparsityEstimator.createEstimator(EstimatorType.DENSITY_MAP).estim(mc1, mc2);
+		Assert.assertEquals(sp1, sp2, sp1 * eps);
+	}
+	
+	private void runSparsityEstimateTest(EstimatorType type, double sparsity, boolean skewed)
+	{
+		try
+		{
+			//data generation (skewed: non-zeros of A in the first column block, and of B
+			//in the first row block, i.e., a dense-ish product of the overlapping blocks)
+			double[][] A = getRandomMatrix(m, k, 1, 10, sparsity, 3); 
+			double[][] B = getRandomMatrix(k, n, 1, 10, sparsity, 7);
+			if( skewed ) {
+				for( int i=0; i<m; i++ )
+					for( int j=256; j<k; j++ )
+						A[i][j] = 0;
+				for( int i=256; i<k; i++ )
+					for( int j=0; j<n; j++ )
+						B[i][j] = 0;
+			}
+			MatrixBlock m1 = DataConverter.convertToMatrixBlock(A);
+			MatrixBlock m2 = DataConverter.convertToMatrixBlock(B);
+			
+			//compute estimated and actual sparsity
+			double est = SparsityEstimator.createEstimator(type).estim(m1, m2);
+			double sp = getSparsity(multiply(m1, m2));
+			Assert.assertTrue(sp > 0);
+			
+			//compare estimate (exact for bitsets)
+			if( type == EstimatorType.BITSET )
+				Assert.assertEquals(sp, est, 1e-10);
+			else
+				Assert.assertEquals(sp, est, sp * eps);
+			
+			//compare against average-case estimate, which ignores skew
+			if( skewed ) {
+				double avg = SparsityEstimator.createEstimator(EstimatorType.BASIC_AVG).estim(m1, m2);
+				Assert.assertTrue(Math.abs(sp - avg) > sp * eps);
+				Assert.assertTrue(Math.abs(sp - est) < Math.abs(sp - avg));
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	private void runSparsityEstimateChainTest(EstimatorType type, double sparsity)
+	{
+		try
+		{
+			//data generation
+			MatrixBlock m1 = MatrixBlock.randOperations(m, k, sparsity, 1, 10, "uniform", 3);
+			MatrixBlock m2 = MatrixBlock.randOperations(k, n, sparsity, 1, 10, "uniform", 7);
+			MatrixBlock m3 = MatrixBlock.randOperations(n, m, 4*sparsity, 1, 10, "uniform", 11);
+			
+			//compute estimated and actual sparsity of (m1 %*% m2) %*% m3
+			MMNode root = new MMNode(new MMNode(new MMNode(m1), new MMNode(m2)), new MMNode(m3));
+			double est = SparsityEstimator.createEstimator(type).estim(root);
+			double sp = getSparsity(multiply(multiply(m1, m2), m3));
+			
+			//compare estimate (exact for bitsets)
+			if( type == EstimatorType.BITSET )
+				Assert.assertEquals(sp, est, 1e-10);
+			else
+				Assert.assertEquals(sp, est, sp * eps);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	private static MatrixBlock multiply(MatrixBlock m1, MatrixBlock m2) throws Exception {
+		MatrixBlock ret = new MatrixBlock(m1.getNumRows(), m2.getNumColumns(), false);
+		LibMatrixMult.matrixMult(m1, m2, ret);
+		return ret;
+	}
+	
+	private static double getSparsity(MatrixBlock mb) {
+		return OptimizerUtils.getSparsity(mb.getNumRows(), mb.getNumColumns(), mb.getNonZeros());
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.frame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.io.FrameReaderFactory;
+import org.apache.sysml.runtime.io.FrameWriterFactory;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.runtime.util.MapReduceTool;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FrameDictionaryEncodingTest extends AutomatedTestBase
+{
+	private final static int rows = 2791;
+	private final static int distinct = 17;
+	private final static String FNAME = TEST_DATA_DIR + "functions/frame/FrameDictionaryEncodingTest/X.csv";
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+
+	@Test
+	public void testDictionaryEncodeGetSet() {
+		FrameBlock frame = createFrame();
+		FrameBlock encoded = new FrameBlock(frame);
+		encoded.dictionaryEncodeColumns(0.1);
+		Assert.assertTrue(encoded.isDictionaryEncoded(0));
+		Assert.assertFalse(encoded.isDictionaryEncoded(1)); //too many distinct
+		verifyFrameData(frame, encoded);
+		
+		//updates with existing, new, and null values
+		frame.set(7, 0, "c3"); encoded.set(7, 0, "c3");
+		frame.set(8, 0, "new"); encoded.set(8, 0, "new");
+		frame.set(9, 0, null); encoded.set(9, 0, null);
+		verifyFrameData(frame, encoded);
+	}
+	
+	@Test
+	public void testDictionaryEncodeSliceCopy() throws Exception {
+		FrameBlock frame = createFrame();
+		frame.dictionaryEncodeColumns(0.1);
+		FrameBlock slice = frame.sliceOperations(10, 99, 0, 1, new FrameBlock());
+		FrameBlock copy = new FrameBlock(frame);
+		
+		//modifications of shared dictionaries must not affect other blocks
+		slice.set(0, 0, "slice");
+		copy.set(10, 0, "copy");
+		Assert.assertEquals("c10", frame.get(10, 0));
+		Assert.assertEquals("slice", slice.get(0, 0));
+		Assert.assertEquals("copy", copy.get(10, 0));
+		for( int i=1; i<90; i++ )
+			Assert.assertEquals(frame.get(10+i, 0), slice.get(i, 0));
+	}
+	
+	@Test
+	public void testDictionaryEncodeSerialization() throws Exception {
+		FrameBlock frame = createFrame();
+		FrameBlock encoded = new FrameBlock(frame);
+		encoded.dictionaryEncodeColumns(0.1);
+		
+		//serialization format identical to plain string columns
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		encoded.write(new DataOutputStream(bos));
+		Assert.assertEquals(encoded.getExactSerializedSize(), bos.size());
+		FrameBlock frame2 = new FrameBlock();
+		frame2.readFields(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+		verifyFrameData(frame, frame2);
+	}
+	
+	@Test
+	public void testDictionaryEncodeDeserializationReuse() throws Exception {
+		FrameBlock frame = createFrame();
+		FrameBlock encoded = new FrameBlock(frame);
+		encoded.dictionaryEncodeColumns(0.1);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		encoded.write(new DataOutputStream(bos));
+		
+		//deserialization into dictionary-encoded block retains encoding
+		FrameBlock frame2 = new FrameBlock(frame);
+		frame2.set(8, 0, "other");
+		frame2.dictionaryEncodeColumns(0.1);
+		Assert.assertTrue(frame2.isDictionaryEncoded(0));
+		frame2.readFields(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+		Assert.assertTrue(frame2.isDictionaryEncoded(0));
+		Assert.assertFalse(frame2.isDictionaryEncoded(1));
+		verifyFrameData(frame, frame2);
+		frame2.set(8, 0, "new");
+		Assert.assertEquals("new", frame2.get(8, 0));
+	}
+	
+	@Test
+	public void testDictionaryEncodeGetColumn() {
+		FrameBlock frame = createFrame();
+		FrameBlock encoded = new FrameBlock(frame);
+		encoded.dictionaryEncodeColumns(0.1);
+		
+		//column data is modifiable in place, as for plain string columns
+		String[] col = (String[]) encoded.getColumn(0);
+		Assert.assertFalse(encoded.isDictionaryEncoded(0));
+		col[5] = "x";
+		frame.set(5, 0, "x");
+		verifyFrameData(frame, encoded);
+		Assert.assertSame(col, encoded.getColumn(0));
+	}
+	
+	@Test
+	public void testDictionaryEncodeCSVReadDefault() throws Exception {
+		runCSVReadTest(false);
+	}
+	
+	@Test
+	public void testDictionaryEncodeCSVReadOptIn() throws Exception {
+		runCSVReadTest(true);
+	}
+	
+	@Test
+	public void testDictionaryColumnAsDouble() {
+		int[] codes = new int[rows];
+		for( int i=0; i<rows; i++ )
+			codes[i] = (i%3==0) ? -1 : i%distinct;
+		String[] dict = new String[distinct];
+		for( int k=0; k<distinct; k++ )
+			dict[k] = String.valueOf(k*1.5);
+		FrameBlock frame = new FrameBlock();
+		frame.appendColumn(codes, dict);
+		
+		double[] tmp = frame.getColumnAsDouble(0, 0, rows, null);
+		for( int i=0; i<rows; i++ ) {
+			double expected = (i%3==0) ? 0 : (i%distinct)*1.5;
+			Assert.assertEquals(expected, tmp[i], 0);
+			Assert.assertEquals(expected, frame.getDouble(i, 0), 0);
+		}
+	}
+	
+	private void runCSVReadTest(boolean encoding) throws Exception {
+		boolean oldFlag = FrameBlock.DICTIONARY_ENCODING;
+		try {
+			FrameBlock.DICTIONARY_ENCODING = encoding;
+			FrameBlock frame = createFrame(false);
+			ValueType[] schema = frame.getSchema();
+			MapReduceTool.deleteFileIfExistOnHDFS(FNAME);
+			FrameWriterFactory.createFrameWriter(OutputInfo.CSVOutputInfo)
+				.writeFrameToHDFS(frame, FNAME, rows, schema.length);
+			FrameBlock frame2 = FrameReaderFactory.createFrameReader(InputInfo.CSVInputInfo)
+				.readFrameFromHDFS(FNAME, schema, rows, schema.length);
+			
+			//dictionary encoding of categorical columns only if enabled
+			Assert.assertEquals(encoding, frame2.isDictionaryEncoded(0));
+			Assert.assertFalse(frame2.isDictionaryEncoded(1));
+			verifyFrameData(frame, frame2);
+		}
+		finally {
+			FrameBlock.DICTIONARY_ENCODING = oldFlag;
+			MapReduceTool.deleteFileIfExistOnHDFS(FNAME);
+		}
+	}
+	
+	private static FrameBlock createFrame() {
+		return createFrame(true);
+	}
+	
+	private static FrameBlock createFrame(boolean nulls) {
+		FrameBlock frame = new FrameBlock(new ValueType[]{ValueType.STRING, ValueType.STRING});
+		for( int i=0; i<rows; i++ )
+			frame.appendRow(new String[]{(nulls && i%13==0) ? null : "c"+(i%distinct), "u"+i});
+		return frame;
+	}
+	
+	private static void verifyFrameData(FrameBlock frame1, FrameBlock frame2) {
+		Assert.assertEquals(frame1.getNumRows(), frame2.getNumRows());
+		for( int i=0; i<frame1.getNumRows(); i++ )
+			for( int j=0; j<frame1.getNumColumns(); j++ )
+				Assert.assertEquals(frame1.get(i, j), frame2.get(i, j));
+	}
+}
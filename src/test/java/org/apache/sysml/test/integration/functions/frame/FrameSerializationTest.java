@@ -69,6 +69,11 @@ public class FrameSerializationTest extends AutomatedTestBase
 	public void testFrameMixedJava()  {
 		runFrameSerializeTest(schemaMixed, SerType.JAVA_SER);
 	}
+	
+	@Test
+	public void testFrameMixedWritableFormat()  {
+		runFrameSerializeFormatTest(schemaMixed);
+	}
 
 	
 	/**
@@ -138,4 +143,51 @@ public class FrameSerializationTest extends AutomatedTestBase
 			throw new RuntimeException(ex);
 		}
 	}
+	
+	private void runFrameSerializeFormatTest( ValueType[] schema )
+	{
+		try
+		{
+			//data generation and frame initialization
+			double[][] A = getRandomMatrix(rows, schema.length, -10, 10, 0.9, 8234); 
+			FrameBlock frame = new FrameBlock(schema);
+			Object[] row = new Object[schema.length];
+			for( int i=0; i<rows; i++ ) {
+				for( int j=0; j<schema.length; j++ )
+					row[j] = UtilFunctions.doubleToObject(schema[j], A[i][j]);
+				frame.appendRow(row);
+			}
+			
+			//serialization via bulk column writes
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			frame.write(new DataOutputStream(bos));
+			
+			//reference serialization via value-by-value writes
+			ByteArrayOutputStream bos2 = new ByteArrayOutputStream();
+			DataOutputStream dos2 = new DataOutputStream(bos2);
+			dos2.writeInt(rows);
+			dos2.writeInt(schema.length);
+			dos2.writeBoolean(true);
+			for( int j=0; j<schema.length; j++ ) {
+				dos2.writeByte(schema[j].ordinal());
+				for( int i=0; i<rows; i++ ) {
+					Object val = frame.get(i, j);
+					switch( schema[j] ) {
+						case STRING:  dos2.writeUTF((val!=null)?(String)val:""); break;
+						case BOOLEAN: dos2.writeBoolean((Boolean)val); break;
+						case INT:     dos2.writeLong((Long)val); break;
+						case DOUBLE:  dos2.writeDouble((Double)val); break;
+						default: throw new RuntimeException("Unsupported value type: "+schema[j]);
+					}
+				}
+			}
+			
+			//check unchanged binary format
+			Assert.assertArrayEquals(bos2.toByteArray(), bos.toByteArray());
+		}
+		catch(Exception ex) {
+			ex.printStackTrace();
+			throw new RuntimeException(ex);
+		}
+	}
 }
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.jmlc;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.sysml.api.jmlc.Connection;
+import org.apache.sysml.api.jmlc.PreparedTransformEncoder;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.transform.encode.Encoder;
+import org.apache.sysml.runtime.transform.encode.EncoderFactory;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FramePreparedEncoderTest extends AutomatedTestBase 
+{
+	private final static int rows = 1234;
+	private final static int threads = 8;
+	private final static int iterations = 5;
+	
+	private final static String SPEC_RECODE = "{\"ids\": true, \"recode\": [1, 3]}";
+	private final static String SPEC_DUMMY = "{\"ids\": true, \"dummycode\": [1, 3]}";
+	private final static String SPEC_IMPUTE = "{\"ids\": true, \"recode\": [1, 3], "
+		+ "\"impute\": [{\"id\": 1, \"method\": \"global_mode\"}, {\"id\": 2, \"method\": \"global_mean\"}]}";
+	private final static String SPEC_HASH = "{\"ids\": true, \"hash\": [1], \"recode\": [3], \"K\": 7}";
+	private final static String SPEC_HASH_DUMMY = "{\"ids\": true, \"hash\": [1, 3], \"K\": 7, \"dummycode\": [1, 3]}";
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testPreparedEncoderRecode() throws Exception {
+		runPreparedEncoderTest(SPEC_RECODE, true, true, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderDummycode() throws Exception {
+		runPreparedEncoderTest(SPEC_DUMMY, false, false, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderDummycodeMissing() throws Exception {
+		runPreparedEncoderTest(SPEC_DUMMY, true, false, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderDummycodeUnseen() throws Exception {
+		runPreparedEncoderTest(SPEC_DUMMY, false, true, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderDummycodeMissingUnseen() throws Exception {
+		runPreparedEncoderTest(SPEC_DUMMY, true, true, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderImpute() throws Exception {
+		runPreparedEncoderTest(SPEC_IMPUTE, true, true, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderHash() throws Exception {
+		runPreparedEncoderTest(SPEC_HASH, true, true, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderHashDummycode() throws Exception {
+		runPreparedEncoderTest(SPEC_HASH_DUMMY, false, true, 1);
+	}
+	
+	@Test
+	public void testPreparedEncoderRecodeMultiThreaded() throws Exception {
+		runPreparedEncoderTest(SPEC_RECODE, true, true, threads);
+	}
+	
+	@Test
+	public void testPreparedEncoderDummycodeMultiThreaded() throws Exception {
+		runPreparedEncoderTest(SPEC_DUMMY, false, false, threads);
+	}
+	
+	@Test
+	public void testPreparedEncoderDummycodeMissingUnseenMultiThreaded() throws Exception {
+		runPreparedEncoderTest(SPEC_DUMMY, true, true, threads);
+	}
+	
+	@Test
+	public void testPreparedEncoderImputeMultiThreaded() throws Exception {
+		runPreparedEncoderTest(SPEC_IMPUTE, true, true, threads);
+	}
+	
+	@Test
+	public void testPreparedEncoderHashDummycodeMultiThreaded() throws Exception {
+		runPreparedEncoderTest(SPEC_HASH_DUMMY, false, true, threads);
+	}
+	
+	private static void runPreparedEncoderTest(String spec, boolean missing, boolean unseen, int k) 
+		throws Exception
+	{
+		//create meta data via transformencode over training data
+		FrameBlock train = createFrame(missing, false);
+		Encoder encoder = EncoderFactory.createEncoder(spec, train.getColumnNames(), train.getNumColumns(), null);
+		encoder.encode(train, new MatrixBlock(train.getNumRows(), train.getNumColumns(), false), 1);
+		FrameBlock meta = getMetaData(encoder, train);
+		
+		//transformapply over frames as reference
+		FrameBlock test = createFrame(missing, unseen);
+		Encoder encoder2 = EncoderFactory.createEncoder(spec, test.getColumnNames(), test.getNumColumns(), meta);
+		MatrixBlock out1 = encoder2.apply(test, new MatrixBlock(test.getNumRows(), test.getNumColumns(), false));
+		String[][] data = new String[test.getNumRows()][];
+		for( int i=0; i<test.getNumRows(); i++ ) {
+			data[i] = new String[test.getNumColumns()];
+			for( int j=0; j<test.getNumColumns(); j++ )
+				data[i][j] = (String) test.get(i, j);
+		}
+		
+		//prepared encoder over rows and batches, where all 
+		//threads share a single prepared encoder instance
+		Connection conn = new Connection();
+		ExecutorService pool = Executors.newFixedThreadPool(k);
+		try {
+			PreparedTransformEncoder penc = conn.prepareTransformEncoder(spec, meta);
+			Assert.assertEquals(out1.getNumColumns(), penc.getNumOutputCols());
+			ArrayList<PreparedEncoderTask> tasks = new ArrayList<PreparedEncoderTask>();
+			for( int i=0; i<k; i++ )
+				tasks.add(new PreparedEncoderTask(penc, data, out1, (k>1) ? iterations : 1));
+			for( Future<Boolean> ret : pool.invokeAll(tasks) )
+				Assert.assertTrue(ret.get());
+		}
+		finally {
+			pool.shutdown();
+			conn.close();
+		}
+	}
+	
+	private static FrameBlock createFrame(boolean missing, boolean unseen) {
+		FrameBlock frame = new FrameBlock(new ValueType[]{ValueType.STRING, ValueType.STRING, ValueType.STRING});
+		for( int i=0; i<rows; i++ )
+			frame.appendRow(new String[]{
+				(missing && i%11==0) ? null : (unseen && i%19==0) ? "x"+i : "a"+((i*7)%(i%3==0 ? 3 : 23)),
+				(i%17==0) ? null : String.valueOf((i%101)*0.37),
+				"b"+(i%5)});
+		return frame;
+	}
+	
+	private static FrameBlock getMetaData(Encoder encoder, FrameBlock in) {
+		FrameBlock meta = encoder.getMetaData(new FrameBlock(in.getNumColumns(), ValueType.STRING));
+		meta.setColumnNames(in.getColumnNames());
+		return meta;
+	}
+	
+	private static void compareMatrices(MatrixBlock expected, MatrixBlock actual, double eps) {
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+	
+	private static class PreparedEncoderTask implements Callable<Boolean> 
+	{
+		private final PreparedTransformEncoder _penc;
+		private final String[][] _data;
+		private final MatrixBlock _ref;
+		private final int _iter;
+		
+		protected PreparedEncoderTask(PreparedTransformEncoder penc, String[][] data, MatrixBlock ref, int iter) {
+			_penc = penc;
+			_data = data;
+			_ref = ref;
+			_iter = iter;
+		}
+		
+		@Override
+		public Boolean call() throws Exception {
+			MatrixBlock out = null;
+			for( int it=0; it<_iter; it++ ) {
+				//batch apply w/ reused output block
+				out = _penc.apply(_data, out);
+				compareMatrices(_ref, out, 1e-10);
+				
+				//row-wise apply
+				for( int i=0; i<_data.length; i++ ) {
+					double[] row = _penc.apply(_data[i]);
+					for( int j=0; j<_ref.getNumColumns(); j++ )
+						Assert.assertEquals(_ref.quickGetValue(i, j), row[j], 1e-10);
+				}
+				
+				//row-wise apply of delimited lines w/ quoted tokens
+				double[] lrow = new double[_ref.getNumColumns()];
+				for( int i=0; i<_data.length; i++ ) {
+					char[] line = createLine(_data[i], i%2==0);
+					_penc.apply(line, 1, line.length-2, ',', lrow, 0);
+					for( int j=0; j<_ref.getNumColumns(); j++ )
+						Assert.assertEquals(_ref.quickGetValue(i, j), lrow[j], 1e-10);
+				}
+			}
+			return true;
+		}
+		
+		private static char[] createLine(String[] tokens, boolean quoted) {
+			//line w/ leading and trailing padding
+			StringBuilder sb = new StringBuilder("#");
+			for( int j=0; j<tokens.length; j++ ) {
+				String tmp = (tokens[j] != null) ? tokens[j] : "";
+				sb.append((j>0) ? "," : "");
+				sb.append((quoted && !tmp.isEmpty()) ? "\""+tmp+"\"" : tmp);
+			}
+			return sb.append("#").toString().toCharArray();
+		}
+	}
+}
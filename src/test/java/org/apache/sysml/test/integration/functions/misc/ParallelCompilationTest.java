@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.misc;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.apache.sysml.runtime.controlprogram.parfor.util.RangeIDSequence;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+import org.apache.sysml.utils.Statistics;
+import org.apache.sysml.utils.Statistics.CompilePhase;
+
+public class ParallelCompilationTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "ParallelCompilation";
+	private final static String TEST_DIR = "functions/misc/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + 
+		ParallelCompilationTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 123;
+	private final static int cols = 7;
+	private final static double sparsity = 0.7;
+	private final static double eps = 1e-8;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "R" }));
+	}
+	
+	@Test
+	public void testParallelCompilation() {
+		boolean oldFlag = OptimizerUtils.ALLOW_PARALLEL_COMPILATION;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-stats", "-args", input("A"), output("R") };
+			
+			double[][] A = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+			writeInputMatrixWithMTD("A", A, true);
+			
+			//run w/ sequential compilation
+			OptimizerUtils.ALLOW_PARALLEL_COMPILATION = false;
+			runTest(true, false, null, -1); 
+			HashMap<CellIndex, Double> R1 = readDMLMatrixFromHDFS("R");
+			Assert.assertEquals(0, Statistics.getParallelCompiledUnits());
+			
+			//run w/ parallel compilation
+			OptimizerUtils.ALLOW_PARALLEL_COMPILATION = true;
+			runTest(true, false, null, -1); 
+			HashMap<CellIndex, Double> R2 = readDMLMatrixFromHDFS("R");
+			if( InfrastructureAnalyzer.getLocalParallelism() > 1 )
+				Assert.assertTrue(Statistics.getParallelCompiledUnits() > 0);
+			
+			//compare results and check recorded compile phases
+			TestUtils.compareMatrices(R1, R2, eps, "Stat-Seq", "Stat-Par");
+			Assert.assertTrue(Statistics.getCompileTime(CompilePhase.HOPS) > 0);
+			Assert.assertTrue(Statistics.getCompileTime(CompilePhase.LOPS) > 0);
+			Assert.assertTrue(Statistics.getCompileTime(CompilePhase.INST) > 0);
+		}
+		finally {
+			OptimizerUtils.ALLOW_PARALLEL_COMPILATION = oldFlag;
+		}
+	}
+	
+	@Test
+	public void testRangeIDSequence() {
+		RangeIDSequence seq = new RangeIDSequence();
+		long start = seq.reserveIDs(10);
+		seq.setThreadRange(start, 2);
+		try {
+			//IDs from thread-local range, then global sequence
+			Assert.assertEquals(start, seq.getNextID());
+			Assert.assertEquals(start+1, seq.getNextID());
+			Assert.assertEquals(start+10, seq.getNextID());
+		}
+		finally {
+			seq.clearThreadRange();
+		}
+		Assert.assertEquals(start+11, seq.getNextID());
+	}
+}
@@ -29,6 +29,7 @@ import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContextFactory;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.instructions.spark.functions.FilterNonEmptyBlocksFunction;
 import org.apache.sysml.runtime.instructions.spark.utils.RDDConverterUtils;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
@@ -161,14 +162,74 @@ public class DataFrameMatrixConversionTest extends AutomatedTestBase
 		testDataFrameConversion(true, cols3, false, true);
 	}
 	
+	@Test
+	public void testVectorConversionMultiDenseInternal() {
+		testDataFrameConversion(true, cols2, true, false, true);
+	}
+	
+	@Test
+	public void testVectorConversionMultiSparseUnknownInternal() {
+		testDataFrameConversion(true, cols2, false, true, true);
+	}
+	
+	@Test
+	public void testRowConversionSingleSparseInternal() {
+		testDataFrameConversion(false, cols1, false, false, true);
+	}
+	
+	@Test
+	public void testRowConversionMultiDenseInternal() {
+		testDataFrameConversion(false, cols2, true, false, true);
+	}
+	
+	@Test
+	public void testRowConversionMultiSparseUnknownInternal() {
+		testDataFrameConversion(false, cols2, false, true, true);
+	}
+	
+	@Test
+	public void testVectorConversionWideSparseInternal() {
+		testDataFrameConversion(true, cols3, false, false, true);
+	}
+	
+	@Test
+	public void testVectorConversionMultiDenseMissingBlocks() {
+		testDataFrameConversion(true, cols2, true, false, false, true);
+	}
+	
+	@Test
+	public void testVectorConversionMultiSparseMissingBlocks() {
+		testDataFrameConversion(true, cols2, false, false, false, true);
+	}
+	
+	@Test
+	public void testRowConversionMultiDenseMissingBlocks() {
+		testDataFrameConversion(false, cols2, true, false, false, true);
+	}
+	
+	@Test
+	public void testRowConversionMultiSparseMissingBlocks() {
+		testDataFrameConversion(false, cols2, false, false, false, true);
+	}
+	
+	private void testDataFrameConversion(boolean vector, int cols, boolean dense, boolean unknownDims) {
+		testDataFrameConversion(vector, cols, dense, unknownDims, false);
+	}
+	
+	private void testDataFrameConversion(boolean vector, int cols, boolean dense, boolean unknownDims, boolean internal) {
+		testDataFrameConversion(vector, cols, dense, unknownDims, internal, false);
+	}
+	
 	/**
 	 * 
 	 * @param vector
 	 * @param singleColBlock
 	 * @param dense
 	 * @param unknownDims
+	 * @param internal
+	 * @param missingBlocks
 	 */
-	private void testDataFrameConversion(boolean vector, int cols, boolean dense, boolean unknownDims) {
+	private void testDataFrameConversion(boolean vector, int cols, boolean dense, boolean unknownDims, boolean internal, boolean missingBlocks) {
 		boolean oldConfig = DMLScript.USE_LOCAL_SPARK_CONFIG; 
 		RUNTIME_PLATFORM oldPlatform = DMLScript.rtplatform;
 
@@ -183,8 +244,13 @@ public class DataFrameMatrixConversionTest extends AutomatedTestBase
 			int rows = (cols == cols3) ? rows3 : rows1;
 			double sparsity = dense ? sparsity1 : sparsity2; 
 			double[][] A = getRandomMatrix(rows, cols, -10, 10, sparsity, 2373); 
-			MatrixBlock mbA = DataConverter.convertToMatrixBlock(A); 
 			int blksz = ConfigurationManager.getBlocksize();
+			if( missingBlocks ) //empty first block of first, and last block of second row block
+				for( int i=0; i<Math.min(rows, 2*blksz); i++ )
+					for( int j=0; j<cols; j++ )
+						if( (i < blksz) ? j < blksz : j >= blksz )
+							A[i][j] = 0;
+			MatrixBlock mbA = DataConverter.convertToMatrixBlock(A); 
 			MatrixCharacteristics mc1 = new MatrixCharacteristics(rows, cols, blksz, blksz, mbA.getNonZeros());
 			MatrixCharacteristics mc2 = unknownDims ? new MatrixCharacteristics() : new MatrixCharacteristics(mc1);
 			
@@ -195,11 +261,13 @@ public class DataFrameMatrixConversionTest extends AutomatedTestBase
 			
 			//get binary block input rdd
 			JavaPairRDD<MatrixIndexes,MatrixBlock> in = SparkExecutionContext.toMatrixJavaPairRDD(sc, mbA, blksz, blksz);
+			if( missingBlocks )
+				in = in.filter(new FilterNonEmptyBlocksFunction());
 			
 			//matrix - dataframe - matrix conversion
 			Dataset<Row> df = RDDConverterUtils.binaryBlockToDataFrame(sparkSession, in, mc1, vector);
 			df = ( rows==rows3 ) ? df.repartition(rows) : df;
-			JavaPairRDD<MatrixIndexes,MatrixBlock> out = RDDConverterUtils.dataFrameToBinaryBlock(sc, df, mc2, true, vector);
+			JavaPairRDD<MatrixIndexes,MatrixBlock> out = RDDConverterUtils.dataFrameToBinaryBlock(sc, df, mc2, true, vector, internal);
 			
 			//get output matrix block
 			MatrixBlock mbB = SparkExecutionContext.toMatrixBlock(out, rows, cols, blksz, blksz, -1);
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.recompile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.hops.DataOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
+import org.apache.sysml.hops.Hop.OpOp2;
+import org.apache.sysml.hops.LiteralOp;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.recompile.RecompilePlanCache;
+import org.apache.sysml.hops.rewrite.HopRewriteUtils;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.parser.StatementBlock;
+import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
+import org.apache.sysml.runtime.controlprogram.caching.CacheableData;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.instructions.cp.IntObject;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Tests for the recompilation plan cache, including the signatures of inputs, 
+ * where the exact nnz replaces the initially requested nnz buckets.
+ */
+public class RecompilePlanCacheTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME1 = "recompile_plan_cache";
+	private final static String TEST_NAME2 = "recompile_plan_cache2"; //value scalar
+	private final static String TEST_NAME3 = "recompile_plan_cache3"; //size scalar
+	private final static String TEST_DIR = "functions/recompile/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + 
+		RecompilePlanCacheTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 1231;
+	private final static int cols = 5;
+	private final static int iters = 20;
+	private final static double sparsity = 0.2;
+	private final static double eps = 1e-10;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] { "W" }));
+		addTestConfiguration(TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[] { "W" }));
+		addTestConfiguration(TEST_NAME3, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME3, new String[] { "W" }));
+	}
+	
+	@Test
+	public void testLoopRecompilePlanCache() {
+		runRecompilePlanCacheTest(TEST_NAME1, true);
+	}
+	
+	@Test
+	public void testLoopRecompilePlanCacheValueScalar() {
+		runRecompilePlanCacheTest(TEST_NAME2, true);
+	}
+	
+	@Test
+	public void testLoopRecompilePlanCacheSizeScalar() {
+		runRecompilePlanCacheTest(TEST_NAME3, false);
+	}
+	
+	@Test
+	public void testSignatureDimsChange() throws Exception {
+		StatementBlock sb = new StatementBlock();
+		ArrayList<Hop> hops = createHops();
+		String sig = createSignature(sb, hops, 1000, 10, 5000, 1, 7);
+		Assert.assertEquals(sig, createSignature(sb, hops, 1000, 10, 5000, 1, 7));
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1001, 10, 5000, 1, 7));
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1000, 11, 5000, 1, 7));
+		Assert.assertNotEquals(sig, createSignature(sb, hops, -1, 10, -1, 1, 7));
+	}
+	
+	@Test
+	public void testSignatureNnzChange() throws Exception {
+		StatementBlock sb = new StatementBlock();
+		ArrayList<Hop> hops = createHops();
+		String sig = createSignature(sb, hops, 1000, 10, 5000, 1, 7);
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1000, 10, 5001, 1, 7));
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1000, 10, 4999, 1, 7));
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1000, 10, -1, 1, 7));
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1000, 10, 0, 1, 7));
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1000, 10, 10000, 1, 7));
+	}
+	
+	@Test
+	public void testSignatureExactNnzDistinctPlans() throws Exception {
+		//exact nnz (instead of nnz buckets) around 1% sparsity steps of a 
+		//100x100 matrix, which affect createvars of outputs and hence, 
+		//need distinct plans
+		StatementBlock sb = new StatementBlock();
+		ArrayList<Hop> hops = createHops();
+		long[] nnz = new long[]{1, 99, 100, 101, 199, 200, 201, 9999, 10000};
+		for( int i=0; i<nnz.length; i++ )
+			for( int j=i+1; j<nnz.length; j++ )
+				Assert.assertNotEquals(
+					createSignature(sb, hops, 100, 100, nnz[i], 1, 7),
+					createSignature(sb, hops, 100, 100, nnz[j], 1, 7));
+	}
+	
+	@Test
+	public void testSignatureScalars() throws Exception {
+		StatementBlock sb = new StatementBlock();
+		ArrayList<Hop> hops = createHops();
+		String sig = createSignature(sb, hops, 1000, 10, 5000, 1, 7);
+		
+		//value scalar (X * i) not part of signature and literal replacement
+		Assert.assertEquals(sig, createSignature(sb, hops, 1000, 10, 5000, 2, 7));
+		LocalVariableMap vars = createVariables(1000, 10, 5000, 2, 7);
+		LocalVariableMap litVars = RecompilePlanCache.getLiteralVariables(sb, hops, vars);
+		Assert.assertNull(litVars.get("i"));
+		Assert.assertNotNull(litVars.get("n"));
+		Assert.assertNotNull(litVars.get("X"));
+		
+		//size scalar (matrix(7, rows=n, cols=1)) part of signature
+		Assert.assertNotEquals(sig, createSignature(sb, hops, 1000, 10, 5000, 1, 8));
+	}
+	
+	@Test
+	public void testSignatureSparseInMemoryMatrixMult() throws Exception {
+		boolean oldCaching = CacheableData.isCachingActive();
+		try {
+			CacheableData.disableCaching();
+			
+			//C = X %*% X, where sparsity estimates from in-memory sparse 
+			//inputs depend on the non-zero structure (not in the signature)
+			StatementBlock sb = new StatementBlock();
+			Hop X = new DataOp("X", DataType.MATRIX, ValueType.DOUBLE, 
+				DataOpTypes.TRANSIENTREAD, "X", -1, -1, -1, 1000, 1000);
+			ArrayList<Hop> hops = new ArrayList<Hop>();
+			hops.add(new DataOp("C", DataType.MATRIX, ValueType.DOUBLE, 
+				HopRewriteUtils.createMatrixMultiply(X, X), DataOpTypes.TRANSIENTWRITE, "C"));
+			
+			//not in memory, in-memory dense, and in-memory sparse input
+			LocalVariableMap vars = createVariables(100, 100, 100, 1, 7);
+			Assert.assertNotNull(RecompilePlanCache.createSignature(sb, hops, vars));
+			MatrixObject mo = (MatrixObject) vars.get("X");
+			mo.acquireModify(MatrixBlock.randOperations(100, 100, 0.9, 1, 1, "uniform", 7));
+			mo.release();
+			Assert.assertNotNull(RecompilePlanCache.createSignature(sb, hops, vars));
+			mo.acquireModify(MatrixBlock.randOperations(100, 100, 0.01, 1, 1, "uniform", 7));
+			mo.release();
+			Assert.assertNull(RecompilePlanCache.createSignature(sb, hops, vars));
+		}
+		finally {
+			if( oldCaching )
+				CacheableData.enableCaching();
+		}
+	}
+	
+	private void runRecompilePlanCacheTest(String testname, boolean hits) {
+		boolean oldFlag = OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(testname);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + testname + ".dml";
+			programArgs = new String[]{"-stats", "-args", 
+				input("A"), String.valueOf(iters), output("W") };
+			
+			//generate input data w/ empty rows (unknown sizes after removeEmpty)
+			double[][] A = getRandomMatrix(rows, cols, 0, 1, sparsity, 7);
+			writeInputMatrixWithMTD("A", A, true);
+			
+			//run w/o plan cache
+			OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE = false;
+			runTest(true, false, null, -1); 
+			HashMap<CellIndex, Double> W1 = readDMLMatrixFromHDFS("W");
+			Assert.assertEquals(0, Statistics.getHopRecompilePlanCacheHits());
+			
+			//run w/ plan cache
+			OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE = true;
+			runTest(true, false, null, -1); 
+			HashMap<CellIndex, Double> W2 = readDMLMatrixFromHDFS("W");
+			
+			//compare results and check plan cache hits in loop
+			TestUtils.compareMatrices(W1, W2, eps, "Stat-NoCache", "Stat-Cache");
+			if( hits ) {
+				Assert.assertTrue(Statistics.getHopRecompilePlanCacheHits() >= iters-2);
+				Assert.assertTrue(Statistics.getHopRecompilePlanCacheMisses() >= 1);
+			}
+			else {
+				Assert.assertEquals(0, Statistics.getHopRecompilePlanCacheHits());
+				Assert.assertTrue(Statistics.getHopRecompilePlanCacheMisses() >= iters);
+			}
+		}
+		finally {
+			OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE = oldFlag;
+		}
+	}
+	
+	private static ArrayList<Hop> createHops() throws Exception {
+		//Y = X * i; Z = matrix(7, rows=n, cols=1);
+		Hop X = new DataOp("X", DataType.MATRIX, ValueType.DOUBLE, 
+			DataOpTypes.TRANSIENTREAD, "X", -1, -1, -1, 1000, 1000);
+		Hop i = new DataOp("i", DataType.SCALAR, ValueType.INT, 
+			DataOpTypes.TRANSIENTREAD, "i", 0, 0, -1, -1, -1);
+		Hop n = new DataOp("n", DataType.SCALAR, ValueType.INT, 
+			DataOpTypes.TRANSIENTREAD, "n", 0, 0, -1, -1, -1);
+		Hop Y = HopRewriteUtils.createBinary(X, i, OpOp2.MULT);
+		Hop Z = HopRewriteUtils.createDataGenOpByVal(n, new LiteralOp(1), 7);
+		ArrayList<Hop> hops = new ArrayList<Hop>();
+		hops.add(new DataOp("Y", DataType.MATRIX, ValueType.DOUBLE, Y, DataOpTypes.TRANSIENTWRITE, "Y"));
+		hops.add(new DataOp("Z", DataType.MATRIX, ValueType.DOUBLE, Z, DataOpTypes.TRANSIENTWRITE, "Z"));
+		return hops;
+	}
+	
+	private static LocalVariableMap createVariables(long rlen, long clen, long nnz, long i, long n) {
+		LocalVariableMap vars = new LocalVariableMap();
+		MatrixCharacteristics mc = new MatrixCharacteristics(rlen, clen, 1000, 1000, nnz);
+		vars.put("X", new MatrixObject(ValueType.DOUBLE, OptimizerUtils.getUniqueTempFileName(),
+			new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo)));
+		vars.put("i", new IntObject(i));
+		vars.put("n", new IntObject(n));
+		return vars;
+	}
+	
+	private static String createSignature(StatementBlock sb, ArrayList<Hop> hops, long rlen, long clen, long nnz, long i, long n) 
+		throws Exception 
+	{
+		String sig = RecompilePlanCache.createSignature(sb, hops, createVariables(rlen, clen, nnz, i, n));
+		Assert.assertNotNull(sig);
+		return sig;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.recompile;
+
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.lops.Lop;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContextFactory;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.instructions.spark.CheckpointSPInstruction;
+import org.apache.sysml.runtime.instructions.spark.data.BlockStatistics;
+import org.apache.sysml.runtime.instructions.spark.functions.FilterNonEmptyBlocksFunction;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This is a component test for the runtime statistics of adaptive spark mode,
+ * which checks that checkpoints remain lazy, and that the block statistics of
+ * rdd inputs with unknown sparsity are collected during checkpoint 
+ * materialization by consumers, without additional jobs.
+ */
+public class SparkAdaptiveNnzTest extends AutomatedTestBase
+{
+	private final static int rows = 2345;
+	private final static int cols = 1321;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.01;
+	
+	private final static String VAR_IN = "X";
+	private final static String VAR_OUT = "Y";
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testCheckpointLazyDense() {
+		runAdaptiveNnzTest(sparsity1, true, false);
+	}
+	
+	@Test
+	public void testCheckpointLazySparse() {
+		runAdaptiveNnzTest(sparsity2, true, false);
+	}
+	
+	@Test
+	public void testNoStatisticsWithoutCheckpointDense() {
+		runAdaptiveNnzTest(sparsity1, false, false);
+	}
+	
+	@Test
+	public void testNoStatisticsWithoutCheckpointSparse() {
+		runAdaptiveNnzTest(sparsity2, false, false);
+	}
+	
+	@Test
+	public void testCheckpointStatisticsMissingBlocks() {
+		runAdaptiveNnzTest(sparsity2, true, true);
+	}
+	
+	private void runAdaptiveNnzTest(double sparsity, boolean checkpoint, boolean empty)
+	{
+		boolean oldConfig = DMLScript.USE_LOCAL_SPARK_CONFIG; 
+		RUNTIME_PLATFORM oldPlatform = DMLScript.rtplatform;
+		SparkExecutionContext sec = null;
+		
+		try
+		{
+			DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+			DMLScript.rtplatform = RUNTIME_PLATFORM.HYBRID_SPARK;
+			DMLConfig conf = new DMLConfig();
+			conf.setTextValue(DMLConfig.SPARK_ADAPTIVE, "true");
+			ConfigurationManager.setLocalConfig(conf);
+			
+			//generate input data, w/o non-empty blocks if requested
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(
+				getRandomMatrix(rows, cols, -1, 1, empty ? 0 : sparsity, 7));
+			int blksz = ConfigurationManager.getBlocksize();
+			
+			//create rdd-backed matrix w/ unknown number of non-zeros
+			sec = (SparkExecutionContext) ExecutionContextFactory.createContext();
+			JavaPairRDD<MatrixIndexes,MatrixBlock> in = SparkExecutionContext
+				.toMatrixJavaPairRDD(sec.getSparkContext(), mb, blksz, blksz)
+				.filter(new FilterNonEmptyBlocksFunction());
+			MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, blksz, blksz);
+			MatrixObject mo = new MatrixObject(ValueType.DOUBLE, OptimizerUtils.getUniqueTempFileName(),
+				new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo));
+			sec.setVariable(VAR_IN, mo);
+			sec.setRDDHandleForVariable(VAR_IN, in);
+			String var = VAR_IN;
+			
+			//checkpoint w/o eager computation of statistics
+			if( checkpoint ) {
+				CheckpointSPInstruction inst = CheckpointSPInstruction.parseInstruction(
+					createCheckpointInstruction(VAR_IN, VAR_OUT));
+				inst.processInstruction(sec);
+				var = VAR_OUT;
+				Assert.assertTrue(sec.getMatrixObject(var).getRDDHandle().isCheckpointRDD());
+				Assert.assertFalse(sec.getMatrixCharacteristics(var).nnzKnown());
+				Assert.assertFalse(sec.isRDDCached(sec.getMatrixObject(var).getRDDHandle().getRDD().id()));
+			}
+			
+			//no statistics (and no job) before materialization (e.g., on recompilation)
+			Assert.assertNull(sec.updateMatrixStatistics(var));
+			Assert.assertFalse(sec.getMatrixCharacteristics(var).nnzKnown());
+			
+			//materialization by consumer (repeated, e.g., from cache or recomputed)
+			JavaPairRDD<?,?> out = sec.getMatrixObject(var).getRDDHandle().getRDD();
+			long numBlocks = out.count();
+			Assert.assertEquals(numBlocks, out.count());
+			
+			//statistics collected as side effect of checkpoint materialization
+			BlockStatistics stats = sec.updateMatrixStatistics(var);
+			if( checkpoint ) {
+				Assert.assertNotNull(stats);
+				Assert.assertEquals(mb.getNonZeros(), stats.getNonZeros());
+				Assert.assertEquals(mb.getNonZeros(), sec.getMatrixCharacteristics(var).getNonZeros());
+				Assert.assertEquals(numBlocks, stats.getNumBlocks());
+				Assert.assertEquals(0, stats.getSparsityHistogram()[0]); //no empty blocks
+				Assert.assertTrue(stats.getMaxBlockNonZeros() <= (long)blksz*blksz);
+				
+				//no update for known number of non-zeros
+				Assert.assertNull(sec.updateMatrixStatistics(var));
+			}
+			else {
+				Assert.assertNull(stats);
+				Assert.assertFalse(sec.getMatrixCharacteristics(var).nnzKnown());
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			if( sec != null )
+				sec.close();
+			ConfigurationManager.clearLocalConfigs();
+			DMLScript.USE_LOCAL_SPARK_CONFIG = oldConfig;
+			DMLScript.rtplatform = oldPlatform;
+		}
+	}
+	
+	private static String createCheckpointInstruction(String in, String out) {
+		String prefix = Lop.DATATYPE_PREFIX + "MATRIX" + Lop.VALUETYPE_PREFIX + "DOUBLE";
+		return "SPARK" + Lop.OPERAND_DELIMITOR + Checkpoint.OPCODE 
+			+ Lop.OPERAND_DELIMITOR + in + prefix
+			+ Lop.OPERAND_DELIMITOR + out + prefix
+			+ Lop.OPERAND_DELIMITOR + Checkpoint.getDefaultStorageLevelString();
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.recompile;
+
+import java.io.File;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.apache.sysml.runtime.instructions.Instruction;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * This is an integration test for plan changes in adaptive spark mode, where
+ * the ultra-sparse output of table has unknown sparsity at compile time. With
+ * the worst-case dense estimate, the matrix multiplication in the loop cannot
+ * broadcast either input (shuffle-based plan), while the exact statistics, 
+ * collected during materialization of the checkpoint in the first iteration, 
+ * allow a broadcast-based mapmm in the second iteration.
+ */
+public class SparkAdaptivePlanTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "adaptive_mmult_table";
+	private final static String TEST_DIR = "functions/recompile/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + SparkAdaptivePlanTest.class.getSimpleName() + "/";
+	private final static File TEST_CONF_FILE = new File(SCRIPT_DIR + TEST_DIR, "SystemML-config-adaptive.xml");
+	
+	//table output: 20K x 2K with at most 20K non-zeros (320MB if dense)
+	private final static int rows = 20000;
+	private final static int cols1 = 2000;
+	private final static int cols2 = 500; //8MB dense right-hand side
+	
+	private boolean _adaptive = false;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "S" }));
+	}
+	
+	@Test
+	public void testTableMatMultWithoutAdaptive() {
+		runAdaptivePlanTest(false);
+	}
+	
+	@Test
+	public void testTableMatMultAdaptive() {
+		runAdaptivePlanTest(true);
+	}
+	
+	private void runAdaptivePlanTest(boolean adaptive)
+	{
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		long memOld = InfrastructureAnalyzer.getLocalMaxMemory();
+		
+		try
+		{
+			rtplatform = RUNTIME_PLATFORM.HYBRID_SPARK;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+			_adaptive = adaptive;
+			
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{ "-explain", "-stats", "-args", String.valueOf(rows), 
+				String.valueOf(cols1), String.valueOf(cols2), output("S") };
+			
+			//small local memory budget (~11MB): the right-hand side never fits
+			//into the broadcast budget, and the table output only if sparse
+			InfrastructureAnalyzer.setLocalMaxMemory(16*1024*1024);
+			
+			runTest(true, false, null, -1); 
+			
+			//check for valid result
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("S");
+			Assert.assertTrue(dmlfile.get(new CellIndex(1,1)) > 0);
+			
+			//check for plan change from shuffle-based to broadcast-based matrix multiply
+			String opcode = Instruction.SP_INST_PREFIX + "mapmm";
+			Assert.assertEquals("Unexpected use of "+opcode+".", adaptive, heavyHittersContainsSubString(opcode));
+		}
+		finally {
+			rtplatform = platformOld;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+			InfrastructureAnalyzer.setLocalMaxMemory(memOld);
+			_adaptive = false;
+		}
+	}
+	
+	/**
+	 * Override default configuration with custom test configuration 
+	 * in adaptive mode (spark.adaptive) to ensure scratch space and local 
+	 * temporary directory locations are also updated.
+	 */
+	@Override
+	protected File getConfigTemplateFile() {
+		if( !_adaptive )
+			return super.getConfigTemplateFile();
+		System.out.println("This test case overrides default configuration with " + TEST_CONF_FILE.getPath());
+		return TEST_CONF_FILE;
+	}
+}
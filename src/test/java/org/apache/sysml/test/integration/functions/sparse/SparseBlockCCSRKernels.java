@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.sparse;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.runtime.functionobjects.Multiply;
+import org.apache.sysml.runtime.functionobjects.Plus;
+import org.apache.sysml.runtime.instructions.InstructionUtils;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCCSR;
+import org.apache.sysml.runtime.matrix.data.SparseBlockFactory;
+import org.apache.sysml.runtime.matrix.operators.AggregateBinaryOperator;
+import org.apache.sysml.runtime.matrix.operators.AggregateOperator;
+import org.apache.sysml.runtime.matrix.operators.AggregateUnaryOperator;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * This is a sparse matrix block component test for row-wise sparse kernels
+ * (matrix multiplication, aggregates, in-place updates) over sparse blocks
+ * in CCSR, which access rows via indexes(r), values(r), and pos(r).
+ *
+ */
+public class SparseBlockCCSRKernels extends AutomatedTestBase
+{
+	private final static int rows = 871;
+	private final static int cols1 = 195; //8-bit column indexes
+	private final static int cols2 = 295; //16-bit column indexes
+	private final static int cols3 = 317;
+	private final static double sparsity1 = 0.05;
+	private final static double sparsity2 = 0.2;
+	private final static double eps = 1e-10;
+
+	public enum KernelType {
+		MATMULT,
+		ROWSUMS,
+		COLSUMS,
+		UPDATE_INPLACE,
+		MODIFY_ROWS,
+	}
+
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+
+	@Test
+	public void testCCSRByteMatMultSparse()  {
+		runSparseBlockKernelTest(KernelType.MATMULT, cols1, sparsity1);
+	}
+
+	@Test
+	public void testCCSRCharMatMultSparse()  {
+		runSparseBlockKernelTest(KernelType.MATMULT, cols2, sparsity1);
+	}
+
+	@Test
+	public void testCCSRCharMatMultDense()  {
+		runSparseBlockKernelTest(KernelType.MATMULT, cols2, sparsity2);
+	}
+
+	@Test
+	public void testCCSRByteRowSums()  {
+		runSparseBlockKernelTest(KernelType.ROWSUMS, cols1, sparsity1);
+	}
+
+	@Test
+	public void testCCSRCharRowSums()  {
+		runSparseBlockKernelTest(KernelType.ROWSUMS, cols2, sparsity2);
+	}
+
+	@Test
+	public void testCCSRByteColSums()  {
+		runSparseBlockKernelTest(KernelType.COLSUMS, cols1, sparsity2);
+	}
+
+	@Test
+	public void testCCSRCharColSums()  {
+		runSparseBlockKernelTest(KernelType.COLSUMS, cols2, sparsity1);
+	}
+
+	@Test
+	public void testCCSRByteUpdateInPlace()  {
+		runSparseBlockKernelTest(KernelType.UPDATE_INPLACE, cols1, sparsity1);
+	}
+
+	@Test
+	public void testCCSRCharUpdateInPlace()  {
+		runSparseBlockKernelTest(KernelType.UPDATE_INPLACE, cols2, sparsity2);
+	}
+
+	@Test
+	public void testCCSRByteModifyRows()  {
+		runSparseBlockKernelTest(KernelType.MODIFY_ROWS, cols1, sparsity1);
+	}
+
+	@Test
+	public void testCCSRCharModifyRows()  {
+		runSparseBlockKernelTest(KernelType.MODIFY_ROWS, cols2, sparsity2);
+	}
+
+	@Test
+	public void testCCSRFactoryIndexWidth()  {
+		//8-bit column indexes for narrow blocks, 16-bit otherwise
+		Assert.assertTrue(((SparseBlockCCSR)SparseBlockFactory
+			.createSparseBlock(SparseBlock.Type.CCSR, rows, cols1)).isByteIndexes());
+		Assert.assertFalse(((SparseBlockCCSR)SparseBlockFactory
+			.createSparseBlock(SparseBlock.Type.CCSR, rows, cols2)).isByteIndexes());
+		
+		//unknown number of columns: 8-bit column indexes, widened on demand
+		SparseBlockCCSR sblock = (SparseBlockCCSR) SparseBlockFactory
+			.createSparseBlock(SparseBlock.Type.CCSR, rows);
+		Assert.assertTrue(sblock.isByteIndexes());
+		sblock.set(7, cols1-1, 3);
+		Assert.assertTrue(sblock.isByteIndexes());
+		sblock.set(7, cols2-1, 5);
+		Assert.assertFalse(sblock.isByteIndexes());
+		Assert.assertEquals(3, sblock.get(7, cols1-1), eps);
+		Assert.assertEquals(5, sblock.get(7, cols2-1), eps);
+	}
+
+	@Test
+	public void testCCSRCheckpointType()  {
+		//CCSR for narrow blocks (by number of columns or blocksize), CSR otherwise
+		Assert.assertEquals(SparseBlock.Type.CCSR, OptimizerUtils.getCheckpointSparseBlockType(
+			new MatrixCharacteristics(rows, cols1, 1000, 1000)));
+		Assert.assertEquals(SparseBlock.Type.CCSR, OptimizerUtils.getCheckpointSparseBlockType(
+			new MatrixCharacteristics(rows, 10000, 200, 200)));
+		Assert.assertEquals(SparseBlock.Type.CSR, OptimizerUtils.getCheckpointSparseBlockType(
+			new MatrixCharacteristics(rows, cols2, 1000, 1000)));
+	}
+
+	private void runSparseBlockKernelTest(KernelType ktype, int cols, double sparsity)
+	{
+		try
+		{
+			//data generation and sparse block conversions
+			double[][] A = getRandomMatrix(rows, cols, -10, 10, sparsity, 1234);
+			MatrixBlock mbCSR = new MatrixBlock(DataConverter.convertToMatrixBlock(A), SparseBlock.Type.CSR, true);
+			MatrixBlock mbCCSR = new MatrixBlock(mbCSR, SparseBlock.Type.CCSR, true);
+			Assert.assertTrue(mbCCSR.getSparseBlock() instanceof SparseBlockCCSR);
+			Assert.assertEquals(cols <= SparseBlockCCSR.MAX_COLS_BYTE,
+				((SparseBlockCCSR)mbCCSR.getSparseBlock()).isByteIndexes());
+
+			MatrixBlock ret1 = null, ret2 = null;
+			switch( ktype ) {
+				case MATMULT: {
+					MatrixBlock B = DataConverter.convertToMatrixBlock(
+						getRandomMatrix(cols, cols3, -1, 1, sparsity, 7));
+					AggregateBinaryOperator abop = new AggregateBinaryOperator(Multiply.getMultiplyFnObject(),
+						new AggregateOperator(0, Plus.getPlusFnObject()));
+					ret1 = (MatrixBlock) mbCSR.aggregateBinaryOperations(mbCSR, B, new MatrixBlock(), abop);
+					ret2 = (MatrixBlock) mbCCSR.aggregateBinaryOperations(mbCCSR, B, new MatrixBlock(), abop);
+					break;
+				}
+				case ROWSUMS:
+				case COLSUMS: {
+					AggregateUnaryOperator auop = InstructionUtils.parseBasicAggregateUnaryOperator(
+						(ktype==KernelType.ROWSUMS) ? "uark+" : "uack+");
+					ret1 = (MatrixBlock) mbCSR.aggregateUnaryOperations(auop, new MatrixBlock(), 1000, 1000, null, true);
+					ret2 = (MatrixBlock) mbCCSR.aggregateUnaryOperations(auop, new MatrixBlock(), 1000, 1000, null, true);
+					break;
+				}
+				case UPDATE_INPLACE: {
+					//scale all values in-place via the row views of both blocks
+					scaleInPlace(mbCSR.getSparseBlock(), 2);
+					scaleInPlace(mbCCSR.getSparseBlock(), 2);
+					ret1 = mbCSR;
+					ret2 = mbCCSR;
+					for( int i=0; i<rows; i++ )
+						for( int j=0; j<cols; j++ )
+							Assert.assertEquals(2*A[i][j], mbCCSR.quickGetValue(i, j), eps);
+					break;
+				}
+				case MODIFY_ROWS: {
+					//read rows (decoded on demand), modify rows, and read again
+					SparseBlock sblock1 = mbCSR.getSparseBlock();
+					SparseBlock sblock2 = mbCCSR.getSparseBlock();
+					compareRows(sblock1, sblock2);
+					for( int i=0; i<rows; i+=7 ) {
+						sblock1.set(i, cols-1, i+1);
+						sblock2.set(i, cols-1, i+1);
+					}
+					mbCSR.recomputeNonZeros();
+					mbCCSR.recomputeNonZeros();
+					compareRows(sblock1, sblock2);
+					ret1 = mbCSR;
+					ret2 = mbCCSR;
+					break;
+				}
+			}
+
+			//compare results of CSR and CCSR inputs
+			Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1),
+				DataConverter.convertToDoubleMatrix(ret2), ret1.getNumRows(), ret1.getNumColumns(), eps);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static void compareRows(SparseBlock sblock1, SparseBlock sblock2) {
+		for( int i=0; i<sblock1.numRows(); i++ ) {
+			Assert.assertEquals(sblock1.size(i), sblock2.size(i));
+			if( sblock1.isEmpty(i) ) continue;
+			int apos = sblock1.pos(i), bpos = sblock2.pos(i);
+			int[] aix = sblock1.indexes(i), bix = sblock2.indexes(i);
+			double[] avals = sblock1.values(i), bvals = sblock2.values(i);
+			for( int j=0; j<sblock1.size(i); j++ ) {
+				Assert.assertEquals(aix[apos+j], bix[bpos+j]);
+				Assert.assertEquals(avals[apos+j], bvals[bpos+j], eps);
+			}
+		}
+	}
+
+	private static void scaleInPlace(SparseBlock sblock, double factor) {
+		for( int i=0; i<sblock.numRows(); i++ ) {
+			if( sblock.isEmpty(i) ) continue;
+			int apos = sblock.pos(i);
+			int alen = sblock.size(i);
+			double[] avals = sblock.values(i);
+			for( int j=apos; j<apos+alen; j++ )
+				avals[j] *= factor;
+		}
+	}
+}
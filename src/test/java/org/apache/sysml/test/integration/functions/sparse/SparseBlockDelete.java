@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.apache.sysml.runtime.matrix.data.IJV;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCOO;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockMCSR;
@@ -98,6 +99,21 @@ public class SparseBlockDelete extends AutomatedTestBase
 	public void testSparseBlockCOO3()  {
 		runSparseBlockDeleteTest(SparseBlock.Type.COO, sparsity3);
 	}
+	
+	@Test
+	public void testSparseBlockCCSR1()  {
+		runSparseBlockDeleteTest(SparseBlock.Type.CCSR, sparsity1);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR2()  {
+		runSparseBlockDeleteTest(SparseBlock.Type.CCSR, sparsity2);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR3()  {
+		runSparseBlockDeleteTest(SparseBlock.Type.CCSR, sparsity3);
+	}
 		
 	/**
 	 * 
@@ -119,6 +135,7 @@ public class SparseBlockDelete extends AutomatedTestBase
 				case MCSR: sblock = new SparseBlockMCSR(srtmp); break;
 				case CSR: sblock = new SparseBlockCSR(srtmp); break;
 				case COO: sblock = new SparseBlockCOO(srtmp); break;
+				case CCSR: sblock = new SparseBlockCCSR(srtmp); break;
 			}
 			
 			//delete range per row via set
@@ -23,6 +23,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCOO;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockMCSR;
@@ -192,6 +193,51 @@ public class SparseBlockGetSet extends AutomatedTestBase
 		runSparseBlockGetSetTest(SparseBlock.Type.COO, sparsity3, InitType.RAND_SET);
 	}
 	
+	@Test
+	public void testSparseBlockCCSR1Bulk()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity1, InitType.BULK);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR2Bulk()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity2, InitType.BULK);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR3Bulk()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity3, InitType.BULK);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR1Seq()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity1, InitType.SEQ_SET);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR2Seq()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity2, InitType.SEQ_SET);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR3Seq()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity3, InitType.SEQ_SET);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR1Rand()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity1, InitType.RAND_SET);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR2Rand()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity2, InitType.RAND_SET);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR3Rand()  {
+		runSparseBlockGetSetTest(SparseBlock.Type.CCSR, sparsity3, InitType.RAND_SET);
+	}
+	
 	/**
 	 * 
 	 * @param sparseM1
@@ -214,6 +260,7 @@ public class SparseBlockGetSet extends AutomatedTestBase
 					case MCSR: sblock = new SparseBlockMCSR(srtmp); break;
 					case CSR: sblock = new SparseBlockCSR(srtmp); break;
 					case COO: sblock = new SparseBlockCOO(srtmp); break;
+					case CCSR: sblock = new SparseBlockCCSR(srtmp); break;
 				}
 			}
 			else if( itype == InitType.SEQ_SET || itype == InitType.RAND_SET ) {
@@ -221,6 +268,7 @@ public class SparseBlockGetSet extends AutomatedTestBase
 					case MCSR: sblock = new SparseBlockMCSR(rows, cols); break;
 					case CSR: sblock = new SparseBlockCSR(rows, cols); break;
 					case COO: sblock = new SparseBlockCOO(rows, cols); break;
+					case CCSR: sblock = new SparseBlockCCSR(rows, cols); break;
 				}
 				
 				if(itype == InitType.SEQ_SET) {
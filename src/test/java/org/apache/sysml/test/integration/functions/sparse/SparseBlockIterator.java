@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.apache.sysml.runtime.matrix.data.IJV;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCOO;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockMCSR;
@@ -143,6 +144,36 @@ public class SparseBlockIterator extends AutomatedTestBase
 		runSparseBlockIteratorTest(SparseBlock.Type.COO, sparsity3, true);
 	}
 	
+	@Test
+	public void testSparseBlockCCSR1Full()  {
+		runSparseBlockIteratorTest(SparseBlock.Type.CCSR, sparsity1, false);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR2Full()  {
+		runSparseBlockIteratorTest(SparseBlock.Type.CCSR, sparsity2, false);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR3Full()  {
+		runSparseBlockIteratorTest(SparseBlock.Type.CCSR, sparsity3, false);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR1Partial()  {
+		runSparseBlockIteratorTest(SparseBlock.Type.CCSR, sparsity1, true);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR2Partial()  {
+		runSparseBlockIteratorTest(SparseBlock.Type.CCSR, sparsity2, true);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR3Partial()  {
+		runSparseBlockIteratorTest(SparseBlock.Type.CCSR, sparsity3, true);
+	}
+	
 	
 	/**
 	 * 
@@ -165,6 +196,7 @@ public class SparseBlockIterator extends AutomatedTestBase
 				case MCSR: sblock = new SparseBlockMCSR(srtmp); break;
 				case CSR: sblock = new SparseBlockCSR(srtmp); break;
 				case COO: sblock = new SparseBlockCOO(srtmp); break;
+				case CCSR: sblock = new SparseBlockCCSR(srtmp); break;
 			}
 			
 			//check for correct number of non-zeros
@@ -23,6 +23,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCOO;
 import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
 import org.apache.sysml.runtime.matrix.data.SparseBlockMCSR;
@@ -94,6 +95,21 @@ public class SparseBlockScan extends AutomatedTestBase
 		runSparseBlockScanTest(SparseBlock.Type.COO, sparsity3);
 	}
 	
+	@Test
+	public void testSparseBlockCCSR1Full()  {
+		runSparseBlockScanTest(SparseBlock.Type.CCSR, sparsity1);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR2Full()  {
+		runSparseBlockScanTest(SparseBlock.Type.CCSR, sparsity2);
+	}
+	
+	@Test
+	public void testSparseBlockCCSR3Full()  {
+		runSparseBlockScanTest(SparseBlock.Type.CCSR, sparsity3);
+	}
+	
 	/**
 	 * 
 	 * @param sparseM1
@@ -115,6 +131,7 @@ public class SparseBlockScan extends AutomatedTestBase
 				case MCSR: sblock = new SparseBlockMCSR(srtmp); break;
 				case CSR: sblock = new SparseBlockCSR(srtmp); break;
 				case COO: sblock = new SparseBlockCOO(srtmp); break;
+				case CCSR: sblock = new SparseBlockCCSR(srtmp); break;
 			}
 			
 			//check for correct number of non-zeros
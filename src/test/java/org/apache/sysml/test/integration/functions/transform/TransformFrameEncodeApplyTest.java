@@ -24,8 +24,12 @@ import org.junit.Test;
 import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
 import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.runtime.io.FrameReaderFactory;
 import org.apache.sysml.runtime.io.MatrixReaderFactory;
+import org.apache.sysml.runtime.matrix.data.CSVFileFormatProperties;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.transform.encode.EncoderFeatureHash;
 import org.apache.sysml.runtime.util.DataConverter;
 import org.apache.sysml.test.integration.AutomatedTestBase;
 import org.apache.sysml.test.integration.TestConfiguration;
@@ -46,6 +50,11 @@ public class TransformFrameEncodeApplyTest extends AutomatedTestBase
 	private final static String SPEC2b 		= "homes3/homes.tfspec_dummy2.json";
 	private final static String SPEC3 		= "homes3/homes.tfspec_bin.json"; //incl recode
 	private final static String SPEC3b 		= "homes3/homes.tfspec_bin2.json"; //incl recode
+	private final static String SPEC6 		= "homes3/homes.tfspec_hash.json";
+	private final static String SPEC6b 		= "homes3/homes.tfspec_hash_dummy.json";
+	
+	//number of hash buckets of hash specs
+	private final static int K = 5;
 	
 	//dataset and transform tasks with missing values
 	private final static String DATASET2 	= "homes/homes.csv";
@@ -60,6 +69,8 @@ public class TransformFrameEncodeApplyTest extends AutomatedTestBase
 		BIN,
 		IMPUTE,
 		OMIT,
+		HASH,
+		HASH_DUMMY,
 	}
 	
 	@Override
@@ -218,6 +229,36 @@ public class TransformFrameEncodeApplyTest extends AutomatedTestBase
 		runTransformTest(RUNTIME_PLATFORM.HYBRID_SPARK, "csv", TransformType.IMPUTE, true);
 	}
 	
+	@Test
+	public void testHomesHashIDsSingleNodeCSV() {
+		runTransformTest(RUNTIME_PLATFORM.SINGLE_NODE, "csv", TransformType.HASH, false);
+	}
+	
+	@Test
+	public void testHomesHashIDsSparkCSV() {
+		runTransformTest(RUNTIME_PLATFORM.SPARK, "csv", TransformType.HASH, false);
+	}
+	
+	@Test
+	public void testHomesHashIDsHybridCSV() {
+		runTransformTest(RUNTIME_PLATFORM.HYBRID_SPARK, "csv", TransformType.HASH, false);
+	}
+	
+	@Test
+	public void testHomesHashDummycodeIDsSingleNodeCSV() {
+		runTransformTest(RUNTIME_PLATFORM.SINGLE_NODE, "csv", TransformType.HASH_DUMMY, false);
+	}
+	
+	@Test
+	public void testHomesHashDummycodeIDsSparkCSV() {
+		runTransformTest(RUNTIME_PLATFORM.SPARK, "csv", TransformType.HASH_DUMMY, false);
+	}
+	
+	@Test
+	public void testHomesHashDummycodeIDsHybridCSV() {
+		runTransformTest(RUNTIME_PLATFORM.HYBRID_SPARK, "csv", TransformType.HASH_DUMMY, false);
+	}
+	
 	/**
 	 * 
 	 * @param rt
@@ -243,6 +284,8 @@ public class TransformFrameEncodeApplyTest extends AutomatedTestBase
 			case BIN:    SPEC = colnames?SPEC3b:SPEC3; DATASET = DATASET1; break;
 			case IMPUTE: SPEC = colnames?SPEC4b:SPEC4; DATASET = DATASET2; break;
 			case OMIT:   SPEC = colnames?SPEC5b:SPEC5; DATASET = DATASET2; break;
+			case HASH:   SPEC = SPEC6; DATASET = DATASET1; break;
+			case HASH_DUMMY: SPEC = SPEC6b; DATASET = DATASET1; break;
 		}
 
 		if( !ofmt.equals("csv") )
@@ -273,6 +316,14 @@ public class TransformFrameEncodeApplyTest extends AutomatedTestBase
 				.readMatrixFromHDFS(output("tfout2"), -1L, -1L, 1000, 1000, -1));
 			TestUtils.compareMatrices(R1, R2, R1.length, R1[0].length, 0);		
 			
+			//check hash codes against the input tokens (w/o build job in spark)
+			if( type == TransformType.HASH || type == TransformType.HASH_DUMMY ) {
+				FrameBlock in = FrameReaderFactory.createFrameReader(InputInfo.CSVInputInfo, 
+					new CSVFileFormatProperties(true, ",", false))
+					.readFrameFromHDFS(HOME + "input/" + DATASET, -1L, -1L);
+				checkHashCodes(in, R1, type == TransformType.HASH_DUMMY);
+			}
+			
 			if( rt == RUNTIME_PLATFORM.HYBRID_SPARK ) {
 				Assert.assertEquals("Wrong number of executed Spark instructions: " + 
 					Statistics.getNoOfExecutedSPInst(), new Long(2), new Long(Statistics.getNoOfExecutedSPInst()));
@@ -287,4 +338,19 @@ public class TransformFrameEncodeApplyTest extends AutomatedTestBase
 			OptimizerUtils.ALLOW_FRAME_CSV_REBLOCK = csvReblockOld;
 		}
 	}
-}
\ No newline at end of file
+	
+	private static void checkHashCodes(FrameBlock in, double[][] R, boolean dummy) {
+		Assert.assertEquals(in.getNumColumns()+(dummy?K-1:0), R[0].length);
+		for( int i=0; i<in.getNumRows(); i++ ) {
+			double code2 = EncoderFeatureHash.getCode(in.get(i, 1).toString(), K);
+			double code7 = EncoderFeatureHash.getCode(in.get(i, 6).toString(), K);
+			Assert.assertEquals(code2, R[i][1], 0);
+			if( dummy ) {
+				for( int k=1; k<=K; k++ )
+					Assert.assertEquals((k==code7) ? 1 : 0, R[i][6+k-1], 0);
+			}
+			else
+				Assert.assertEquals(code7, R[i][6], 0);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.transform;
+
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
+import org.apache.sysml.runtime.transform.DummycodeAgent;
+import org.apache.sysml.runtime.transform.RecodeAgent;
+import org.apache.sysml.runtime.transform.encode.Encoder;
+import org.apache.sysml.runtime.transform.encode.EncoderComposite;
+import org.apache.sysml.runtime.transform.encode.EncoderFactory;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransformFrameEncodeDummycodeSparseTest extends AutomatedTestBase
+{
+	private final static int rows = 23457;
+	private final static int distinct = 7919;
+	
+	private final static String SPEC_RECODE = "{\"ids\": true, \"recode\": [1, 3]}";
+	private final static String SPEC_DUMMY = "{\"ids\": true, \"dummycode\": [1, 3]}";
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testEncodeDummycodeSparseSingleThreaded() throws Exception {
+		runTransformEncodeTest(1);
+	}
+	
+	@Test
+	public void testEncodeDummycodeSparseMultiThreaded() throws Exception {
+		runTransformEncodeTest(4);
+	}
+	
+	@Test
+	public void testApplyDummycodeInvalidCodesDenseSparse() throws Exception {
+		FrameBlock in = createFrame();
+		Encoder encoder1 = EncoderFactory.createEncoder(SPEC_DUMMY, in.getColumnNames(), in.getNumColumns(), null);
+		encoder1.encode(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false), 1);
+		FrameBlock meta = getMetaData(encoder1, in);
+		
+		//apply to unseen and missing tokens (NaN codes)
+		FrameBlock in2 = createFrame();
+		in2.set(0, 0, "x0");
+		in2.set(1, 0, null);
+		in2.set(2, 2, "y2");
+		Encoder encoder2 = EncoderFactory.createEncoder(SPEC_DUMMY, in2.getColumnNames(), in2.getNumColumns(), meta);
+		RecodeAgent ra = null;
+		DummycodeAgent da = null;
+		for( Encoder cEncoder : ((EncoderComposite)encoder2).getEncoders() ) {
+			if( cEncoder instanceof RecodeAgent )
+				ra = (RecodeAgent) cEncoder;
+			else if( cEncoder instanceof DummycodeAgent )
+				da = (DummycodeAgent) cEncoder;
+		}
+		MatrixBlock codes = ra.apply(in2, new MatrixBlock(in2.getNumRows(), in2.getNumColumns(), false));
+		Assert.assertTrue(Double.isNaN(codes.quickGetValue(0, 0)));
+		Assert.assertTrue(Double.isNaN(codes.quickGetValue(1, 0)));
+		Assert.assertTrue(Double.isNaN(codes.quickGetValue(2, 2)));
+		codes.quickSetValue(3, 0, distinct+1); //out-of-range code
+		
+		//dense and sparse outputs skip invalid codes consistently
+		MatrixBlock dense = da.allocateApplyOutput(in2, codes);
+		da.applyRowRange(in2, codes, dense, 0, in2.getNumRows());
+		dense.recomputeNonZeros();
+		MatrixBlock sparse = da.applySparse(in2, codes, 1);
+		Assert.assertEquals(dense.getNonZeros(), sparse.getNonZeros());
+		compareMatrices(dense, sparse, 0);
+		for( int i=0; i<4; i++ ) {
+			double v2 = dense.quickGetValue(i, distinct);
+			Assert.assertEquals((v2!=0) ? 2 : 1, sparse.getSparseBlock().size(i));
+		}
+	}
+	
+	private static void runTransformEncodeTest(int k) throws Exception {
+		FrameBlock in = createFrame();
+		
+		//recoded reference and dummycoded output
+		Encoder encoder1 = EncoderFactory.createEncoder(SPEC_RECODE, in.getColumnNames(), in.getNumColumns(), null);
+		MatrixBlock out1 = encoder1.encode(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false), 1);
+		Encoder encoder2 = EncoderFactory.createEncoder(SPEC_DUMMY, in.getColumnNames(), in.getNumColumns(), null);
+		MatrixBlock out2 = encoder2.encode(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false), k);
+		
+		//check exactly sized csr output
+		Assert.assertTrue(out2.isInSparseFormat());
+		Assert.assertTrue(out2.getSparseBlock() instanceof SparseBlockCSR);
+		Assert.assertEquals(distinct+1+5, out2.getNumColumns());
+		long nnz = out2.getNonZeros();
+		Assert.assertEquals(nnz, out2.getSparseBlock().size());
+		out2.recomputeNonZeros();
+		Assert.assertEquals(nnz, out2.getNonZeros());
+		
+		//compare one-hot positions and pass-through values
+		for( int i=0; i<in.getNumRows(); i++ ) {
+			int c1 = (int)out1.quickGetValue(i, 0);
+			int c3 = (int)out1.quickGetValue(i, 2);
+			double v2 = out1.quickGetValue(i, 1);
+			Assert.assertEquals(1, out2.quickGetValue(i, c1-1), 0);
+			Assert.assertEquals(v2, out2.quickGetValue(i, distinct), 1e-10);
+			Assert.assertEquals(1, out2.quickGetValue(i, distinct+c3), 0);
+			Assert.assertEquals((v2!=0) ? 3 : 2, out2.getSparseBlock().size(i));
+		}
+	}
+	
+	private static FrameBlock createFrame() {
+		FrameBlock frame = new FrameBlock(new ValueType[]{ValueType.STRING, ValueType.STRING, ValueType.STRING});
+		for( int i=0; i<rows; i++ )
+			frame.appendRow(new String[]{
+				"a"+(i%distinct), 
+				(i%17==0) ? "0" : String.valueOf((i%101)*0.37),
+				"b"+(i%5)});
+		return frame;
+	}
+	
+	private static FrameBlock getMetaData(Encoder encoder, FrameBlock in) {
+		FrameBlock meta = encoder.getMetaData(new FrameBlock(in.getNumColumns(), ValueType.STRING));
+		meta.setColumnNames(in.getColumnNames());
+		return meta;
+	}
+	
+	private static void compareMatrices(MatrixBlock expected, MatrixBlock actual, double eps) {
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
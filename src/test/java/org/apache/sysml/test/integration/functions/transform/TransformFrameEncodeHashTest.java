@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.transform;
+
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.transform.decode.Decoder;
+import org.apache.sysml.runtime.transform.decode.DecoderFactory;
+import org.apache.sysml.runtime.transform.encode.Encoder;
+import org.apache.sysml.runtime.transform.encode.EncoderFactory;
+import org.apache.sysml.runtime.transform.encode.EncoderFeatureHash;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransformFrameEncodeHashTest extends AutomatedTestBase
+{
+	private final static int rows = 1731;
+	private final static int K = 17;
+	
+	private final static String SPEC_HASH = "{\"ids\": true, \"hash\": [1, 3], \"K\": "+K+"}";
+	private final static String SPEC_HASH_DUMMY = "{\"ids\": true, \"hash\": [1, 3], \"K\": "+K+", \"dummycode\": [3]}";
+	private final static String SPEC_HASH_RECODE = "{\"ids\": true, \"hash\": [1], \"recode\": [3], \"K\": "+K+"}";
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testEncodeHash() throws Exception {
+		runTransformEncodeHashTest(SPEC_HASH, false);
+	}
+	
+	@Test
+	public void testEncodeHashDummycode() throws Exception {
+		runTransformEncodeHashTest(SPEC_HASH_DUMMY, true);
+	}
+	
+	@Test
+	public void testEncodeHashRecode() throws Exception {
+		runTransformEncodeHashTest(SPEC_HASH_RECODE, false);
+	}
+	
+	private static void runTransformEncodeHashTest(String spec, boolean dummy) 
+		throws Exception
+	{
+		FrameBlock in = createFrame();
+		
+		//transform encode and apply with meta data
+		Encoder encoder = EncoderFactory.createEncoder(spec, in.getColumnNames(), in.getNumColumns(), null);
+		MatrixBlock out = encoder.encode(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false), 1);
+		FrameBlock meta = getMetaData(encoder, in);
+		Encoder encoder2 = EncoderFactory.createEncoder(spec, in.getColumnNames(), in.getNumColumns(), meta);
+		MatrixBlock out2 = encoder2.apply(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false));
+		
+		//check domain sizes and codes of hashed column 
+		Assert.assertEquals(K, meta.getColumnMetadata(0).getNumDistinct());
+		Assert.assertEquals(dummy ? in.getNumColumns()+K-1 : in.getNumColumns(), out.getNumColumns());
+		for( int i=0; i<in.getNumRows(); i++ ) {
+			double code = EncoderFeatureHash.getCode((String)in.get(i, 0), K);
+			Assert.assertTrue(Double.isNaN(code) || code >= 1 && code <= K);
+			Assert.assertEquals(code, out.quickGetValue(i, 0), 0);
+			if( dummy ) {
+				double code3 = EncoderFeatureHash.getCode((String)in.get(i, 2), K);
+				for( int k=1; k<=K; k++ )
+					Assert.assertEquals((k==code3) ? 1 : 0, out.quickGetValue(i, 2+k-1), 0);
+			}
+		}
+		compareMatrices(out, out2, 0);
+		
+		//check decoding of hashed columns into codes
+		Decoder decoder = DecoderFactory.createDecoder(spec, in.getColumnNames(), null, meta);
+		FrameBlock fout = decoder.decode(out, new FrameBlock(decoder.getSchema()));
+		for( int i=0; i<in.getNumRows(); i++ )
+			if( in.get(i, 0) != null )
+				Assert.assertEquals(out.quickGetValue(i, 0), 
+					Double.parseDouble(fout.get(i, 0).toString()), 0);
+	}
+	
+	private static FrameBlock createFrame() {
+		FrameBlock frame = new FrameBlock(new ValueType[]{ValueType.STRING, ValueType.STRING, ValueType.STRING});
+		for( int i=0; i<rows; i++ )
+			frame.appendRow(new String[]{
+				(i%11==0) ? null : "user"+(i*7919%1000003), //high cardinality
+				String.valueOf((i%101)*0.37),
+				"b"+(i%29)});
+		return frame;
+	}
+	
+	private static FrameBlock getMetaData(Encoder encoder, FrameBlock in) {
+		FrameBlock meta = encoder.getMetaData(new FrameBlock(in.getNumColumns(), ValueType.STRING));
+		meta.setColumnNames(in.getColumnNames());
+		return meta;
+	}
+	
+	private static void compareMatrices(MatrixBlock expected, MatrixBlock actual, double eps) {
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
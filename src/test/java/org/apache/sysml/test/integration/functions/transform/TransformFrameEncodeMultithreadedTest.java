@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.transform;
+
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.transform.encode.Encoder;
+import org.apache.sysml.runtime.transform.encode.EncoderFactory;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransformFrameEncodeMultithreadedTest extends AutomatedTestBase
+{
+	private final static int rows = 37531;
+	private final static int threads = 4;
+	
+	private final static String SPEC_RECODE = "{\"ids\": true, \"recode\": [1, 3]}";
+	private final static String SPEC_DUMMY = "{\"ids\": true, \"dummycode\": [1, 3]}";
+	private final static String SPEC_IMPUTE = "{\"ids\": true, \"recode\": [1, 3], "
+		+ "\"impute\": [{\"id\": 1, \"method\": \"global_mode\"}, {\"id\": 2, \"method\": \"global_mean\"}]}";
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testEncodeRecode() throws Exception {
+		runTransformEncodeTest(SPEC_RECODE, true, false);
+	}
+	
+	@Test
+	public void testEncodeDummycode() throws Exception {
+		runTransformEncodeTest(SPEC_DUMMY, false, false);
+	}
+	
+	@Test
+	public void testEncodeImpute() throws Exception {
+		runTransformEncodeTest(SPEC_IMPUTE, true, false);
+	}
+	
+	@Test
+	public void testEncodeRecodeDictionary() throws Exception {
+		runTransformEncodeTest(SPEC_RECODE, true, true);
+	}
+	
+	@Test
+	public void testEncodeImputeDictionary() throws Exception {
+		runTransformEncodeTest(SPEC_IMPUTE, true, true);
+	}
+	
+	private static void runTransformEncodeTest(String spec, boolean missing, boolean dict) 
+		throws Exception
+	{
+		FrameBlock in = createFrame(missing);
+		if( dict )
+			in.dictionaryEncodeColumns(0.1);
+		
+		//single- and multi-threaded transform encode
+		Encoder encoder1 = EncoderFactory.createEncoder(spec, in.getColumnNames(), in.getNumColumns(), null);
+		MatrixBlock out1 = encoder1.encode(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false), 1);
+		FrameBlock meta1 = getMetaData(encoder1, in);
+		Encoder encoder2 = EncoderFactory.createEncoder(spec, in.getColumnNames(), in.getNumColumns(), null);
+		MatrixBlock out2 = encoder2.encode(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false), threads);
+		FrameBlock meta2 = getMetaData(encoder2, in);
+		
+		//compare encoded data and meta data
+		Assert.assertEquals(out1.getNonZeros(), out2.getNonZeros());
+		compareMatrices(out1, out2, 1e-10);
+		for( int j=0; j<in.getNumColumns(); j++ ) {
+			Assert.assertEquals(meta1.getColumnMetadata(j).getNumDistinct(), meta2.getColumnMetadata(j).getNumDistinct());
+			Assert.assertEquals(meta1.getColumnMetadata(j).getMvValue(), meta2.getColumnMetadata(j).getMvValue());
+			for( int i=0; i<meta1.getNumRows(); i++ )
+				Assert.assertEquals(meta1.get(i, j), meta2.get(i, j));
+		}
+	}
+	
+	private static FrameBlock createFrame(boolean missing) {
+		FrameBlock frame = new FrameBlock(new ValueType[]{ValueType.STRING, ValueType.STRING, ValueType.STRING});
+		for( int i=0; i<rows; i++ )
+			frame.appendRow(new String[]{
+				(missing && i%11==0) ? null : "a"+((i*7)%(i%3==0 ? 3 : 23)),
+				(i%17==0) ? null : String.valueOf((i%101)*0.37),
+				"b"+(i%5)});
+		return frame;
+	}
+	
+	private static FrameBlock getMetaData(Encoder encoder, FrameBlock in) {
+		FrameBlock meta = encoder.getMetaData(new FrameBlock(in.getNumColumns(), ValueType.STRING));
+		meta.setColumnNames(in.getColumnNames());
+		return meta;
+	}
+	
+	private static void compareMatrices(MatrixBlock expected, MatrixBlock actual, double eps) {
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
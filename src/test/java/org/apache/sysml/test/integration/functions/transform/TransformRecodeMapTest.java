@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.transform;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.sysml.lops.Lop;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.io.IOUtilFunctions;
+import org.apache.sysml.runtime.matrix.data.FrameBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.transform.encode.Encoder;
+import org.apache.sysml.runtime.transform.encode.EncoderFactory;
+import org.apache.sysml.runtime.util.StringIntHashMap;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransformRecodeMapTest extends AutomatedTestBase
+{
+	private final static int distinct = 10937;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testRecodeMapPutGet() {
+		StringIntHashMap map = createRecodeMap();
+		Assert.assertEquals(distinct, map.size());
+		for( int i=0; i<distinct; i++ ) {
+			String key = "token"+i;
+			Assert.assertEquals(i+1, map.get(key));
+			Assert.assertEquals(i+1, map.get(key.toCharArray(), 0, key.length()));
+			Assert.assertEquals(key, map.getKey(i));
+		}
+		Assert.assertEquals(-1, map.get("token"+distinct));
+		Assert.assertEquals(-1, map.get((String)null));
+		Assert.assertEquals(-1, map.get("xtoken1x".toCharArray(), 1, 5));
+		Assert.assertEquals(2, map.get("xtoken1x".toCharArray(), 1, 6));
+		
+		//existing keys retain their codes
+		Assert.assertEquals(7, map.putIfAbsentSeq("token6"));
+		map.put("token6", 3);
+		Assert.assertEquals(3, map.get("token6"));
+		Assert.assertEquals(distinct, map.size());
+	}
+	
+	@Test
+	public void testRecodeMapSerialization() throws Exception {
+		StringIntHashMap map = createRecodeMap();
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bos);
+		oos.writeObject(map);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+		StringIntHashMap map2 = (StringIntHashMap) ois.readObject();
+		Assert.assertEquals(map.size(), map2.size());
+		for( int i=0; i<distinct; i++ ) {
+			Assert.assertEquals(map.getKey(i), map2.getKey(i));
+			Assert.assertEquals(i+1, map2.get("token"+i));
+		}
+	}
+	
+	@Test
+	public void testRecodeMetaDataRoundtrip() throws Exception {
+		FrameBlock in = new FrameBlock(new ValueType[]{ValueType.STRING, ValueType.STRING});
+		for( int i=0; i<3*distinct; i++ )
+			in.appendRow(new String[]{"token"+((i*31)%distinct), (i%7==0) ? null : "v"+(i%13)});
+		String spec = "{\"ids\": true, \"recode\": [1, 2]}";
+		
+		//encode and apply w/ meta data
+		Encoder encoder = EncoderFactory.createEncoder(spec, in.getColumnNames(), in.getNumColumns(), null);
+		MatrixBlock out1 = encoder.encode(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false));
+		FrameBlock meta = encoder.getMetaData(new FrameBlock(in.getNumColumns(), ValueType.STRING));
+		Encoder encoder2 = EncoderFactory.createEncoder(spec, in.getColumnNames(), in.getNumColumns(), meta);
+		MatrixBlock out2 = encoder2.apply(in, new MatrixBlock(in.getNumRows(), in.getNumColumns(), false));
+		
+		//check codes in order of first occurrence and meta data in order of codes
+		Assert.assertEquals(distinct, meta.getColumnMetadata(0).getNumDistinct());
+		Assert.assertEquals("token0"+Lop.DATATYPE_PREFIX+"1", meta.get(0, 0));
+		for( int i=0; i<in.getNumRows(); i++ )
+			for( int j=0; j<in.getNumColumns(); j++ )
+				Assert.assertEquals(out1.quickGetValue(i, j), out2.quickGetValue(i, j), 0);
+		Assert.assertTrue(Double.isNaN(out2.quickGetValue(0, 1)));
+	}
+	
+	@Test
+	public void testRecodeMapCounts() {
+		StringIntHashMap map = new StringIntHashMap();
+		for( int i=0; i<3*distinct; i++ )
+			map.add("token"+(i%distinct), 1);
+		Assert.assertEquals(distinct, map.size());
+		Assert.assertEquals(3, map.get("token7"));
+		Assert.assertEquals(10, map.add("token7", 7));
+	}
+	
+	@Test
+	public void testRecodeMetaDataCompactSerialization() throws Exception {
+		FrameBlock in = new FrameBlock(new ValueType[]{ValueType.STRING, ValueType.STRING});
+		for( int i=0; i<2*distinct; i++ )
+			in.appendRow(new String[]{"token"+(i%distinct), "v"+(i%13)+Lop.DATATYPE_PREFIX+"7"});
+		String spec = "{\"ids\": true, \"recode\": [1]}";
+		Encoder encoder = EncoderFactory.createEncoder(spec, in.getColumnNames(), in.getNumColumns(), null);
+		encoder.build(in);
+		FrameBlock meta = encoder.getMetaData(new FrameBlock(in.getNumColumns(), ValueType.STRING));
+		meta.set(0, 1, "v"+Lop.DATATYPE_PREFIX+"7"); //non-recode map column
+		
+		//serialize w/ tokens only for the recode map column
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(bos);
+		meta.write(dos);
+		dos.close();
+		Assert.assertEquals(meta.getExactSerializedSize(), bos.size());
+		long textSize = 0;
+		for( int i=0; i<meta.getNumRows(); i++ )
+			for( int j=0; j<meta.getNumColumns(); j++ )
+				textSize += IOUtilFunctions.getUTFSize((String)meta.get(i, j));
+		Assert.assertTrue(bos.size() < textSize);
+		
+		//deserialize and compare meta data entries
+		FrameBlock meta2 = new FrameBlock();
+		meta2.readFields(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+		Assert.assertEquals(meta.getNumRows(), meta2.getNumRows());
+		for( int i=0; i<meta.getNumRows(); i++ )
+			for( int j=0; j<meta.getNumColumns(); j++ )
+				Assert.assertEquals(meta.get(i, j), meta2.get(i, j));
+		Assert.assertEquals(distinct, meta2.getRecodeMap(0).size());
+	}
+	
+	private static StringIntHashMap createRecodeMap() {
+		StringIntHashMap map = new StringIntHashMap();
+		for( int i=0; i<distinct; i++ )
+			Assert.assertEquals(i+1, map.putIfAbsentSeq("token"+i));
+		return map;
+	}
+}
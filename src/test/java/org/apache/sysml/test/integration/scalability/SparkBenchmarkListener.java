@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.scalability;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.apache.spark.executor.TaskMetrics;
+import org.apache.spark.scheduler.SparkListener;
+import org.apache.spark.scheduler.SparkListenerJobEnd;
+import org.apache.spark.scheduler.SparkListenerJobStart;
+import org.apache.spark.scheduler.SparkListenerStageCompleted;
+import org.apache.spark.scheduler.SparkListenerTaskEnd;
+import org.apache.spark.scheduler.StageInfo;
+
+import scala.collection.JavaConversions;
+
+/**
+ * Spark listener that aggregates task metrics (task times, GC, shuffle and 
+ * input bytes, spills) per job group, which allows attributing all jobs and 
+ * stages of a single benchmark run without interference from other runs.
+ */
+public class SparkBenchmarkListener extends SparkListener 
+{
+	private final HashMap<Integer, String> _stageGroups = new HashMap<Integer, String>();
+	private final HashMap<String, BenchmarkMetrics> _metrics = new HashMap<String, BenchmarkMetrics>();
+	private final HashSet<Integer> _endedJobs = new HashSet<Integer>();
+	
+	@Override
+	public synchronized void onJobStart(SparkListenerJobStart jobStart) {
+		String group = (jobStart.properties() != null) ?
+			jobStart.properties().getProperty("spark.jobGroup.id") : null;
+		if( group == null )
+			return;
+		getOrCreateMetrics(group).jobs++;
+		for( StageInfo si : JavaConversions.seqAsJavaList(jobStart.stageInfos()) )
+			_stageGroups.put(si.stageId(), group);
+	}
+	
+	@Override
+	public synchronized void onJobEnd(SparkListenerJobEnd jobEnd) {
+		//job end events are posted after all task end events of the job
+		_endedJobs.add(jobEnd.jobId());
+		notifyAll();
+	}
+	
+	@Override
+	public synchronized void onStageCompleted(SparkListenerStageCompleted stageCompleted) {
+		String group = _stageGroups.get(stageCompleted.stageInfo().stageId());
+		if( group != null )
+			getOrCreateMetrics(group).stages++;
+	}
+	
+	@Override
+	public synchronized void onTaskEnd(SparkListenerTaskEnd taskEnd) {
+		String group = _stageGroups.get(taskEnd.stageId());
+		TaskMetrics tm = taskEnd.taskMetrics();
+		if( group == null || tm == null ) //e.g., failed tasks
+			return;
+		BenchmarkMetrics m = getOrCreateMetrics(group);
+		m.tasks++;
+		m.executorRunTime += tm.executorRunTime();
+		m.executorCpuTime += tm.executorCpuTime() / 1000000;
+		m.gcTime += tm.jvmGCTime();
+		m.inputBytes += tm.inputMetrics().bytesRead();
+		m.shuffleReadBytes += tm.shuffleReadMetrics().totalBytesRead();
+		m.shuffleWriteBytes += tm.shuffleWriteMetrics().bytesWritten();
+		m.spilledBytes += tm.memoryBytesSpilled() + tm.diskBytesSpilled();
+		m.resultBytes += tm.resultSize();
+	}
+	
+	public synchronized BenchmarkMetrics getMetrics(String group) {
+		return getOrCreateMetrics(group);
+	}
+	
+	/**
+	 * Waits until the end events of all given jobs have been received, 
+	 * which guarantees complete metrics of these jobs.
+	 * 
+	 * @param jobIds job ids, e.g., of a job group
+	 * @param timeout timeout in ms
+	 * @return true if all jobs ended within the timeout
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public synchronized boolean waitForJobs(int[] jobIds, long timeout) 
+		throws InterruptedException 
+	{
+		long end = System.currentTimeMillis() + timeout;
+		for( int jobId : jobIds ) {
+			while( !_endedJobs.contains(jobId) ) {
+				long remaining = end - System.currentTimeMillis();
+				if( remaining <= 0 )
+					return false;
+				wait(remaining);
+			}
+		}
+		return true;
+	}
+	
+	public synchronized void clear() {
+		_stageGroups.clear();
+		_metrics.clear();
+		_endedJobs.clear();
+	}
+	
+	private BenchmarkMetrics getOrCreateMetrics(String group) {
+		BenchmarkMetrics ret = _metrics.get(group);
+		if( ret == null ) {
+			ret = new BenchmarkMetrics();
+			_metrics.put(group, ret);
+		}
+		return ret;
+	}
+	
+	/**
+	 * Aggregated metrics of all jobs of one job group; times in ms.
+	 */
+	public static class BenchmarkMetrics 
+	{
+		public long jobs = 0;
+		public long stages = 0;
+		public long tasks = 0;
+		public long executorRunTime = 0;
+		public long executorCpuTime = 0;
+		public long gcTime = 0;
+		public long inputBytes = 0;
+		public long shuffleReadBytes = 0;
+		public long shuffleWriteBytes = 0;
+		public long spilledBytes = 0;
+		public long resultBytes = 0;
+		
+		public String toJSON() {
+			return "\"jobs\":" + jobs + ",\"stages\":" + stages + ",\"tasks\":" + tasks 
+				+ ",\"executorRunTimeMs\":" + executorRunTime + ",\"executorCpuTimeMs\":" + executorCpuTime
+				+ ",\"gcTimeMs\":" + gcTime + ",\"inputBytes\":" + inputBytes 
+				+ ",\"shuffleReadBytes\":" + shuffleReadBytes + ",\"shuffleWriteBytes\":" + shuffleWriteBytes
+				+ ",\"spilledBytes\":" + spilledBytes + ",\"resultBytes\":" + resultBytes;
+		}
+	}
+}
@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.scalability;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.api.java.function.PairFunction;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.api.mlcontext.BinaryBlockMatrix;
+import org.apache.sysml.api.mlcontext.MLContext;
+import org.apache.sysml.api.mlcontext.Script;
+import org.apache.sysml.api.mlcontext.ScriptFactory;
+import org.apache.sysml.hops.AggBinaryOp;
+import org.apache.sysml.hops.AggBinaryOp.MMultMethod;
+import org.apache.sysml.hops.BinaryOp;
+import org.apache.sysml.hops.BinaryOp.AppendMethod;
+import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.instructions.spark.utils.RDDConverterUtils;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.CSVFileFormatProperties;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.util.MapReduceTool;
+import org.apache.sysml.runtime.util.UtilFunctions;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.utils.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import scala.Tuple2;
+
+/**
+ * Benchmark and regression suite for individual Spark instructions in local 
+ * mode over synthetic inputs. Each benchmark forces the physical operator, 
+ * checks that it was actually selected, and reports wall time as well as the 
+ * task, GC, and shuffle metrics obtained from a spark listener as JSON lines.
+ * 
+ * By default, this suite runs as a fast regression test over small inputs.
+ * The following system properties configure actual benchmark runs:
+ * sysml.benchmark.rows, sysml.benchmark.cols, sysml.benchmark.sparsity, 
+ * sysml.benchmark.warmup, sysml.benchmark.reps, and sysml.benchmark.output
+ * (e.g., -Dsysml.benchmark.rows=100000 -Dsysml.benchmark.reps=5).
+ */
+public class SparkInstructionBenchmarkTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "SparkInstructionBenchmark";
+	private final static String TEST_DIR = "scalability/spark_instructions/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + SparkInstructionBenchmarkTest.class.getSimpleName() + "/";
+	
+	private final static int rows = Integer.getInteger("sysml.benchmark.rows", 3500);
+	private final static int cols = Integer.getInteger("sysml.benchmark.cols", 1700);
+	private final static double sparsity = Double.parseDouble(System.getProperty("sysml.benchmark.sparsity", "0.7"));
+	private final static int warmup = Integer.getInteger("sysml.benchmark.warmup", 0);
+	private final static int reps = Integer.getInteger("sysml.benchmark.reps", 1);
+	private final static String outfile = System.getProperty("sysml.benchmark.output", 
+		"target" + File.separator + "spark-benchmark.json");
+	private final static int blocksize = 1000;
+	private final static double eps = 1e-8;
+	
+	private static SparkConf conf;
+	private static JavaSparkContext sc;
+	private static MLContext ml;
+	private static SparkBenchmarkListener listener;
+	
+	@BeforeClass
+	public static void setUpClass() {
+		if (conf == null)
+			conf = SparkExecutionContext.createSystemMLSparkConf()
+				.setAppName("SparkInstructionBenchmarkTest").setMaster("local[*]");
+		if (sc == null) {
+			sc = new JavaSparkContext(conf);
+			listener = new SparkBenchmarkListener();
+			sc.sc().addSparkListener(listener);
+		}
+		ml = new MLContext(sc);
+		ml.setStatistics(true);
+	}
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] {"s"}));
+	}
+	
+	//expected results sum(Z), computed from row and column sums of the inputs
+	private enum ResultType {
+		XW,   //sum(X %*% W) = colSums(X) %*% rowSums(W)
+		XtY,  //sum(t(X) %*% Y) = t(rowSums(X)) %*% rowSums(Y)
+		XtX,  //sum(t(X) %*% X) = t(rowSums(X)) %*% rowSums(X)
+		XY,   //sum(cbind(X, Y)) = sum(X) + sum(Y)
+		X,    //sum(X)
+	}
+	
+	@Test
+	public void testCpmm() {
+		runMatrixMultBenchmark("cpmm", MMultMethod.CPMM, "Z = X %*% W;", ResultType.XW);
+	}
+	
+	@Test
+	public void testRmm() {
+		runMatrixMultBenchmark("rmm", MMultMethod.RMM, "Z = X %*% W;", ResultType.XW);
+	}
+	
+	@Test
+	public void testZipmm() {
+		runMatrixMultBenchmark("zipmm", MMultMethod.ZIPMM, "Z = t(X) %*% Y;", ResultType.XtY);
+	}
+	
+	@Test
+	public void testTsmm2() {
+		runMatrixMultBenchmark("tsmm2", MMultMethod.TSMM2, "Z = t(X) %*% X;", ResultType.XtX);
+	}
+	
+	@Test
+	public void testAppendG() {
+		BinaryOp.FORCED_APPEND_METHOD = AppendMethod.MR_GAPPEND;
+		try {
+			runBenchmark("gappend", "Z = cbind(X, Y);", cols, ResultType.XY, null);
+		}
+		finally {
+			BinaryOp.FORCED_APPEND_METHOD = null;
+		}
+	}
+	
+	@Test
+	public void testReblockTextcell() {
+		runBenchmark("rblk", "X = read($fname, format=\"text\", rows=$m, cols=$n);\nZ = X;", cols, ResultType.X, "text");
+	}
+	
+	@Test
+	public void testReblockCSV() {
+		runBenchmark("csvrblk", "X = read($fname, format=\"csv\", header=FALSE, rows=$m, cols=$n);\nZ = X;", cols, ResultType.X, "csv");
+	}
+	
+	private void runMatrixMultBenchmark(String opcode, MMultMethod method, String expr, ResultType rtype) {
+		AggBinaryOp.FORCED_MMULT_METHOD = method;
+		try {
+			//zipmm requires inputs with a single column block
+			int xcols = (method==MMultMethod.ZIPMM) ? Math.min(cols, blocksize) : cols;
+			runBenchmark(opcode, expr, xcols, rtype, null);
+		}
+		finally {
+			AggBinaryOp.FORCED_MMULT_METHOD = null;
+		}
+	}
+	
+	/**
+	 * Runs a single benchmark of the given spark instruction.
+	 * 
+	 * @param opcode expected spark instruction opcode
+	 * @param expr dml expression that computes Z
+	 * @param xcols number of columns of input X
+	 * @param rtype expected result, which also determines the inputs Y and W
+	 * @param format if not null, write X into a file of the given format 
+	 */
+	private void runBenchmark(String opcode, String expr, int xcols, ResultType rtype, String format) 
+	{
+		RUNTIME_PLATFORM platformOld = DMLScript.rtplatform;
+		getAndLoadTestConfiguration(TEST_NAME);
+		boolean inputY = (rtype == ResultType.XtY || rtype == ResultType.XY);
+		boolean inputW = (rtype == ResultType.XW);
+		
+		List<JavaPairRDD<MatrixIndexes,MatrixBlock>> rdds = new ArrayList<JavaPairRDD<MatrixIndexes,MatrixBlock>>();
+		try
+		{
+			//create and materialize synthetic inputs (not measured)
+			MatrixCharacteristics mcX = new MatrixCharacteristics(rows, xcols, blocksize, blocksize);
+			MatrixCharacteristics mcW = new MatrixCharacteristics(xcols, xcols, blocksize, blocksize);
+			JavaPairRDD<MatrixIndexes,MatrixBlock> X = createRandomMatrix(mcX, sparsity, 7);
+			JavaPairRDD<MatrixIndexes,MatrixBlock> Y = inputY ? createRandomMatrix(mcX, sparsity, 3) : null;
+			JavaPairRDD<MatrixIndexes,MatrixBlock> W = inputW ? createRandomMatrix(mcW, sparsity, 5) : null;
+			rdds.add(X); rdds.add(Y); rdds.add(W);
+			String fname = (format != null) ? input("X") : null;
+			if( format != null ) {
+				MapReduceTool.deleteFileIfExistOnHDFS(fname);
+				if( format.equals("text") )
+					RDDConverterUtils.binaryBlockToTextCell(X, mcX).saveAsTextFile(fname);
+				else
+					RDDConverterUtils.binaryBlockToCsv(X, mcX, new CSVFileFormatProperties(), true).saveAsTextFile(fname);
+			}
+			
+			//baseline result computed from row and column sums of the inputs (not measured)
+			double expected = computeExpectedResult(rtype, X, Y, W, mcX, mcW);
+			
+			//force distributed operations in order to isolate the spark instruction
+			DMLScript.rtplatform = RUNTIME_PLATFORM.SPARK;
+			for( int i=0; i<warmup+reps; i++ ) {
+				Script script = ScriptFactory.dml(expr + "\ns = sum(Z);").out("s");
+				if( format != null )
+					script.in("$fname", fname).in("$m", rows).in("$n", xcols);
+				else
+					script.in("X", new BinaryBlockMatrix(X, mcX));
+				if( inputY )
+					script.in("Y", new BinaryBlockMatrix(Y, mcX));
+				if( inputW )
+					script.in("W", new BinaryBlockMatrix(W, mcW));
+				
+				String group = "benchmark-" + opcode + "-" + i;
+				sc.setJobGroup(group, group);
+				Statistics.reset();
+				long t0 = System.nanoTime();
+				double s = ml.execute(script).getDouble("s");
+				long t1 = System.nanoTime();
+				sc.clearJobGroup();
+				
+				//check for selected physical operator and correct result
+				Assert.assertTrue("Missing spark instruction: "+opcode, 
+					heavyHittersContainsSubString("sp_"+opcode));
+				Assert.assertEquals("Wrong result of "+opcode, expected, s, eps*Math.max(1, Math.abs(expected)));
+				
+				if( i >= warmup ) {
+					//wait for all listener events of the job group via the public status tracker
+					int[] jobIds = sc.statusTracker().getJobIdsForGroup(group);
+					Assert.assertTrue("Incomplete spark metrics: "+opcode, listener.waitForJobs(jobIds, 60000));
+					writeResult(opcode, xcols, i-warmup, (t1-t0)/1000000, listener.getMetrics(group));
+				}
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			DMLScript.rtplatform = platformOld;
+			for( JavaPairRDD<MatrixIndexes,MatrixBlock> rdd : rdds )
+				if( rdd != null )
+					rdd.unpersist();
+			listener.clear();
+		}
+	}
+	
+	private static double computeExpectedResult(ResultType rtype, JavaPairRDD<MatrixIndexes,MatrixBlock> X, 
+		JavaPairRDD<MatrixIndexes,MatrixBlock> Y, JavaPairRDD<MatrixIndexes,MatrixBlock> W, 
+		MatrixCharacteristics mcX, MatrixCharacteristics mcW) 
+	{
+		switch( rtype ) {
+			case XW:  return dot(computeSums(X, mcX, false), computeSums(W, mcW, true));
+			case XtY: return dot(computeSums(X, mcX, true), computeSums(Y, mcX, true));
+			case XtX: {
+				double[] rsX = computeSums(X, mcX, true);
+				return dot(rsX, rsX);
+			}
+			case XY:  return sum(computeSums(X, mcX, true)) + sum(computeSums(Y, mcX, true));
+			case X:   return sum(computeSums(X, mcX, true));
+			default:
+				throw new RuntimeException("Unsupported result type: "+rtype);
+		}
+	}
+	
+	private static double[] computeSums(JavaPairRDD<MatrixIndexes,MatrixBlock> in, MatrixCharacteristics mc, boolean rowSums) {
+		return in.map(new ComputeBlockSumsFunction(mc, rowSums))
+			.reduce(new SumArraysFunction());
+	}
+	
+	private static double dot(double[] a, double[] b) {
+		double ret = 0;
+		for( int i=0; i<a.length; i++ )
+			ret += a[i] * b[i];
+		return ret;
+	}
+	
+	private static double sum(double[] a) {
+		double ret = 0;
+		for( double v : a )
+			ret += v;
+		return ret;
+	}
+	
+	private static JavaPairRDD<MatrixIndexes,MatrixBlock> createRandomMatrix(MatrixCharacteristics mc, double sparsity, long seed) {
+		List<MatrixIndexes> ixs = new ArrayList<MatrixIndexes>();
+		for( long i=1; i<=mc.getNumRowBlocks(); i++ )
+			for( long j=1; j<=mc.getNumColBlocks(); j++ )
+				ixs.add(new MatrixIndexes(i, j));
+		JavaPairRDD<MatrixIndexes,MatrixBlock> ret = sc
+			.parallelize(ixs, Math.min(ixs.size(), sc.defaultParallelism()*2))
+			.mapToPair(new CreateRandomBlockFunction(mc, sparsity, seed))
+			.persist(Checkpoint.DEFAULT_STORAGE_LEVEL);
+		ret.count(); //trigger materialization
+		return ret;
+	}
+	
+	private static void writeResult(String opcode, int cols, int rep, long time, SparkBenchmarkListener.BenchmarkMetrics metrics) 
+		throws IOException
+	{
+		String result = "{\"instruction\":\"" + opcode + "\",\"rows\":" + rows + ",\"cols\":" + cols 
+			+ ",\"sparsity\":" + sparsity + ",\"rep\":" + rep + ",\"wallTimeMs\":" + time 
+			+ "," + metrics.toJSON() + "}";
+		
+		File file = new File(outfile);
+		if( file.getParentFile() != null )
+			file.getParentFile().mkdirs();
+		try( BufferedWriter out = new BufferedWriter(new FileWriter(file, true)) ) {
+			out.write(result);
+			out.newLine();
+		}
+	}
+	
+	@AfterClass
+	public static void tearDownClass() {
+		// stop spark context to allow single jvm tests (otherwise the
+		// next test that tries to create a SparkContext would fail)
+		sc.stop();
+		sc = null;
+		conf = null;
+		listener = null;
+		
+		// clear status mlcontext and spark exec context
+		ml.close();
+		ml = null;
+	}
+	
+	private static class CreateRandomBlockFunction implements PairFunction<MatrixIndexes, MatrixIndexes, MatrixBlock> 
+	{
+		private static final long serialVersionUID = 4719246358716402619L;
+		
+		private final MatrixCharacteristics _mc;
+		private final double _sparsity;
+		private final long _seed;
+		
+		public CreateRandomBlockFunction(MatrixCharacteristics mc, double sparsity, long seed) {
+			_mc = mc;
+			_sparsity = sparsity;
+			_seed = seed;
+		}
+		
+		@Override
+		public Tuple2<MatrixIndexes, MatrixBlock> call(MatrixIndexes ix) throws Exception {
+			int lrlen = UtilFunctions.computeBlockSize(_mc.getRows(), ix.getRowIndex(), _mc.getRowsPerBlock());
+			int lclen = UtilFunctions.computeBlockSize(_mc.getCols(), ix.getColumnIndex(), _mc.getColsPerBlock());
+			long seed = _seed * 1000003 + (ix.getRowIndex()-1) * _mc.getNumColBlocks() + ix.getColumnIndex();
+			MatrixBlock mb = MatrixBlock.randOperations(lrlen, lclen, _sparsity, 0, 1, "uniform", seed);
+			return new Tuple2<MatrixIndexes, MatrixBlock>(ix, mb);
+		}
+	}
+	
+	private static class ComputeBlockSumsFunction implements Function<Tuple2<MatrixIndexes,MatrixBlock>, double[]> 
+	{
+		private static final long serialVersionUID = -2170926379531127283L;
+		
+		private final MatrixCharacteristics _mc;
+		private final boolean _rowSums;
+		
+		public ComputeBlockSumsFunction(MatrixCharacteristics mc, boolean rowSums) {
+			_mc = mc;
+			_rowSums = rowSums;
+		}
+		
+		@Override
+		public double[] call(Tuple2<MatrixIndexes, MatrixBlock> arg0) throws Exception {
+			MatrixIndexes ix = arg0._1();
+			MatrixBlock mb = arg0._2();
+			double[] ret = new double[(int)(_rowSums ? _mc.getRows() : _mc.getCols())];
+			int off = (int)(_rowSums ? (ix.getRowIndex()-1) * _mc.getRowsPerBlock() :
+				(ix.getColumnIndex()-1) * _mc.getColsPerBlock());
+			for( int i=0; i<mb.getNumRows(); i++ )
+				for( int j=0; j<mb.getNumColumns(); j++ )
+					ret[off + (_rowSums ? i : j)] += mb.quickGetValue(i, j);
+			return ret;
+		}
+	}
+	
+	private static class SumArraysFunction implements Function2<double[], double[], double[]> 
+	{
+		private static final long serialVersionUID = 6319286387430151867L;
+		
+		@Override
+		public double[] call(double[] arg0, double[] arg1) throws Exception {
+			for( int i=0; i<arg0.length; i++ )
+				arg0[i] += arg1[i];
+			return arg0;
+		}
+	}
+}
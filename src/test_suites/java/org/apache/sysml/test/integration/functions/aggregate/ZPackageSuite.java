@@ -54,6 +54,7 @@ import org.junit.runners.Suite;
 	FullRowAggregateTest.class,
 	
 	PushdownSumBinaryTest.class,
+	TreeAggregationTest.class,
 })
 
 
@@ -29,6 +29,8 @@ import org.junit.runners.Suite;
 	BinUaggChainTest.class,
 	
 	CentralMomentTest.class,
+	CoPartitionMMChainSparkTest.class,
+	CoPartitionMMSparkMatrixMultiplicationTest.class,
 	CovarianceTest.class,
 	
 	DiagMatrixMultiplicationTest.class,
@@ -53,6 +55,7 @@ import org.junit.runners.Suite;
 	TransposeMatrixMultiplicationTest.class,
 	UaggOuterChainTest.class,
 	UltraSparseMRMatrixMultiplicationTest.class,
+	VersionedBroadcastMMTest.class,
 	ZipMMSparkMatrixMultiplicationTest.class
 	
 })
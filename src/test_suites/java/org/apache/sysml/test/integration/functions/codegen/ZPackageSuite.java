@@ -33,6 +33,7 @@ import org.junit.runners.Suite;
 	AlgorithmMLogreg.class,
 	AlgorithmPNMF.class,
 	CellwiseTmplTest.class,
+	CodegenCompilerTest.class,
 	DAGCellwiseTmplTest.class,
 	OuterProdTmplTest.class,
 	RowAggTmplTest.class,
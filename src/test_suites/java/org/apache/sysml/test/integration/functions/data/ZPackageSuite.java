@@ -39,6 +39,7 @@ import org.junit.runners.Suite;
 	ReblockTest.class,
 	SampleTest.class,
 	SequenceTest.class,
+	SkewAwarePartitionerTest.class,
 	VariableTest.class,
 	WriteMMTest.class,
 	WriteTest.class,
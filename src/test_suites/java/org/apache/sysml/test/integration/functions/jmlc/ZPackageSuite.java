@@ -31,6 +31,7 @@ import org.junit.runners.Suite;
 	FrameEncodeTest.class,
 	FrameIndexingAppendTest.class,
 	FrameLeftIndexingTest.class,
+	FramePreparedEncoderTest.class,
 	FrameReadMetaTest.class,
 	FrameTransformTest.class,
 	JMLCInputOutputTest.class,
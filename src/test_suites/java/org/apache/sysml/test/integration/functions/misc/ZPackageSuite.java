@@ -43,6 +43,7 @@ import org.junit.runners.Suite;
 	NrowNcolStringTest.class,
 	NrowNcolUnknownCSVReadTest.class,
 	OuterTableExpandTest.class,
+	ParallelCompilationTest.class,
 	PrintExpressionTest.class,
 	PrintMatrixTest.class,
 	ReadAfterWriteTest.class,
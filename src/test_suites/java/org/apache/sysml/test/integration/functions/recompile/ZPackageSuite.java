@@ -39,11 +39,14 @@ import org.junit.runners.Suite;
 	RandJobRecompileTest.class,
 	RandRecompileTest.class,
 	RandSizeExpressionEvalTest.class,
+	RecompilePlanCacheTest.class,
 	ReblockRecompileTest.class,
 	RecursiveFunctionRecompileTest.class,
 	RemoveEmptyPotpourriTest.class,
 	RemoveEmptyRecompileTest.class,
 	RewriteComplexMapMultChainTest.class,
+	SparkAdaptiveNnzTest.class,
+	SparkAdaptivePlanTest.class,
 	SparsityFunctionRecompileTest.class,
 	SparsityRecompileTest.class
 })
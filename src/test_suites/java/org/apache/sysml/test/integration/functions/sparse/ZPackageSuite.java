@@ -28,6 +28,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 	SparseBlockAlignment.class,
 	SparseBlockAppendSort.class,
+	SparseBlockCCSRKernels.class,
 	SparseBlockDelete.class,
 	SparseBlockGetFirstIndex.class,
 	SparseBlockGetSet.class,
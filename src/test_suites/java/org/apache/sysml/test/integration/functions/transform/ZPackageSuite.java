@@ -37,7 +37,11 @@ import org.junit.runners.Suite;
 	TransformFrameEncodeApplyTest.class,
 	TransformFrameEncodeDecodeTest.class,
 	TransformFrameEncodeDecodeTokenTest.class,
+	TransformFrameEncodeDummycodeSparseTest.class,
+	TransformFrameEncodeHashTest.class,
+	TransformFrameEncodeMultithreadedTest.class,
 	TransformReadMetaTest.class,
+	TransformRecodeMapTest.class,
 	TransformTest.class,
 })
 
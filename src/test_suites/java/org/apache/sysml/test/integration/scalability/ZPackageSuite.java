@@ -27,7 +27,8 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 	LinearRegressionTest.class,
-	PageRankTest.class
+	PageRankTest.class,
+	SparkInstructionBenchmarkTest.class
 })
 
 